@@ -0,0 +1,136 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.data.io.anvil;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many chunks per second can be written to region files, when
+ * the regions are written one after another and when every region is written
+ * by its own thread, like the bulk pre-generation does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RegionWriteBenchmark {
+
+    private static final int REGIONS = 4;
+    private static final int REGION_SIZE = 32;
+    private static final int CHUNKS = REGIONS * REGION_SIZE * REGION_SIZE;
+
+    // The size of the serialized data of a chunk, before compression
+    private static final int CHUNK_DATA_SIZE = 16 * 1024;
+
+    @Param({ "1", "4" })
+    public int threads;
+
+    private Path directory;
+    private byte[] chunkData;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        this.directory = Files.createTempDirectory("region-benchmark");
+        this.chunkData = new byte[CHUNK_DATA_SIZE];
+        final Random random = new Random(1L);
+        for (int i = 0; i < this.chunkData.length; i++) {
+            // Long runs with a few different values, like chunk data
+            this.chunkData[i] = (byte) ((i / 37) % 5 == 0 ? random.nextInt(4) : i % 7);
+        }
+        this.executor = Executors.newFixedThreadPool(this.threads);
+    }
+
+    @Setup(Level.Invocation)
+    public void deleteRegions() throws IOException {
+        for (int regionX = 0; regionX < REGIONS; regionX++) {
+            Files.deleteIfExists(getRegionFile(regionX));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        this.executor.shutdownNow();
+        deleteRegions();
+        Files.deleteIfExists(this.directory);
+    }
+
+    private Path getRegionFile(int regionX) {
+        return this.directory.resolve("r." + regionX + ".0.mca");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHUNKS)
+    public void writeRegions() throws Exception {
+        final List<Future<?>> futures = new ArrayList<>();
+        for (int regionX = 0; regionX < REGIONS; regionX++) {
+            final int regionX0 = regionX;
+            futures.add(this.executor.submit(() -> {
+                writeRegion(regionX0);
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+
+    private void writeRegion(int regionX) throws IOException {
+        final RegionFile regionFile = new RegionFile(getRegionFile(regionX), regionX, 0);
+        try {
+            for (int x = 0; x < REGION_SIZE; x++) {
+                for (int z = 0; z < REGION_SIZE; z++) {
+                    try (DataOutputStream dos = regionFile.getChunkDataOutputStream(x, z)) {
+                        dos.write(this.chunkData);
+                    }
+                }
+            }
+        } finally {
+            regionFile.close();
+        }
+    }
+}
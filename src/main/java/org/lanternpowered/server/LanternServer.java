@@ -360,6 +360,9 @@ private void pulse() {
         // Pulse the world threads
         this.worldManager.pulse();
         AdvancementTrees.INSTANCE.pulse();
+        // Flush all the messages that were send by the main thread during this tick,
+        // the world threads flush the messages of their players at the end of their tick
+        this.networkManager.flushSessions();
     }
 
     /**
@@ -0,0 +1,158 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.block;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import org.lanternpowered.server.block.provider.property.PropertyProvider;
+import org.lanternpowered.server.game.registry.type.block.BlockRegistryModule;
+import org.spongepowered.api.block.BlockState;
+import org.spongepowered.api.block.BlockTypes;
+import org.spongepowered.api.data.Property;
+import org.spongepowered.api.data.property.block.LightEmissionProperty;
+import org.spongepowered.api.data.property.block.MatterProperty;
+import org.spongepowered.api.data.property.block.SolidCubeProperty;
+
+import javax.annotation.Nullable;
+
+/**
+ * A table with the precomputed light properties of all the block states, indexed
+ * by the packed internal id (internal id and data) of the state. The properties
+ * are computed lazily the first time that a state is looked up.
+ *
+ * <p>There is no opacity property available, so the opacity is derived from the
+ * {@link SolidCubeProperty} and the {@link MatterProperty} of the state.</p>
+ */
+public final class BlockLightProperties {
+
+    /**
+     * The opacity of liquid blocks.
+     */
+    private static final int LIQUID_OPACITY = 3;
+
+    /**
+     * The flag that marks a computed entry, the emission
+     * and opacity are stored in the lower 8 bits.
+     */
+    private static final int COMPUTED = 0x100;
+
+    private static final int[] properties = new int[1 << 16];
+
+    /**
+     * Gets the light emission of the block state with the given packed internal id.
+     *
+     * @param type The packed internal id
+     * @return The light emission, between 0 and 15
+     */
+    public static int getEmission(short type) {
+        return (getProperties(type) >> 4) & 0xf;
+    }
+
+    /**
+     * Gets the light opacity of the block state with the given packed internal id.
+     *
+     * @param type The packed internal id
+     * @return The light opacity, between 0 and 15
+     */
+    public static int getOpacity(short type) {
+        return getProperties(type) & 0xf;
+    }
+
+    /**
+     * Gets whether the light properties of the two block states are different.
+     *
+     * @param type The packed internal id of the first state
+     * @param otherType The packed internal id of the second state
+     * @return Whether the properties are different
+     */
+    public static boolean differ(short type, short otherType) {
+        return type != otherType && (getProperties(type) & 0xff) != (getProperties(otherType) & 0xff);
+    }
+
+    /**
+     * Sets the light properties of the block state with the given packed
+     * internal id, this overrides the properties derived from the state.
+     *
+     * @param type The packed internal id
+     * @param emission The light emission, between 0 and 15
+     * @param opacity The light opacity, between 0 and 15
+     */
+    public static void set(short type, int emission, int opacity) {
+        checkArgument(emission >= 0 && emission <= 15, "The emission must be between 0 and 15, got %s", emission);
+        checkArgument(opacity >= 0 && opacity <= 15, "The opacity must be between 0 and 15, got %s", opacity);
+        properties[type & 0xffff] = COMPUTED | emission << 4 | opacity;
+    }
+
+    private static int getProperties(short type) {
+        final int index = type & 0xffff;
+        int value = properties[index];
+        if (value == 0) {
+            // Computing the same properties concurrently is harmless
+            value = computeProperties(type);
+            properties[index] = value;
+        }
+        return value;
+    }
+
+    private static int computeProperties(short type) {
+        final BlockState blockState = BlockRegistryModule.get().getStateByInternalIdAndData(type).orElse(null);
+        if (blockState == null || blockState.getType() == BlockTypes.AIR) {
+            return COMPUTED;
+        }
+        final LanternBlockType blockType = (LanternBlockType) blockState.getType();
+        final LightEmissionProperty emissionProperty = getProperty(blockType, blockState, LightEmissionProperty.class);
+        int emission = emissionProperty == null || emissionProperty.getValue() == null ? 0 : emissionProperty.getValue();
+        emission = Math.max(0, Math.min(15, emission));
+        int opacity = 0;
+        final SolidCubeProperty solidCubeProperty = getProperty(blockType, blockState, SolidCubeProperty.class);
+        if (solidCubeProperty != null && Boolean.TRUE.equals(solidCubeProperty.getValue())) {
+            opacity = 15;
+        } else {
+            final MatterProperty matterProperty = getProperty(blockType, blockState, MatterProperty.class);
+            if (matterProperty != null && matterProperty.getValue() == MatterProperty.Matter.LIQUID) {
+                opacity = LIQUID_OPACITY;
+            }
+        }
+        return COMPUTED | emission << 4 | opacity;
+    }
+
+    @Nullable
+    private static <T extends Property<?, ?>> T getProperty(LanternBlockType blockType, BlockState blockState, Class<T> propertyType) {
+        final PropertyProvider<T> provider = blockType.getPropertyProviderCollection().get(propertyType).orElse(null);
+        if (provider == null) {
+            return null;
+        }
+        try {
+            return provider.get(blockState, null, null);
+        } catch (RuntimeException e) {
+            // The property depends on the location, fall back to the default value
+            return null;
+        }
+    }
+
+    private BlockLightProperties() {
+    }
+}
@@ -26,24 +26,40 @@
 package org.lanternpowered.server.block;
 
 import com.google.common.base.MoreObjects;
-import org.lanternpowered.server.game.LanternGame;
 import org.spongepowered.api.block.ScheduledBlockUpdate;
 import org.spongepowered.api.world.Location;
 import org.spongepowered.api.world.World;
 
+import java.util.function.LongSupplier;
+
+import javax.annotation.Nullable;
+
 public class LanternScheduledBlockUpdate implements ScheduledBlockUpdate, Comparable<LanternScheduledBlockUpdate> {
 
     private final Location<World> location;
+    private final LongSupplier clock;
+    private final long entryId;
 
     private long endTicks;
     private int priority;
-    private int entryId;
 
-    public LanternScheduledBlockUpdate(int entryId, Location<World> location, int ticks, int priority) {
-        this.setTicks(ticks);
+    // The wheel this update is scheduled in, if any
+    @Nullable ScheduledBlockUpdateWheel wheel;
+
+    // The slot of the wheel this update is linked in
+    int slot = ScheduledBlockUpdateWheel.NO_SLOT;
+    @Nullable LanternScheduledBlockUpdate prev;
+    @Nullable LanternScheduledBlockUpdate next;
+
+    // The next update at the same position
+    @Nullable LanternScheduledBlockUpdate nextAtPosition;
+
+    LanternScheduledBlockUpdate(long entryId, Location<World> location, LongSupplier clock, int ticks, int priority) {
+        this.endTicks = clock.getAsLong() + ticks;
         this.priority = priority;
         this.location = location;
         this.entryId = entryId;
+        this.clock = clock;
     }
 
     @Override
@@ -51,14 +67,36 @@ public Location<World> getLocation() {
         return this.location;
     }
 
+    /**
+     * Gets the game tick at which this update should be processed.
+     *
+     * @return The end ticks
+     */
+    public long getEndTicks() {
+        return this.endTicks;
+    }
+
+    void setEndTicks(long endTicks) {
+        this.endTicks = endTicks;
+    }
+
+    void setPriority0(int priority) {
+        this.priority = priority;
+    }
+
     @Override
     public int getTicks() {
-        return (int) (this.endTicks - LanternGame.currentTimeTicks());
+        return (int) (this.endTicks - this.clock.getAsLong());
     }
 
     @Override
     public void setTicks(int ticks) {
-        this.endTicks = LanternGame.currentTimeTicks() + ticks;
+        final ScheduledBlockUpdateWheel wheel = this.wheel;
+        if (wheel != null) {
+            wheel.setTicks(this, ticks);
+        } else {
+            this.endTicks = this.clock.getAsLong() + ticks;
+        }
     }
 
     @Override
@@ -68,7 +106,12 @@ public int getPriority() {
 
     @Override
     public void setPriority(int priority) {
-        this.priority = priority;
+        final ScheduledBlockUpdateWheel wheel = this.wheel;
+        if (wheel != null) {
+            wheel.setPriority(this, priority);
+        } else {
+            this.priority = priority;
+        }
     }
 
     @Override
@@ -80,7 +123,7 @@ public int compareTo(LanternScheduledBlockUpdate o) {
             return 1;
         }
         if (this.priority != o.priority) {
-            return this.priority - o.priority;
+            return Integer.compare(this.priority, o.priority);
         }
         if (this.entryId < o.entryId) {
             return -1;
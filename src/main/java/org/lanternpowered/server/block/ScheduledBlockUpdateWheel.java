@@ -0,0 +1,511 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.block;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.collect.ImmutableList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.shorts.Short2ObjectOpenHashMap;
+import org.lanternpowered.server.game.LanternGame;
+import org.lanternpowered.server.world.chunk.LanternChunk;
+import org.spongepowered.api.block.ScheduledBlockUpdate;
+import org.spongepowered.api.world.Location;
+import org.spongepowered.api.world.World;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+import javax.annotation.Nullable;
+
+/**
+ * A hierarchical timing wheel that holds all the {@link ScheduledBlockUpdate}s of a world.
+ *
+ * <p>Updates that are due within {@link #LEVEL_0_SLOTS} ticks are stored in a slot per
+ * tick, updates further in the future are stored in the coarser levels and cascaded
+ * down when their slot is reached. All the updates are also indexed by their position,
+ * so looking up and cancelling updates doesn't require a scan over the wheel.</p>
+ *
+ * <p>Updates that are due are moved to a ready queue, ordered by their end ticks,
+ * priority and entry id. Only a limited amount of updates is processed per tick,
+ * the remaining ones stay in the ready queue and are processed first the next tick.</p>
+ *
+ * <p>Updates can only be scheduled in chunks that are opened, the updates of a chunk
+ * are saved with the chunk. When a chunk unloads, it is first closed so that no updates
+ * can be added or processed while the chunk is being saved, and then removed.</p>
+ */
+public final class ScheduledBlockUpdateWheel {
+
+    static final int NO_SLOT = -1;
+    private static final int READY_SLOT = -2;
+
+    private static final int LEVEL_0_BITS = 8;
+    private static final int LEVEL_N_BITS = 6;
+
+    private static final int LEVEL_0_SLOTS = 1 << LEVEL_0_BITS;
+    private static final int LEVEL_N_SLOTS = 1 << LEVEL_N_BITS;
+
+    private static final int LEVEL_1_SHIFT = LEVEL_0_BITS;
+    private static final int LEVEL_2_SHIFT = LEVEL_1_SHIFT + LEVEL_N_BITS;
+    private static final int OVERFLOW_SHIFT = LEVEL_2_SHIFT + LEVEL_N_BITS;
+
+    private static final int LEVEL_1_OFFSET = LEVEL_0_SLOTS;
+    private static final int LEVEL_2_OFFSET = LEVEL_1_OFFSET + LEVEL_N_SLOTS;
+    private static final int OVERFLOW_SLOT = LEVEL_2_OFFSET + LEVEL_N_SLOTS;
+
+    private final Object lock = new Object();
+    private final World world;
+    private final LongSupplier clock;
+
+    // The heads of the linked lists of all the slots, the last one is the overflow slot
+    private final LanternScheduledBlockUpdate[] slots = new LanternScheduledBlockUpdate[OVERFLOW_SLOT + 1];
+
+    // All the updates that are due, but not processed yet, a sorted
+    // set so that cancelled updates can be removed in O(log n)
+    private final TreeSet<LanternScheduledBlockUpdate> ready = new TreeSet<>();
+
+    // The chunks in which updates can be scheduled and processed
+    private final LongOpenHashSet openChunks = new LongOpenHashSet();
+
+    // The updates by chunk and the local position within the chunk
+    private final Long2ObjectOpenHashMap<Short2ObjectOpenHashMap<LanternScheduledBlockUpdate>> updatesByChunk =
+            new Long2ObjectOpenHashMap<>();
+
+    // The updates that are being processed by the current pulse
+    private final List<LanternScheduledBlockUpdate> processing = new ArrayList<>();
+
+    // The next tick that should be processed by the wheel
+    private long nextTick;
+
+    private long entryCounter;
+    private int size;
+
+    public ScheduledBlockUpdateWheel(World world) {
+        this(world, LanternGame::currentTimeTicks);
+    }
+
+    ScheduledBlockUpdateWheel(World world, LongSupplier clock) {
+        this.world = checkNotNull(world, "world");
+        this.clock = checkNotNull(clock, "clock");
+        this.nextTick = clock.getAsLong();
+    }
+
+    /**
+     * Gets the amount of updates that are scheduled.
+     *
+     * @return The size
+     */
+    public int size() {
+        synchronized (this.lock) {
+            return this.size;
+        }
+    }
+
+    /**
+     * Schedules a new update at the given position.
+     *
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @param z The z coordinate
+     * @param priority The priority
+     * @param ticks The amount of ticks before the update is processed
+     * @return The scheduled update
+     * @throws IllegalStateException If the chunk at the position isn't loaded
+     */
+    public LanternScheduledBlockUpdate add(int x, int y, int z, int priority, int ticks) {
+        final Location<World> location = new Location<>(this.world, x, y, z);
+        final long chunkKey = LanternChunk.key(x >> 4, z >> 4);
+        synchronized (this.lock) {
+            checkState(this.openChunks.contains(chunkKey), "The chunk at (%s, %s) isn't loaded", x >> 4, z >> 4);
+            final LanternScheduledBlockUpdate update = new LanternScheduledBlockUpdate(
+                    this.entryCounter++, location, this.clock, ticks, priority);
+            update.wheel = this;
+            Short2ObjectOpenHashMap<LanternScheduledBlockUpdate> chunkUpdates = this.updatesByChunk.get(chunkKey);
+            if (chunkUpdates == null) {
+                chunkUpdates = new Short2ObjectOpenHashMap<>();
+                this.updatesByChunk.put(chunkKey, chunkUpdates);
+            }
+            final short index = index(x, y, z);
+            update.nextAtPosition = chunkUpdates.get(index);
+            chunkUpdates.put(index, update);
+            insert(update, this.nextTick);
+            this.size++;
+            return update;
+        }
+    }
+
+    /**
+     * Gets all the updates that are scheduled at the given position.
+     *
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @param z The z coordinate
+     * @return The updates
+     */
+    public List<ScheduledBlockUpdate> get(int x, int y, int z) {
+        synchronized (this.lock) {
+            final Short2ObjectOpenHashMap<LanternScheduledBlockUpdate> chunkUpdates =
+                    this.updatesByChunk.get(LanternChunk.key(x >> 4, z >> 4));
+            if (chunkUpdates == null) {
+                return ImmutableList.of();
+            }
+            LanternScheduledBlockUpdate update = chunkUpdates.get(index(x, y, z));
+            if (update == null) {
+                return ImmutableList.of();
+            }
+            final ImmutableList.Builder<ScheduledBlockUpdate> builder = ImmutableList.builder();
+            for (; update != null; update = update.nextAtPosition) {
+                builder.add(update);
+            }
+            return builder.build();
+        }
+    }
+
+    /**
+     * Gets all the updates that are scheduled within the chunk at the given coordinates.
+     *
+     * @param chunkX The chunk x coordinate
+     * @param chunkZ The chunk z coordinate
+     * @return The updates
+     */
+    public List<LanternScheduledBlockUpdate> getChunkUpdates(int chunkX, int chunkZ) {
+        synchronized (this.lock) {
+            final Short2ObjectOpenHashMap<LanternScheduledBlockUpdate> chunkUpdates =
+                    this.updatesByChunk.get(LanternChunk.key(chunkX, chunkZ));
+            if (chunkUpdates == null) {
+                return ImmutableList.of();
+            }
+            final ImmutableList.Builder<LanternScheduledBlockUpdate> builder = ImmutableList.builder();
+            for (LanternScheduledBlockUpdate update : chunkUpdates.values()) {
+                for (; update != null; update = update.nextAtPosition) {
+                    builder.add(update);
+                }
+            }
+            return builder.build();
+        }
+    }
+
+    /**
+     * Gets whether there are updates scheduled within the chunk at the given coordinates.
+     *
+     * @param chunkX The chunk x coordinate
+     * @param chunkZ The chunk z coordinate
+     * @return Has updates
+     */
+    public boolean hasUpdates(int chunkX, int chunkZ) {
+        synchronized (this.lock) {
+            return this.updatesByChunk.containsKey(LanternChunk.key(chunkX, chunkZ));
+        }
+    }
+
+    /**
+     * Opens the chunk at the given coordinates, this should be called
+     * before the chunk is read so that its updates can be restored.
+     *
+     * @param chunkX The chunk x coordinate
+     * @param chunkZ The chunk z coordinate
+     */
+    public void openChunk(int chunkX, int chunkZ) {
+        synchronized (this.lock) {
+            this.openChunks.add(LanternChunk.key(chunkX, chunkZ));
+        }
+    }
+
+    /**
+     * Closes the chunk at the given coordinates, new updates will be rejected
+     * and the scheduled ones will no longer be processed. The scheduled updates
+     * remain available through {@link #getChunkUpdates(int, int)} so they can
+     * be saved, after which {@link #removeChunk(int, int)} should be called.
+     *
+     * @param chunkX The chunk x coordinate
+     * @param chunkZ The chunk z coordinate
+     */
+    public void closeChunk(int chunkX, int chunkZ) {
+        synchronized (this.lock) {
+            this.openChunks.remove(LanternChunk.key(chunkX, chunkZ));
+        }
+    }
+
+    /**
+     * Closes the chunk and removes all the updates that are scheduled within
+     * the chunk at the given coordinates, this should be called when the
+     * chunk is unloaded and its updates are saved.
+     *
+     * @param chunkX The chunk x coordinate
+     * @param chunkZ The chunk z coordinate
+     */
+    public void removeChunk(int chunkX, int chunkZ) {
+        synchronized (this.lock) {
+            this.openChunks.remove(LanternChunk.key(chunkX, chunkZ));
+            final Short2ObjectOpenHashMap<LanternScheduledBlockUpdate> chunkUpdates =
+                    this.updatesByChunk.remove(LanternChunk.key(chunkX, chunkZ));
+            if (chunkUpdates == null) {
+                return;
+            }
+            for (LanternScheduledBlockUpdate update : chunkUpdates.values()) {
+                while (update != null) {
+                    final LanternScheduledBlockUpdate next = update.nextAtPosition;
+                    unlink(update);
+                    update.nextAtPosition = null;
+                    update.wheel = null;
+                    this.size--;
+                    update = next;
+                }
+            }
+        }
+    }
+
+    /**
+     * Cancels the {@link ScheduledBlockUpdate}.
+     *
+     * @param update The update
+     * @return Whether the update was scheduled in this wheel
+     */
+    public boolean remove(ScheduledBlockUpdate update) {
+        checkNotNull(update, "update");
+        if (!(update instanceof LanternScheduledBlockUpdate)) {
+            return false;
+        }
+        final LanternScheduledBlockUpdate update1 = (LanternScheduledBlockUpdate) update;
+        synchronized (this.lock) {
+            if (update1.wheel != this) {
+                return false;
+            }
+            unlink(update1);
+            removeFromPosition(update1);
+            update1.wheel = null;
+            this.size--;
+            return true;
+        }
+    }
+
+    void setTicks(LanternScheduledBlockUpdate update, int ticks) {
+        synchronized (this.lock) {
+            final long endTicks = this.clock.getAsLong() + ticks;
+            // Unlink before changing the end ticks, they determine the order in the ready queue
+            if (update.wheel == this) {
+                unlink(update);
+                update.setEndTicks(endTicks);
+                insert(update, this.nextTick);
+            } else {
+                update.setEndTicks(endTicks);
+            }
+        }
+    }
+
+    void setPriority(LanternScheduledBlockUpdate update, int priority) {
+        synchronized (this.lock) {
+            // The ready queue needs to be resorted
+            if (update.slot == READY_SLOT) {
+                this.ready.remove(update);
+                update.setPriority0(priority);
+                this.ready.add(update);
+            } else {
+                update.setPriority0(priority);
+            }
+        }
+    }
+
+    /**
+     * Advances the wheel to the current tick and processes the updates that are due. The
+     * updates are passed to the consumer outside of the lock, so new updates can be
+     * scheduled by the consumer. Updates within closed chunks are skipped.
+     *
+     * @param budget The maximum amount of updates to process
+     * @param consumer The consumer that processes the updates
+     * @return The amount of processed updates
+     */
+    public int pulse(int budget, Consumer<LanternScheduledBlockUpdate> consumer) {
+        checkArgument(budget >= 0, "budget may not be negative");
+        final List<LanternScheduledBlockUpdate> processing = this.processing;
+        synchronized (this.lock) {
+            final long currentTick = this.clock.getAsLong();
+            while (this.nextTick <= currentTick) {
+                advance(this.nextTick++);
+            }
+            final Iterator<LanternScheduledBlockUpdate> it = this.ready.iterator();
+            while (processing.size() < budget && it.hasNext()) {
+                final LanternScheduledBlockUpdate update = it.next();
+                // The chunk is being unloaded, the update will be saved with it
+                if (!this.openChunks.contains(chunkKey(update))) {
+                    continue;
+                }
+                it.remove();
+                update.slot = NO_SLOT;
+                removeFromPosition(update);
+                update.wheel = null;
+                this.size--;
+                processing.add(update);
+            }
+        }
+        final int count = processing.size();
+        try {
+            for (int i = 0; i < count; i++) {
+                consumer.accept(processing.get(i));
+            }
+        } finally {
+            processing.clear();
+        }
+        return count;
+    }
+
+    private void advance(long tick) {
+        // Cascade the higher levels down, starting with the coarsest one
+        if ((tick & ((1L << OVERFLOW_SHIFT) - 1)) == 0) {
+            cascade(OVERFLOW_SLOT, tick);
+        }
+        if ((tick & ((1L << LEVEL_2_SHIFT) - 1)) == 0) {
+            cascade(LEVEL_2_OFFSET + (int) ((tick >> LEVEL_2_SHIFT) & (LEVEL_N_SLOTS - 1)), tick);
+        }
+        if ((tick & ((1L << LEVEL_1_SHIFT) - 1)) == 0) {
+            cascade(LEVEL_1_OFFSET + (int) ((tick >> LEVEL_1_SHIFT) & (LEVEL_N_SLOTS - 1)), tick);
+        }
+        final int slot = (int) (tick & (LEVEL_0_SLOTS - 1));
+        LanternScheduledBlockUpdate update = this.slots[slot];
+        this.slots[slot] = null;
+        while (update != null) {
+            final LanternScheduledBlockUpdate next = update.next;
+            update.prev = null;
+            update.next = null;
+            update.slot = READY_SLOT;
+            this.ready.add(update);
+            update = next;
+        }
+    }
+
+    private void cascade(int slot, long tick) {
+        LanternScheduledBlockUpdate update = this.slots[slot];
+        this.slots[slot] = null;
+        while (update != null) {
+            final LanternScheduledBlockUpdate next = update.next;
+            update.prev = null;
+            update.next = null;
+            insert(update, tick);
+            update = next;
+        }
+    }
+
+    /**
+     * Inserts the update in the slot that matches its end ticks.
+     *
+     * @param update The update
+     * @param baseTick The first tick that isn't processed yet
+     */
+    private void insert(LanternScheduledBlockUpdate update, long baseTick) {
+        final long endTicks = update.getEndTicks();
+        final long delta = endTicks - baseTick;
+        if (delta < 0) {
+            update.slot = READY_SLOT;
+            this.ready.add(update);
+            return;
+        }
+        final int slot;
+        if (delta < LEVEL_0_SLOTS) {
+            slot = (int) (endTicks & (LEVEL_0_SLOTS - 1));
+        } else if (delta < 1L << LEVEL_2_SHIFT) {
+            slot = LEVEL_1_OFFSET + (int) ((endTicks >> LEVEL_1_SHIFT) & (LEVEL_N_SLOTS - 1));
+        } else if (delta < 1L << OVERFLOW_SHIFT) {
+            slot = LEVEL_2_OFFSET + (int) ((endTicks >> LEVEL_2_SHIFT) & (LEVEL_N_SLOTS - 1));
+        } else {
+            slot = OVERFLOW_SLOT;
+        }
+        final LanternScheduledBlockUpdate head = this.slots[slot];
+        update.next = head;
+        if (head != null) {
+            head.prev = update;
+        }
+        update.slot = slot;
+        this.slots[slot] = update;
+    }
+
+    private void unlink(LanternScheduledBlockUpdate update) {
+        final int slot = update.slot;
+        if (slot == READY_SLOT) {
+            this.ready.remove(update);
+        } else if (slot != NO_SLOT) {
+            if (update.prev != null) {
+                update.prev.next = update.next;
+            } else {
+                this.slots[slot] = update.next;
+            }
+            if (update.next != null) {
+                update.next.prev = update.prev;
+            }
+            update.prev = null;
+            update.next = null;
+        }
+        update.slot = NO_SLOT;
+    }
+
+    private void removeFromPosition(LanternScheduledBlockUpdate update) {
+        final Location<World> location = update.getLocation();
+        final int x = location.getBlockX();
+        final int y = location.getBlockY();
+        final int z = location.getBlockZ();
+        final long chunkKey = chunkKey(update);
+        final Short2ObjectOpenHashMap<LanternScheduledBlockUpdate> chunkUpdates = this.updatesByChunk.get(chunkKey);
+        if (chunkUpdates == null) {
+            return;
+        }
+        final short index = index(x, y, z);
+        LanternScheduledBlockUpdate previous = null;
+        LanternScheduledBlockUpdate current = chunkUpdates.get(index);
+        while (current != null && current != update) {
+            previous = current;
+            current = current.nextAtPosition;
+        }
+        if (current == null) {
+            return;
+        }
+        if (previous != null) {
+            previous.nextAtPosition = update.nextAtPosition;
+        } else if (update.nextAtPosition != null) {
+            chunkUpdates.put(index, update.nextAtPosition);
+        } else {
+            chunkUpdates.remove(index);
+            if (chunkUpdates.isEmpty()) {
+                this.updatesByChunk.remove(chunkKey);
+            }
+        }
+        update.nextAtPosition = null;
+    }
+
+    private static long chunkKey(LanternScheduledBlockUpdate update) {
+        final Location<World> location = update.getLocation();
+        return LanternChunk.key(location.getBlockX() >> 4, location.getBlockZ() >> 4);
+    }
+
+    private static short index(int x, int y, int z) {
+        return (short) ((y & 0xff) << 8 | (z & 0xf) << 4 | (x & 0xf));
+    }
+}
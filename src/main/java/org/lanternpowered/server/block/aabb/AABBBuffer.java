@@ -0,0 +1,153 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.block.aabb;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+
+import org.spongepowered.api.util.AABB;
+
+import java.util.Arrays;
+
+/**
+ * A reusable buffer of axis aligned bounding boxes, the min and max
+ * coordinates of every box are stored in a flat double array so that
+ * collision queries can be performed without allocating objects.
+ */
+public final class AABBBuffer {
+
+    private static final int STRIDE = 6;
+
+    private double[] data;
+    private int size;
+
+    public AABBBuffer() {
+        this(16);
+    }
+
+    public AABBBuffer(int initialCapacity) {
+        this.data = new double[Math.max(1, initialCapacity) * STRIDE];
+    }
+
+    /**
+     * Gets the amount of boxes in this buffer.
+     *
+     * @return The size
+     */
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Removes all the boxes from this buffer, the backing
+     * array is kept so it can be reused.
+     */
+    public void clear() {
+        this.size = 0;
+    }
+
+    /**
+     * Adds a box to this buffer.
+     */
+    public void add(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        int offset = this.size * STRIDE;
+        if (offset == this.data.length) {
+            this.data = Arrays.copyOf(this.data, this.data.length << 1);
+        }
+        final double[] data = this.data;
+        data[offset++] = minX;
+        data[offset++] = minY;
+        data[offset++] = minZ;
+        data[offset++] = maxX;
+        data[offset++] = maxY;
+        data[offset] = maxZ;
+        this.size++;
+    }
+
+    /**
+     * Adds the {@link AABB} to this buffer.
+     *
+     * @param aabb The bounding box
+     */
+    public void add(AABB aabb) {
+        add(aabb.getMin().getX(), aabb.getMin().getY(), aabb.getMin().getZ(),
+                aabb.getMax().getX(), aabb.getMax().getY(), aabb.getMax().getZ());
+    }
+
+    public double getMinX(int index) {
+        return this.data[offset(index)];
+    }
+
+    public double getMinY(int index) {
+        return this.data[offset(index) + 1];
+    }
+
+    public double getMinZ(int index) {
+        return this.data[offset(index) + 2];
+    }
+
+    public double getMaxX(int index) {
+        return this.data[offset(index) + 3];
+    }
+
+    public double getMaxY(int index) {
+        return this.data[offset(index) + 4];
+    }
+
+    public double getMaxZ(int index) {
+        return this.data[offset(index) + 5];
+    }
+
+    /**
+     * Creates a new {@link AABB} for the box at the given index.
+     *
+     * @param index The index
+     * @return The bounding box
+     */
+    public AABB toAABB(int index) {
+        final int offset = offset(index);
+        final double[] data = this.data;
+        return new AABB(data[offset], data[offset + 1], data[offset + 2],
+                data[offset + 3], data[offset + 4], data[offset + 5]);
+    }
+
+    private int offset(int index) {
+        checkElementIndex(index, this.size);
+        return index * STRIDE;
+    }
+
+    /**
+     * Gets whether the two boxes intersect, using the same
+     * (inclusive) bounds as {@link AABB#intersects(AABB)}.
+     */
+    public static boolean intersects(double minX1, double minY1, double minZ1, double maxX1, double maxY1, double maxZ1,
+            double minX2, double minY2, double minZ2, double maxX2, double maxY2, double maxZ2) {
+        return minX1 <= maxX2 && maxX1 >= minX2 && minY1 <= maxY2 && maxY1 >= minY2 && minZ1 <= maxZ2 && maxZ1 >= minZ2;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.block.aabb;
+
+import org.lanternpowered.server.block.LanternBlockType;
+import org.lanternpowered.server.block.provider.CachedSimpleObjectProvider;
+import org.lanternpowered.server.block.provider.ConstantObjectProvider;
+import org.lanternpowered.server.block.provider.ObjectProvider;
+import org.lanternpowered.server.block.provider.SimpleObjectProvider;
+import org.lanternpowered.server.game.registry.type.block.BlockRegistryModule;
+import org.spongepowered.api.block.BlockState;
+import org.spongepowered.api.block.BlockTypes;
+import org.spongepowered.api.util.AABB;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.annotation.Nullable;
+
+/**
+ * A table with the precomputed collision shapes of all the block states, indexed
+ * by the packed internal id (internal id and data) of the state. The shapes are
+ * derived from {@link LanternBlockType#getBoundingBoxProvider()} and computed
+ * lazily the first time that a state is looked up.
+ */
+public final class BlockShapes {
+
+    /**
+     * The shape of block states without a bounding box.
+     */
+    private static final double[] EMPTY = new double[0];
+
+    /**
+     * The shape of block states whose bounding box depends on the
+     * location, these have to be resolved through the provider.
+     */
+    private static final double[] DYNAMIC = new double[0];
+
+    private static final AtomicReferenceArray<double[]> shapes = new AtomicReferenceArray<>(1 << 16);
+
+    /**
+     * Gets the precomputed shape of the block state with the given packed internal
+     * id. The returned array contains the min and max coordinates of the box (relative
+     * to the block position), it's empty if the block state doesn't have a bounding box.
+     *
+     * <p>{@code null} will be returned if the bounding box depends on the location,
+     * {@link #isDynamic(short)} can be used to check this.</p>
+     *
+     * @param type The packed internal id
+     * @return The shape
+     */
+    @Nullable
+    public static double[] get(short type) {
+        final double[] shape = getShape(type);
+        return shape == DYNAMIC ? null : shape;
+    }
+
+    /**
+     * Gets whether the bounding box of the block state with the
+     * given packed internal id depends on the location.
+     *
+     * @param type The packed internal id
+     * @return Is dynamic
+     */
+    public static boolean isDynamic(short type) {
+        return getShape(type) == DYNAMIC;
+    }
+
+    private static double[] getShape(short type) {
+        final int index = type & 0xffff;
+        double[] shape = shapes.get(index);
+        if (shape == null) {
+            // Computing the same shape concurrently is harmless
+            shape = computeShape(type);
+            shapes.lazySet(index, shape);
+        }
+        return shape;
+    }
+
+    private static double[] computeShape(short type) {
+        final BlockState blockState = BlockRegistryModule.get().getStateByInternalIdAndData(type).orElse(null);
+        if (blockState == null || blockState.getType() == BlockTypes.AIR) {
+            return EMPTY;
+        }
+        final ObjectProvider<AABB> provider = ((LanternBlockType) blockState.getType()).getBoundingBoxProvider();
+        if (provider == null) {
+            return EMPTY;
+        }
+        if (!(provider instanceof ConstantObjectProvider || provider instanceof CachedSimpleObjectProvider
+                || provider instanceof SimpleObjectProvider)) {
+            return DYNAMIC;
+        }
+        final AABB aabb = provider.get(blockState, null, null);
+        if (aabb == null) {
+            return EMPTY;
+        }
+        return new double[] {
+                aabb.getMin().getX(), aabb.getMin().getY(), aabb.getMin().getZ(),
+                aabb.getMax().getX(), aabb.getMax().getY(), aabb.getMax().getZ() };
+    }
+
+    private BlockShapes() {
+    }
+}
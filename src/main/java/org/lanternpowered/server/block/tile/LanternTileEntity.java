@@ -29,6 +29,7 @@
 import org.lanternpowered.server.data.DataHelper;
 import org.lanternpowered.server.data.property.AbstractPropertyHolder;
 import org.lanternpowered.server.data.value.KeyRegistration;
+import org.lanternpowered.server.data.value.KeyRegistrationMap;
 import org.lanternpowered.server.game.registry.type.block.TileEntityTypeRegistryModule;
 import org.spongepowered.api.block.tileentity.TileEntity;
 import org.spongepowered.api.block.tileentity.TileEntityArchetype;
@@ -43,7 +44,6 @@
 import org.spongepowered.api.world.Location;
 import org.spongepowered.api.world.World;
 
-import java.util.HashMap;
 import java.util.Map;
 
 public abstract class LanternTileEntity implements TileEntity, AbstractDataHolder, AbstractPropertyHolder {
@@ -54,7 +54,7 @@ public abstract class LanternTileEntity implements TileEntity, AbstractDataHolde
     private static boolean bypassEntityTypeLookup;
 
     private final TileEntityType tileEntityType;
-    private final Map<Key<?>, KeyRegistration> rawValueMap = new HashMap<>();
+    private final Map<Key<?>, KeyRegistration> rawValueMap = new KeyRegistrationMap();
     private volatile Location<World> location;
     private volatile boolean valid;
 
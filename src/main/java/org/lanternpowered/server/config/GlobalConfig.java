@@ -162,6 +162,17 @@ private static final class Server {
         @Setting(value = "network-compression-threshold")
         private int networkCompressionThreshold = 256;
 
+        @Setting(value = "network-compression-level", comment =
+                "The compression level of the network messages, from 1 (fastest) to 9 (smallest).\n" +
+                "The value -1 uses the default compression level.")
+        private int networkCompressionLevel = -1;
+
+        @Setting(value = "network-write-batching", comment =
+                "Whether the messages that are send to a player during a tick should be\n" +
+                "flushed once at the end of the tick, this reduces the amount of system calls\n" +
+                "but can add up to a tick of latency to the messages.")
+        private boolean networkWriteBatching = false;
+
         @Setting(value = "chat-spam-threshold", comment =
                 "The minimum time between messages (in milliseconds) when they will be considered spam.")
         private int chatSpamThreshold = 200;
@@ -272,6 +283,14 @@ public int getNetworkCompressionThreshold() {
         return this.server.networkCompressionThreshold;
     }
 
+    public int getNetworkCompressionLevel() {
+        return this.server.networkCompressionLevel;
+    }
+
+    public boolean isNetworkWriteBatchingEnabled() {
+        return this.server.networkWriteBatching;
+    }
+
     public int getRconPort() {
         return this.rcon.port;
     }
@@ -58,6 +58,55 @@ private static class Chunks {
                 "Controls the number threshold at which the chunk data message\n " +
                 "is preferred over the multi block change message.")
         private int clumpingThreshold = 64;
+
+        @Setting(value = "save-budget", comment =
+                "The maximum amount of modified chunks that will be\n " +
+                "captured for saving each tick.")
+        private int saveBudget = 32;
+
+        @Setting(value = "auto-save-interval", comment =
+                "The interval in ticks between the chunk auto saves,\n " +
+                "a value of 0 disables auto saving.")
+        private int autoSaveInterval = 6000;
+
+        @Setting(value = "compression", comment =
+                "The compression that is used to store the chunks, the supported\n " +
+                "types are: deflate, gzip, lz4 and none. Only deflate and gzip\n " +
+                "can be read by vanilla.")
+        private String compression = "deflate";
+
+        @Setting(value = "convert-compression", comment =
+                "Whether the stored chunks that use a different compression\n " +
+                "should be converted in the background when the world loads.")
+        private boolean convertCompression = false;
+    }
+
+    @Setting(value = "tick")
+    private Tick tick = new Tick();
+
+    @ConfigSerializable
+    private static class Tick {
+
+        @Setting(value = "parallel", comment =
+                "Whether the entities and tile entities of independent regions of\n " +
+                "loaded chunks should be pulsed in parallel. Plugins that modify\n " +
+                "the world from entity or tile entity pulses may not be safe to use.")
+        private boolean parallel = false;
+
+        @Setting(value = "region-margin", comment =
+                "The minimum distance in chunks between two regions\n " +
+                "that are pulsed in parallel.")
+        private int regionMargin = 2;
+
+        @Setting(value = "parallel-entity-trackers", comment =
+                "Whether the entity tracker messages should be sent to the players on a\n " +
+                "separate thread pool, the world thread only collects them.")
+        private boolean parallelEntityTrackers = false;
+
+        @Setting(value = "max-scheduled-block-updates", comment =
+                "The maximum amount of scheduled block updates that will be processed\n " +
+                "in a single tick, the remaining updates are carried over to the next tick.")
+        private int maxScheduledBlockUpdates = 65536;
     }
 
     @Setting(value = "pvp-enabled", comment = "Enable if this world allows PVP combat.")
@@ -125,6 +174,38 @@ public int getChunkClumpingThreshold() {
         return this.chunks.clumpingThreshold;
     }
 
+    public int getChunkSaveBudget() {
+        return this.chunks.saveBudget;
+    }
+
+    public int getChunkAutoSaveInterval() {
+        return this.chunks.autoSaveInterval;
+    }
+
+    public String getChunkCompression() {
+        return this.chunks.compression;
+    }
+
+    public boolean shouldConvertChunkCompression() {
+        return this.chunks.convertCompression;
+    }
+
+    public boolean isParallelTickEnabled() {
+        return this.tick.parallel;
+    }
+
+    public int getParallelTickRegionMargin() {
+        return this.tick.regionMargin;
+    }
+
+    public boolean isParallelEntityTrackerEnabled() {
+        return this.tick.parallelEntityTrackers;
+    }
+
+    public int getMaxScheduledBlockUpdates() {
+        return this.tick.maxScheduledBlockUpdates;
+    }
+
     public GameMode getGameMode() {
         return this.gameMode.mode;
     }
@@ -70,7 +70,41 @@ public interface ChunkIOService extends WorldStorage {
      * @param chunk The chunk to write from
      * @throws IOException If an i/o error occurs
      */
-    void write(LanternChunk chunk) throws IOException;
+    default void write(LanternChunk chunk) throws IOException {
+        prepareWrite(chunk).write();
+    }
+
+    /**
+     * Captures all the data of the chunk that should be written. This
+     * should be called from the thread that owns the chunk, the returned
+     * {@link ChunkWrite} can be completed on any thread.
+     *
+     * @param chunk The chunk to write from
+     * @return The chunk write
+     * @throws IOException If an i/o error occurs
+     */
+    ChunkWrite prepareWrite(LanternChunk chunk) throws IOException;
+
+    /**
+     * Represents the captured data of a chunk that still needs to be written.
+     */
+    interface ChunkWrite {
+
+        /**
+         * Gets the key of the storage region the chunk will be written
+         * to, writes with the same region key should be grouped.
+         *
+         * @return The region key
+         */
+        Object getRegionKey();
+
+        /**
+         * Serializes and writes the captured data.
+         *
+         * @throws IOException If an i/o error occurs
+         */
+        void write() throws IOException;
+    }
 
     /**
      * Unload the service, performing any cleanup necessary.
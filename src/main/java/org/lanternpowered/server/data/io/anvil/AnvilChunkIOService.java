@@ -50,6 +50,13 @@
 import static org.lanternpowered.server.data.io.anvil.RegionFileCache.REGION_AREA;
 import static org.lanternpowered.server.data.io.anvil.RegionFileCache.REGION_MASK;
 import static org.lanternpowered.server.data.io.anvil.RegionFileCache.REGION_SIZE;
+import static org.lanternpowered.server.data.persistence.nbt.NbtConstants.BYTE;
+import static org.lanternpowered.server.data.persistence.nbt.NbtConstants.BYTE_ARRAY;
+import static org.lanternpowered.server.data.persistence.nbt.NbtConstants.COMPOUND;
+import static org.lanternpowered.server.data.persistence.nbt.NbtConstants.END;
+import static org.lanternpowered.server.data.persistence.nbt.NbtConstants.INT_ARRAY;
+import static org.lanternpowered.server.data.persistence.nbt.NbtConstants.LIST;
+import static org.lanternpowered.server.data.persistence.nbt.NbtConstants.LONG;
 
 import com.flowpowered.math.vector.Vector3i;
 import com.google.inject.Inject;
@@ -57,6 +64,8 @@
 import com.google.inject.name.Named;
 import it.unimi.dsi.fastutil.shorts.Short2ObjectMap;
 import it.unimi.dsi.fastutil.shorts.Short2ObjectOpenHashMap;
+import org.lanternpowered.server.block.LanternScheduledBlockUpdate;
+import org.lanternpowered.server.block.ScheduledBlockUpdateWheel;
 import org.lanternpowered.server.block.tile.LanternTileEntity;
 import org.lanternpowered.server.data.io.ChunkIOService;
 import org.lanternpowered.server.data.io.store.ObjectSerializer;
@@ -68,6 +77,8 @@
 import org.lanternpowered.server.game.DirectoryKeys;
 import org.lanternpowered.server.scheduler.LanternScheduler;
 import org.lanternpowered.server.util.NibbleArray;
+import org.lanternpowered.server.world.LanternWorld;
+import org.lanternpowered.server.world.LanternWorldProperties;
 import org.lanternpowered.server.world.chunk.LanternChunk;
 import org.lanternpowered.server.world.chunk.LanternChunk.ChunkSection;
 import org.lanternpowered.server.world.chunk.LanternChunk.ChunkSectionSnapshot;
@@ -126,6 +137,13 @@ public class AnvilChunkIOService implements ChunkIOService {
     private static final DataQuery TILE_ENTITIES = DataQuery.of("TileEntities");
     private static final DataQuery INHABITED_TIME = DataQuery.of("InhabitedTime");
     private static final DataQuery ENTITIES = DataQuery.of("Entities");
+    private static final DataQuery TILE_TICKS = DataQuery.of("TileTicks");
+    private static final DataQuery TILE_TICK_BLOCK = DataQuery.of("i"); // string
+    private static final DataQuery TILE_TICK_X = DataQuery.of("x"); // int
+    private static final DataQuery TILE_TICK_Y = DataQuery.of("y"); // int
+    private static final DataQuery TILE_TICK_Z = DataQuery.of("z"); // int
+    private static final DataQuery TILE_TICK_TICKS = DataQuery.of("t"); // int
+    private static final DataQuery TILE_TICK_PRIORITY = DataQuery.of("p"); // int
 
     private final World world;
     private final Logger logger;
@@ -133,6 +151,9 @@ public class AnvilChunkIOService implements ChunkIOService {
     private final RegionFileCache cache;
     private final Path baseDir;
 
+    // The name of the last compression that failed to resolve
+    @Nullable private volatile String unknownCompression;
+
     // TODO: Consider the session.lock file
 
     @Inject
@@ -168,42 +189,28 @@ public boolean read(LanternChunk chunk) throws IOException {
             return false;
         }
 
-        final DataView levelDataView;
+        final LevelData levelData = new LevelData();
         try (NbtDataContainerInputStream nbt = new NbtDataContainerInputStream(is)) {
-            levelDataView = nbt.read().getView(LEVEL).get();
-        }
-
-        // read the vertical sections
-        final List<DataView> sectionList = levelDataView.getViewList(SECTIONS).get();
-        final ChunkSection[] sections = new ChunkSection[16];
-        //noinspection unchecked
-        final Short2ObjectOpenHashMap<LanternTileEntity>[] tileEntitySections = new Short2ObjectOpenHashMap[sections.length];
-
-        for (DataView sectionTag : sectionList) {
-            final int y = sectionTag.getInt(Y).get();
-            final byte[] rawTypes = (byte[]) sectionTag.get(BLOCKS).get();
-
-            final byte[] extTypes = sectionTag.contains(BLOCKS_EXTRA) ? (byte[]) sectionTag.get(BLOCKS_EXTRA).get() : null;
-            final byte[] data = (byte[]) sectionTag.get(DATA).get();
-            final byte[] blockLight = (byte[]) sectionTag.get(BLOCK_LIGHT).get();
-            final byte[] skyLight = (byte[]) sectionTag.get(SKY_LIGHT).get();
-
-            final NibbleArray dataArray = new NibbleArray(rawTypes.length, data, true);
-            final NibbleArray extTypesArray = extTypes == null ? null : new NibbleArray(rawTypes.length, extTypes, true);
-
-            final short[] types = new short[rawTypes.length];
-            for (int i = 0; i < rawTypes.length; i++) {
-                types[i] = (short) ((extTypesArray == null ? 0 : extTypesArray.get(i)) << 12 | ((rawTypes[i] & 0xff) << 4) | dataArray.get(i));
+            // The root compound, only the level compound is of interest
+            if (nbt.nextEntry() != COMPOUND) {
+                throw new IOException("The root tag of the chunk (" + x + "," + z + ") isn't a compound.");
+            }
+            byte type;
+            while ((type = nbt.nextEntry()) != END) {
+                if (type == COMPOUND && nbt.getEntryName().equals("Level")) {
+                    readLevel(nbt, levelData);
+                } else {
+                    nbt.skipPayload(type);
+                }
             }
-
-            tileEntitySections[y] = new Short2ObjectOpenHashMap<>();
-            sections[y] = new ChunkSection(types, new NibbleArray(rawTypes.length, skyLight, true),
-                    new NibbleArray(rawTypes.length, blockLight, true), tileEntitySections[y]);
         }
 
-        levelDataView.getViewList(TILE_ENTITIES).ifPresent(tileEntityViews -> {
+        final ChunkSection[] sections = levelData.sections;
+        final Short2ObjectOpenHashMap<LanternTileEntity>[] tileEntitySections = levelData.tileEntitySections;
+
+        if (levelData.tileEntities != null) {
             final ObjectSerializer<LanternTileEntity> tileEntitySerializer = ObjectSerializerRegistry.get().get(LanternTileEntity.class).get();
-            for (DataView tileEntityView : tileEntityViews) {
+            for (DataView tileEntityView : levelData.tileEntities) {
                 final int tileY = tileEntityView.getInt(TILE_ENTITY_Y).get();
                 final int section = tileY >> 4;
                 if (tileEntitySections[section] == null) {
@@ -221,10 +228,10 @@ public boolean read(LanternChunk chunk) throws IOException {
                             tileX & 0xf, tileY & 0xf, tileZ & 0xf, x, z, getWorldProperties().getWorldName(), e);
                 }
             }
-        });
+        }
 
-        final DataView spongeDataView = levelDataView.getView(DataQueries.SPONGE_DATA).orElse(null);
-        final List<DataView> trackerDataViews = spongeDataView == null ? null : levelDataView.getViewList(TRACKER_DATA_TABLE).orElse(null);
+        final DataView spongeDataView = levelData.spongeData;
+        final List<DataView> trackerDataViews = spongeDataView == null ? null : spongeDataView.getViewList(TRACKER_DATA_TABLE).orElse(null);
 
         //noinspection unchecked
         final Short2ObjectMap<LanternChunk.TrackerData>[] trackerData = chunk.getTrackerData().getRawObjects();
@@ -249,11 +256,11 @@ public boolean read(LanternChunk chunk) throws IOException {
 
         // initialize the chunk
         chunk.initializeSections(sections);
-        chunk.setPopulated(levelDataView.getInt(TERRAIN_POPULATED).orElse(0) > 0);
+        chunk.setPopulated(levelData.populated);
 
-        if (levelDataView.contains(BIOMES)) {
-            final byte[] biomes = (byte[]) levelDataView.get(BIOMES).get();
-            final byte[] biomesExtra = (byte[]) (levelDataView.contains(BIOMES_EXTRA) ? levelDataView.get(BIOMES_EXTRA).get() : null);
+        if (levelData.biomes != null) {
+            final byte[] biomes = levelData.biomes;
+            final byte[] biomesExtra = levelData.biomesExtra;
             final short[] newBiomes = new short[biomes.length];
             for (int i = 0; i < biomes.length; i++) {
                 newBiomes[i] = (short) ((biomesExtra == null ? 0 : biomesExtra[i]) << 8 | biomes[i]);
@@ -261,20 +268,17 @@ public boolean read(LanternChunk chunk) throws IOException {
             chunk.initializeBiomes(newBiomes);
         }
 
-        final Object heightMap;
-        if (levelDataView.contains(HEIGHT_MAP) && (heightMap = levelDataView.get(HEIGHT_MAP).get()) instanceof int[]) {
-            chunk.initializeHeightMap((int[]) heightMap);
-        } else {
-            chunk.initializeHeightMap(null);
-        }
+        chunk.initializeHeightMap(levelData.heightMap);
 
-        levelDataView.getLong(INHABITED_TIME).ifPresent(time -> chunk.setInhabitedTime(time.intValue()));
-        chunk.setLightPopulated(levelDataView.getInt(LIGHT_POPULATED).orElse(0) > 0);
+        if (levelData.inhabitedTime != null) {
+            chunk.setInhabitedTime(levelData.inhabitedTime.intValue());
+        }
+        chunk.setLightPopulated(levelData.lightPopulated);
         chunk.initializeLight();
 
-        levelDataView.getViewList(ENTITIES).ifPresent(entityViews -> {
+        if (levelData.entities != null) {
             final ObjectSerializer<LanternEntity> entitySerializer = ObjectSerializerRegistry.get().get(LanternEntity.class).get();
-            for (DataView entityView : entityViews) {
+            for (DataView entityView : levelData.entities) {
                 try {
                     final LanternEntity entity = entitySerializer.deserialize(entityView);
                     chunk.addEntity(entity, entity.getPosition().getFloorY() >> 4);
@@ -283,80 +287,226 @@ public boolean read(LanternChunk chunk) throws IOException {
                             x, z, getWorldProperties().getWorldName(), e);
                 }
             }
-        });
+        }
+
+        if (levelData.tileTicks != null) {
+            final ScheduledBlockUpdateWheel scheduledBlockUpdates = ((LanternWorld) this.world).getScheduledBlockUpdates();
+            for (DataView tileTickView : levelData.tileTicks) {
+                final Optional<Integer> tickX = tileTickView.getInt(TILE_TICK_X);
+                final Optional<Integer> tickY = tileTickView.getInt(TILE_TICK_Y);
+                final Optional<Integer> tickZ = tileTickView.getInt(TILE_TICK_Z);
+                if (!tickX.isPresent() || !tickY.isPresent() || !tickZ.isPresent()) {
+                    continue;
+                }
+                scheduledBlockUpdates.add(tickX.get(), tickY.get(), tickZ.get(),
+                        tileTickView.getInt(TILE_TICK_PRIORITY).orElse(0), tileTickView.getInt(TILE_TICK_TICKS).orElse(0));
+            }
+        }
 
         return true;
     }
 
-    @Override
-    public void write(LanternChunk chunk) throws IOException {
-        final int x = chunk.getX();
-        final int z = chunk.getZ();
-
-        final RegionFile region = this.cache.getRegionFileByChunk(x, z);
+    /**
+     * The data of the level compound that is required to initialize a chunk. Only
+     * the entities, tile entities and sponge data are kept as {@link DataView}s, all
+     * the other data is decoded directly from the stream.
+     */
+    private static final class LevelData {
 
-        final int regionX = x & REGION_MASK;
-        final int regionZ = z & REGION_MASK;
+        private final ChunkSection[] sections = new ChunkSection[16];
+        //noinspection unchecked
+        private final Short2ObjectOpenHashMap<LanternTileEntity>[] tileEntitySections = new Short2ObjectOpenHashMap[this.sections.length];
 
-        final DataContainer rootView = DataContainer.createNew(DataView.SafetyMode.NO_DATA_CLONED);
-        final DataView levelDataView = rootView.createView(LEVEL);
+        @Nullable private List<DataView> tileEntities;
+        @Nullable private List<DataView> entities;
+        @Nullable private List<DataView> tileTicks;
+        @Nullable private DataView spongeData;
 
-        // Core properties
-        levelDataView.set(VERSION, (byte) 1);
-        levelDataView.set(X, chunk.getX());
-        levelDataView.set(Z, chunk.getZ());
-        levelDataView.set(TERRAIN_POPULATED, (byte) (chunk.isPopulated() ? 1 : 0));
-        levelDataView.set(LIGHT_POPULATED, (byte) (chunk.isLightPopulated() ? 1 : 0));
-        levelDataView.set(LAST_UPDATE, 0L);
-        levelDataView.set(INHABITED_TIME, chunk.getInhabitedTime());
+        @Nullable private byte[] biomes;
+        @Nullable private byte[] biomesExtra;
+        @Nullable private int[] heightMap;
+        @Nullable private Long inhabitedTime;
 
-        // Chunk sections
-        final ChunkSectionSnapshot[] sections = chunk.getSectionSnapshots(true);
-        final List<DataView> sectionDataViews = new ArrayList<>();
-        final List<DataView> tileEntityDataViews = new ArrayList<>();
+        private boolean populated;
+        private boolean lightPopulated;
+    }
 
-        for (byte i = 0; i < sections.length; ++i) {
-            final ChunkSectionSnapshot section = sections[i];
-            if (section == null) {
-                continue;
+    private static void readLevel(NbtDataContainerInputStream nbt, LevelData levelData) throws IOException {
+        byte type;
+        while ((type = nbt.nextEntry()) != END) {
+            switch (nbt.getEntryName()) {
+                case "Sections":
+                    if (type == LIST) {
+                        readSections(nbt, levelData);
+                        continue;
+                    }
+                    break;
+                case "TileEntities":
+                    if (type == LIST) {
+                        levelData.tileEntities = readViewList(nbt);
+                        continue;
+                    }
+                    break;
+                case "Entities":
+                    if (type == LIST) {
+                        levelData.entities = readViewList(nbt);
+                        continue;
+                    }
+                    break;
+                case "TileTicks":
+                    if (type == LIST) {
+                        levelData.tileTicks = readViewList(nbt);
+                        continue;
+                    }
+                    break;
+                case "SpongeData":
+                    if (type == COMPOUND) {
+                        levelData.spongeData = (DataView) nbt.readPayload(type);
+                        continue;
+                    }
+                    break;
+                case "Biomes":
+                    if (type == BYTE_ARRAY) {
+                        levelData.biomes = nbt.readByteArray();
+                        continue;
+                    }
+                    break;
+                case "BiomesE":
+                    if (type == BYTE_ARRAY) {
+                        levelData.biomesExtra = nbt.readByteArray();
+                        continue;
+                    }
+                    break;
+                case "HeightMap":
+                    if (type == INT_ARRAY) {
+                        levelData.heightMap = nbt.readIntArray();
+                        continue;
+                    }
+                    break;
+                case "InhabitedTime":
+                    if (type == LONG) {
+                        levelData.inhabitedTime = nbt.getDataInput().readLong();
+                        continue;
+                    }
+                    break;
+                case "TerrainPopulated":
+                    if (type == BYTE) {
+                        levelData.populated = nbt.getDataInput().readByte() > 0;
+                        continue;
+                    }
+                    break;
+                case "LightPopulated":
+                    if (type == BYTE) {
+                        levelData.lightPopulated = nbt.getDataInput().readByte() > 0;
+                        continue;
+                    }
+                    break;
+                default:
+                    break;
             }
+            nbt.skipPayload(type);
+        }
+    }
 
-            final DataContainer sectionDataView = DataContainer.createNew(DataView.SafetyMode.NO_DATA_CLONED);
-            sectionDataView.set(Y, i);
-
-            final byte[] rawTypes = new byte[section.types.length];
-            final short[] types = section.types;
-
-            NibbleArray extTypes = null;
-            final NibbleArray data = new NibbleArray(rawTypes.length);
+    @SuppressWarnings("unchecked")
+    private static List<DataView> readViewList(NbtDataContainerInputStream nbt) throws IOException {
+        final List<?> list = (List<?>) nbt.readPayload(LIST);
+        for (Object object : list) {
+            if (!(object instanceof DataView)) {
+                throw new IOException("Expected a list of compounds, but found: " + object.getClass().getName());
+            }
+        }
+        return (List<DataView>) list;
+    }
 
-            for (int j = 0; j < rawTypes.length; j++) {
-                rawTypes[j] = (byte) ((types[j] >> 4) & 0xff);
-                byte extType = (byte) (types[j] >> 12);
-                if (extType != 0) {
-                    if (extTypes == null) {
-                        extTypes = new NibbleArray(rawTypes.length);
+    private static void readSections(NbtDataContainerInputStream nbt, LevelData levelData) throws IOException {
+        final DataInputStream dis = nbt.getDataInput();
+        final byte elementType = dis.readByte();
+        final int size = dis.readInt();
+        if (elementType != COMPOUND) {
+            for (int i = 0; i < size; i++) {
+                nbt.skipPayload(elementType);
+            }
+            return;
+        }
+        for (int i = 0; i < size; i++) {
+            int y = -1;
+            byte[] rawTypes = null;
+            byte[] extTypes = null;
+            byte[] data = null;
+            byte[] blockLight = null;
+            byte[] skyLight = null;
+
+            byte type;
+            while ((type = nbt.nextEntry()) != END) {
+                if (type == BYTE && nbt.getEntryName().equals("Y")) {
+                    y = dis.readByte();
+                } else if (type == BYTE_ARRAY) {
+                    switch (nbt.getEntryName()) {
+                        case "Blocks":
+                            rawTypes = nbt.readByteArray();
+                            break;
+                        case "Add":
+                            extTypes = nbt.readByteArray();
+                            break;
+                        case "Data":
+                            data = nbt.readByteArray();
+                            break;
+                        case "BlockLight":
+                            blockLight = nbt.readByteArray();
+                            break;
+                        case "SkyLight":
+                            skyLight = nbt.readByteArray();
+                            break;
+                        default:
+                            nbt.skipPayload(type);
+                            break;
                     }
-                    extTypes.set(j, extType);
+                } else {
+                    nbt.skipPayload(type);
                 }
-                data.set(j, (byte) (types[j] & 0xf));
             }
-            sectionDataView.set(BLOCKS, rawTypes);
-            if (extTypes != null) {
-                sectionDataView.set(BLOCKS_EXTRA, extTypes.getPackedArray());
+
+            if (y < 0 || y >= levelData.sections.length || rawTypes == null || data == null
+                    || blockLight == null || skyLight == null) {
+                throw new IOException("Found a incomplete chunk section at index " + i + ".");
             }
-            sectionDataView.set(DATA, data.getPackedArray());
-            sectionDataView.set(BLOCK_LIGHT, section.lightFromBlock);
 
-            final byte[] lightFromSky = section.lightFromSky;
-            if (lightFromSky != null) {
-                sectionDataView.set(SKY_LIGHT, lightFromSky);
+            final NibbleArray dataArray = new NibbleArray(rawTypes.length, data, true);
+            final NibbleArray extTypesArray = extTypes == null ? null : new NibbleArray(rawTypes.length, extTypes, true);
+
+            final short[] types = new short[rawTypes.length];
+            for (int j = 0; j < rawTypes.length; j++) {
+                types[j] = (short) ((extTypesArray == null ? 0 : extTypesArray.get(j)) << 12 | ((rawTypes[j] & 0xff) << 4) | dataArray.get(j));
             }
 
-            sectionDataViews.add(sectionDataView);
+            final Short2ObjectOpenHashMap<LanternTileEntity> tileEntities = new Short2ObjectOpenHashMap<>();
+            levelData.tileEntitySections[y] = tileEntities;
+            levelData.sections[y] = new ChunkSection(types, new NibbleArray(rawTypes.length, skyLight, true),
+                    new NibbleArray(rawTypes.length, blockLight, true), tileEntities);
+        }
+    }
 
-            //noinspection unchecked
-            final ObjectSerializer<LanternTileEntity> tileEntitySerializer = ObjectSerializerRegistry.get().get(LanternTileEntity.class).get();
+    @Override
+    public ChunkWrite prepareWrite(LanternChunk chunk) throws IOException {
+        final int x = chunk.getX();
+        final int z = chunk.getZ();
+
+        final boolean populated = chunk.isPopulated();
+        final boolean lightPopulated = chunk.isLightPopulated();
+        final long inhabitedTime = chunk.getInhabitedTime();
+
+        // Chunk sections, the types are copied
+        final ChunkSectionSnapshot[] sections = chunk.getSectionSnapshots(true);
+        final List<DataView> tileEntityDataViews = new ArrayList<>();
+
+        //noinspection unchecked
+        final ObjectSerializer<LanternTileEntity> tileEntitySerializer = ObjectSerializerRegistry.get().get(LanternTileEntity.class).get();
+        for (byte i = 0; i < sections.length; ++i) {
+            final ChunkSectionSnapshot section = sections[i];
+            if (section == null) {
+                continue;
+            }
             // Serialize the tile entities
             for (Short2ObjectMap.Entry<LanternTileEntity> tileEntityEntry : section.tileEntities.short2ObjectEntrySet()) {
                 if (!tileEntityEntry.getValue().isValid()) {
@@ -371,9 +521,8 @@ public void write(LanternChunk chunk) throws IOException {
             }
         }
 
-        levelDataView.set(TILE_ENTITIES, tileEntityDataViews);
-        levelDataView.set(SECTIONS, sectionDataViews);
-        levelDataView.set(HEIGHT_MAP, chunk.getHeightMap());
+        final int[] heightMap = chunk.getHeightMap();
+        final RegionCompression compression = getCompression();
 
         //noinspection unchecked
         final Short2ObjectMap<LanternChunk.TrackerData>[] trackerData = chunk.getTrackerData().getRawObjects();
@@ -395,11 +544,182 @@ public void write(LanternChunk chunk) throws IOException {
             }
         }
 
-        if (!trackerDataViews.isEmpty()) {
-            levelDataView.createView(DataQueries.SPONGE_DATA).set(TRACKER_DATA_TABLE, trackerDataViews);
+        final List<DataView> tileTickViews = new ArrayList<>();
+        for (LanternScheduledBlockUpdate update : ((LanternWorld) this.world).getScheduledBlockUpdates().getChunkUpdates(x, z)) {
+            final Vector3i pos = update.getLocation().getBlockPosition();
+            final DataView tileTickView = DataContainer.createNew(DataView.SafetyMode.NO_DATA_CLONED);
+            tileTickView.set(TILE_TICK_BLOCK, chunk.getBlockType(pos.getX(), pos.getY(), pos.getZ()).getId());
+            tileTickView.set(TILE_TICK_X, pos.getX());
+            tileTickView.set(TILE_TICK_Y, pos.getY());
+            tileTickView.set(TILE_TICK_Z, pos.getZ());
+            tileTickView.set(TILE_TICK_TICKS, update.getTicks());
+            tileTickView.set(TILE_TICK_PRIORITY, update.getPriority());
+            tileTickViews.add(tileTickView);
         }
 
         final short[] biomes = chunk.getBiomes();
+
+        //noinspection unchecked
+        final List<LanternEntity> entities = new ArrayList(chunk.getEntities(entity -> !(entity instanceof Player)));
+        final ObjectSerializer<LanternEntity> entitySerializer = ObjectSerializerRegistry.get().get(LanternEntity.class).get();
+
+        final List<DataView> entityViews = new ArrayList<>();
+        for (LanternEntity entity : entities) {
+            if (entity.getRemoveState() == LanternEntity.RemoveState.DESTROYED) {
+                continue;
+            }
+            final DataView entityView = entitySerializer.serialize(entity);
+            entityViews.add(entityView);
+        }
+
+        return new ChunkWrite() {
+            @Override
+            public Object getRegionKey() {
+                return RegionFileCache.getRegionKeyByChunk(x, z);
+            }
+
+            @Override
+            public void write() throws IOException {
+                final DataContainer rootView = DataContainer.createNew(DataView.SafetyMode.NO_DATA_CLONED);
+                final DataView levelDataView = rootView.createView(LEVEL);
+
+                // Core properties
+                levelDataView.set(VERSION, (byte) 1);
+                levelDataView.set(X, x);
+                levelDataView.set(Z, z);
+                levelDataView.set(TERRAIN_POPULATED, (byte) (populated ? 1 : 0));
+                levelDataView.set(LIGHT_POPULATED, (byte) (lightPopulated ? 1 : 0));
+                levelDataView.set(LAST_UPDATE, 0L);
+                levelDataView.set(INHABITED_TIME, inhabitedTime);
+
+                levelDataView.set(TILE_ENTITIES, tileEntityDataViews);
+                levelDataView.set(SECTIONS, writeSections(sections));
+                levelDataView.set(HEIGHT_MAP, heightMap);
+
+                if (!trackerDataViews.isEmpty()) {
+                    levelDataView.createView(DataQueries.SPONGE_DATA).set(TRACKER_DATA_TABLE, trackerDataViews);
+                }
+
+                writeBiomes(levelDataView, biomes);
+                levelDataView.set(ENTITIES, entityViews);
+                if (!tileTickViews.isEmpty()) {
+                    levelDataView.set(TILE_TICKS, tileTickViews);
+                }
+
+                final RegionFile region = cache.getRegionFileByChunk(x, z);
+
+                final int regionX = x & REGION_MASK;
+                final int regionZ = z & REGION_MASK;
+
+                try (NbtDataContainerOutputStream nbt = new NbtDataContainerOutputStream(region.getChunkDataOutputStream(regionX, regionZ, compression))) {
+                    nbt.write(rootView);
+                    nbt.flush();
+                }
+            }
+        };
+    }
+
+    /**
+     * Gets the {@link RegionCompression} that should be used to write chunks.
+     *
+     * @return The compression
+     */
+    public RegionCompression getCompression() {
+        final String name = ((LanternWorldProperties) this.world.getProperties()).getConfig().getChunkCompression();
+        final RegionCompression compression = RegionCompression.get(name).orElse(null);
+        if (compression != null) {
+            return compression;
+        }
+        if (!name.equals(this.unknownCompression)) {
+            this.unknownCompression = name;
+            this.logger.warn("Unknown chunk compression {} in world {}, falling back to {}.",
+                    name, this.world.getName(), RegionCompression.DEFLATE);
+        }
+        return RegionCompression.DEFLATE;
+    }
+
+    /**
+     * Converts all the stored chunks that don't use the given {@link RegionCompression}, this
+     * is done on a async thread. Chunks that are written in the meantime are skipped.
+     *
+     * @param compression The compression to convert to
+     * @return The future, returns the amount of converted chunks
+     */
+    public CompletableFuture<Integer> convertCompression(RegionCompression compression) {
+        return this.scheduler.submitAsyncTask(() -> {
+            int converted = 0;
+            for (Path path : this.cache.getRegionFiles()) {
+                final Matcher matcher = this.cache.getFilePattern().matcher(path.getFileName().toString());
+                if (!matcher.matches()) {
+                    continue;
+                }
+                final int regionX = Integer.parseInt(matcher.group(1));
+                final int regionZ = Integer.parseInt(matcher.group(2));
+                final RegionFile region = this.cache.getRegionFile(regionX, regionZ);
+                for (int x = 0; x < REGION_SIZE; x++) {
+                    for (int z = 0; z < REGION_SIZE; z++) {
+                        try {
+                            if (region.convert(x, z, compression)) {
+                                converted++;
+                            }
+                        } catch (IOException e) {
+                            this.logger.warn("Failed to convert the chunk ({};{}) in region ({};{}) of world {}",
+                                    x, z, regionX, regionZ, this.world.getName(), e);
+                        }
+                    }
+                }
+            }
+            this.logger.info("Converted {} chunks to the {} compression in world {}.", converted, compression, this.world.getName());
+            return converted;
+        });
+    }
+
+    private static List<DataView> writeSections(ChunkSectionSnapshot[] sections) {
+        final List<DataView> sectionDataViews = new ArrayList<>();
+        for (byte i = 0; i < sections.length; ++i) {
+            final ChunkSectionSnapshot section = sections[i];
+            if (section == null) {
+                continue;
+            }
+
+            final DataContainer sectionDataView = DataContainer.createNew(DataView.SafetyMode.NO_DATA_CLONED);
+            sectionDataView.set(Y, i);
+
+            final short[] types = section.types.toArray();
+            final byte[] rawTypes = new byte[types.length];
+
+            NibbleArray extTypes = null;
+            final NibbleArray data = new NibbleArray(rawTypes.length);
+
+            for (int j = 0; j < rawTypes.length; j++) {
+                rawTypes[j] = (byte) ((types[j] >> 4) & 0xff);
+                byte extType = (byte) (types[j] >> 12);
+                if (extType != 0) {
+                    if (extTypes == null) {
+                        extTypes = new NibbleArray(rawTypes.length);
+                    }
+                    extTypes.set(j, extType);
+                }
+                data.set(j, (byte) (types[j] & 0xf));
+            }
+            sectionDataView.set(BLOCKS, rawTypes);
+            if (extTypes != null) {
+                sectionDataView.set(BLOCKS_EXTRA, extTypes.getPackedArray());
+            }
+            sectionDataView.set(DATA, data.getPackedArray());
+            sectionDataView.set(BLOCK_LIGHT, section.lightFromBlock);
+
+            final byte[] lightFromSky = section.lightFromSky;
+            if (lightFromSky != null) {
+                sectionDataView.set(SKY_LIGHT, lightFromSky);
+            }
+
+            sectionDataViews.add(sectionDataView);
+        }
+        return sectionDataViews;
+    }
+
+    private static void writeBiomes(DataView levelDataView, short[] biomes) {
         final byte[] biomes0 = new byte[biomes.length];
         byte[] biomes1 = null;
 
@@ -418,26 +738,6 @@ public void write(LanternChunk chunk) throws IOException {
         if (biomes1 != null) {
             levelDataView.set(BIOMES_EXTRA, biomes1);
         }
-
-        //noinspection unchecked
-        final List<LanternEntity> entities = new ArrayList(chunk.getEntities(entity -> !(entity instanceof Player)));
-        final ObjectSerializer<LanternEntity> entitySerializer = ObjectSerializerRegistry.get().get(LanternEntity.class).get();
-
-        final List<DataView> entityViews = new ArrayList<>();
-        for (LanternEntity entity : entities) {
-            if (entity.getRemoveState() == LanternEntity.RemoveState.DESTROYED) {
-                continue;
-            }
-            final DataView entityView = entitySerializer.serialize(entity);
-            entityViews.add(entityView);
-        }
-
-        levelDataView.set(ENTITIES, entityViews);
-
-        try (NbtDataContainerOutputStream nbt = new NbtDataContainerOutputStream(region.getChunkDataOutputStream(regionX, regionZ))) {
-            nbt.write(rootView);
-            nbt.flush();
-        }
     }
 
     @Override
@@ -0,0 +1,265 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.data.io.anvil;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A pure java implementation of the LZ4 block format.
+ */
+final class LZ4 {
+
+    private static final int MIN_MATCH = 4;
+    private static final int LAST_LITERALS = 5;
+    private static final int MF_LIMIT = 12;
+    private static final int MIN_LENGTH = MF_LIMIT + 1;
+    private static final int MAX_DISTANCE = (1 << 16) - 1;
+
+    private static final int RUN_MASK = 0xf;
+    private static final int ML_MASK = 0xf;
+
+    static final int HASH_LOG = 12;
+    static final int HASH_TABLE_SIZE = 1 << HASH_LOG;
+
+    /**
+     * Gets the maximum length of the compressed data for the given length.
+     *
+     * @param length The length of the uncompressed data
+     * @return The maximum compressed length
+     */
+    static int maxCompressedLength(int length) {
+        return length + length / 255 + 16;
+    }
+
+    private static int hash(int value) {
+        return (value * -1640531535) >>> (32 - HASH_LOG);
+    }
+
+    private static int readInt(byte[] buf, int index) {
+        return (buf[index] & 0xff) | (buf[index + 1] & 0xff) << 8 | (buf[index + 2] & 0xff) << 16 | (buf[index + 3] & 0xff) << 24;
+    }
+
+    private static int writeLength(byte[] dst, int dOff, int length) {
+        while (length >= 0xff) {
+            dst[dOff++] = (byte) 0xff;
+            length -= 0xff;
+        }
+        dst[dOff++] = (byte) length;
+        return dOff;
+    }
+
+    /**
+     * Compresses the source data into the destination array, the destination must at
+     * least have {@link #maxCompressedLength(int)} bytes available.
+     *
+     * @param src The source array
+     * @param srcOff The offset in the source array
+     * @param srcLen The amount of bytes to compress
+     * @param dst The destination array
+     * @param dstOff The offset in the destination array
+     * @param hashTable The hash table, should have a size of {@link #HASH_TABLE_SIZE}
+     * @return The compressed length
+     */
+    static int compress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int[] hashTable) {
+        final int srcEnd = srcOff + srcLen;
+        final int mfLimit = srcEnd - MF_LIMIT;
+        final int matchLimit = srcEnd - LAST_LITERALS;
+
+        int sOff = srcOff;
+        int dOff = dstOff;
+        int anchor = sOff;
+
+        if (srcLen >= MIN_LENGTH) {
+            Arrays.fill(hashTable, -1);
+            hashTable[hash(readInt(src, sOff))] = sOff;
+            sOff++;
+
+            main:
+            while (true) {
+                // Search the next match
+                int ref;
+                while (true) {
+                    if (sOff > mfLimit) {
+                        break main;
+                    }
+                    final int value = readInt(src, sOff);
+                    final int h = hash(value);
+                    ref = hashTable[h];
+                    hashTable[h] = sOff;
+                    if (ref >= 0 && sOff - ref <= MAX_DISTANCE && readInt(src, ref) == value) {
+                        break;
+                    }
+                    sOff++;
+                }
+
+                // Extend the match backwards
+                while (sOff > anchor && ref > srcOff && src[sOff - 1] == src[ref - 1]) {
+                    sOff--;
+                    ref--;
+                }
+
+                // Extend the match forwards
+                int s = sOff + MIN_MATCH;
+                int r = ref + MIN_MATCH;
+                while (s < matchLimit && src[s] == src[r]) {
+                    s++;
+                    r++;
+                }
+
+                // Write the literals
+                final int literalLength = sOff - anchor;
+                final int tokenOff = dOff++;
+                int token;
+                if (literalLength >= RUN_MASK) {
+                    token = RUN_MASK << 4;
+                    dOff = writeLength(dst, dOff, literalLength - RUN_MASK);
+                } else {
+                    token = literalLength << 4;
+                }
+                System.arraycopy(src, anchor, dst, dOff, literalLength);
+                dOff += literalLength;
+
+                // Write the match
+                final int offset = sOff - ref;
+                dst[dOff++] = (byte) offset;
+                dst[dOff++] = (byte) (offset >>> 8);
+
+                final int matchLength = s - sOff - MIN_MATCH;
+                if (matchLength >= ML_MASK) {
+                    token |= ML_MASK;
+                    dOff = writeLength(dst, dOff, matchLength - ML_MASK);
+                } else {
+                    token |= matchLength;
+                }
+                dst[tokenOff] = (byte) token;
+
+                sOff = s;
+                anchor = sOff;
+
+                // Hash a previous position to improve the compression ratio
+                if (sOff - 2 < mfLimit) {
+                    hashTable[hash(readInt(src, sOff - 2))] = sOff - 2;
+                }
+            }
+        }
+
+        // Write the last literals
+        final int literalLength = srcEnd - anchor;
+        if (literalLength >= RUN_MASK) {
+            dst[dOff++] = (byte) (RUN_MASK << 4);
+            dOff = writeLength(dst, dOff, literalLength - RUN_MASK);
+        } else {
+            dst[dOff++] = (byte) (literalLength << 4);
+        }
+        System.arraycopy(src, anchor, dst, dOff, literalLength);
+        dOff += literalLength;
+
+        return dOff - dstOff;
+    }
+
+    /**
+     * Decompresses the source data into the destination array.
+     *
+     * @param src The source array
+     * @param srcOff The offset in the source array
+     * @param srcLen The length of the compressed data
+     * @param dst The destination array
+     * @param dstOff The offset in the destination array
+     * @param dstLen The maximum amount of bytes that may be written
+     * @return The decompressed length
+     * @throws IOException If the compressed data is malformed
+     */
+    static int decompress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int dstLen) throws IOException {
+        final int srcEnd = srcOff + srcLen;
+        final int dstEnd = dstOff + dstLen;
+
+        int sOff = srcOff;
+        int dOff = dstOff;
+
+        try {
+            while (true) {
+                final int token = src[sOff++] & 0xff;
+
+                // Copy the literals
+                int literalLength = token >>> 4;
+                if (literalLength == RUN_MASK) {
+                    int b;
+                    do {
+                        b = src[sOff++] & 0xff;
+                        literalLength += b;
+                    } while (b == 0xff);
+                }
+                if (sOff + literalLength > srcEnd || dOff + literalLength > dstEnd) {
+                    throw new IOException("Malformed LZ4 data at " + (sOff - srcOff));
+                }
+                System.arraycopy(src, sOff, dst, dOff, literalLength);
+                sOff += literalLength;
+                dOff += literalLength;
+
+                // The last sequence only contains literals
+                if (sOff == srcEnd) {
+                    break;
+                }
+
+                // Copy the match
+                final int offset = (src[sOff++] & 0xff) | (src[sOff++] & 0xff) << 8;
+                final int ref = dOff - offset;
+                if (offset == 0 || ref < dstOff) {
+                    throw new IOException("Malformed LZ4 data at " + (sOff - srcOff));
+                }
+                int matchLength = token & ML_MASK;
+                if (matchLength == ML_MASK) {
+                    int b;
+                    do {
+                        b = src[sOff++] & 0xff;
+                        matchLength += b;
+                    } while (b == 0xff);
+                }
+                matchLength += MIN_MATCH;
+                if (dOff + matchLength > dstEnd) {
+                    throw new IOException("Malformed LZ4 data at " + (sOff - srcOff));
+                }
+                if (offset >= matchLength) {
+                    System.arraycopy(dst, ref, dst, dOff, matchLength);
+                    dOff += matchLength;
+                } else {
+                    // The match overlaps with the output
+                    for (int i = 0; i < matchLength; i++) {
+                        dst[dOff++] = dst[ref + i];
+                    }
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Malformed LZ4 data", e);
+        }
+
+        return dOff - dstOff;
+    }
+
+    private LZ4() {
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.data.io.anvil;
+
+import static org.lanternpowered.server.data.io.anvil.LZ4BlockOutputStream.BLOCK_SIZE;
+import static org.lanternpowered.server.data.io.anvil.LZ4BlockOutputStream.STORED_FLAG;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A {@link InputStream} that decompresses the data
+ * written by a {@link LZ4BlockOutputStream}.
+ */
+final class LZ4BlockInputStream extends InputStream {
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BLOCK_SIZE];
+    private final byte[] compressed = new byte[LZ4.maxCompressedLength(BLOCK_SIZE)];
+
+    private int position;
+    private int count;
+    private boolean finished;
+
+    LZ4BlockInputStream(InputStream in) {
+        this.in = in;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (this.position == this.count && !readBlock()) {
+            return -1;
+        }
+        return this.buffer[this.position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (this.position == this.count && !readBlock()) {
+            return -1;
+        }
+        final int length = Math.min(len, this.count - this.position);
+        System.arraycopy(this.buffer, this.position, b, off, length);
+        this.position += length;
+        return length;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return this.count - this.position;
+    }
+
+    private boolean readBlock() throws IOException {
+        if (this.finished) {
+            return false;
+        }
+        final int length = readInt();
+        if (length == 0) {
+            this.finished = true;
+            return false;
+        }
+        if (length < 0 || length > BLOCK_SIZE) {
+            throw new IOException("Invalid LZ4 block length: " + length);
+        }
+        final int compressedLength = readInt();
+        if ((compressedLength & STORED_FLAG) != 0) {
+            if ((compressedLength & ~STORED_FLAG) != length) {
+                throw new IOException("Invalid stored LZ4 block length: " + (compressedLength & ~STORED_FLAG));
+            }
+            readFully(this.buffer, length);
+        } else {
+            if (compressedLength < 0 || compressedLength > this.compressed.length) {
+                throw new IOException("Invalid compressed LZ4 block length: " + compressedLength);
+            }
+            readFully(this.compressed, compressedLength);
+            if (LZ4.decompress(this.compressed, 0, compressedLength, this.buffer, 0, length) != length) {
+                throw new IOException("Malformed LZ4 block");
+            }
+        }
+        this.position = 0;
+        this.count = length;
+        return true;
+    }
+
+    private int readInt() throws IOException {
+        final int b0 = this.in.read();
+        final int b1 = this.in.read();
+        final int b2 = this.in.read();
+        final int b3 = this.in.read();
+        if ((b0 | b1 | b2 | b3) < 0) {
+            throw new EOFException();
+        }
+        return b0 << 24 | b1 << 16 | b2 << 8 | b3;
+    }
+
+    private void readFully(byte[] buf, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            final int read = this.in.read(buf, offset, length - offset);
+            if (read < 0) {
+                throw new EOFException();
+            }
+            offset += read;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.in.close();
+    }
+}
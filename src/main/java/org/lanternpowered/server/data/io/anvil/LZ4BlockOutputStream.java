@@ -0,0 +1,122 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.data.io.anvil;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A {@link OutputStream} that compresses the data in {@link LZ4} blocks. Every block
+ * starts with the uncompressed length and the compressed length, the highest bit
+ * of the compressed length marks a block that is stored without compression. The
+ * stream is terminated by a block with a uncompressed length of 0.
+ */
+final class LZ4BlockOutputStream extends FilterOutputStream {
+
+    static final int BLOCK_SIZE = 1 << 16;
+    static final int STORED_FLAG = 0x80000000;
+
+    private final byte[] buffer = new byte[BLOCK_SIZE];
+    private final byte[] compressed = new byte[8 + LZ4.maxCompressedLength(BLOCK_SIZE)];
+    private final int[] hashTable = new int[LZ4.HASH_TABLE_SIZE];
+
+    private int count;
+    private boolean closed;
+
+    LZ4BlockOutputStream(OutputStream out) {
+        super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (this.count == BLOCK_SIZE) {
+            writeBlock();
+        }
+        this.buffer[this.count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            if (this.count == BLOCK_SIZE) {
+                writeBlock();
+            }
+            final int length = Math.min(len, BLOCK_SIZE - this.count);
+            System.arraycopy(b, off, this.buffer, this.count, length);
+            this.count += length;
+            off += length;
+            len -= length;
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        if (this.count == 0) {
+            return;
+        }
+        int length = LZ4.compress(this.buffer, 0, this.count, this.compressed, 8, this.hashTable);
+        if (length >= this.count) {
+            // Compression didn't help, store the data
+            System.arraycopy(this.buffer, 0, this.compressed, 8, this.count);
+            writeInt(this.compressed, 4, this.count | STORED_FLAG);
+            length = this.count;
+        } else {
+            writeInt(this.compressed, 4, length);
+        }
+        writeInt(this.compressed, 0, this.count);
+        this.out.write(this.compressed, 0, 8 + length);
+        this.count = 0;
+    }
+
+    private static void writeInt(byte[] buf, int index, int value) {
+        buf[index] = (byte) (value >>> 24);
+        buf[index + 1] = (byte) (value >>> 16);
+        buf[index + 2] = (byte) (value >>> 8);
+        buf[index + 3] = (byte) value;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writeBlock();
+        this.out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        try {
+            writeBlock();
+            // The end of the stream
+            writeInt(this.compressed, 0, 0);
+            this.out.write(this.compressed, 0, 4);
+        } finally {
+            this.out.close();
+        }
+    }
+}
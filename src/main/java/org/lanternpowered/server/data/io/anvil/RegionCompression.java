@@ -0,0 +1,229 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.data.io.anvil;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import javax.annotation.Nullable;
+
+/**
+ * Represents a compression type that can be used to store chunks in a {@link RegionFile}. The
+ * id of the compression type is stored in front of every chunk, this allows region files to
+ * contain chunks that are compressed in different ways.
+ */
+public abstract class RegionCompression {
+
+    private static final RegionCompression[] byId = new RegionCompression[256];
+    private static final Map<String, RegionCompression> byName = new ConcurrentHashMap<>();
+
+    /**
+     * The gzip compression, this is no longer used by vanilla to write chunks.
+     */
+    public static final RegionCompression GZIP = register(new RegionCompression(1, "gzip") {
+        @Override
+        public InputStream decompress(InputStream inputStream) throws IOException {
+            return new GZIPInputStream(inputStream);
+        }
+
+        @Override
+        public OutputStream compress(OutputStream outputStream) throws IOException {
+            return new GZIPOutputStream(outputStream);
+        }
+    });
+
+    /**
+     * The zlib (deflate) compression, the default compression used by vanilla.
+     */
+    public static final RegionCompression DEFLATE = register(new RegionCompression(2, "deflate") {
+        @Override
+        public InputStream decompress(InputStream inputStream) throws IOException {
+            return new InflaterInputStream(inputStream);
+        }
+
+        @Override
+        public OutputStream compress(OutputStream outputStream) throws IOException {
+            return new DeflaterOutputStream(outputStream, new Deflater(Deflater.BEST_SPEED)) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        // Free the native resources, this isn't done
+                        // automatically for non default deflaters
+                        this.def.end();
+                    }
+                }
+            };
+        }
+    });
+
+    /**
+     * No compression at all.
+     */
+    public static final RegionCompression NONE = register(new RegionCompression(3, "none") {
+        @Override
+        public InputStream decompress(InputStream inputStream) throws IOException {
+            return inputStream;
+        }
+
+        @Override
+        public OutputStream compress(OutputStream outputStream) throws IOException {
+            // Prevent that bytes are written one by one
+            return new FilterOutputStream(outputStream) {
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    this.out.write(b, off, len);
+                }
+            };
+        }
+    });
+
+    /**
+     * A pure java implementation of the LZ4 compression, this is a lot faster
+     * than {@link #DEFLATE} at the cost of larger region files. The id is
+     * lantern specific, vanilla is not able to read these chunks.
+     */
+    public static final RegionCompression LZ4 = register(new RegionCompression(126, "lz4") {
+        @Override
+        public InputStream decompress(InputStream inputStream) throws IOException {
+            return new LZ4BlockInputStream(inputStream);
+        }
+
+        @Override
+        public OutputStream compress(OutputStream outputStream) throws IOException {
+            return new LZ4BlockOutputStream(outputStream);
+        }
+    });
+
+    /**
+     * Registers a new {@link RegionCompression}.
+     *
+     * @param compression The compression
+     * @param <T> The type of the compression
+     * @return The compression
+     */
+    public static <T extends RegionCompression> T register(T compression) {
+        checkNotNull(compression, "compression");
+        final int id = compression.getId();
+        final String name = compression.getName();
+        synchronized (byId) {
+            checkArgument(byId[id] == null, "There is already a compression registered with the id %s", id);
+            checkArgument(!byName.containsKey(name), "There is already a compression registered with the name %s", name);
+            byId[id] = compression;
+            byName.put(name, compression);
+        }
+        return compression;
+    }
+
+    /**
+     * Gets the {@link RegionCompression} for the given id.
+     *
+     * @param id The id
+     * @return The compression, or {@code null} if not found
+     */
+    @Nullable
+    public static RegionCompression get(int id) {
+        return id < 0 || id >= byId.length ? null : byId[id];
+    }
+
+    /**
+     * Gets the {@link RegionCompression} for the given name.
+     *
+     * @param name The name
+     * @return The compression, if found
+     */
+    public static Optional<RegionCompression> get(String name) {
+        checkNotNull(name, "name");
+        return Optional.ofNullable(byName.get(name.toLowerCase(Locale.ENGLISH)));
+    }
+
+    private final int id;
+    private final String name;
+
+    protected RegionCompression(int id, String name) {
+        checkArgument(id > 0 && id < byId.length, "The id must be between 1 and %s", byId.length - 1);
+        this.name = checkNotNull(name, "name").toLowerCase(Locale.ENGLISH);
+        this.id = id;
+    }
+
+    /**
+     * Gets the id of this compression, this id
+     * is stored in front of the chunk data.
+     *
+     * @return The id
+     */
+    public int getId() {
+        return this.id;
+    }
+
+    /**
+     * Gets the name of this compression.
+     *
+     * @return The name
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Wraps the {@link InputStream} to decompress the data.
+     *
+     * @param inputStream The input stream
+     * @return The decompressing input stream
+     * @throws IOException If an i/o error occurs
+     */
+    public abstract InputStream decompress(InputStream inputStream) throws IOException;
+
+    /**
+     * Wraps the {@link OutputStream} to compress the data, the
+     * underlying stream will be closed with the returned one.
+     *
+     * @param outputStream The output stream
+     * @return The compressing output stream
+     * @throws IOException If an i/o error occurs
+     */
+    public abstract OutputStream compress(OutputStream outputStream) throws IOException;
+
+    @Override
+    public String toString() {
+        return this.name;
+    }
+}
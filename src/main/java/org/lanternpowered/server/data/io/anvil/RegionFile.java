@@ -77,33 +77,41 @@
 import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
-import java.io.RandomAccessFile;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.BitSet;
-import java.util.zip.Deflater;
-import java.util.zip.DeflaterOutputStream;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.InflaterInputStream;
+import java.util.concurrent.locks.StampedLock;
 
 import javax.annotation.Nullable;
 
+/**
+ * A region file that is backed by a {@link FileChannel}. All the reads are
+ * positional and lock free, they are validated against a {@link StampedLock}
+ * which is only write locked while a chunk is being written. A read that
+ * overlapped with a write will be retried while holding the read lock.
+ */
 public final class RegionFile {
 
     private static final Marker REGION_FILE_MARKER = MarkerFactory.getMarker("REGION_FILE");
 
-    private static final int VERSION_GZIP = 1;
-    private static final int VERSION_DEFLATE = 2;
-
     private static final int SECTOR_BYTES = 4096;
     private static final int SECTOR_INTS = SECTOR_BYTES / 4;
 
     private static final int CHUNK_HEADER_SIZE = 5;
-    private static final byte[] EMPTY_SECTOR = new byte[SECTOR_BYTES];
 
-    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final StampedLock lock = new StampedLock();
     private final int[] offsets;
+    // The write generation of every chunk, increased every time that the
+    // chunk is written, guarded by the lock
+    private final int[] generations;
     private final BitSet usedSectors;
     private final int regionX;
     private final int regionZ;
@@ -114,17 +122,16 @@ public final class RegionFile {
         this.regionX = regionX;
         this.regionZ = regionZ;
         this.offsets = new int[SECTOR_INTS];
+        this.generations = new int[SECTOR_INTS];
 
         long lastModified = 0;
         if (Files.isRegularFile(path)) {
             lastModified = Files.getLastModifiedTime(path).toMillis();
         }
 
-        this.file = new RandomAccessFile(path.toFile(), "rw");
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
 
-        long length = this.file.length();
-        // seek to the end to prepare size checking
-        this.file.seek(length);
+        long length = this.channel.size();
 
         // if the file size is under 8KB, grow it (4K chunk offset table, 4K timestamp table)
         if (length < 2 * SECTOR_BYTES) {
@@ -133,31 +140,19 @@ public final class RegionFile {
                 Lantern.getLogger().warn(REGION_FILE_MARKER, "Region \"{}\" under 8K: {} increasing by {}",
                         path, length, 2 * SECTOR_BYTES - length);
             }
-
-            if (length == 0) {
-                this.file.write(EMPTY_SECTOR);
-                this.file.write(EMPTY_SECTOR);
-            } else {
-                for (; length < 2 * SECTOR_BYTES; length++) {
-                    this.file.write(0);
-                }
-            }
+            writeFully(ByteBuffer.allocate((int) (2 * SECTOR_BYTES - length)), length);
         }
 
-        length = this.file.length();
+        length = this.channel.size();
         // if the file size is not a multiple of 4KB, grow it
         if ((length & 0xfff) != 0) {
             Lantern.getLogger().warn(REGION_FILE_MARKER, "Region \"{}\" not aligned: {} increasing by {}",
                     path, length, SECTOR_BYTES - (length & 0xfff));
-
-            length = length & 0xfff;
-            for (; length < SECTOR_BYTES; length++) {
-                this.file.write(0);
-            }
+            writeFully(ByteBuffer.allocate((int) (SECTOR_BYTES - (length & 0xfff))), length);
         }
 
         // set up the available sector map
-        final int nSectors = (int) (this.file.length() / SECTOR_BYTES);
+        final int nSectors = (int) (this.channel.size() / SECTOR_BYTES);
         this.sectorCount = nSectors;
         this.usedSectors = new BitSet(nSectors);
         this.usedSectors.set(0, 2);
@@ -167,9 +162,11 @@ public final class RegionFile {
         // 1 - for the last modified
 
         // read offsets from offset table
-        this.file.seek(0);
+        final ByteBuffer header = ByteBuffer.allocate(SECTOR_BYTES);
+        readFully(header, 0);
+        header.flip();
         for (int i = 0; i < SECTOR_INTS; ++i) {
-            final int offset = this.file.readInt();
+            final int offset = header.getInt();
             this.offsets[i] = offset;
 
             final int startSector = (offset >> 8);
@@ -183,9 +180,6 @@ public final class RegionFile {
             }
         }
         // read timestamps from timestamp table -- the timestamps aren't used, so there is no need to read them
-        // for (int i = 0; i < SECTOR_INTS; ++i) {
-        //     this.file.readInt();
-        // }
     }
 
     /**
@@ -196,39 +190,55 @@ public final class RegionFile {
      * @param z the z coordinate
      * @return whether the chunk data exists
      */
-    public synchronized boolean hasChunk(int x, int z) {
+    public boolean hasChunk(int x, int z) {
         checkBounds(x, z);
 
+        long stamp = this.lock.tryOptimisticRead();
+        boolean result;
         try {
-            final int offset = getOffset(x, z);
-            if (offset == 0) {
-                // Does not exist
-                return false;
+            result = hasChunk0(x, z);
+        } catch (IOException | RuntimeException e) {
+            result = false;
+        }
+        if (!this.lock.validate(stamp)) {
+            stamp = this.lock.readLock();
+            try {
+                result = hasChunk0(x, z);
+            } catch (IOException ignored) {
+                result = false;
+            } finally {
+                this.lock.unlockRead(stamp);
             }
+        }
+        if (!result && getOffset(x, z) != 0) {
+            logWarning();
+        }
+        return result;
+    }
 
-            final int sectorNumber = offset >> 8;
-            final int numSectors = offset & 0xff;
-            if (sectorNumber + numSectors > this.sectorCount) {
-                logWarning();
-                return false;
-            }
+    private boolean hasChunk0(int x, int z) throws IOException {
+        final int offset = getOffset(x, z);
+        if (offset == 0) {
+            // Does not exist
+            return false;
+        }
 
-            this.file.seek(sectorNumber * SECTOR_BYTES);
-            final int length = this.file.readInt();
-            if (length > SECTOR_BYTES * numSectors) {
-                logWarning();
-                return false;
-            }
+        final int sectorNumber = offset >> 8;
+        final int numSectors = offset & 0xff;
+        if (sectorNumber + numSectors > this.sectorCount) {
+            return false;
+        }
 
-            final byte version = this.file.readByte();
-            if (version == VERSION_GZIP || version == VERSION_DEFLATE) {
-                return true;
-            }
-        } catch (IOException ignored) {
+        final ByteBuffer header = ByteBuffer.allocate(CHUNK_HEADER_SIZE);
+        readFully(header, (long) sectorNumber * SECTOR_BYTES);
+        header.flip();
+        final int length = header.getInt();
+        if (length > SECTOR_BYTES * numSectors) {
+            return false;
         }
 
-        logWarning();
-        return false;
+        final byte version = header.get();
+        return RegionCompression.get(version & 0xff) != null;
     }
 
     /*
@@ -236,46 +246,146 @@ public synchronized boolean hasChunk(int x, int z) {
      * the chunk is not found or an error occurs
      */
     @Nullable
-    public synchronized DataInputStream getChunkDataInputStream(int x, int z) {
+    public DataInputStream getChunkDataInputStream(int x, int z) {
         checkBounds(x, z);
 
+        long stamp = this.lock.tryOptimisticRead();
+        byte[] data;
         try {
-            final int offset = getOffset(x, z);
-            if (offset == 0) {
-                // Does not exist
-                return null;
-            }
-
-            final int sectorNumber = offset >> 8;
-            final int numSectors = offset & 0xff;
-            if (sectorNumber + numSectors > this.sectorCount) {
-                logWarning();
-                return null;
+            data = readChunkData(x, z);
+        } catch (IOException | RuntimeException e) {
+            data = null;
+        }
+        // A write happened while reading, retry
+        if (!this.lock.validate(stamp)) {
+            stamp = this.lock.readLock();
+            try {
+                data = readChunkData(x, z);
+            } catch (IOException ignored) {
+                data = null;
+            } finally {
+                this.lock.unlockRead(stamp);
             }
-
-            this.file.seek(sectorNumber * SECTOR_BYTES);
-            final int length = this.file.readInt();
-            if (length > SECTOR_BYTES * numSectors) {
+        }
+        if (data == null) {
+            if (getOffset(x, z) != 0) {
                 logWarning();
-                return null;
             }
+            return null;
+        }
 
-            final byte version = this.file.readByte();
-            if (version == VERSION_GZIP) {
-                final byte[] data = new byte[length - 1];
-                this.file.read(data);
-                return new DataInputStream(new BufferedInputStream(new GZIPInputStream(new ByteArrayInputStream(data))));
-            } else if (version == VERSION_DEFLATE) {
-                final byte[] data = new byte[length - 1];
-                this.file.read(data);
-                return new DataInputStream(new BufferedInputStream(new InflaterInputStream(new ByteArrayInputStream(data))));
-            }
+        try {
+            return new DataInputStream(new BufferedInputStream(decompress(data)));
         } catch (IOException ignored) {
         }
         logWarning();
         return null;
     }
 
+    private static InputStream decompress(byte[] data) throws IOException {
+        // The length and version are validated while reading
+        final int length = ((data[0] & 0xff) << 24) | ((data[1] & 0xff) << 16) | ((data[2] & 0xff) << 8) | (data[3] & 0xff);
+        //noinspection ConstantConditions
+        return RegionCompression.get(data[4] & 0xff).decompress(new ByteArrayInputStream(data, CHUNK_HEADER_SIZE, length - 1));
+    }
+
+    /**
+     * Gets the {@link RegionCompression} that is used to store the chunk
+     * at the coordinates (relative to the region coordinates).
+     *
+     * @param x the x coordinate
+     * @param z the z coordinate
+     * @return the compression, or {@code null} if the chunk doesn't exist
+     */
+    @Nullable
+    public RegionCompression getCompression(int x, int z) {
+        checkBounds(x, z);
+        final long stamp = this.lock.readLock();
+        try {
+            final byte[] data = readChunkData(x, z);
+            return data == null ? null : RegionCompression.get(data[4] & 0xff);
+        } catch (IOException ignored) {
+            return null;
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Converts the chunk at the coordinates (relative to the region coordinates)
+     * to the given {@link RegionCompression}. The conversion will be discarded if the
+     * chunk is written in the meantime.
+     *
+     * @param x the x coordinate
+     * @param z the z coordinate
+     * @param compression the compression to convert to
+     * @return whether the chunk was converted
+     * @throws IOException if an i/o error occurs
+     */
+    public boolean convert(int x, int z, RegionCompression compression) throws IOException {
+        checkBounds(x, z);
+        final int generation;
+        final byte[] data;
+        final long stamp = this.lock.readLock();
+        try {
+            generation = this.generations[x + z * 32];
+            data = readChunkData(x, z);
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+        if (data == null || (data[4] & 0xff) == compression.getId()) {
+            return false;
+        }
+        final ByteArrayOutputStream buf = new ByteArrayOutputStream(data.length);
+        try (InputStream is = decompress(data); OutputStream os = compression.compress(buf)) {
+            final byte[] bytes = new byte[8192];
+            int read;
+            while ((read = is.read(bytes)) != -1) {
+                os.write(bytes, 0, read);
+            }
+        }
+        final byte[] converted = buf.toByteArray();
+        return write(x, z, compression, converted, converted.length, generation);
+    }
+
+    /**
+     * Reads the raw data of the chunk, including the chunk header.
+     *
+     * @param x the x coordinate
+     * @param z the z coordinate
+     * @return the raw chunk data
+     * @throws IOException if an i/o error occurs
+     */
+    @Nullable
+    private byte[] readChunkData(int x, int z) throws IOException {
+        final int offset = getOffset(x, z);
+        if (offset == 0) {
+            // Does not exist
+            return null;
+        }
+
+        final int sectorNumber = offset >> 8;
+        final int numSectors = offset & 0xff;
+        if (sectorNumber + numSectors > this.sectorCount) {
+            return null;
+        }
+
+        // Read all the sectors at once
+        final ByteBuffer buf = ByteBuffer.allocate(numSectors * SECTOR_BYTES);
+        readFully(buf, (long) sectorNumber * SECTOR_BYTES);
+        buf.flip();
+
+        final int length = buf.getInt();
+        if (length <= 0 || length + 4 > SECTOR_BYTES * numSectors) {
+            return null;
+        }
+        final byte version = buf.get();
+        if (RegionCompression.get(version & 0xff) == null) {
+            return null;
+        }
+        return buf.array();
+    }
+
     private void logWarning() {
         // Use the debug level, there is no need to spam the console with
         // corrupt file errors that cannot be fixed
@@ -284,10 +394,13 @@ private void logWarning() {
                 this.regionX, this.regionZ);
     }
 
-    public DataOutputStream getChunkDataOutputStream(int x, int z) {
+    public DataOutputStream getChunkDataOutputStream(int x, int z) throws IOException {
+        return getChunkDataOutputStream(x, z, RegionCompression.DEFLATE);
+    }
+
+    public DataOutputStream getChunkDataOutputStream(int x, int z, RegionCompression compression) throws IOException {
         checkBounds(x, z);
-        return new DataOutputStream(new BufferedOutputStream(new DeflaterOutputStream(
-                new ChunkBuffer(x, z), new Deflater(Deflater.BEST_SPEED))));
+        return new DataOutputStream(new BufferedOutputStream(compression.compress(new ChunkBuffer(x, z, compression))));
     }
 
     /*
@@ -298,9 +411,11 @@ private class ChunkBuffer extends ByteArrayOutputStream {
 
         private final int x;
         private final int z;
+        private final RegionCompression compression;
 
-        ChunkBuffer(int x, int z) {
+        ChunkBuffer(int x, int z, RegionCompression compression) {
             super(8096); // initialize to 8KB
+            this.compression = compression;
             this.x = x;
             this.z = z;
         }
@@ -308,83 +423,113 @@ private class ChunkBuffer extends ByteArrayOutputStream {
         @Override
         public void close() throws IOException {
             try {
-                RegionFile.this.write(this.x, this.z, this.buf, this.count);
+                RegionFile.this.write(this.x, this.z, this.compression, this.buf, this.count, -1);
             } finally {
                 super.close();
             }
         }
     }
 
-    // write a chunk at (x,z) with length bytes of data to disk
-    protected synchronized void write(int x, int z, byte[] data, int length) throws IOException {
-        final int offset = getOffset(x, z);
-        int sectorNumber = offset >> 8;
-        final int sectorsAllocated = offset & 0xff;
+    // write a chunk at (x,z) with length bytes of data to disk, only if the
+    // chunk wasn't written since the expected generation (if not -1)
+    private boolean write(int x, int z, RegionCompression compression, byte[] data, int length, int expectedGeneration) throws IOException {
         final int sectorsNeeded = (length + CHUNK_HEADER_SIZE) / SECTOR_BYTES + 1;
 
         // maximum chunk size is 1MB
         if (sectorsNeeded >= 256) {
-            return;
+            return false;
         }
 
-        if (sectorNumber != 0 && sectorsAllocated == sectorsNeeded) {
-            // we can simply overwrite the old sectors
-            write(sectorNumber, data, length);
-        } else {
-            // we need to allocate new sectors
-
-            // mark the sectors previously used for this chunk as free
-            this.usedSectors.clear(sectorNumber, sectorNumber + sectorsAllocated);
-
-            // scan for a free space large enough to store this chunk
-            int runStart = this.usedSectors.nextClearBit(2);
-            int runLength = 0;
-            if (runStart != -1 && runStart < this.sectorCount) {
-                for (int i = runStart; i < this.sectorCount; ++i) {
-                    if (runLength != 0) {
-                        if (!this.usedSectors.get(i)) {
-                            runLength++;
-                        } else {
-                            runLength = 0;
+        // Build the sectors outside the lock
+        final ByteBuffer buf = ByteBuffer.allocate(sectorsNeeded * SECTOR_BYTES);
+        buf.putInt(length + 1); // chunk length
+        buf.put((byte) compression.getId()); // chunk version number
+        buf.put(data, 0, length); // chunk data
+        buf.clear();
+
+        final long stamp = this.lock.writeLock();
+        try {
+            final int index = x + z * 32;
+            if (expectedGeneration != -1 && this.generations[index] != expectedGeneration) {
+                return false;
+            }
+            // Wrap around before reaching -1, which means any generation
+            this.generations[index] = (this.generations[index] + 1) & Integer.MAX_VALUE;
+            final int offset = getOffset(x, z);
+            int sectorNumber = offset >> 8;
+            final int sectorsAllocated = offset & 0xff;
+
+            if (sectorNumber != 0 && sectorsAllocated == sectorsNeeded) {
+                // we can simply overwrite the old sectors
+                writeFully(buf, (long) sectorNumber * SECTOR_BYTES);
+            } else {
+                // we need to allocate new sectors
+
+                // mark the sectors previously used for this chunk as free
+                this.usedSectors.clear(sectorNumber, sectorNumber + sectorsAllocated);
+
+                // scan for a free space large enough to store this chunk
+                int runStart = this.usedSectors.nextClearBit(2);
+                int runLength = 0;
+                if (runStart < this.sectorCount) {
+                    for (int i = runStart; i < this.sectorCount; ++i) {
+                        if (runLength != 0) {
+                            if (!this.usedSectors.get(i)) {
+                                runLength++;
+                            } else {
+                                runLength = 0;
+                            }
+                        } else if (!this.usedSectors.get(i)) {
+                            runStart = i;
+                            runLength = 1;
+                        }
+                        if (runLength >= sectorsNeeded) {
+                            break;
                         }
-                    } else if (!this.usedSectors.get(i)) {
-                        runStart = i;
-                        runLength = 1;
-                    }
-                    if (runLength >= sectorsNeeded) {
-                        break;
                     }
+                } else {
+                    runStart = this.sectorCount;
                 }
-            } else {
-                runStart = this.sectorCount;
-            }
 
-            sectorNumber = runStart;
-            if (runLength < sectorsNeeded) {
-                final int added = sectorsNeeded - runLength;
-                this.sectorCount += added;
-                this.file.seek(this.file.length());
-                for (int i = 0; i < added; i++) {
-                    this.file.write(EMPTY_SECTOR);
+                if (runLength < sectorsNeeded) {
+                    // Append the sectors to the end of the file, the free
+                    // sectors at the end of the file can be reused
+                    if (runLength == 0 || runStart + runLength != this.sectorCount) {
+                        runStart = this.sectorCount;
+                    }
+                    // The file will be grown by writing the sectors
+                    this.sectorCount = runStart + sectorsNeeded;
                 }
-            }
+                sectorNumber = runStart;
 
-            // Clear the sectors to set them in use
-            this.usedSectors.set(sectorNumber, sectorNumber + sectorsNeeded);
+                // Set the sectors in use
+                this.usedSectors.set(sectorNumber, sectorNumber + sectorsNeeded);
 
-            // Write chunk data and offset
-            write(sectorNumber, data, length);
-            setOffset(x, z, (sectorNumber << 8) | sectorsNeeded);
+                // Write chunk data and offset
+                writeFully(buf, (long) sectorNumber * SECTOR_BYTES);
+                setOffset(x, z, (sectorNumber << 8) | sectorsNeeded);
+            }
+            setTimestamp(x, z, (int) (System.currentTimeMillis() / 1000L));
+            return true;
+        } finally {
+            this.lock.unlockWrite(stamp);
         }
-        setTimestamp(x, z, (int) (System.currentTimeMillis() / 1000L));
     }
 
-    // write a chunk data to the region file at specified sector number
-    private void write(int sectorNumber, byte[] data, int length) throws IOException {
-        this.file.seek(sectorNumber * SECTOR_BYTES);
-        this.file.writeInt(length + 1); // chunk length
-        this.file.writeByte(VERSION_DEFLATE); // chunk version number
-        this.file.write(data, 0, length); // chunk data
+    private void readFully(ByteBuffer buf, long position) throws IOException {
+        final int start = buf.position();
+        while (buf.hasRemaining()) {
+            if (this.channel.read(buf, position + buf.position() - start) < 0) {
+                throw new EOFException();
+            }
+        }
+    }
+
+    private void writeFully(ByteBuffer buf, long position) throws IOException {
+        final int start = buf.position();
+        while (buf.hasRemaining()) {
+            this.channel.write(buf, position + buf.position() - start);
+        }
     }
 
     // is this an invalid chunk coordinate?
@@ -400,17 +545,27 @@ private int getOffset(int x, int z) {
 
     private void setOffset(int x, int z, int offset) throws IOException {
         this.offsets[x + z * 32] = offset;
-        this.file.seek((x + z * 32) * 4);
-        this.file.writeInt(offset);
+        writeInt((x + z * 32) * 4, offset);
     }
 
     private void setTimestamp(int x, int z, int value) throws IOException {
-        this.file.seek(SECTOR_BYTES + (x + z * 32) * 4);
-        this.file.writeInt(value);
+        writeInt(SECTOR_BYTES + (x + z * 32) * 4, value);
+    }
+
+    private void writeInt(long position, int value) throws IOException {
+        final ByteBuffer buf = ByteBuffer.allocate(4);
+        buf.putInt(value);
+        buf.flip();
+        writeFully(buf, position);
     }
 
     public void close() throws IOException {
-        this.file.getChannel().force(true);
-        this.file.close();
+        final long stamp = this.lock.writeLock();
+        try {
+            this.channel.force(true);
+            this.channel.close();
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
     }
 }
@@ -121,8 +121,23 @@ public RegionFile getRegionFileByChunk(int chunkX, int chunkZ) throws IOExceptio
         return this.getRegionFile(regionX, regionZ);
     }
 
+    /**
+     * Gets the key of the region file that contains the chunk.
+     *
+     * @param chunkX The chunk x coordinate
+     * @param chunkZ The chunk z coordinate
+     * @return The region key
+     */
+    static long getRegionKeyByChunk(int chunkX, int chunkZ) {
+        return getRegionKey(chunkX >> REGION_COORDINATE_BITS, chunkZ >> REGION_COORDINATE_BITS);
+    }
+
+    private static long getRegionKey(int regionX, int regionZ) {
+        return (regionZ & 0xffffffffL) << 32 | regionX & 0xffffffffL;
+    }
+
     public RegionFile getRegionFile(int regionX, int regionZ) throws IOException {
-        final long coords = (regionZ & 0xffffffffL) << 32 | regionX & 0xffffffffL;
+        final long coords = getRegionKey(regionX, regionZ);
         return this.cache.get(coords, coords0 -> {
             try {
                 return new RegionFile(this.regionDir.resolve("r." + regionX + "." + regionZ + "." + this.extension), regionX, regionZ);
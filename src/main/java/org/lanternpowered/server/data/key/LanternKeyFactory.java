@@ -43,6 +43,8 @@
 import org.spongepowered.api.data.value.mutable.WeightedCollectionValue;
 import org.spongepowered.api.util.weighted.WeightedTable;
 
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -50,11 +52,85 @@
 
 public final class LanternKeyFactory {
 
+    private static final Object indexLock = new Object();
+
+    /**
+     * The dense indexes of all the known {@link Key}s, the map is
+     * never modified after being published so it can be read
+     * without locking.
+     */
+    private static volatile Map<Key<?>, Integer> keyIndexes = new IdentityHashMap<>();
+
+    /**
+     * All the known {@link Key}s by their index, published
+     * before the index map that contains them.
+     */
+    private static volatile Key<?>[] keysByIndex = new Key<?>[0];
+
+    /**
+     * Gets the dense index of the specified {@link Key}. Keys that were
+     * created through this factory get their index on creation, all other
+     * keys (from plugins, etc.) are assigned one on their first use.
+     *
+     * @param key The key
+     * @return The index
+     */
+    public static int getIndex(Key<?> key) {
+        final Integer index = keyIndexes.get(key);
+        if (index != null) {
+            return index;
+        }
+        return assignIndex(key);
+    }
+
+    /**
+     * Gets the dense index of the specified {@link Key}, without
+     * assigning one if the key doesn't have an index yet.
+     *
+     * @param key The key
+     * @return The index, or {@code -1} if the key doesn't have one
+     */
+    public static int findIndex(Object key) {
+        final Integer index = keyIndexes.get(key);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Gets the {@link Key} with the specified dense index.
+     *
+     * @param index The index
+     * @return The key
+     */
+    public static Key<?> getKey(int index) {
+        return keysByIndex[index];
+    }
+
+    private static int assignIndex(Key<?> key) {
+        synchronized (indexLock) {
+            Integer index = keyIndexes.get(key);
+            if (index == null) {
+                final Map<Key<?>, Integer> keyIndexes = new IdentityHashMap<>(LanternKeyFactory.keyIndexes);
+                index = keyIndexes.size();
+                keyIndexes.put(key, index);
+                final Key<?>[] keysByIndex = Arrays.copyOf(LanternKeyFactory.keysByIndex, index + 1);
+                keysByIndex[index] = key;
+                LanternKeyFactory.keysByIndex = keysByIndex;
+                LanternKeyFactory.keyIndexes = keyIndexes;
+            }
+            return index;
+        }
+    }
+
+    private static <K extends Key<?>> K index(K key) {
+        assignIndex(key);
+        return key;
+    }
+
     public static <E> Key<Value<E>> makeValueKey(TypeToken<E> elementToken,
             DataQuery query, String id, String name) {
         final TypeToken<Value<E>> valueToken = new TypeToken<Value<E>>() {}
                 .where(new TypeParameter<E>() {}, elementToken);
-        return KeyFactory.makeSingleKey(elementToken, valueToken, query, id, name);
+        return index(KeyFactory.makeSingleKey(elementToken, valueToken, query, id, name));
     }
 
     public static <E> Key<Value<E>> makeValueKey(TypeToken<E> elementToken,
@@ -76,7 +152,7 @@ public static <E> Key<MutableBoundedValue<E>> makeMutableBoundedValueKey(TypeTok
             DataQuery query, String id, String name) {
         final TypeToken<MutableBoundedValue<E>> valueToken = new TypeToken<MutableBoundedValue<E>>() {}
                 .where(new TypeParameter<E>() {}, elementToken);
-        return KeyFactory.makeSingleKey(elementToken, valueToken, query, id, name);
+        return index(KeyFactory.makeSingleKey(elementToken, valueToken, query, id, name));
     }
 
     public static <E> Key<MutableBoundedValue<E>> makeMutableBoundedValueKey(TypeToken<E> elementToken,
@@ -98,7 +174,7 @@ public static <E> Key<ImmutableBoundedValue<E>> makeImmutableBoundedValueKey(Typ
             DataQuery query, String id, String name) {
         final TypeToken<ImmutableBoundedValue<E>> valueToken = new TypeToken<ImmutableBoundedValue<E>>() {}
                 .where(new TypeParameter<E>() {}, elementToken);
-        return KeyFactory.makeSingleKey(elementToken, valueToken, query, id, name);
+        return index(KeyFactory.makeSingleKey(elementToken, valueToken, query, id, name));
     }
 
     public static <E> Key<ImmutableBoundedValue<E>> makeImmutableBoundedValueKey(TypeToken<E> elementToken,
@@ -118,7 +194,7 @@ public static <E> Key<ImmutableBoundedValue<E>> makeImmutableBoundedValueKey(Cla
 
     public static <E, V extends BaseValue<E>> Key<V> makeSingleKey(TypeToken<E> elementToken, TypeToken<V> valueToken,
             DataQuery query, String id, String name) {
-        return KeyFactory.makeSingleKey(elementToken, valueToken, query, id, name);
+        return index(KeyFactory.makeSingleKey(elementToken, valueToken, query, id, name));
     }
 
     public static <E, V extends BaseValue<E>> Key<V> makeSingleKey(TypeToken<E> elementToken, TypeToken<V> valueToken,
@@ -138,7 +214,7 @@ public static <E, V extends BaseValue<E>> Key<V> makeSingleKey(Class<E> elementT
 
     public static <E> Key<ListValue<E>> makeListKey(TypeToken<? extends List<E>> elementToken, TypeToken<ListValue<E>> valueToken,
             DataQuery query, String id, String name) {
-        return KeyFactory.makeListKey(elementToken, valueToken, query, id, name);
+        return index(KeyFactory.makeListKey(elementToken, valueToken, query, id, name));
     }
 
     public static <E> Key<ListValue<E>> makeListKey(TypeToken<? extends List<E>> elementToken, TypeToken<ListValue<E>> valueToken,
@@ -182,7 +258,7 @@ public static Key<PatternListValue> makePatternListKey(DataQuery query, String i
 
     public static <E> Key<SetValue<E>> makeSetKey(TypeToken<? extends Set<E>> elementToken, TypeToken<SetValue<E>> valueToken,
             DataQuery query, String id, String name) {
-        return KeyFactory.makeSetKey(elementToken, valueToken, query, id, name);
+        return index(KeyFactory.makeSetKey(elementToken, valueToken, query, id, name));
     }
 
     public static <E> Key<SetValue<E>> makeSetKey(TypeToken<? extends Set<E>> elementToken, TypeToken<SetValue<E>> valueToken,
@@ -220,7 +296,7 @@ public static <E> Key<OptionalValue<E>> makeOptionalKey(TypeToken<E> elementToke
                 .where(new TypeParameter<E>() {}, elementToken);
         final TypeToken<OptionalValue<E>> valueToken = new TypeToken<OptionalValue<E>>() {}
                 .where(new TypeParameter<E>() {}, elementToken);
-        return KeyFactory.makeOptionalKey(elementToken0, valueToken, query, id, name);
+        return index(KeyFactory.makeOptionalKey(elementToken0, valueToken, query, id, name));
     }
 
     public static <E> Key<OptionalValue<E>> makeOptionalKey(TypeToken<E> elementToken,
@@ -240,12 +316,12 @@ public static <E> Key<OptionalValue<E>> makeOptionalKey(Class<E> elementType,
 
     public static <K, V> Key<MapValue<K, V>> makeMapKey(TypeToken<Map<K, V>> elementToken, TypeToken<MapValue<K, V>> valueToken,
             DataQuery query, String id, String name) {
-        return KeyFactory.makeMapKey(elementToken, valueToken, query, id, name);
+        return index(KeyFactory.makeMapKey(elementToken, valueToken, query, id, name));
     }
 
     public static <K, V> Key<MapValue<K, V>> makeMapKey(TypeToken<Map<K, V>> elementToken, TypeToken<MapValue<K, V>> valueToken,
             DataQuery query, String id) {
-        return KeyFactory.makeMapKey(elementToken, valueToken, query, id, query.last().toString());
+        return index(KeyFactory.makeMapKey(elementToken, valueToken, query, id, query.last().toString()));
     }
 
     public static <K, V> Key<MapValue<K, V>> makeMapKeyWithKeyAndValue(TypeToken<K> keyToken, TypeToken<V> valueToken,
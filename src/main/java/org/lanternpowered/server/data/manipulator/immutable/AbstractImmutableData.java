@@ -35,6 +35,7 @@
 import org.lanternpowered.server.data.value.AbstractValueContainer;
 import org.lanternpowered.server.data.value.ElementHolderKeyRegistration;
 import org.lanternpowered.server.data.value.KeyRegistration;
+import org.lanternpowered.server.data.value.KeyRegistrationMap;
 import org.lanternpowered.server.util.collect.Collections3;
 import org.spongepowered.api.data.DataContainer;
 import org.spongepowered.api.data.DataView;
@@ -47,7 +48,6 @@
 import org.spongepowered.api.data.value.immutable.ImmutableValue;
 import org.spongepowered.api.data.value.mutable.Value;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
@@ -67,7 +67,7 @@
     public AbstractImmutableData(Class<I> immutableManipulatorType, Class<M> manipulatorType) {
         this.immutableManipulatorType = immutableManipulatorType;
         this.manipulatorType = manipulatorType;
-        this.rawValueMap = new HashMap<>();
+        this.rawValueMap = new KeyRegistrationMap();
         registerKeys();
     }
 
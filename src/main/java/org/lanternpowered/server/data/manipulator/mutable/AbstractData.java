@@ -37,6 +37,7 @@
 import org.lanternpowered.server.data.value.ElementHolder;
 import org.lanternpowered.server.data.value.ElementHolderKeyRegistration;
 import org.lanternpowered.server.data.value.KeyRegistration;
+import org.lanternpowered.server.data.value.KeyRegistrationMap;
 import org.lanternpowered.server.data.value.LanternValueFactory;
 import org.lanternpowered.server.data.value.processor.ValueProcessor;
 import org.lanternpowered.server.util.collect.Collections3;
@@ -53,7 +54,6 @@
 import org.spongepowered.api.data.persistence.InvalidDataException;
 import org.spongepowered.api.data.value.BaseValue;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -72,7 +72,7 @@
     protected AbstractData(Class<M> manipulatorType, Class<I> immutableManipulatorType) {
         this.immutableManipulatorType = immutableManipulatorType;
         this.manipulatorType = manipulatorType;
-        this.rawValueMap = new HashMap<>();
+        this.rawValueMap = new KeyRegistrationMap();
         registerKeys();
     }
 
@@ -26,6 +26,7 @@
 package org.lanternpowered.server.data.persistence.nbt;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 import static org.lanternpowered.server.data.persistence.nbt.NbtConstants.BOOLEAN;
 import static org.lanternpowered.server.data.persistence.nbt.NbtConstants.BOOLEAN_IDENTIFER;
 import static org.lanternpowered.server.data.persistence.nbt.NbtConstants.BOOLEAN_LIST;
@@ -60,12 +61,19 @@
 
 /**
  * A data input stream that deserializes data views from the nbt format.
+ * <p>
+ * Besides reading complete {@link DataContainer}s, the stream can also be
+ * read entry by entry through {@link #nextEntry()}. This allows specific
+ * formats to be decoded without building the complete data tree.
  */
 public class NbtDataContainerInputStream implements Closeable, DataContainerInput {
 
     private final DataInputStream dis;
     private final int maximumDepth;
 
+    // The name of the entry that was last read by nextEntry
+    @Nullable private String entryName;
+
     /**
      * Creates a new nbt data view input stream.
      *
@@ -142,6 +150,132 @@ public DataContainer read() throws IOException, InvalidDataFormatException {
         return (DataContainer) this.readObject(null, entry, 0);
     }
 
+    /**
+     * Reads the header of the next entry. The payload of the entry must
+     * be read or skipped before the next entry can be read.
+     *
+     * @return The type of the entry, {@link NbtConstants#END} if the current compound ended
+     * @throws IOException If an i/o error occurs
+     */
+    public byte nextEntry() throws IOException {
+        final Entry entry = this.readEntry();
+        if (entry == null) {
+            this.entryName = null;
+            return END;
+        }
+        this.entryName = entry.name;
+        return entry.type;
+    }
+
+    /**
+     * Gets the name of the entry that was last read by {@link #nextEntry()}.
+     *
+     * @return The entry name
+     */
+    public String getEntryName() {
+        checkState(this.entryName != null, "There is no entry available.");
+        return this.entryName;
+    }
+
+    /**
+     * Reads the payload of the given type, compounds will be
+     * read as a {@link DataView}.
+     *
+     * @param type The type of the payload
+     * @return The payload
+     * @throws IOException If an i/o error occurs
+     */
+    public Object readPayload(byte type) throws IOException {
+        return this.readPayload(null, type, 0);
+    }
+
+    /**
+     * Skips the payload of the given type.
+     *
+     * @param type The type of the payload
+     * @throws IOException If an i/o error occurs
+     */
+    public void skipPayload(byte type) throws IOException {
+        if (type == BYTE || type == BOOLEAN) {
+            this.skipFully(1);
+        } else if (type == SHORT) {
+            this.skipFully(2);
+        } else if (type == INT || type == FLOAT) {
+            this.skipFully(4);
+        } else if (type == LONG || type == DOUBLE) {
+            this.skipFully(8);
+        } else if (type == BYTE_ARRAY) {
+            this.skipFully(this.dis.readInt());
+        } else if (type == INT_ARRAY) {
+            this.skipFully(this.dis.readInt() * 4);
+        } else if (type == STRING) {
+            this.skipFully(this.dis.readUnsignedShort());
+        } else if (type == LIST || type == BOOLEAN_LIST) {
+            final byte type0 = this.dis.readByte();
+            final int size = this.dis.readInt();
+            for (int i = 0; i < size; i++) {
+                this.skipPayload(type0);
+            }
+        } else if (type == COMPOUND) {
+            byte type0;
+            while ((type0 = this.dis.readByte()) != END) {
+                this.skipFully(this.dis.readUnsignedShort());
+                this.skipPayload(type0);
+            }
+        } else {
+            throw new InvalidDataFormatException("Attempt to skip a unknown nbt tag type: " + type);
+        }
+    }
+
+    private void skipFully(int length) throws IOException {
+        while (length > 0) {
+            final int skipped = this.dis.skipBytes(length);
+            if (skipped <= 0) {
+                // Fall back to reading, to detect the end of the stream
+                this.dis.readByte();
+                length--;
+            } else {
+                length -= skipped;
+            }
+        }
+    }
+
+    /**
+     * Gets the underlying {@link DataInputStream}, this can be
+     * used to read the payload of primitive types.
+     *
+     * @return The data input stream
+     */
+    public DataInputStream getDataInput() {
+        return this.dis;
+    }
+
+    /**
+     * Reads the payload of a byte array.
+     *
+     * @return The byte array
+     * @throws IOException If an i/o error occurs
+     */
+    public byte[] readByteArray() throws IOException {
+        final byte[] array = new byte[this.dis.readInt()];
+        this.dis.readFully(array);
+        return array;
+    }
+
+    /**
+     * Reads the payload of a int array.
+     *
+     * @return The int array
+     * @throws IOException If an i/o error occurs
+     */
+    public int[] readIntArray() throws IOException {
+        final int[] array = new int[this.dis.readInt()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = this.dis.readInt();
+        }
+        return array;
+    }
+
     private Object readObject(@Nullable DataView container, Entry entry, int depth) throws IOException, InvalidDataFormatException {
         return this.readPayload(container, entry.type, depth);
     }
@@ -170,11 +304,7 @@ private Object readPayload(@Nullable DataView container, byte type, int depth) t
         if (type == BYTE) {
             return this.dis.readByte();
         } else if (type == BYTE_ARRAY) {
-            byte[] array = new byte[this.dis.readInt()];
-            for (int i = 0; i < array.length; i++) {
-                array[i] = this.dis.readByte();
-            }
-            return array;
+            return this.readByteArray();
         } else if (type == COMPOUND) {
             if (container == null) {
                 container = DataContainer.createNew(DataView.SafetyMode.NO_DATA_CLONED);
@@ -196,11 +326,7 @@ private Object readPayload(@Nullable DataView container, byte type, int depth) t
         } else if (type == INT) {
             return this.dis.readInt();
         } else if (type == INT_ARRAY) {
-            int[] array = new int[this.dis.readInt()];
-            for (int i = 0; i < array.length; i++) {
-                array[i] = this.dis.readInt();
-            }
-            return array;
+            return this.readIntArray();
         } else if (type == LIST || type == BOOLEAN_LIST) {
             byte type0 = this.dis.readByte();
             if (type == BOOLEAN_LIST) {
@@ -499,24 +499,28 @@ default <V extends BaseValue<E>, E> KeyRegistration<V, E> registerProcessorKey(K
     }
 
     default Map<Key<?>, KeyRegistration> copyRawValueMap() {
-        final Map<Key<?>, KeyRegistration> copy = new HashMap<>();
         final Map<Key<?>, KeyRegistration> map = getRawValueMap();
+        if (map instanceof KeyRegistrationMap) {
+            // Copies the registration slots directly
+            return ((KeyRegistrationMap) map).copy(AbstractValueContainer::copyKeyRegistration);
+        }
+        final Map<Key<?>, KeyRegistration> copy = new KeyRegistrationMap();
         for (Map.Entry<Key<?>, KeyRegistration> entry : map.entrySet()) {
-            final KeyRegistration registration = entry.getValue();
-            KeyRegistration registrationCopy;
-            if (registration instanceof ElementHolderKeyRegistration) {
-                //noinspection unchecked
-                final ElementHolderKeyRegistrationImpl element = new ElementHolderKeyRegistrationImpl(registration.getKey());
-                element.value = ((ElementHolderKeyRegistration) registration).get();
-                registrationCopy = element;
-            } else {
-                registrationCopy = ((SimpleKeyRegistration.SingleProcessor) registration).copy();
-            }
-            copy.put(entry.getKey(), registrationCopy);
+            copy.put(entry.getKey(), copyKeyRegistration(entry.getValue()));
         }
         return copy;
     }
 
+    static KeyRegistration copyKeyRegistration(KeyRegistration registration) {
+        if (registration instanceof ElementHolderKeyRegistration) {
+            //noinspection unchecked
+            final ElementHolderKeyRegistrationImpl element = new ElementHolderKeyRegistrationImpl(registration.getKey());
+            element.value = ((ElementHolderKeyRegistration) registration).get();
+            return element;
+        }
+        return ((SimpleKeyRegistration.SingleProcessor) registration).copy();
+    }
+
     @Nullable
     default Map<Class<?>, H> copyRawAdditionalManipulators() {
         return copyRawAdditionalManipulators(HashMap::new);
@@ -0,0 +1,245 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.data.value;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.lanternpowered.server.data.key.LanternKeyFactory;
+import org.spongepowered.api.data.key.Key;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+import javax.annotation.Nullable;
+
+/**
+ * A compact {@link java.util.Map} of {@link KeyRegistration}s by their {@link Key}. Every
+ * key has a dense index that is assigned once by the {@link LanternKeyFactory}, the
+ * registrations are stored directly in the slot of their key index.
+ *
+ * <p>The slot array only grows up to the highest key index that was put into the map,
+ * copying a value container only has to copy the registrations.</p>
+ */
+@SuppressWarnings("rawtypes")
+public final class KeyRegistrationMap extends AbstractMap<Key<?>, KeyRegistration> {
+
+    private static final KeyRegistration[] EMPTY_REGISTRATIONS = new KeyRegistration[0];
+
+    private KeyRegistration[] registrations;
+    private int size;
+    private int modCount;
+
+    @Nullable private EntrySet entrySet;
+
+    public KeyRegistrationMap() {
+        this.registrations = EMPTY_REGISTRATIONS;
+    }
+
+    private KeyRegistrationMap(KeyRegistration[] registrations, int size) {
+        this.registrations = registrations;
+        this.size = size;
+    }
+
+    /**
+     * Creates a copy of this map, every {@link KeyRegistration}
+     * will be replaced by the result of the copy function.
+     *
+     * @param copyFunction The function to copy the registrations
+     * @return The copy
+     */
+    public KeyRegistrationMap copy(UnaryOperator<KeyRegistration> copyFunction) {
+        final KeyRegistration[] registrations = new KeyRegistration[this.registrations.length];
+        for (int i = 0; i < registrations.length; i++) {
+            final KeyRegistration registration = this.registrations[i];
+            if (registration != null) {
+                registrations[i] = copyFunction.apply(registration);
+            }
+        }
+        return new KeyRegistrationMap(registrations, this.size);
+    }
+
+    /**
+     * Gets the slot of the key, returns {@code -1} if the key
+     * doesn't have an index or if it's out of bounds.
+     */
+    private int slot(Object key) {
+        if (!(key instanceof Key)) {
+            return -1;
+        }
+        final int index = LanternKeyFactory.findIndex(key);
+        return index < this.registrations.length ? index : -1;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        final int slot = slot(key);
+        return slot >= 0 && this.registrations[slot] != null;
+    }
+
+    @Nullable
+    @Override
+    public KeyRegistration get(Object key) {
+        final int slot = slot(key);
+        return slot >= 0 ? this.registrations[slot] : null;
+    }
+
+    @Nullable
+    @Override
+    public KeyRegistration put(Key<?> key, KeyRegistration registration) {
+        checkNotNull(key, "key");
+        checkNotNull(registration, "registration");
+        final int index = LanternKeyFactory.getIndex(key);
+        if (index >= this.registrations.length) {
+            this.registrations = Arrays.copyOf(this.registrations, index + 1);
+        }
+        final KeyRegistration old = this.registrations[index];
+        this.registrations[index] = registration;
+        if (old == null) {
+            this.size++;
+            this.modCount++;
+        }
+        return old;
+    }
+
+    @Nullable
+    @Override
+    public KeyRegistration remove(Object key) {
+        final int slot = slot(key);
+        if (slot < 0) {
+            return null;
+        }
+        final KeyRegistration old = this.registrations[slot];
+        if (old != null) {
+            removeSlot(slot);
+        }
+        return old;
+    }
+
+    private void removeSlot(int slot) {
+        this.registrations[slot] = null;
+        this.size--;
+        this.modCount++;
+    }
+
+    @Override
+    public void clear() {
+        this.registrations = EMPTY_REGISTRATIONS;
+        this.size = 0;
+        this.modCount++;
+    }
+
+    @Override
+    public Set<Entry<Key<?>, KeyRegistration>> entrySet() {
+        if (this.entrySet == null) {
+            this.entrySet = new EntrySet();
+        }
+        return this.entrySet;
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<Key<?>, KeyRegistration>> {
+
+        @Override
+        public Iterator<Entry<Key<?>, KeyRegistration>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return KeyRegistrationMap.this.size();
+        }
+
+        @Override
+        public void clear() {
+            KeyRegistrationMap.this.clear();
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Entry<Key<?>, KeyRegistration>> {
+
+        private int next;
+        private int last = -1;
+        private int expectedModCount = KeyRegistrationMap.this.modCount;
+
+        EntryIterator() {
+            skipEmpty();
+        }
+
+        private void skipEmpty() {
+            final KeyRegistration[] registrations = KeyRegistrationMap.this.registrations;
+            while (this.next < registrations.length && registrations[this.next] == null) {
+                this.next++;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.next < KeyRegistrationMap.this.registrations.length;
+        }
+
+        @Override
+        public Entry<Key<?>, KeyRegistration> next() {
+            if (this.expectedModCount != KeyRegistrationMap.this.modCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (this.next >= KeyRegistrationMap.this.registrations.length) {
+                throw new NoSuchElementException();
+            }
+            this.last = this.next++;
+            skipEmpty();
+            return new SimpleImmutableEntry<>(LanternKeyFactory.getKey(this.last),
+                    KeyRegistrationMap.this.registrations[this.last]);
+        }
+
+        @Override
+        public void remove() {
+            if (this.last < 0) {
+                throw new IllegalStateException();
+            }
+            if (this.expectedModCount != KeyRegistrationMap.this.modCount) {
+                throw new ConcurrentModificationException();
+            }
+            removeSlot(this.last);
+            this.last = -1;
+            this.expectedModCount = KeyRegistrationMap.this.modCount;
+        }
+    }
+}
@@ -37,6 +37,7 @@
 import org.lanternpowered.server.data.key.LanternKeys;
 import org.lanternpowered.server.data.property.AbstractPropertyHolder;
 import org.lanternpowered.server.data.value.KeyRegistration;
+import org.lanternpowered.server.data.value.KeyRegistrationMap;
 import org.lanternpowered.server.entity.event.EntityEvent;
 import org.lanternpowered.server.entity.living.player.LanternPlayer;
 import org.lanternpowered.server.game.registry.type.entity.EntityTypeRegistryModule;
@@ -72,7 +73,6 @@
 
 import java.util.ArrayList;
 import java.util.EnumSet;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -101,7 +101,7 @@ public class LanternEntity implements Entity, AbstractDataHolder, AbstractProper
     private final Random random = new Random();
 
     // The raw value map
-    private final Map<Key<?>, KeyRegistration> rawValueMap = new HashMap<>();
+    private final Map<Key<?>, KeyRegistration> rawValueMap = new KeyRegistrationMap();
     private final Map<Class<?>, DataManipulator<?, ?>> rawAdditionalManipulators = new ConcurrentHashMap<>();
 
     // The world this entity is located in, may be null
@@ -28,6 +28,8 @@
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.flowpowered.math.vector.Vector3d;
+import io.netty.util.concurrent.FastThreadLocal;
+import org.lanternpowered.server.block.aabb.AABBBuffer;
 import org.lanternpowered.server.data.key.LanternKeys;
 import org.lanternpowered.server.entity.event.CollectEntityEvent;
 import org.lanternpowered.server.entity.living.player.LanternPlayer;
@@ -35,6 +37,7 @@
 import org.lanternpowered.server.inventory.LanternItemStackSnapshot;
 import org.lanternpowered.server.inventory.PeekOfferTransactionsResult;
 import org.lanternpowered.server.network.entity.EntityProtocolTypes;
+import org.lanternpowered.server.util.FastThreadLocals;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.block.BlockTypes;
 import org.spongepowered.api.data.Transaction;
@@ -76,6 +79,9 @@ private static final class EffectHolder {
     private static final int NO_DESPAWN_DELAY = 59536;
     private static final int NO_PICKUP_DELAY = 32767;
 
+    // The buffer that is reused for the collision checks of the current thread
+    private static final FastThreadLocal<AABBBuffer> collisionBoxes = FastThreadLocals.withInitial(AABBBuffer::new);
+
     private int counter;
 
     public LanternItem(UUID uniqueId) {
@@ -142,9 +148,15 @@ private void pulsePhysics() {
         boolean ground = false;
 
         final AABB thisBox = getBoundingBox().get().offset(0, -0.1, 0);
-        final Set<AABB> boxes = getWorld().getIntersectingBlockCollisionBoxes(thisBox);
-        for (AABB box : boxes) {
-            final Vector3d factor = box.getCenter().sub(thisBox.getCenter());
+        final AABBBuffer boxes = collisionBoxes.get();
+        boxes.clear();
+        getWorld().addIntersectingCollisionBoxes(thisBox, boxes, null);
+        final Vector3d center = thisBox.getCenter();
+        for (int i = 0; i < boxes.size() && !ground; i++) {
+            final Vector3d factor = new Vector3d(
+                    (boxes.getMinX(i) + boxes.getMaxX(i)) * 0.5 - center.getX(),
+                    (boxes.getMinY(i) + boxes.getMaxY(i)) * 0.5 - center.getY(),
+                    (boxes.getMinZ(i) + boxes.getMaxZ(i)) * 0.5 - center.getZ());
             if (Direction.getClosest(factor).isUpright()) {
                 ground = true;
             }
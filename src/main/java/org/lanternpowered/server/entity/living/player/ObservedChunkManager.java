@@ -26,30 +26,33 @@
 package org.lanternpowered.server.entity.living.player;
 
 import static org.lanternpowered.server.world.chunk.LanternChunk.ALL_SECTIONS_BIT_MASK;
-import static org.lanternpowered.server.world.chunk.LanternChunk.CHUNK_SECTION_SIZE;
+import static org.lanternpowered.server.world.chunk.LanternChunk.CHUNK_SECTIONS;
 import static org.lanternpowered.server.world.chunk.LanternChunk.CHUNK_SECTION_VOLUME;
 
 import com.flowpowered.math.vector.Vector2i;
 import com.flowpowered.math.vector.Vector3i;
 import com.google.common.collect.Sets;
 import it.unimi.dsi.fastutil.shorts.Short2ObjectMap;
+import it.unimi.dsi.fastutil.shorts.Short2ObjectMaps;
 import it.unimi.dsi.fastutil.shorts.Short2ObjectOpenHashMap;
-import it.unimi.dsi.fastutil.shorts.Short2ShortMap;
-import it.unimi.dsi.fastutil.shorts.Short2ShortOpenHashMap;
 import org.lanternpowered.server.block.action.BlockAction;
 import org.lanternpowered.server.block.tile.LanternTileEntity;
 import org.lanternpowered.server.data.io.store.ObjectSerializer;
 import org.lanternpowered.server.data.io.store.ObjectSerializerRegistry;
+import org.lanternpowered.server.game.Lantern;
 import org.lanternpowered.server.game.registry.type.block.BlockRegistryModule;
 import org.lanternpowered.server.network.message.Message;
+import org.lanternpowered.server.network.message.PreEncodedMessage;
+import org.lanternpowered.server.network.vanilla.message.codec.play.CodecPlayOutChunkData;
 import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutBlockAction;
 import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutBlockChange;
 import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutChunkData;
 import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutMultiBlockChange;
 import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutUnloadChunk;
-import org.lanternpowered.server.util.VariableValueArray;
+import org.lanternpowered.server.util.NibbleArray;
 import org.lanternpowered.server.world.LanternWorld;
 import org.lanternpowered.server.world.WorldEventListener;
+import org.lanternpowered.server.world.chunk.ChunkBlockStateArray;
 import org.lanternpowered.server.world.chunk.LanternChunk;
 import org.spongepowered.api.block.BlockState;
 import org.spongepowered.api.block.BlockType;
@@ -65,9 +68,12 @@
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import javax.annotation.Nullable;
+
 public final class ObservedChunkManager implements WorldEventListener {
 
     /**
@@ -133,6 +139,22 @@ public void onBlockAction(int x, int y, int z, BlockType blockType, BlockAction
         }
     }
 
+    @Override
+    public void onLightChange(LanternChunk chunk, int sectionsBitMask) {
+        final ObservedChunk observedChunk = this.observedChunks.get(chunk.getKey());
+        if (observedChunk != null) {
+            observedChunk.addSectionsChange(sectionsBitMask);
+        }
+    }
+
+    @Override
+    public void onBlocksChange(LanternChunk chunk, int sectionsBitMask) {
+        final ObservedChunk observedChunk = this.observedChunks.get(chunk.getKey());
+        if (observedChunk != null) {
+            observedChunk.addSectionsChange(sectionsBitMask);
+        }
+    }
+
     void addObserver(Vector2i coords, LanternPlayer observer) {
         final long key = LanternChunk.key(coords.getX(), coords.getY());
         final ObservedChunk observedChunk = this.observedChunks.computeIfAbsent(key, key1 -> new ObservedChunk(coords));
@@ -150,19 +172,65 @@ void removeObserver(Vector2i coords, LanternPlayer observer, boolean updateClien
         }
     }
 
-    private static final VariableValueArray EMPTY_SECTION_TYPES = new VariableValueArray(4, CHUNK_SECTION_VOLUME);
-    private static final byte[] EMPTY_SECTION_LIGHT = new byte[CHUNK_SECTION_SIZE];
-    private static final byte[] EMPTY_SECTION_SKY_LIGHT = new byte[CHUNK_SECTION_SIZE];
+    private static final MessagePlayOutChunkData.Section EMPTY_SECTION_SKYLIGHT;
+    private static final MessagePlayOutChunkData.Section EMPTY_SECTION;
 
     static {
-        Arrays.fill(EMPTY_SECTION_SKY_LIGHT, (byte) 255);
+        final ChunkBlockStateArray types = new ChunkBlockStateArray(CHUNK_SECTION_VOLUME);
+        final NibbleArray blockLight = new NibbleArray(CHUNK_SECTION_VOLUME);
+        final NibbleArray skyLight = new NibbleArray(CHUNK_SECTION_VOLUME);
+        skyLight.fill((byte) 15);
+        EMPTY_SECTION_SKYLIGHT = new MessagePlayOutChunkData.Section(
+                CodecPlayOutChunkData.encodeSection(types, blockLight, skyLight), Short2ObjectMaps.emptyMap());
+        EMPTY_SECTION = new MessagePlayOutChunkData.Section(
+                CodecPlayOutChunkData.encodeSection(types, blockLight, null), Short2ObjectMaps.emptyMap());
     }
 
-    private static final MessagePlayOutChunkData.Section EMPTY_SECTION_SKYLIGHT = new MessagePlayOutChunkData.Section(
-            EMPTY_SECTION_TYPES, new int[1], EMPTY_SECTION_LIGHT, EMPTY_SECTION_SKY_LIGHT, new Short2ObjectOpenHashMap<>());
+    /**
+     * The encoded data of a chunk section, this can be reused as
+     * long as the section wasn't modified.
+     */
+    private static final class EncodedSection {
+
+        private final LanternChunk.ChunkSection section;
+        private final int version;
+        private final byte[] data;
 
-    private static final MessagePlayOutChunkData.Section EMPTY_SECTION = new MessagePlayOutChunkData.Section(
-            EMPTY_SECTION_TYPES, new int[1], EMPTY_SECTION_LIGHT, null, new Short2ObjectOpenHashMap<>());
+        private EncodedSection(LanternChunk.ChunkSection section, int version, byte[] data) {
+            this.section = section;
+            this.version = version;
+            this.data = data;
+        }
+    }
+
+    /**
+     * The maximum amount of ticks that a cached chunk load message
+     * which contains tile entities may be reused, changes to the
+     * data of tile entities aren't tracked.
+     */
+    private static final int TILE_ENTITIES_CACHE_TICKS = 20;
+
+    /**
+     * A chunk load message that is shared between all the
+     * observers of a chunk, this is only encoded once.
+     */
+    private static final class CachedChunkLoadMessage {
+
+        private final LanternChunk chunk;
+        private final int modificationCount;
+        private final int creationTick;
+        private final boolean tileEntities;
+        private final PreEncodedMessage message;
+
+        private CachedChunkLoadMessage(LanternChunk chunk, int modificationCount, int creationTick,
+                boolean tileEntities, PreEncodedMessage message) {
+            this.chunk = chunk;
+            this.modificationCount = modificationCount;
+            this.creationTick = creationTick;
+            this.tileEntities = tileEntities;
+            this.message = message;
+        }
+    }
 
     private class ObservedChunk {
 
@@ -203,6 +271,16 @@ private QueuedBlockAction(BlockAction blockAction, MessagePlayOutBlockAction blo
         private final Map<Vector3i, QueuedBlockAction> addedBlockActions = new ConcurrentHashMap<>();
         private final Map<Vector3i, QueuedBlockAction> activeBlockActions = new ConcurrentHashMap<>();
 
+        /**
+         * The encoded data of the chunk sections that were send last.
+         */
+        private final EncodedSection[] encodedSections = new EncodedSection[CHUNK_SECTIONS];
+
+        /**
+         * The chunk load message that was send last.
+         */
+        @Nullable private volatile CachedChunkLoadMessage cachedChunkLoadMessage;
+
         /**
          * Whether all the chunk sections are modified or whether the biomes are modified
          * and the client should be updated.
@@ -211,6 +289,13 @@ private QueuedBlockAction(BlockAction blockAction, MessagePlayOutBlockAction blo
          */
         private volatile boolean dirtyChunk;
 
+        /**
+         * The bit mask of the chunk sections that should be resend
+         * completely, this is the case for light changes and bulk
+         * block changes.
+         */
+        private final AtomicInteger dirtyResendSections = new AtomicInteger();
+
         ObservedChunk(Vector2i coords) {
             this.coords = coords;
         }
@@ -242,6 +327,13 @@ void addBlockChange(Supplier<Vector3i> coords) {
             }
         }
 
+        void addSectionsChange(int sectionsBitMask) {
+            // There is not need to track the changes if no one wants to see them
+            if (!this.dirtyChunk && !this.clientObservers.isEmpty()) {
+                this.dirtyResendSections.getAndAccumulate(sectionsBitMask, (a, b) -> a | b);
+            }
+        }
+
         void streamChanges() {
             final LanternChunk chunk = world.getChunkManager().getChunkIfLoaded(this.coords);
             if (chunk == null || this.clientObservers.isEmpty()) {
@@ -249,13 +341,17 @@ void streamChanges() {
             }
 
             if (this.dirtyChunk) {
-                final MessagePlayOutChunkData message = this.createLoadChunkMessage(chunk, ALL_SECTIONS_BIT_MASK, true);
+                final Message message = getChunkLoadMessage(chunk);
                 this.clientObservers.forEach(player -> player.getConnection().send(message));
                 this.dirtyChunk = false;
                 this.dirtyBlocks.clear();
+                this.dirtyResendSections.set(0);
                 return;
             }
 
+            // The light and bulk changes are send through the section data
+            int dirtyResendSections = this.dirtyResendSections.getAndSet(0);
+
             if (!this.dirtyBlocks.isEmpty()) {
                 // All the changes per coordinate
                 final Set<Vector3i> changes = new HashSet<>();
@@ -272,8 +368,8 @@ void streamChanges() {
 
                 final int clumpingThreshold = world.getProperties().getConfig().getChunkClumpingThreshold();
                 if (changes.size() >= clumpingThreshold) {
-                    final MessagePlayOutChunkData message = this.createLoadChunkMessage(chunk, dirtySections, false);
-                    this.clientObservers.forEach(player -> player.getConnection().send(message));
+                    streamSections(chunk, dirtySections | dirtyResendSections);
+                    dirtyResendSections = 0;
                 } else if (changes.size() > 1) {
                     final MessagePlayOutMultiBlockChange message = new MessagePlayOutMultiBlockChange(
                             this.coords.getX(), this.coords.getY(), changes.stream().map(coords -> {
@@ -291,6 +387,10 @@ void streamChanges() {
                 // TODO: Also update tile entities
             }
 
+            if (dirtyResendSections != 0) {
+                streamSections(chunk, dirtyResendSections);
+            }
+
             if (!this.addedBlockActions.isEmpty()) {
                 final Set<Message> messages = new HashSet<>();
 
@@ -309,9 +409,19 @@ void streamChanges() {
             }
         }
 
+        private void streamSections(LanternChunk chunk, int sectionsBitMask) {
+            Message message = this.createLoadChunkMessage(chunk, sectionsBitMask, false);
+            // Only encode the sections once for all the observers
+            if (this.clientObservers.size() > 1) {
+                message = new PreEncodedMessage(message);
+            }
+            final Message message1 = message;
+            this.clientObservers.forEach(player -> player.getConnection().send(message1));
+        }
+
         private List<Message> createChunkLoadMessages(LanternChunk chunk) {
             final List<Message> messages = new ArrayList<>();
-            messages.add(createLoadChunkMessage(chunk, ALL_SECTIONS_BIT_MASK, true));
+            messages.add(getChunkLoadMessage(chunk));
             if (!this.activeBlockActions.isEmpty()) {
                 this.activeBlockActions.values().forEach(queuedBlockAction -> messages.add(queuedBlockAction.blockActionData));
             }
@@ -338,6 +448,9 @@ void streamChunkLoad(LanternChunk chunk) {
         }
 
         void streamChunkUnload(LanternChunk chunk) {
+            // The sections of the unloaded chunk can no longer be reused
+            Arrays.fill(this.encodedSections, null);
+            this.cachedChunkLoadMessage = null;
             Message message = null;
             for (LanternPlayer observer : this.observers) {
                 if (this.clientObservers.remove(observer)) {
@@ -349,79 +462,93 @@ void streamChunkUnload(LanternChunk chunk) {
             }
         }
 
+        /**
+         * Gets the chunk load message for the given chunk, the message will be shared
+         * between all the observers that load the chunk as long as it isn't modified.
+         *
+         * @param chunk The chunk
+         * @return The chunk load message
+         */
+        private Message getChunkLoadMessage(LanternChunk chunk) {
+            final int modificationCount = chunk.getModificationCount();
+            final int tick = Lantern.getServer().getRunningTimeTicks();
+            CachedChunkLoadMessage cached = this.cachedChunkLoadMessage;
+            if (cached != null && cached.chunk == chunk && cached.modificationCount == modificationCount &&
+                    (!cached.tileEntities || tick - cached.creationTick < TILE_ENTITIES_CACHE_TICKS)) {
+                return cached.message;
+            }
+            final MessagePlayOutChunkData message = createLoadChunkMessage(chunk, ALL_SECTIONS_BIT_MASK, true);
+            boolean tileEntities = false;
+            for (MessagePlayOutChunkData.Section section : message.getSections()) {
+                if (section != null && !section.getTileEntities().isEmpty()) {
+                    tileEntities = true;
+                    break;
+                }
+            }
+            cached = new CachedChunkLoadMessage(chunk, modificationCount, tick, tileEntities, new PreEncodedMessage(message));
+            this.cachedChunkLoadMessage = cached;
+            return cached.message;
+        }
+
         private MessagePlayOutChunkData createLoadChunkMessage(LanternChunk chunk, int sectionsBitMask, boolean biomes) {
             // Whether we should send sky light
             final boolean skyLight = world.getDimension().hasSky();
 
-            final LanternChunk.ChunkSectionSnapshot[] sections = chunk.getSectionSnapshots(skyLight, sectionsBitMask);
-            final MessagePlayOutChunkData.Section[] msgSections = new MessagePlayOutChunkData.Section[sections.length];
-
-            for (int i = 0; i < sections.length; i++) {
-                if (sections[i] != null) {
-                    final LanternChunk.ChunkSectionSnapshot section = sections[i];
-                    // The size of the palette
-                    int paletteSize = section.typesCountMap.size();
-                    // The amount of bits for every block state
-                    int bitsPerValue = Integer.highestOneBit(paletteSize);
-                    // The palette that will be send to the client
-                    int[] palette;
-                    // The lookup for global to local palette id
-                    Short2ShortMap globalToLocalPalette;
-                    // There seems to be a weird issue, some blocks are not rendered
-                    // on the client (bedrock with the flat generator) and it cannot
-                    // be placed in creative
-                    if (bitsPerValue <= 8) {
-                        // The vanilla client/server will not go lower then 4 bits
-                        if (bitsPerValue < 4) {
-                            bitsPerValue = 4;
-                        }
-                        globalToLocalPalette = new Short2ShortOpenHashMap(paletteSize);
-                        palette = new int[paletteSize];
-                        short currentId = 0;
-                        for (short type : section.typesCountMap.keySet().toShortArray()) {
-                            globalToLocalPalette.put(type, currentId);
-                            palette[currentId] = type;
-                            currentId++;
-                        }
-                    } else {
-                        // int statesCount = Registries.getBlockRegistry().getBlockStatesCount();
-                        // bitsPerValue = Integer.highestOneBit(statesCount);
-                        // The value should be the amount of bits per value of
-                        // the CLIENT palette, it will otherwise not work.
-                        // This is sadly enough hardcoded in the client
-                        bitsPerValue = 13;
-                        globalToLocalPalette = null;
-                        palette = null;
+            final MessagePlayOutChunkData.Section[] msgSections = new MessagePlayOutChunkData.Section[CHUNK_SECTIONS];
+            //noinspection unchecked
+            final Short2ObjectMap<LanternTileEntity>[] tileEntities = new Short2ObjectMap[1];
+
+            for (int i = 0; i < CHUNK_SECTIONS; i++) {
+                if ((sectionsBitMask & (1 << i)) == 0) {
+                    continue;
+                }
+                final int index = i;
+                tileEntities[0] = null;
+                // Encode the section directly from the chunk storage, or reuse
+                // the data that was encoded the last time if nothing changed
+                final byte[] data = chunk.readSection(index, section -> {
+                    if (section == null) {
+                        return null;
                     }
-                    final short[] types = section.types;
-                    final VariableValueArray array = new VariableValueArray(bitsPerValue, types.length);
-                    if (globalToLocalPalette != null) {
-                        for (int j = 0; j < types.length; j++) {
-                            array.set(j, globalToLocalPalette.get(types[j]));
-                        }
-                    } else {
-                        for (int j = 0; j < types.length; j++) {
-                            array.set(j, types[j]);
-                        }
+                    if (!section.getTileEntities().isEmpty()) {
+                        tileEntities[0] = new Short2ObjectOpenHashMap<>(section.getTileEntities());
                     }
-                    final Short2ObjectMap<DataView> tileEntityDataViews = new Short2ObjectOpenHashMap<>();
-                    // Serialize the tile entities
-                    for (Short2ObjectMap.Entry<LanternTileEntity> tileEntityEntry : section.tileEntities.short2ObjectEntrySet()) {
-                        if (!tileEntityEntry.getValue().isValid()) {
-                            continue;
-                        }
+                    final EncodedSection encodedSection = this.encodedSections[index];
+                    final int version = section.getVersion();
+                    if (encodedSection != null && encodedSection.section == section && encodedSection.version == version) {
+                        return encodedSection.data;
+                    }
+                    final byte[] data1 = CodecPlayOutChunkData.encodeSection(section.getTypes(),
+                            section.getLightFromBlock(), skyLight ? section.getLightFromSky() : null);
+                    this.encodedSections[index] = new EncodedSection(section, version, data1);
+                    return data1;
+                });
+                if (data != null) {
+                    final Short2ObjectMap<DataView> tileEntityDataViews;
+                    if (tileEntities[0] == null) {
+                        tileEntityDataViews = Short2ObjectMaps.emptyMap();
+                    } else {
+                        tileEntityDataViews = new Short2ObjectOpenHashMap<>();
                         //noinspection unchecked
                         final ObjectSerializer<LanternTileEntity> store = ObjectSerializerRegistry.get().get(LanternTileEntity.class).get();
-                        final DataView dataView = store.serialize(tileEntityEntry.getValue());
-                        tileEntityDataViews.put(tileEntityEntry.getShortKey(), dataView);
+                        // Serialize the tile entities
+                        for (Short2ObjectMap.Entry<LanternTileEntity> tileEntityEntry : tileEntities[0].short2ObjectEntrySet()) {
+                            if (!tileEntityEntry.getValue().isValid()) {
+                                continue;
+                            }
+                            final DataView dataView = store.serialize(tileEntityEntry.getValue());
+                            tileEntityDataViews.put(tileEntityEntry.getShortKey(), dataView);
+                        }
                     }
-                    msgSections[i] = new MessagePlayOutChunkData.Section(array, palette,
-                            section.lightFromBlock, section.lightFromSky, tileEntityDataViews);
+                    msgSections[i] = new MessagePlayOutChunkData.Section(data, tileEntityDataViews);
                 // The insert entry setting is used to send a "null" chunk
                 // after the chunk is already send to the client
                 // TODO: Better way to do this?
-                } else if (!biomes && ((1 << i) & sectionsBitMask) != 0) {
+                } else if (!biomes) {
+                    this.encodedSections[i] = null;
                     msgSections[i] = skyLight ? EMPTY_SECTION_SKYLIGHT : EMPTY_SECTION;
+                } else {
+                    this.encodedSections[i] = null;
                 }
             }
 
@@ -435,7 +562,7 @@ private MessagePlayOutChunkData createLoadChunkMessage(LanternChunk chunk, int s
                 }
             }
 
-            return new MessagePlayOutChunkData(this.coords.getX(), this.coords.getY(), skyLight, msgSections, biomesArray);
+            return new MessagePlayOutChunkData(this.coords.getX(), this.coords.getY(), msgSections, biomesArray);
         }
 
         /**
@@ -454,7 +581,10 @@ public void removeObserver(LanternPlayer observer, boolean updateClient) {
             }
             // Clear the dirty states, since no one will still want to see them
             if (this.clientObservers.isEmpty()) {
+                Arrays.fill(this.encodedSections, null);
+                this.cachedChunkLoadMessage = null;
                 this.dirtyBlocks.clear();
+                this.dirtyResendSections.set(0);
                 this.dirtyChunk = false;
             }
         }
@@ -0,0 +1,82 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.event;
+
+import org.slf4j.Logger;
+import org.spongepowered.api.event.Event;
+import org.spongepowered.api.event.EventListener;
+import org.spongepowered.api.event.Order;
+
+import java.util.List;
+
+/**
+ * Dispatches events of a specific event type to all the listeners that
+ * are interested in it. The listener list is fixed for the lifetime of
+ * the dispatcher, a new dispatcher is created when it changes.
+ * <p>
+ * This class must be public, the subclasses are generated by the
+ * {@link EventDispatcherFactory} and defined in a different class loader.
+ */
+public abstract class EventDispatcher {
+
+    private final Logger logger;
+    final RegisteredListener<?>[] listeners;
+
+    protected EventDispatcher(Logger logger, List<?> listeners) {
+        this.logger = logger;
+        this.listeners = listeners.toArray(new RegisteredListener<?>[listeners.size()]);
+    }
+
+    /**
+     * Gets whether there are any listeners that will receive the events.
+     *
+     * @return Has listeners
+     */
+    public final boolean hasListeners() {
+        return this.listeners.length != 0;
+    }
+
+    /**
+     * Dispatches the {@link Event} to all the listeners in
+     * order. Exceptions thrown by the listeners are logged.
+     *
+     * @param event The event
+     */
+    public abstract void dispatch(Event event);
+
+    protected final EventListener<?> getHandler(int index) {
+        return this.listeners[index].getHandler();
+    }
+
+    protected final Order getOrder(int index) {
+        return this.listeners[index].getOrder();
+    }
+
+    protected final void handleError(int index, Event event, Throwable throwable) {
+        this.logger.error("Could not pass {} to {}", event.getClass().getSimpleName(),
+                this.listeners[index].getPlugin(), throwable);
+    }
+}
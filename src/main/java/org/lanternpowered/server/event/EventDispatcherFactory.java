@@ -0,0 +1,249 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.event;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACC_PRIVATE;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_SUPER;
+import static org.objectweb.asm.Opcodes.ACONST_NULL;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ASTORE;
+import static org.objectweb.asm.Opcodes.BIPUSH;
+import static org.objectweb.asm.Opcodes.CHECKCAST;
+import static org.objectweb.asm.Opcodes.GETFIELD;
+import static org.objectweb.asm.Opcodes.GOTO;
+import static org.objectweb.asm.Opcodes.ICONST_0;
+import static org.objectweb.asm.Opcodes.INVOKEINTERFACE;
+import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
+import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.PUTFIELD;
+import static org.objectweb.asm.Opcodes.RETURN;
+import static org.objectweb.asm.Opcodes.V1_6;
+
+import org.lanternpowered.server.util.DefineableClassLoader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+import org.slf4j.Logger;
+import org.spongepowered.api.event.Event;
+import org.spongepowered.api.event.EventListener;
+import org.spongepowered.api.event.Order;
+import org.spongepowered.api.event.impl.AbstractEvent;
+
+import java.lang.reflect.Constructor;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Generates {@link EventDispatcher} classes. A class is generated for every event
+ * type and amount of listeners, the handlers of the listeners are unwrapped from
+ * their {@link RegisteredListener} and every handler is stored in its own field and
+ * invoked from its own call site. A call site only ever sees the handler of its
+ * slot for that event type, so the jit can inline the handlers.
+ * <p>
+ * The handlers and their orders are passed to the constructor, re-baking the
+ * dispatcher of an event type with the same amount of listeners reuses the class.
+ */
+final class EventDispatcherFactory {
+
+    /**
+     * The maximum amount of listeners that will be unrolled into a generated
+     * dispatcher, larger dispatch methods won't be compiled by the jit.
+     */
+    private static final int MAX_GENERATED_LISTENERS = 64;
+
+    private final Map<String, Constructor<? extends EventDispatcher>> constructors = new ConcurrentHashMap<>();
+    private final DefineableClassLoader classLoader;
+    private final Logger logger;
+    private final EventDispatcher emptyDispatcher;
+
+    private final String targetPackage;
+
+    EventDispatcherFactory(String targetPackage, DefineableClassLoader classLoader, Logger logger) {
+        checkNotNull(targetPackage, "targetPackage");
+        checkArgument(!targetPackage.isEmpty(), "targetPackage cannot be empty");
+        this.targetPackage = targetPackage + '.';
+        this.classLoader = checkNotNull(classLoader, "classLoader");
+        this.logger = checkNotNull(logger, "logger");
+        this.emptyDispatcher = new LoopEventDispatcher(logger, Collections.emptyList());
+    }
+
+    /**
+     * Creates a {@link EventDispatcher} for the given event type and
+     * the listeners, the listeners must already be sorted.
+     *
+     * @param eventClass The event class
+     * @param listeners The listeners
+     * @return The event dispatcher
+     */
+    EventDispatcher create(Class<? extends Event> eventClass, List<RegisteredListener<?>> listeners) {
+        if (listeners.isEmpty()) {
+            return this.emptyDispatcher;
+        } else if (listeners.size() > MAX_GENERATED_LISTENERS) {
+            return new LoopEventDispatcher(this.logger, listeners);
+        }
+        final boolean abstractEvent = AbstractEvent.class.isAssignableFrom(eventClass);
+        final int size = listeners.size();
+        final String name = this.targetPackage + "EventDispatcher_" + size + '_' + eventClass.getName().replace('.', '_');
+        try {
+            return this.constructors.computeIfAbsent(name,
+                    name1 -> generateConstructor(name1, size, abstractEvent)).newInstance(this.logger, listeners);
+        } catch (Exception | LinkageError e) {
+            this.logger.error("Failed to generate the event dispatcher for {}", eventClass.getName(), e);
+            return new LoopEventDispatcher(this.logger, listeners);
+        }
+    }
+
+    private static final String BASE_DISPATCHER = Type.getInternalName(EventDispatcher.class);
+    private static final String CONSTRUCTOR_DESCRIPTOR = '(' + Type.getDescriptor(Logger.class) + Type.getDescriptor(List.class) + ")V";
+    private static final String EVENT_DESCRIPTOR = Type.getDescriptor(Event.class);
+    private static final String LISTENER_NAME = Type.getInternalName(EventListener.class);
+    private static final String LISTENER_DESCRIPTOR = Type.getDescriptor(EventListener.class);
+    private static final String ORDER_DESCRIPTOR = Type.getDescriptor(Order.class);
+    private static final String ABSTRACT_EVENT_NAME = Type.getInternalName(AbstractEvent.class);
+
+    /**
+     * Gets the amount of dispatcher classes that were generated.
+     *
+     * @return The generated classes
+     */
+    int getGeneratedClasses() {
+        return this.constructors.size();
+    }
+
+    private Constructor<? extends EventDispatcher> generateConstructor(String name, int size, boolean abstractEvent) {
+        final Class<? extends EventDispatcher> dispatcherClass = this.classLoader.defineClass(
+                name, generateClass(name, size, abstractEvent));
+        try {
+            return dispatcherClass.getConstructor(Logger.class, List.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] generateClass(String name, int size, boolean abstractEvent) {
+        name = name.replace('.', '/');
+
+        final ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        MethodVisitor mv;
+        FieldVisitor fv;
+
+        cw.visit(V1_6, ACC_PUBLIC + ACC_FINAL + ACC_SUPER, name, null, BASE_DISPATCHER, null);
+        for (int i = 0; i < size; i++) {
+            fv = cw.visitField(ACC_PRIVATE + ACC_FINAL, "handler" + i, LISTENER_DESCRIPTOR, null, null);
+            fv.visitEnd();
+            if (abstractEvent) {
+                fv = cw.visitField(ACC_PRIVATE + ACC_FINAL, "order" + i, ORDER_DESCRIPTOR, null, null);
+                fv.visitEnd();
+            }
+        }
+        {
+            mv = cw.visitMethod(ACC_PUBLIC, "<init>", CONSTRUCTOR_DESCRIPTOR, null, null);
+            mv.visitCode();
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitVarInsn(ALOAD, 1);
+            mv.visitVarInsn(ALOAD, 2);
+            mv.visitMethodInsn(INVOKESPECIAL, BASE_DISPATCHER, "<init>", CONSTRUCTOR_DESCRIPTOR, false);
+            for (int i = 0; i < size; i++) {
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitVarInsn(ALOAD, 0);
+                visitPushInt(mv, i);
+                mv.visitMethodInsn(INVOKEVIRTUAL, BASE_DISPATCHER, "getHandler", "(I)" + LISTENER_DESCRIPTOR, false);
+                mv.visitFieldInsn(PUTFIELD, name, "handler" + i, LISTENER_DESCRIPTOR);
+                if (abstractEvent) {
+                    mv.visitVarInsn(ALOAD, 0);
+                    mv.visitVarInsn(ALOAD, 0);
+                    visitPushInt(mv, i);
+                    mv.visitMethodInsn(INVOKEVIRTUAL, BASE_DISPATCHER, "getOrder", "(I)" + ORDER_DESCRIPTOR, false);
+                    mv.visitFieldInsn(PUTFIELD, name, "order" + i, ORDER_DESCRIPTOR);
+                }
+            }
+            mv.visitInsn(RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+        {
+            mv = cw.visitMethod(ACC_PUBLIC, "dispatch", '(' + EVENT_DESCRIPTOR + ")V", null, null);
+            mv.visitCode();
+            for (int i = 0; i < size; i++) {
+                final Label start = new Label();
+                final Label end = new Label();
+                final Label handler = new Label();
+                final Label next = new Label();
+                mv.visitTryCatchBlock(start, end, handler, "java/lang/Throwable");
+                mv.visitLabel(start);
+                if (abstractEvent) {
+                    mv.visitVarInsn(ALOAD, 1);
+                    mv.visitTypeInsn(CHECKCAST, ABSTRACT_EVENT_NAME);
+                    mv.visitVarInsn(ALOAD, 0);
+                    mv.visitFieldInsn(GETFIELD, name, "order" + i, ORDER_DESCRIPTOR);
+                    mv.visitFieldInsn(PUTFIELD, ABSTRACT_EVENT_NAME, "currentOrder", ORDER_DESCRIPTOR);
+                }
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitFieldInsn(GETFIELD, name, "handler" + i, LISTENER_DESCRIPTOR);
+                mv.visitVarInsn(ALOAD, 1);
+                mv.visitMethodInsn(INVOKEINTERFACE, LISTENER_NAME, "handle", '(' + EVENT_DESCRIPTOR + ")V", true);
+                mv.visitLabel(end);
+                mv.visitJumpInsn(GOTO, next);
+                mv.visitLabel(handler);
+                mv.visitVarInsn(ASTORE, 2);
+                mv.visitVarInsn(ALOAD, 0);
+                visitPushInt(mv, i);
+                mv.visitVarInsn(ALOAD, 1);
+                mv.visitVarInsn(ALOAD, 2);
+                mv.visitMethodInsn(INVOKEVIRTUAL, BASE_DISPATCHER, "handleError", "(I" + EVENT_DESCRIPTOR + "Ljava/lang/Throwable;)V", false);
+                mv.visitLabel(next);
+            }
+            if (abstractEvent) {
+                mv.visitVarInsn(ALOAD, 1);
+                mv.visitTypeInsn(CHECKCAST, ABSTRACT_EVENT_NAME);
+                mv.visitInsn(ACONST_NULL);
+                mv.visitFieldInsn(PUTFIELD, ABSTRACT_EVENT_NAME, "currentOrder", ORDER_DESCRIPTOR);
+            }
+            mv.visitInsn(RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+        cw.visitEnd();
+
+        return cw.toByteArray();
+    }
+
+    private static void visitPushInt(MethodVisitor mv, int value) {
+        if (value <= 5) {
+            mv.visitInsn(ICONST_0 + value);
+        } else {
+            mv.visitIntInsn(BIPUSH, value);
+        }
+    }
+}
@@ -36,7 +36,9 @@
 import com.google.common.reflect.TypeToken;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import org.lanternpowered.api.event.ThreadSafe;
 import org.lanternpowered.server.event.filter.FilterFactory;
+import org.lanternpowered.server.game.Lantern;
 import org.lanternpowered.server.util.DefineableClassLoader;
 import org.slf4j.Logger;
 import org.spongepowered.api.event.Cancellable;
@@ -59,7 +61,10 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.BooleanSupplier;
 import java.util.function.Predicate;
 
 import javax.annotation.Nullable;
@@ -76,15 +81,24 @@ public class LanternEventManager implements EventManager {
     private final Multimap<Class<?>, RegisteredListener<?>> listenersByEvent = HashMultimap.create();
     private final Set<Object> registeredListeners = new HashSet<>();
 
+    private final EventDispatcherFactory dispatcherFactory;
+
     /**
-     * A cache of all the handlers for an event type for quick event posting.
+     * A cache of the dispatchers for an event type for quick event posting.
      */
-    private final LoadingCache<Class<? extends Event>, List<RegisteredListener<?>>> listenersCache =
-            Caffeine.newBuilder().initialCapacity(150).build(this::bakeHandlers);
+    private final LoadingCache<Class<? extends Event>, EventDispatcher> listenersCache =
+            Caffeine.newBuilder().initialCapacity(150).build(this::bakeDispatcher);
+
+    /**
+     * A cache whether there are listeners that could receive
+     * events of a specific type, including the sub types.
+     */
+    private final Map<Class<?>, Boolean> hasListenersCache = new ConcurrentHashMap<>();
 
     @Inject
     public LanternEventManager(Logger logger) {
         this.logger = logger;
+        this.dispatcherFactory = new EventDispatcherFactory("org.lanternpowered.server.event.dispatcher", this.classLoader, logger);
 
         // Caffeine offers no control over the concurrency level of the
         // ConcurrentHashMap which backs the cache. By default this concurrency
@@ -102,7 +116,7 @@ public LanternEventManager(Logger logger) {
             final Class<?> innerCacheClass = innerCacheValue.getClass(); // UnboundedLocalCache
             final Field cacheData = innerCacheClass.getDeclaredField("data");
             cacheData.setAccessible(true);
-            final ConcurrentHashMap<Class<? extends Event>, List<RegisteredListener<?>>> newBackingData = new ConcurrentHashMap<>(150, 0.75f, 1);
+            final ConcurrentHashMap<Class<? extends Event>, EventDispatcher> newBackingData = new ConcurrentHashMap<>(150, 0.75f, 1);
             cacheData.set(innerCacheValue, newBackingData);
         } catch (NoSuchFieldException | SecurityException | IllegalArgumentException | IllegalAccessException e) {
             this.logger.warn("Failed to set event cache backing array, type was " + this.listenersCache.getClass().getName());
@@ -110,6 +124,10 @@ public LanternEventManager(Logger logger) {
         }
     }
 
+    private EventDispatcher bakeDispatcher(Class<? extends Event> rootEvent) {
+        return this.dispatcherFactory.create(rootEvent, bakeHandlers(rootEvent));
+    }
+
     @SuppressWarnings({ "unchecked", "rawtypes" })
     private List<RegisteredListener<?>> bakeHandlers(Class<?> rootEvent) {
         final List<RegisteredListener<?>> handlers = new ArrayList<>();
@@ -152,7 +170,7 @@ private static String getHandlerErrorOrNull(Method method) {
         return String.join(", ", errors);
     }
 
-    private void register(RegisteredListener<?> listener) {
+    void register(RegisteredListener<?> listener) {
         register(Collections.singletonList(listener));
     }
 
@@ -165,6 +183,7 @@ private void register(List<RegisteredListener<?>> listeners) {
                     .forEach(listener -> types.addAll(TypeToken.of(listener.getEventClass()).getTypes().rawTypes()));
             if (!types.isEmpty()) {
                 this.listenersCache.invalidateAll(types);
+                this.hasListenersCache.clear();
             }
         }
     }
@@ -203,7 +222,8 @@ private void register(PluginContainer plugin, Object listener) {
                         continue;
                     }
 
-                    handlers.add(createRegistration(plugin, eventClass, subscribe, handler));
+                    handlers.add(createRegistration(plugin, eventClass, subscribe, handler,
+                            method.isAnnotationPresent(ThreadSafe.class)));
                 } else {
                     methodErrors.put(method, error);
                 }
@@ -232,13 +252,14 @@ private void register(PluginContainer plugin, Object listener) {
     }
 
     private static <T extends Event> RegisteredListener<T> createRegistration(PluginContainer plugin, Class<T> eventClass,
-            Listener subscribe, EventListener<? super T> listener) {
-        return createRegistration(plugin, eventClass, subscribe.order(), listener);
+            Listener subscribe, EventListener<? super T> listener, boolean threadSafe) {
+        return new RegisteredListener<>(plugin, eventClass, subscribe.order(), listener, threadSafe);
     }
 
-    private static <T extends Event> RegisteredListener<T> createRegistration(PluginContainer plugin, Class<T> eventClass,
+    static <T extends Event> RegisteredListener<T> createRegistration(PluginContainer plugin, Class<T> eventClass,
             Order order, EventListener<? super T> listener) {
-        return new RegisteredListener<>(plugin, eventClass, order, listener);
+        return new RegisteredListener<>(plugin, eventClass, order, listener,
+                listener.getClass().isAnnotationPresent(ThreadSafe.class));
     }
 
     @Override
@@ -287,6 +308,7 @@ private void unregister(Predicate<RegisteredListener<?>> unregister) {
 
             if (!types.isEmpty()) {
                 this.listenersCache.invalidateAll(types);
+                this.hasListenersCache.clear();
             }
         }
     }
@@ -303,24 +325,112 @@ public void unregisterPluginListeners(Object pluginObj) {
         unregister(handler -> plugin.equals(handler.getPlugin()));
     }
 
-    @SuppressWarnings({"unchecked", "ConstantConditions"})
+    /**
+     * Gets whether there are listeners that could receive events of the
+     * given type, this includes listeners of sub types. This allows
+     * the construction of events to be skipped if nobody is listening.
+     *
+     * @param eventClass The event class
+     * @return Has listeners
+     */
+    public boolean hasListeners(Class<? extends Event> eventClass) {
+        checkNotNull(eventClass, "eventClass");
+        final Boolean hasListeners = this.hasListenersCache.get(eventClass);
+        if (hasListeners != null) {
+            return hasListeners;
+        }
+        synchronized (this.lock) {
+            final boolean result = this.listenersByEvent.keySet().stream()
+                    .anyMatch(type -> type.isAssignableFrom(eventClass) || eventClass.isAssignableFrom(type));
+            this.hasListenersCache.put(eventClass, result);
+            return result;
+        }
+    }
+
     @Override
     public boolean post(Event event) {
         checkNotNull(event, "event");
-        for (RegisteredListener listener : this.listenersCache.get(event.getClass())) {
-            try {
-                if (event instanceof AbstractEvent) {
-                    ((AbstractEvent) event).currentOrder = listener.getOrder();
+        this.listenersCache.get(event.getClass()).dispatch(event);
+        return event instanceof Cancellable && ((Cancellable) event).isCancelled();
+    }
+
+    /**
+     * Posts the {@link Event} asynchronously. Listeners that are marked
+     * as {@link ThreadSafe} are called on a worker thread, the other ones
+     * on the main thread. The {@link Order} of the listeners is preserved,
+     * every listener is only called once the previous one finished.
+     *
+     * @param event The event
+     * @return The future, completed with whether the event is cancelled
+     */
+    public CompletableFuture<Boolean> postAsync(Event event) {
+        return postAsync(event, task -> Lantern.getScheduler().submitAsyncTask(task), Lantern.getSyncExecutorService(),
+                () -> Lantern.getServer().isMainThread());
+    }
+
+    CompletableFuture<Boolean> postAsync(Event event, Executor asyncExecutor, Executor mainExecutor, BooleanSupplier isMainThread) {
+        checkNotNull(event, "event");
+        final EventDispatcher dispatcher = this.listenersCache.get(event.getClass());
+        if (!dispatcher.hasListeners()) {
+            return CompletableFuture.completedFuture(event instanceof Cancellable && ((Cancellable) event).isCancelled());
+        }
+        final AsyncPost post = new AsyncPost(event, dispatcher, asyncExecutor, mainExecutor, isMainThread);
+        asyncExecutor.execute(post);
+        return post.future;
+    }
+
+    private static final class AsyncPost implements Runnable {
+
+        private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+        private final Event event;
+        private final EventDispatcher dispatcher;
+        private final Executor asyncExecutor;
+        private final Executor mainExecutor;
+        private final BooleanSupplier isMainThread;
+
+        // The index of the next listener that should be called,
+        // only accessed by one thread at the time
+        private int index;
+
+        private AsyncPost(Event event, EventDispatcher dispatcher, Executor asyncExecutor,
+                Executor mainExecutor, BooleanSupplier isMainThread) {
+            this.dispatcher = dispatcher;
+            this.event = event;
+            this.asyncExecutor = asyncExecutor;
+            this.mainExecutor = mainExecutor;
+            this.isMainThread = isMainThread;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public void run() {
+            final RegisteredListener[] listeners = this.dispatcher.listeners;
+            final boolean mainThread = this.isMainThread.getAsBoolean();
+            while (this.index < listeners.length) {
+                final RegisteredListener listener = listeners[this.index];
+                // Move to the thread the listener should be called on
+                if (listener.isThreadSafe() == mainThread) {
+                    if (mainThread) {
+                        this.asyncExecutor.execute(this);
+                    } else {
+                        this.mainExecutor.execute(this);
+                    }
+                    return;
+                }
+                try {
+                    if (this.event instanceof AbstractEvent) {
+                        ((AbstractEvent) this.event).currentOrder = listener.getOrder();
+                    }
+                    listener.handle(this.event);
+                } catch (Throwable e) {
+                    this.dispatcher.handleError(this.index, this.event, e);
                 }
-                listener.handle(event);
-            } catch (Throwable e) {
-                this.logger.error("Could not pass {} to {}", event.getClass().getSimpleName(),
-                        listener.getPlugin(), e);
+                this.index++;
             }
+            if (this.event instanceof AbstractEvent) {
+                ((AbstractEvent) this.event).currentOrder = null;
+            }
+            this.future.complete(this.event instanceof Cancellable && ((Cancellable) this.event).isCancelled());
         }
-        if (event instanceof AbstractEvent) {
-            ((AbstractEvent) event).currentOrder = null;
-        }
-        return event instanceof Cancellable && ((Cancellable) event).isCancelled();
     }
 }
@@ -0,0 +1,66 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.event;
+
+import org.slf4j.Logger;
+import org.spongepowered.api.event.Event;
+import org.spongepowered.api.event.impl.AbstractEvent;
+
+import java.util.List;
+
+/**
+ * A {@link EventDispatcher} that loops through the listeners, used when
+ * there are too many listeners to generate a dispatcher class for.
+ */
+final class LoopEventDispatcher extends EventDispatcher {
+
+    LoopEventDispatcher(Logger logger, List<RegisteredListener<?>> listeners) {
+        super(logger, listeners);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void dispatch(Event event) {
+        if (this.listeners.length == 0) {
+            return;
+        }
+        final AbstractEvent abstractEvent = event instanceof AbstractEvent ? (AbstractEvent) event : null;
+        for (int i = 0; i < this.listeners.length; i++) {
+            final RegisteredListener listener = this.listeners[i];
+            try {
+                if (abstractEvent != null) {
+                    abstractEvent.currentOrder = listener.getOrder();
+                }
+                listener.handle(event);
+            } catch (Throwable e) {
+                handleError(i, event, e);
+            }
+        }
+        if (abstractEvent != null) {
+            abstractEvent.currentOrder = null;
+        }
+    }
+}
@@ -40,12 +40,14 @@
 
     private final Class<T> eventClass;
     private final Order order;
+    private final boolean threadSafe;
 
-    RegisteredListener(PluginContainer plugin, Class<T> eventClass, Order order, EventListener<? super T> handler) {
+    RegisteredListener(PluginContainer plugin, Class<T> eventClass, Order order, EventListener<? super T> handler, boolean threadSafe) {
         this.plugin = checkNotNull(plugin, "plugin");
         this.eventClass = checkNotNull(eventClass, "eventClass");
         this.order = checkNotNull(order, "order");
         this.handler = checkNotNull(handler, "handler");
+        this.threadSafe = threadSafe;
     }
 
     public PluginContainer getPlugin() {
@@ -60,6 +62,14 @@ public Order getOrder() {
         return this.order;
     }
 
+    public boolean isThreadSafe() {
+        return this.threadSafe;
+    }
+
+    EventListener<? super T> getHandler() {
+        return this.handler;
+    }
+
     @Override
     public Object getHandle() {
         if (this.handler instanceof LanternEventListener) {
@@ -84,6 +94,7 @@ public String toString() {
                 .add("plugin", this.plugin.getId())
                 .add("eventType", this.eventClass.getName())
                 .add("order", this.order.toString())
+                .add("threadSafe", this.threadSafe)
                 .toString();
     }
 }
@@ -46,6 +46,7 @@
 import org.lanternpowered.server.config.user.ban.BanConfig;
 import org.lanternpowered.server.data.LanternDataManager;
 import org.lanternpowered.server.data.property.LanternPropertyRegistry;
+import org.lanternpowered.server.event.LanternEventManager;
 import org.lanternpowered.server.game.version.LanternMinecraftVersion;
 import org.lanternpowered.server.game.version.MinecraftVersionCache;
 import org.lanternpowered.server.inject.Option;
@@ -73,7 +74,6 @@
 import org.spongepowered.api.GameState;
 import org.spongepowered.api.command.CommandManager;
 import org.spongepowered.api.config.ConfigManager;
-import org.spongepowered.api.event.EventManager;
 import org.spongepowered.api.event.SpongeEventFactory;
 import org.spongepowered.api.event.cause.Cause;
 import org.spongepowered.api.event.game.state.GameStateEvent;
@@ -143,7 +143,7 @@ public static long currentTimeTicks() {
     @Inject private LanternPluginManager pluginManager;
 
     // The event manager
-    @Inject private EventManager eventManager;
+    @Inject private LanternEventManager eventManager;
 
     // The service manager
     @Inject private ServiceManager serviceManager;
@@ -417,7 +417,7 @@ public PluginManager getPluginManager() {
     }
 
     @Override
-    public EventManager getEventManager() {
+    public LanternEventManager getEventManager() {
         return this.eventManager;
     }
 
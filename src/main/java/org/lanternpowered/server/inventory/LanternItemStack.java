@@ -36,6 +36,7 @@
 import org.lanternpowered.server.data.property.AbstractPropertyHolder;
 import org.lanternpowered.server.data.value.AbstractValueContainer;
 import org.lanternpowered.server.data.value.KeyRegistration;
+import org.lanternpowered.server.data.value.KeyRegistrationMap;
 import org.lanternpowered.server.item.LanternItemType;
 import org.spongepowered.api.block.BlockType;
 import org.spongepowered.api.data.DataContainer;
@@ -54,7 +55,6 @@
 
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -89,7 +89,7 @@ public LanternItemStack(ItemType itemType) {
     }
 
     public LanternItemStack(ItemType itemType, int quantity) {
-        this(itemType, quantity, new HashMap<>(), new ConcurrentHashMap<>());
+        this(itemType, quantity, new KeyRegistrationMap(), new ConcurrentHashMap<>());
         registerKeys();
     }
 
@@ -33,6 +33,7 @@
 import org.lanternpowered.server.data.value.AbstractValueContainer;
 import org.lanternpowered.server.data.value.ElementHolder;
 import org.lanternpowered.server.data.value.KeyRegistration;
+import org.lanternpowered.server.data.value.KeyRegistrationMap;
 import org.lanternpowered.server.item.LanternItemType;
 import org.spongepowered.api.GameDictionary;
 import org.spongepowered.api.data.DataContainer;
@@ -63,7 +64,7 @@ public class LanternItemStackSnapshot implements ItemStackSnapshot, AbstractImmu
     private final int quantity;
 
     public LanternItemStackSnapshot(ItemType itemType, int quantity) {
-        this(itemType, quantity, new HashMap<>(), new HashMap<>());
+        this(itemType, quantity, new KeyRegistrationMap(), new HashMap<>());
         ((LanternItemType) itemType).getKeysProvider().accept(this);
     }
 
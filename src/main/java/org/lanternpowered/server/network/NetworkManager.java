@@ -100,6 +100,14 @@ public void pulseSessions() {
         this.sessions.forEach(NetworkSession::pulse);
     }
 
+    /**
+     * Flushes the messages of all the {@link NetworkSession}s
+     * that were batched during the current tick.
+     */
+    public void flushSessions() {
+        this.sessions.forEach(NetworkSession::flush);
+    }
+
     /**
      * Called when the {@link NetworkSession} becomes active.
      *
@@ -225,10 +225,21 @@ public Channel getChannel() {
      */
     private int protocolVersion = -1;
 
+    /**
+     * Whether the messages should only be flushed at the end of a tick.
+     */
+    private final boolean writeBatching;
+
+    /**
+     * Whether there are written messages that are waiting to be flushed.
+     */
+    private volatile boolean flushPending;
+
     public NetworkSession(Channel channel, LanternServer server, NetworkManager networkManager) {
         this.networkManager = networkManager;
         this.channel = channel;
         this.server = server;
+        this.writeBatching = server.getGame().getGlobalConfig().isNetworkWriteBatchingEnabled();
     }
 
     private void handleKeepAlive(MessageInOutKeepAlive message) {
@@ -314,7 +325,7 @@ public void channelActive(ChannelHandlerContext ctx) {
             if (protocolState == ProtocolState.PLAY || protocolState == ProtocolState.FORGE_HANDSHAKE) {
                 this.keepAliveId = this.random.nextInt();
                 this.keepAliveTime = System.currentTimeMillis();
-                send(new MessageInOutKeepAlive(this.keepAliveId));
+                sendImmediately(new MessageInOutKeepAlive(this.keepAliveId));
             }
         }, 0, 2, TimeUnit.SECONDS);
     }
@@ -651,6 +662,21 @@ public ChannelFuture sendWithFuture(Iterable<Message> messages) {
         return promise;
     }
 
+    /**
+     * Sends a {@link Message} and flushes it immediately,
+     * bypassing the write batching.
+     *
+     * @param message The message
+     */
+    public void sendImmediately(Message message) {
+        checkNotNull(message, "message");
+        if (!this.channel.isActive()) {
+            return;
+        }
+        ReferenceCountUtil.retain(message);
+        this.channel.writeAndFlush(message, this.channel.voidPromise());
+    }
+
     /**
      * Sends a {@link Message}.
      *
@@ -663,7 +689,8 @@ public void send(Message message) {
         }
         ReferenceCountUtil.retain(message);
         // Thrown exceptions will be delegated through the exceptionCaught method
-        this.channel.writeAndFlush(message, this.channel.voidPromise());
+        this.channel.write(message, this.channel.voidPromise());
+        flushOrBatch();
     }
 
     /**
@@ -679,14 +706,16 @@ public void send(Message... messages) {
         }
         final ChannelPromise voidPromise = this.channel.voidPromise();
         if (messages.length == 1) {
-            this.channel.writeAndFlush(messages[0], voidPromise);
+            this.channel.write(messages[0], voidPromise);
+            flushOrBatch();
         } else {
             final EventLoop eventLoop = this.channel.eventLoop();
             if (eventLoop.inEventLoop()) {
                 for (Message message : messages) {
                     ReferenceCountUtil.retain(message);
-                    this.channel.writeAndFlush(message, voidPromise);
+                    this.channel.write(message, voidPromise);
                 }
+                flushOrBatch();
             } else {
                 // If there are more then one message, combine them inside the
                 // event loop to reduce overhead of wakeup calls and object creation
@@ -696,8 +725,9 @@ public void send(Message... messages) {
                 messages0.forEach(ReferenceCountUtil::retain);
                 eventLoop.submit(() -> {
                     for (Message message0 : messages0) {
-                        this.channel.writeAndFlush(message0, voidPromise);
+                        this.channel.write(message0, voidPromise);
                     }
+                    flushOrBatch();
                 });
             }
         }
@@ -717,13 +747,15 @@ public void send(Iterable<Message> messages) {
         // there is only one message.
         final ChannelPromise voidPromise = this.channel.voidPromise();
         if (!it.hasNext()) {
-            this.channel.writeAndFlush(message, voidPromise);
+            this.channel.write(message, voidPromise);
+            flushOrBatch();
         } else {
             final EventLoop eventLoop = this.channel.eventLoop();
             if (eventLoop.inEventLoop()) {
                 for (Message message0 : messages) {
-                    this.channel.writeAndFlush(message0, voidPromise);
+                    this.channel.write(message0, voidPromise);
                 }
+                flushOrBatch();
             } else {
                 // If there are more then one message, combine them inside the
                 // event loop to reduce overhead of wakeup calls and object creation
@@ -732,13 +764,40 @@ public void send(Iterable<Message> messages) {
                 final List<Message> messages0 = ImmutableList.copyOf(messages);
                 eventLoop.submit(() -> {
                     for (Message message0 : messages0) {
-                        this.channel.writeAndFlush(message0, voidPromise);
+                        this.channel.write(message0, voidPromise);
                     }
+                    flushOrBatch();
                 });
             }
         }
     }
 
+    /**
+     * Flushes the written messages, unless write batching is enabled. In that
+     * case will the flush be delayed until the end of the tick, or until the
+     * pending bytes exceed the high water mark of the channel.
+     */
+    private void flushOrBatch() {
+        if (this.writeBatching && this.protocolState == ProtocolState.PLAY && this.channel.isWritable()) {
+            this.flushPending = true;
+        } else {
+            this.channel.flush();
+        }
+    }
+
+    /**
+     * Flushes all the messages that were batched during the current tick. This
+     * is called at the end of the world tick of the player and at the end of the
+     * server tick, messages that are batched concurrently are flushed by the next
+     * call.
+     */
+    public void flush() {
+        if (this.flushPending) {
+            this.flushPending = false;
+            this.channel.flush();
+        }
+    }
+
     /**
      * Disconnects the session with a unknown reason.
      */
@@ -494,6 +494,22 @@ public static void writeVarInt(ByteBuf byteBuf, int value) {
         byteBuf.writeByte(value & 0x7F);
     }
 
+    /**
+     * Gets the amount of bytes that are required
+     * to write the value as a var int.
+     *
+     * @param value The value
+     * @return The amount of bytes
+     */
+    public static int getVarIntLength(int value) {
+        int length = 1;
+        while ((value & 0xFFFFFF80) != 0L) {
+            value >>>= 7;
+            length++;
+        }
+        return length;
+    }
+
     public static int readVarInt(ByteBuf byteBuf) {
         int value = 0;
         int i = 0;
@@ -30,6 +30,7 @@
 import static com.google.common.base.Preconditions.checkState;
 import static org.lanternpowered.server.network.entity.EntityProtocolManager.INVALID_ENTITY_ID;
 
+import com.flowpowered.math.GenericMath;
 import com.flowpowered.math.vector.Vector3d;
 import it.unimi.dsi.fastutil.objects.Object2LongMap;
 import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
@@ -93,9 +94,15 @@ public AbstractEntityProtocol(E entity) {
 
     private final class SimpleEntityProtocolContext implements EntityProtocolUpdateContext {
 
+        private final TrackerMessageSink sink;
+
         @SuppressWarnings("NullableProblems")
         private Set<LanternPlayer> trackers;
 
+        private SimpleEntityProtocolContext(TrackerMessageSink sink) {
+            this.sink = sink;
+        }
+
         @Override
         public Optional<LanternEntity> getById(int entityId) {
             return entityProtocolManager.getEntityProtocolById(entityId).map(AbstractEntityProtocol::getEntity);
@@ -111,7 +118,7 @@ public OptionalInt getId(Entity entity) {
         @Override
         public void sendToSelf(Message message) {
             if (entity instanceof Player) {
-                ((LanternPlayer) entity).getConnection().send(message);
+                this.sink.send((LanternPlayer) entity, message);
             }
         }
 
@@ -124,7 +131,7 @@ public void sendToSelf(Supplier<Message> messageSupplier) {
 
         @Override
         public void sendToAll(Message message) {
-            this.trackers.forEach(tracker -> tracker.getConnection().send(message));
+            this.trackers.forEach(tracker -> this.sink.send(tracker, message));
         }
 
         @Override
@@ -138,7 +145,7 @@ public void sendToAll(Supplier<Message> message) {
         public void sendToAllExceptSelf(Message message) {
             this.trackers.forEach(tracker -> {
                 if (tracker != entity) {
-                    tracker.getConnection().send(message);
+                    this.sink.send(tracker, message);
                 }
             });
         }
@@ -200,11 +207,12 @@ public void setTrackingRange(double trackingRange) {
      * message to the client.
      *
      * @param context The entity protocol context
+     * @param sink The sink of the messages
      */
-    void destroy(EntityProtocolInitContext context) {
+    void destroy(EntityProtocolInitContext context, TrackerMessageSink sink) {
         if (!this.trackers.isEmpty()) {
             // Destroy the entity on all the clients
-            final SimpleEntityProtocolContext ctx = new SimpleEntityProtocolContext();
+            final SimpleEntityProtocolContext ctx = new SimpleEntityProtocolContext(sink);
             final TempEvents events = processEvents(true, true);
             ctx.trackers = this.trackers;
             if (events != null && events.deathOrAlive != null) {
@@ -256,52 +264,73 @@ protected final void initRootId(int rootEntityId) {
     final class TrackerUpdateContextData {
 
         final AbstractEntityProtocol<?> entityProtocol;
-        final SimpleEntityProtocolContext ctx = new SimpleEntityProtocolContext();
+        final SimpleEntityProtocolContext ctx;
 
         @Nullable Set<LanternPlayer> added;
         @Nullable Set<LanternPlayer> removed;
         @Nullable Set<LanternPlayer> update;
 
-        TrackerUpdateContextData(AbstractEntityProtocol<?> entityProtocol) {
+        TrackerUpdateContextData(AbstractEntityProtocol<?> entityProtocol, TrackerMessageSink sink) {
             this.entityProtocol = entityProtocol;
+            this.ctx = new SimpleEntityProtocolContext(sink);
         }
     }
 
     @Nullable
-    TrackerUpdateContextData buildUpdateContextData(Set<LanternPlayer> players) {
-        players = new HashSet<>(players);
+    TrackerUpdateContextData buildUpdateContextData(TrackerPlayerIndex playerIndex, TrackerMessageSink sink) {
+        final Set<LanternPlayer> players = playerIndex.getPlayers();
 
-        final Set<LanternPlayer> removed = new HashSet<>();
-        final Set<LanternPlayer> added = new HashSet<>();
+        Set<LanternPlayer> removed = null;
+        Set<LanternPlayer> added = null;
 
         final Vector3d pos = this.entity.getPosition();
 
         final Iterator<LanternPlayer> trackerIt = this.trackers.iterator();
         while (trackerIt.hasNext()) {
             final LanternPlayer tracker = trackerIt.next();
-            final boolean flag = players.remove(tracker);
             if (tracker != this.entity &&
-                    (!flag || !isVisible(pos, tracker))) {
+                    (!players.contains(tracker) || !isVisible(pos, tracker))) {
                 trackerIt.remove();
+                if (removed == null) {
+                    removed = new HashSet<>();
+                }
                 removed.add(tracker);
             }
         }
 
-        for (LanternPlayer tracker : players) {
-            if (tracker == this.entity || isVisible(pos, tracker)) {
-                added.add(tracker);
+        // Only the players in the cells within the tracking range can start tracking
+        final double range = this.trackingRange;
+        final int minCellX = GenericMath.floor(pos.getX() - range) >> TrackerPlayerIndex.CELL_SHIFT;
+        final int maxCellX = GenericMath.floor(pos.getX() + range) >> TrackerPlayerIndex.CELL_SHIFT;
+        final int minCellZ = GenericMath.floor(pos.getZ() - range) >> TrackerPlayerIndex.CELL_SHIFT;
+        final int maxCellZ = GenericMath.floor(pos.getZ() + range) >> TrackerPlayerIndex.CELL_SHIFT;
+        if ((long) (maxCellX - minCellX + 1) * (maxCellZ - minCellZ + 1) > playerIndex.getCellCount()) {
+            // There are less occupied cells than cells in range, just check all the players
+            for (LanternPlayer player : players) {
+                added = tryAdd(player, pos, added);
+            }
+        } else {
+            for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+                for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                    final List<LanternPlayer> cell = playerIndex.getCell(cellX, cellZ);
+                    if (cell != null) {
+                        for (LanternPlayer player : cell) {
+                            added = tryAdd(player, pos, added);
+                        }
+                    }
+                }
             }
         }
 
         boolean flag0 = this.tickCounter++ % this.tickRate == 0 && !this.trackers.isEmpty();
-        boolean flag1 = !added.isEmpty();
-        boolean flag2 = !removed.isEmpty();
+        boolean flag1 = added != null;
+        boolean flag2 = removed != null;
 
         if (!flag0 && !flag1 && !flag2) {
             return null;
         }
 
-        final TrackerUpdateContextData contextData = new TrackerUpdateContextData(this);
+        final TrackerUpdateContextData contextData = new TrackerUpdateContextData(this, sink);
         if (flag0 || flag1) {
             contextData.update = new HashSet<>(this.trackers);
         }
@@ -405,6 +434,20 @@ void postUpdateTrackers(TrackerUpdateContextData contextData) {
         }
     }
 
+    @Nullable
+    private Set<LanternPlayer> tryAdd(LanternPlayer player, Vector3d pos, @Nullable Set<LanternPlayer> added) {
+        if (this.trackers.contains(player) || (added != null && added.contains(player))) {
+            return added;
+        }
+        if (player == this.entity || isVisible(pos, player)) {
+            if (added == null) {
+                added = new HashSet<>();
+            }
+            added.add(player);
+        }
+        return added;
+    }
+
     private boolean isVisible(Vector3d pos, LanternPlayer tracker) {
         return pos.distanceSquared(tracker.getPosition()) < this.trackingRange * this.trackingRange && isVisible(tracker);
     }
@@ -39,14 +39,16 @@
 import org.spongepowered.api.entity.Entity;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.locks.StampedLock;
 import java.util.function.Consumer;
 
@@ -58,6 +60,16 @@ public final class EntityProtocolManager {
 
     private static final int UPDATE_RATE = 3;
 
+    /**
+     * The pool that is used to send the tracker messages asynchronously, shared by all the worlds.
+     */
+    private static final ForkJoinPool trackerPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool -> {
+        final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("entity-tracker-" + thread.getPoolIndex());
+        thread.setDaemon(true);
+        return thread;
+    }, null, false);
+
     public static int acquireEntityId() {
         return new EntityProtocolInitContextImpl(null).acquire();
     }
@@ -68,6 +80,11 @@ public static void releaseEntityId(int id) {
 
     private final Map<Entity, AbstractEntityProtocol<?>> entityProtocols = new ConcurrentHashMap<>();
 
+    /**
+     * The spatial index of the players that is used to update the trackers.
+     */
+    private final TrackerPlayerIndex playerIndex = new TrackerPlayerIndex();
+
     /**
      * All the {@link AbstractEntityProtocol}s that will be destroyed.
      */
@@ -226,6 +243,11 @@ public void release(int[] array) {
 
     private int pulseCounter;
 
+    /**
+     * The {@link TrackerMessageBatch} of the last update that is being sent on the tracker pool.
+     */
+    private CompletableFuture<Void> fanOut = CompletableFuture.completedFuture(null);
+
     Optional<AbstractEntityProtocol<?>> getEntityProtocolById(int id) {
         long stamp = allocatorLock.tryOptimisticRead();
         AbstractEntityProtocol<?> entityProtocol = stamp != 0L ? this.idToEntityProtocolMap.get(id) : null;
@@ -303,31 +325,67 @@ public void remove(LanternEntity entity) {
      * @param players The players
      */
     public void updateTrackers(Set<LanternPlayer> players) {
-        // TODO: Sync the updates in a different thread?
+        updateTrackers(players, false);
+    }
+
+    /**
+     * Updates the trackers of the entities. The players list contains all the players that
+     * are in the same world of the entities.
+     * <p>
+     * The protocols are always updated by the calling world thread, they read the live
+     * entity state. If the update is parallel, will all the messages of the protocols be
+     * recorded into a {@link TrackerMessageBatch}, which is handed over to the tracker pool
+     * to be sent to the players, without blocking the world thread. The world thread only
+     * waits if the batch of the previous update is still being sent, to keep the order of
+     * the messages.
+     *
+     * @param players The players
+     * @param parallel Whether the messages should be sent on the tracker pool
+     */
+    public void updateTrackers(Set<LanternPlayer> players, boolean parallel) {
         if (this.pulseCounter++ % UPDATE_RATE != 0) {
             return;
         }
+        this.playerIndex.rebuild(players);
+
+        final TrackerMessageBatch batch = parallel ? new TrackerMessageBatch() : null;
+        final TrackerMessageSink sink = batch != null ? batch : TrackerMessageSink.DIRECT;
 
         AbstractEntityProtocol<?> removed;
         while ((removed = this.queuedForRemoval.poll()) != null) {
-            removed.destroy(new EntityProtocolInitContextImpl(removed));
+            removed.destroy(new EntityProtocolInitContextImpl(removed), sink);
         }
 
         final List<AbstractEntityProtocol.TrackerUpdateContextData> updateContextDataList = new ArrayList<>();
-
-        final Set<AbstractEntityProtocol<?>> protocols = new HashSet<>(this.entityProtocols.values());
-        for (AbstractEntityProtocol<?> protocol : protocols) {
-            final AbstractEntityProtocol.TrackerUpdateContextData contextData = protocol.buildUpdateContextData(players);
+        for (AbstractEntityProtocol<?> protocol : this.entityProtocols.values()) {
+            final AbstractEntityProtocol.TrackerUpdateContextData contextData = protocol.buildUpdateContextData(this.playerIndex, sink);
             if (contextData != null) {
                 //noinspection unchecked
                 protocol.updateTrackers(contextData);
                 updateContextDataList.add(contextData);
             }
         }
-
         for (AbstractEntityProtocol.TrackerUpdateContextData contextData : updateContextDataList) {
             contextData.entityProtocol.postUpdateTrackers(contextData);
         }
+
+        if (batch != null && !batch.isEmpty()) {
+            publish(batch);
+        }
+    }
+
+    /**
+     * Sends the {@link TrackerMessageBatch} to the players on the tracker pool.
+     *
+     * @param batch The batch
+     */
+    private void publish(TrackerMessageBatch batch) {
+        // Only one batch per world may be in flight, so that
+        // the messages arrive in the order of the updates
+        if (!this.fanOut.isDone()) {
+            this.fanOut.join();
+        }
+        this.fanOut = CompletableFuture.runAsync(batch::sendAll, trackerPool);
     }
 
     private static final int INTERACT_DELAY = 50;
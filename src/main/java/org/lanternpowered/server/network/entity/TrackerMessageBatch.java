@@ -0,0 +1,74 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.network.entity;
+
+import org.lanternpowered.server.entity.living.player.LanternPlayer;
+import org.lanternpowered.server.game.Lantern;
+import org.lanternpowered.server.network.message.Message;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the {@link Message}s of one tracker update per player, in the order
+ * that they were sent. The batch is filled by the world thread and isn't modified
+ * anymore once it's published, after that the messages of every player can be
+ * sent by a different thread.
+ */
+final class TrackerMessageBatch implements TrackerMessageSink {
+
+    private final Map<LanternPlayer, List<Message>> messages = new HashMap<>();
+
+    @Override
+    public void send(LanternPlayer player, Message message) {
+        this.messages.computeIfAbsent(player, player1 -> new ArrayList<>()).add(message);
+    }
+
+    /**
+     * Gets whether there are no messages in this batch.
+     *
+     * @return Is empty
+     */
+    boolean isEmpty() {
+        return this.messages.isEmpty();
+    }
+
+    /**
+     * Sends the messages to the players, the players are processed in
+     * parallel if this is called from within a fork join pool.
+     */
+    void sendAll() {
+        this.messages.entrySet().parallelStream().forEach(entry -> {
+            try {
+                entry.getKey().getConnection().send(entry.getValue());
+            } catch (RuntimeException e) {
+                Lantern.getLogger().error("Failed to send the entity tracker messages to {}", entry.getKey().getName(), e);
+            }
+        });
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.network.entity;
+
+import com.flowpowered.math.GenericMath;
+import com.flowpowered.math.vector.Vector3d;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import org.lanternpowered.server.entity.living.player.LanternPlayer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+/**
+ * A spatial index of the players in a world that can be tracker of entities. The
+ * players are bucketed into square cells on the xz plane, so that every entity
+ * only has to consider the players in the cells within its tracking range.
+ */
+final class TrackerPlayerIndex {
+
+    // The size of a cell is 32 blocks
+    static final int CELL_SHIFT = 5;
+
+    static long key(int cellX, int cellZ) {
+        return ((long) cellX & 0xffffffffL) << 32 | ((long) cellZ & 0xffffffffL);
+    }
+
+    private final Long2ObjectOpenHashMap<List<LanternPlayer>> cells = new Long2ObjectOpenHashMap<>();
+
+    // All the players within the index
+    private Set<LanternPlayer> players = Collections.emptySet();
+
+    /**
+     * Rebuilds the index for the current positions of the given players.
+     *
+     * @param players The players
+     */
+    void rebuild(Set<LanternPlayer> players) {
+        this.players = players;
+        this.cells.clear();
+        for (LanternPlayer player : players) {
+            final Vector3d pos = player.getPosition();
+            final long key = key(GenericMath.floor(pos.getX()) >> CELL_SHIFT, GenericMath.floor(pos.getZ()) >> CELL_SHIFT);
+            List<LanternPlayer> cell = this.cells.get(key);
+            if (cell == null) {
+                this.cells.put(key, cell = new ArrayList<>(4));
+            }
+            cell.add(player);
+        }
+    }
+
+    /**
+     * Gets all the players in this index.
+     *
+     * @return The players
+     */
+    Set<LanternPlayer> getPlayers() {
+        return this.players;
+    }
+
+    /**
+     * Gets the players within the cell at the given coordinates.
+     *
+     * @param cellX The cell x coordinate
+     * @param cellZ The cell z coordinate
+     * @return The players, or {@code null} if the cell is empty
+     */
+    @Nullable
+    List<LanternPlayer> getCell(int cellX, int cellZ) {
+        return this.cells.get(key(cellX, cellZ));
+    }
+
+    /**
+     * Gets the amount of non empty cells.
+     *
+     * @return The cell count
+     */
+    int getCellCount() {
+        return this.cells.size();
+    }
+}
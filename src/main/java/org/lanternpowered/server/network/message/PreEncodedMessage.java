@@ -0,0 +1,141 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.network.message;
+
+import com.google.common.base.MoreObjects;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.ReferenceCountUtil;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+
+/**
+ * Represents a message that will only be encoded (and compressed) once, no matter
+ * to how many sessions it is being send. This can be used to broadcast large messages,
+ * like chunk data, to multiple players without rebuilding the same packet for every
+ * single one of them.
+ * <p>
+ * The encoded content is stored in unpooled heap buffers, the pipeline
+ * only receives retained slices of them so that they can be shared between
+ * multiple channels. The wrapped message will not be passed through
+ * the {@link org.lanternpowered.server.network.message.processor.Processor}s,
+ * so it should be a message that can directly be encoded.
+ */
+public final class PreEncodedMessage implements Message {
+
+    private final Message message;
+
+    @Nullable private volatile ByteBuf content;
+    @Nullable private volatile CompressedContent compressedContent;
+
+    private static final class CompressedContent {
+
+        private final int threshold;
+        private final ByteBuf content;
+
+        private CompressedContent(int threshold, ByteBuf content) {
+            this.threshold = threshold;
+            this.content = content;
+        }
+    }
+
+    public PreEncodedMessage(Message message) {
+        this.message = message;
+    }
+
+    /**
+     * Gets the {@link Message} that is being wrapped.
+     *
+     * @return The message
+     */
+    public Message getMessage() {
+        return this.message;
+    }
+
+    /**
+     * Gets a retained slice of the encoded content (opcode and message
+     * content), the content will be encoded by the given
+     * function if this didn't happen before.
+     *
+     * @param encoder The encoder
+     * @return The encoded content
+     */
+    public ByteBuf getContent(Function<Message, ByteBuf> encoder) {
+        ByteBuf content = this.content;
+        if (content == null) {
+            synchronized (this) {
+                content = this.content;
+                if (content == null) {
+                    this.content = content = toHeapBuffer(encoder.apply(this.message));
+                }
+            }
+        }
+        return content.retainedSlice();
+    }
+
+    /**
+     * Gets a retained slice of the compressed content for the given compression
+     * threshold, the content will be compressed by the given function if this
+     * didn't happen before for the threshold.
+     *
+     * @param threshold The compression threshold
+     * @param encoder The encoder
+     * @param compressor The compressor, the provided buffer will be released by the compressor
+     * @return The compressed content
+     */
+    public ByteBuf getCompressedContent(int threshold, Function<Message, ByteBuf> encoder,
+            Function<ByteBuf, ByteBuf> compressor) {
+        CompressedContent compressedContent = this.compressedContent;
+        if (compressedContent == null || compressedContent.threshold != threshold) {
+            final Supplier<ByteBuf> supplier = () -> toHeapBuffer(compressor.apply(getContent(encoder)));
+            synchronized (this) {
+                compressedContent = this.compressedContent;
+                if (compressedContent == null || compressedContent.threshold != threshold) {
+                    this.compressedContent = compressedContent = new CompressedContent(threshold, supplier.get());
+                }
+            }
+        }
+        return compressedContent.content.retainedSlice();
+    }
+
+    private static ByteBuf toHeapBuffer(ByteBuf buf) {
+        try {
+            return Unpooled.copiedBuffer(buf);
+        } finally {
+            ReferenceCountUtil.release(buf);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("message", this.message)
+                .toString();
+    }
+}
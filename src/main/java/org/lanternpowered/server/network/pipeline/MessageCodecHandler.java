@@ -28,6 +28,7 @@
 import static org.lanternpowered.server.network.buffer.LanternByteBuffer.readVarInt;
 import static org.lanternpowered.server.network.buffer.LanternByteBuffer.writeVarInt;
 
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
@@ -37,6 +38,7 @@
 import io.netty.handler.codec.MessageToMessageCodec;
 import io.netty.util.ReferenceCountUtil;
 import org.lanternpowered.server.game.Lantern;
+import org.lanternpowered.server.network.NetworkSession;
 import org.lanternpowered.server.network.buffer.ByteBuffer;
 import org.lanternpowered.server.network.buffer.LanternByteBuffer;
 import org.lanternpowered.server.network.message.BulkMessage;
@@ -45,6 +47,8 @@
 import org.lanternpowered.server.network.message.Message;
 import org.lanternpowered.server.network.message.MessageRegistration;
 import org.lanternpowered.server.network.message.NullMessage;
+import org.lanternpowered.server.network.message.PreEncodedMessage;
+import org.lanternpowered.server.network.message.Uncompressed;
 import org.lanternpowered.server.network.message.codec.Codec;
 import org.lanternpowered.server.network.message.codec.CodecContext;
 import org.lanternpowered.server.network.message.handler.Handler;
@@ -56,11 +60,14 @@
 import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutWorldTime;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @SuppressWarnings({ "rawtypes", "unchecked" })
 public final class MessageCodecHandler extends MessageToMessageCodec<ByteBuf, Message> {
 
+    private static final Map<Class<?>, Boolean> uncompressedMessages = Maps.newConcurrentMap();
+
     private final CodecContext codecContext;
 
     public MessageCodecHandler(CodecContext codecContext) {
@@ -69,6 +76,33 @@ public MessageCodecHandler(CodecContext codecContext) {
 
     @Override
     protected void encode(ChannelHandlerContext ctx, Message message, List<Object> output) throws Exception {
+        if (message instanceof PreEncodedMessage) {
+            final PreEncodedMessage preEncodedMessage = (PreEncodedMessage) message;
+            if (ctx.pipeline().get(NetworkSession.COMPRESSION) instanceof MessageCompressionHandler) {
+                // Let the compression handler deal with the shared content
+                output.add(preEncodedMessage);
+            } else {
+                output.add(preEncodedMessage.getContent(message1 -> encode(ctx, message1)));
+            }
+            return;
+        }
+        final ByteBuf content = encode(ctx, message);
+        if (uncompressedMessages.computeIfAbsent(message.getClass(), type -> type.isAnnotationPresent(Uncompressed.class)) &&
+                ctx.pipeline().get(NetworkSession.COMPRESSION) instanceof MessageCompressionHandler) {
+            output.add(new UncompressedContent(content));
+        } else {
+            output.add(content);
+        }
+    }
+
+    /**
+     * Encodes the {@link Message} into a {@link ByteBuf}, including the opcode.
+     *
+     * @param ctx The channel handler context
+     * @param message The message
+     * @return The encoded message
+     */
+    ByteBuf encode(ChannelHandlerContext ctx, Message message) {
         final Protocol protocol = this.codecContext.getSession().getProtocol();
         final MessageRegistration<Message> registration = (MessageRegistration<Message>) protocol.outbound()
                 .findByMessageType(message.getClass()).orElse(null);
@@ -102,8 +136,7 @@ protected void encode(ChannelHandlerContext ctx, Message message, List<Object> o
             ReferenceCountUtil.release(message);
         }
 
-        // Add the buffer to the output
-        output.add(Unpooled.wrappedBuffer(opcode, ((LanternByteBuffer) content).getDelegate()));
+        return Unpooled.wrappedBuffer(opcode, ((LanternByteBuffer) content).getDelegate());
     }
 
     private static final Set<Integer> warnedMissingOpcodes = Sets.newConcurrentHashSet();
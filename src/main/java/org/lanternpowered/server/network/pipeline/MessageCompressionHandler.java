@@ -54,106 +54,189 @@
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.DecoderException;
-import io.netty.handler.codec.EncoderException;
 import io.netty.handler.codec.MessageToMessageCodec;
+import org.lanternpowered.server.network.NetworkSession;
+import org.lanternpowered.server.network.message.PreEncodedMessage;
 
 import java.util.List;
+import java.util.zip.DataFormatException;
 import java.util.zip.Deflater;
 import java.util.zip.Inflater;
 
-public final class MessageCompressionHandler extends MessageToMessageCodec<ByteBuf, ByteBuf> {
+/**
+ * Compresses and decompresses the messages. The deflater and inflater operate
+ * directly on the backing arrays of pooled heap buffers, direct buffers are
+ * first copied into a pooled heap buffer.
+ */
+public final class MessageCompressionHandler extends MessageToMessageCodec<ByteBuf, Object> {
+
+    /**
+     * The maximum size of a uncompressed message, the same limit as vanilla.
+     */
+    private static final int MAX_UNCOMPRESSED_SIZE = 2097152;
 
-    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+    private final Deflater deflater;
     private final Inflater inflater = new Inflater();
 
     private final int compressionThreshold;
 
     public MessageCompressionHandler(int compressionThreshold) {
+        this(compressionThreshold, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    public MessageCompressionHandler(int compressionThreshold, int compressionLevel) {
         this.compressionThreshold = compressionThreshold;
+        this.deflater = new Deflater(compressionLevel);
     }
 
     @Override
-    protected void encode(ChannelHandlerContext ctx, ByteBuf msg, List<Object> out) throws Exception {
-        ByteBuf prefixBuf = ctx.alloc().buffer(5);
-        ByteBuf contentsBuf;
-
-        if (msg.readableBytes() >= this.compressionThreshold) {
-            // Message should be compressed
-            int index = msg.readerIndex();
-            int length = msg.readableBytes();
-
-            byte[] sourceData = new byte[length];
-            msg.readBytes(sourceData);
-            this.deflater.setInput(sourceData);
-            this.deflater.finish();
-
-            byte[] compressedData = new byte[length];
-            int compressedLength = this.deflater.deflate(compressedData);
-            this.deflater.reset();
+    public boolean acceptOutboundMessage(Object msg) throws Exception {
+        return msg instanceof ByteBuf || msg instanceof PreEncodedMessage || msg instanceof UncompressedContent;
+    }
 
-            if (compressedLength == 0) {
-                // Compression failed in some weird way
-                throw new EncoderException("Failed to compress message of size " + length);
-            } else if (compressedLength >= length) {
-                // Compression increased the size. threshold is probably too low
-                // Send as an uncompressed packet
-                writeVarInt(prefixBuf, 0);
-                msg.readerIndex(index);
-                msg.retain();
-                contentsBuf = msg;
-            } else {
-                // All is well
-                writeVarInt(prefixBuf, length);
-                contentsBuf = Unpooled.wrappedBuffer(compressedData, 0, compressedLength);
+    @Override
+    protected void encode(ChannelHandlerContext ctx, Object msg, List<Object> out) throws Exception {
+        if (msg instanceof PreEncodedMessage) {
+            final MessageCodecHandler codecHandler = (MessageCodecHandler) ctx.pipeline().get(NetworkSession.CODECS);
+            out.add(((PreEncodedMessage) msg).getCompressedContent(this.compressionThreshold,
+                    message -> codecHandler.encode(ctx, message), buf -> {
+                        try {
+                            return compress(ctx, buf);
+                        } finally {
+                            buf.release();
+                        }
+                    }));
+        } else if (msg instanceof UncompressedContent) {
+            final ByteBuf content = ((UncompressedContent) msg).getContent();
+            try {
+                out.add(uncompressed(ctx, content));
+            } finally {
+                content.release();
             }
         } else {
-            // Message should be sent through
-            writeVarInt(prefixBuf, 0);
-            msg.retain();
-            contentsBuf = msg;
+            out.add(compress(ctx, (ByteBuf) msg));
         }
+    }
+
+    private static ByteBuf uncompressed(ChannelHandlerContext ctx, ByteBuf msg) {
+        final ByteBuf prefixBuf = ctx.alloc().buffer(1);
+        writeVarInt(prefixBuf, 0);
+        return Unpooled.wrappedBuffer(prefixBuf, msg.retain());
+    }
 
-        out.add(Unpooled.wrappedBuffer(prefixBuf, contentsBuf));
+    private ByteBuf compress(ChannelHandlerContext ctx, ByteBuf msg) {
+        final int length = msg.readableBytes();
+        if (length < this.compressionThreshold) {
+            // Message should be sent through
+            return uncompressed(ctx, msg);
+        }
+        // Message should be compressed, the prefix and the compressed
+        // content are written into the same buffer
+        final ByteBuf input = toHeapBuffer(ctx, msg);
+        final ByteBuf output = ctx.alloc().heapBuffer(5 + (length >> 1));
+        boolean compressed = true;
+        try {
+            writeVarInt(output, length);
+            final int maxLength = output.writerIndex() + length;
+            this.deflater.setInput(input.array(), input.arrayOffset() + input.readerIndex(), length);
+            this.deflater.finish();
+            while (!this.deflater.finished()) {
+                if (output.writerIndex() >= maxLength) {
+                    compressed = false;
+                    break;
+                }
+                output.ensureWritable(Math.min(length >> 1, maxLength - output.writerIndex()) + 1);
+                final int writerIndex = output.writerIndex();
+                final int written = this.deflater.deflate(output.array(), output.arrayOffset() + writerIndex, output.writableBytes());
+                output.writerIndex(writerIndex + written);
+            }
+        } catch (Throwable t) {
+            output.release();
+            throw t;
+        } finally {
+            this.deflater.reset();
+            if (input != msg) {
+                input.release();
+            }
+        }
+        if (!compressed) {
+            // Compression increased the size. threshold is probably too low
+            // Send as an uncompressed packet
+            output.release();
+            return uncompressed(ctx, msg);
+        }
+        return output;
     }
 
     @Override
     protected void decode(ChannelHandlerContext ctx, ByteBuf msg, List<Object> out) throws Exception {
-        int index = msg.readerIndex();
-        int uncompressedSize = readVarInt(msg);
+        final int index = msg.readerIndex();
+        final int uncompressedSize = readVarInt(msg);
         if (uncompressedSize == 0) {
             // Message is uncompressed
-            int length = msg.readableBytes();
+            final int length = msg.readableBytes();
             if (length >= this.compressionThreshold) {
                 // Invalid
                 throw new DecoderException("Received uncompressed message of size " + length + " greater than threshold "
                         + this.compressionThreshold);
             }
-
-            ByteBuf buf = ctx.alloc().buffer(length);
-            msg.readBytes(buf, length);
-            out.add(buf);
+            out.add(msg.readRetainedSlice(length));
+        } else if (uncompressedSize > MAX_UNCOMPRESSED_SIZE) {
+            throw new DecoderException("Received compressed message claiming to be of size " + uncompressedSize
+                    + " which is greater than the maximum of " + MAX_UNCOMPRESSED_SIZE);
         } else {
             // Message is compressed
-            byte[] sourceData = new byte[msg.readableBytes()];
-            msg.readBytes(sourceData);
-            this.inflater.setInput(sourceData);
-
-            byte[] destData = new byte[uncompressedSize];
-            int resultLength = this.inflater.inflate(destData);
-            this.inflater.reset();
+            final ByteBuf input = toHeapBuffer(ctx, msg);
+            final ByteBuf output = ctx.alloc().heapBuffer(uncompressedSize, uncompressedSize);
+            final int resultLength;
+            try {
+                this.inflater.setInput(input.array(), input.arrayOffset() + input.readerIndex(), input.readableBytes());
+                resultLength = this.inflater.inflate(output.array(), output.arrayOffset(), uncompressedSize);
+            } catch (DataFormatException e) {
+                output.release();
+                throw new DecoderException(e);
+            } finally {
+                this.inflater.reset();
+                if (input != msg) {
+                    input.release();
+                }
+            }
+            msg.skipBytes(msg.readableBytes());
 
             if (resultLength == 0) {
                 // Might be a leftover from before compression was enabled (no compression header)
                 // UncompressedSize is likely to be < threshold
+                output.release();
                 msg.readerIndex(index);
                 msg.retain();
                 out.add(msg);
             } else if (resultLength != uncompressedSize) {
+                output.release();
                 throw new DecoderException("Received compressed message claiming to be of size "
                         + uncompressedSize + " but actually " + resultLength);
             } else {
-                out.add(Unpooled.wrappedBuffer(destData));
+                output.writerIndex(resultLength);
+                out.add(output);
             }
         }
     }
+
+    /**
+     * Gets a heap buffer with the readable content of the given buffer. The
+     * buffer itself will be returned if it's already backed by a array, in
+     * that case the reader index of the returned buffer must be respected.
+     *
+     * @param ctx The channel handler context
+     * @param buf The buffer
+     * @return The heap buffer
+     */
+    private static ByteBuf toHeapBuffer(ChannelHandlerContext ctx, ByteBuf buf) {
+        if (buf.hasArray()) {
+            return buf;
+        }
+        final int length = buf.readableBytes();
+        final ByteBuf heapBuf = ctx.alloc().heapBuffer(length, length);
+        buf.getBytes(buf.readerIndex(), heapBuf, length);
+        return heapBuf;
+    }
 }
@@ -32,6 +32,7 @@
 import io.netty.util.concurrent.FastThreadLocal;
 import org.lanternpowered.server.network.message.Message;
 import org.lanternpowered.server.network.message.MessageRegistration;
+import org.lanternpowered.server.network.message.PreEncodedMessage;
 import org.lanternpowered.server.network.message.codec.CodecContext;
 import org.lanternpowered.server.network.message.processor.Processor;
 import org.lanternpowered.server.network.protocol.Protocol;
@@ -66,6 +67,10 @@ protected void encode(ChannelHandlerContext ctx, Message message, List<Object> o
 
     @Override
     public boolean acceptOutboundMessage(Object msg) throws Exception {
+        // Pre encoded messages are directly passed to the codec handler
+        if (msg instanceof PreEncodedMessage) {
+            return false;
+        }
         final Message message = (Message) msg;
         final Protocol protocol = this.codecContext.getSession().getProtocol();
         final MessageRegistration registration = protocol.outbound().findByMessageType(message.getClass()).orElse(null);
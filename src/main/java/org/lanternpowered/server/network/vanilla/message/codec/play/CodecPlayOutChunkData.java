@@ -25,22 +25,97 @@
  */
 package org.lanternpowered.server.network.vanilla.message.codec.play;
 
+import static org.lanternpowered.server.network.buffer.LanternByteBuffer.getVarIntLength;
+import static org.lanternpowered.server.network.buffer.LanternByteBuffer.writeVarInt;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.handler.codec.CodecException;
 import it.unimi.dsi.fastutil.shorts.Short2ObjectMap;
 import org.lanternpowered.server.network.buffer.ByteBuffer;
 import org.lanternpowered.server.network.message.codec.Codec;
 import org.lanternpowered.server.network.message.codec.CodecContext;
 import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayOutChunkData;
+import org.lanternpowered.server.util.NibbleArray;
 import org.lanternpowered.server.util.VariableValueArray;
+import org.lanternpowered.server.world.chunk.ChunkBlockStateArray;
 import org.spongepowered.api.data.DataQuery;
 import org.spongepowered.api.data.DataView;
 
+import javax.annotation.Nullable;
+
 public final class CodecPlayOutChunkData implements Codec<MessagePlayOutChunkData> {
 
+    /**
+     * The amount of bits per value that the client uses for the global palette.
+     */
+    private static final int GLOBAL_PALETTE_BITS_PER_VALUE = 13;
+
     private final static DataQuery X = DataQuery.of("x");
     private final static DataQuery Y = DataQuery.of("y");
     private final static DataQuery Z = DataQuery.of("z");
 
+    /**
+     * Encodes the data of a chunk section, the returned array can be used
+     * to construct a {@link MessagePlayOutChunkData.Section}.
+     *
+     * @param types The block types
+     * @param blockLight The block light
+     * @param skyLight The sky light, or {@code null} if the dimension has no sky
+     * @return The encoded section data
+     */
+    public static byte[] encodeSection(ChunkBlockStateArray types, NibbleArray blockLight, @Nullable NibbleArray skyLight) {
+        final int[] palette = types.getPalette();
+        final VariableValueArray values;
+        if (palette != null) {
+            values = types.getValues();
+        } else {
+            // The value should be the amount of bits per value of
+            // the CLIENT palette, it will otherwise not work.
+            // This is sadly enough hardcoded in the client
+            values = new VariableValueArray(GLOBAL_PALETTE_BITS_PER_VALUE, types.getCapacity());
+            for (int i = 0; i < values.getCapacity(); i++) {
+                values.set(i, types.get(i));
+            }
+        }
+        final long[] backing = values.getBacking();
+        final int lightLength = (blockLight.length() + 1) >> 1;
+
+        // Calculate the exact size of the section data
+        int size = 1 + getVarIntLength(palette == null ? 0 : palette.length);
+        if (palette != null) {
+            for (int value : palette) {
+                size += getVarIntLength(value);
+            }
+        }
+        size += getVarIntLength(backing.length) + backing.length * 8;
+        size += skyLight != null ? lightLength * 2 : lightLength;
+
+        final byte[] data = new byte[size];
+        final ByteBuf buf = Unpooled.wrappedBuffer(data);
+        buf.writerIndex(0);
+        buf.writeByte(values.getBitsPerValue());
+        if (palette != null) {
+            writeVarInt(buf, palette.length);
+            for (int value : palette) {
+                writeVarInt(buf, value);
+            }
+        } else {
+            // Using global palette
+            writeVarInt(buf, 0);
+        }
+        writeVarInt(buf, backing.length);
+        for (long value : backing) {
+            buf.writeLong(value);
+        }
+        final int index = buf.writerIndex();
+        blockLight.copyPackedArray(data, index);
+        if (skyLight != null) {
+            skyLight.copyPackedArray(data, index + lightLength);
+        }
+        return data;
+    }
+
     @Override
     public ByteBuffer encode(CodecContext context, MessagePlayOutChunkData message) throws CodecException {
         final MessagePlayOutChunkData.Section[] sections = message.getSections();
@@ -48,83 +123,50 @@ public ByteBuffer encode(CodecContext context, MessagePlayOutChunkData message)
         final int x = message.getX();
         final int z = message.getZ();
 
-        final ByteBuffer buf = context.byteBufAlloc().buffer();
-        buf.writeInteger(message.getX());
-        buf.writeInteger(message.getZ());
-        buf.writeBoolean(biomes != null);
-
         int sectionBitmask = 0;
+        int dataSize = biomes != null ? biomes.length : 0;
+        int tileEntitiesCount = 0;
 
-        final ByteBuffer dataBuf = context.byteBufAlloc().buffer();
+        for (int i = 0; i < sections.length; i++) {
+            if (sections[i] != null) {
+                sectionBitmask |= 1 << i;
+                dataSize += sections[i].getData().length;
+                tileEntitiesCount += sections[i].getTileEntities().size();
+            }
+        }
 
-        ByteBuffer tileEntitiesBuf = null;
-        int tileEntitiesCount = 0;
+        // The exact size of the message, excluding the
+        // tile entities, these will expand the buffer if needed
+        final int size = 9 + getVarIntLength(sectionBitmask) + getVarIntLength(dataSize) +
+                dataSize + getVarIntLength(tileEntitiesCount);
 
+        final ByteBuffer buf = context.byteBufAlloc().buffer(size);
+        buf.writeInteger(x);
+        buf.writeInteger(z);
+        buf.writeBoolean(biomes != null);
+        buf.writeVarInt(sectionBitmask);
+        buf.writeVarInt(dataSize);
+        for (MessagePlayOutChunkData.Section section : sections) {
+            if (section != null) {
+                buf.writeBytes(section.getData());
+            }
+        }
+        if (biomes != null) {
+            buf.writeBytes(biomes);
+        }
+
+        buf.writeVarInt(tileEntitiesCount);
         for (int i = 0; i < sections.length; i++) {
             if (sections[i] == null) {
                 continue;
             }
-            sectionBitmask |= 1 << i;
-            final MessagePlayOutChunkData.Section section = sections[i];
-            final VariableValueArray types = section.getTypes();
-            dataBuf.writeByte((byte) types.getBitsPerValue());
-            final int[] palette = section.getPalette();
-            if (palette != null) {
-                dataBuf.writeVarInt(palette.length);
-                for (int value : palette) {
-                    dataBuf.writeVarInt(value);
-                }
-            } else {
-                // Using global palette
-                dataBuf.writeVarInt(0);
-            }
-            final long[] backing = types.getBacking();
-            dataBuf.writeVarInt(backing.length);
-            final byte[] blockLight = section.getBlockLight();
-            final byte[] skyLight = section.getSkyLight();
-            dataBuf.ensureWritable(backing.length * 8 + blockLight.length +
-                    (skyLight != null ? skyLight.length : 0));
-            for (long value : backing) {
-                dataBuf.writeLong(value);
-            }
-            dataBuf.writeBytes(blockLight);
-            if (skyLight != null) {
-                dataBuf.writeBytes(skyLight);
-            }
-            final Short2ObjectMap<DataView> tileEntities = section.getTileEntities();
-            if (!tileEntities.isEmpty() && tileEntitiesBuf == null) {
-                tileEntitiesBuf  = context.byteBufAlloc().buffer();
-            }
-            for (Short2ObjectMap.Entry<DataView> tileEntityEntry : tileEntities.short2ObjectEntrySet()) {
-                tileEntitiesCount++;
+            for (Short2ObjectMap.Entry<DataView> tileEntityEntry : sections[i].getTileEntities().short2ObjectEntrySet()) {
                 final int index = tileEntityEntry.getShortKey() & 0xffff;
                 final DataView dataView = tileEntityEntry.getValue();
                 dataView.set(X, x * 16 + (index & 0xf));
                 dataView.set(Y, i << 4 | index >> 8);
                 dataView.set(Z, z * 16 + ((index >> 4) & 0xf));
-                //noinspection ConstantConditions
-                tileEntitiesBuf.writeDataView(dataView);
-            }
-        }
-
-        if (biomes != null) {
-            dataBuf.writeBytes(biomes);
-        }
-
-        buf.writeVarInt(sectionBitmask);
-        buf.writeVarInt(dataBuf.writerIndex());
-        try {
-            buf.writeBytes(dataBuf);
-        } finally {
-            dataBuf.release();
-        }
-
-        buf.writeVarInt(tileEntitiesCount);
-        if (tileEntitiesBuf != null) {
-            try {
-                buf.writeBytes(tileEntitiesBuf);
-            } finally {
-                tileEntitiesBuf.release();
+                buf.writeDataView(dataView);
             }
         }
 
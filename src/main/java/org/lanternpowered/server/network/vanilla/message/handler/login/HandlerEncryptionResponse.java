@@ -62,7 +62,6 @@
 import org.lanternpowered.server.profile.LanternGameProfile;
 import org.lanternpowered.server.profile.LanternProfileProperty;
 import org.lanternpowered.server.util.UUIDHelper;
-import org.spongepowered.api.Sponge;
 import org.spongepowered.api.event.SpongeEventFactory;
 import org.spongepowered.api.event.cause.Cause;
 import org.spongepowered.api.event.message.MessageEvent;
@@ -204,12 +203,13 @@ private void performAuth(NetworkSession session, String username, String hash) {
             final ClientConnectionEvent.Auth event = SpongeEventFactory.createClientConnectionEventAuth(Cause.source(gameProfile).build(),
                     session, new MessageEvent.MessageFormatter(t("disconnect.notAllowedToJoin")), gameProfile, false);
 
-            Sponge.getEventManager().post(event);
-            if (event.isCancelled()) {
-                session.disconnect(event.isMessageCancelled() ? t("disconnect.disconnected") : event.getMessage());
-            } else {
-                session.messageReceived(new MessageLoginInFinish(gameProfile));
-            }
+            Lantern.getGame().getEventManager().postAsync(event).thenAccept(cancelled -> {
+                if (cancelled) {
+                    session.disconnect(event.isMessageCancelled() ? t("disconnect.disconnected") : event.getMessage());
+                } else {
+                    session.messageReceived(new MessageLoginInFinish(gameProfile));
+                }
+            });
         } catch (Exception e) {
             Lantern.getLogger().error("Error in authentication thread", e);
             session.disconnect(t("Internal error during authentication."));
@@ -37,6 +37,7 @@
 import org.lanternpowered.server.network.NetworkContext;
 import org.lanternpowered.server.network.message.handler.Handler;
 import org.lanternpowered.server.network.NetworkSession;
+import org.lanternpowered.server.network.message.Async;
 import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayInChatMessage;
 import org.lanternpowered.server.text.TextConstants;
 import org.lanternpowered.server.text.action.LanternClickActionCallbacks;
@@ -61,10 +62,12 @@
 import java.net.URL;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+@Async
 public final class HandlerPlayInChatMessage implements Handler<MessagePlayInChatMessage> {
 
     private final static AttributeKey<ChatData> CHAT_DATA = AttributeKey.valueOf("chat-data");
@@ -73,6 +76,12 @@ private static class ChatData {
 
         private int chatThrottle;
         private long lastChatTime = -1L;
+
+        /**
+         * The last chat message of the connection that is being processed, the
+         * messages are chained so that they are broadcast in the order they were sent.
+         */
+        private CompletableFuture<Void> lastChat = CompletableFuture.completedFuture(null);
     }
 
     @Override
@@ -88,10 +97,11 @@ public void handle(NetworkContext context, MessagePlayInChatMessage message) {
             final UUID uniqueId = UUID.fromString(matcher.group(1));
             final Optional<Consumer<CommandSource>> callback = LanternClickActionCallbacks.get().getCallbackForUUID(uniqueId);
             if (callback.isPresent()) {
-                callback.get().accept(player);
+                Lantern.getSyncExecutorService().submit(() -> callback.get().accept(player));
             } else {
-                player.sendMessage(error(t("The callback you provided was not valid. Keep in mind that callbacks will expire "
-                        + "after 10 minutes, so you might want to consider clicking faster next time!")));
+                Lantern.getSyncExecutorService().submit(() -> player.sendMessage(error(t(
+                        "The callback you provided was not valid. Keep in mind that callbacks will expire "
+                        + "after 10 minutes, so you might want to consider clicking faster next time!"))));
             }
             return;
         }
@@ -101,19 +111,6 @@ public void handle(NetworkContext context, MessagePlayInChatMessage message) {
             session.disconnect(t("disconnect.invalidChatCharacters"));
             return;
         }
-        if (message1.startsWith("/")) {
-            Lantern.getSyncExecutorService().submit(() -> Sponge.getCommandManager().process(player, message1.substring(1)));
-        } else {
-            final Text nameText = player.get(Keys.DISPLAY_NAME).get();
-            final Text rawMessageText = Text.of(message0);
-            final Text messageText = newTextWithLinks(message0, true);
-            final MessageChannel channel = player.getMessageChannel();
-            final MessageChannelEvent.Chat event = SpongeEventFactory.createMessageChannelEventChat(Cause.of(NamedCause.source(player)),
-                    channel, Optional.of(channel), new MessageEvent.MessageFormatter(nameText, messageText), rawMessageText, false);
-            if (!Sponge.getEventManager().post(event) && !event.isMessageCancelled()) {
-                event.getChannel().ifPresent(c -> c.send(player, event.getMessage(), ChatTypes.CHAT));
-            }
-        }
         final Attribute<ChatData> attr = context.getChannel().attr(CHAT_DATA);
         ChatData chatData = attr.get();
         if (chatData == null) {
@@ -123,6 +120,22 @@ public void handle(NetworkContext context, MessagePlayInChatMessage message) {
                 chatData = chatData1;
             }
         }
+        if (message1.startsWith("/")) {
+            Lantern.getSyncExecutorService().submit(() -> Sponge.getCommandManager().process(player, message1.substring(1)));
+        } else {
+            final Text messageText = newTextWithLinks(message0, true);
+            //noinspection SynchronizationOnLocalVariableOrMethodParameter
+            synchronized (chatData) {
+                // The player data is read on the main thread, the event is posted
+                // async after the previous message of the player is broadcast
+                chatData.lastChat = chatData.lastChat
+                        .thenComposeAsync(v -> postChatEvent(player, message0, messageText), Lantern.getSyncExecutorService())
+                        .exceptionally(e -> {
+                            Lantern.getLogger().error("Error while processing the chat message of {}", player.getName(), e);
+                            return null;
+                        });
+            }
+        }
         //noinspection SynchronizationOnLocalVariableOrMethodParameter
         synchronized (chatData) {
             final long currentTime = LanternGame.currentTimeTicks();
@@ -137,6 +150,19 @@ public void handle(NetworkContext context, MessagePlayInChatMessage message) {
         }
     }
 
+    private static CompletableFuture<Void> postChatEvent(LanternPlayer player, String rawMessage, Text messageText) {
+        final Text nameText = player.get(Keys.DISPLAY_NAME).get();
+        final MessageChannel channel = player.getMessageChannel();
+        final MessageChannelEvent.Chat event = SpongeEventFactory.createMessageChannelEventChat(Cause.of(NamedCause.source(player)),
+                channel, Optional.of(channel), new MessageEvent.MessageFormatter(nameText, messageText), Text.of(rawMessage), false);
+        // Post the event async, this prevents that chat filters block the main thread
+        return Lantern.getGame().getEventManager().postAsync(event).thenAcceptAsync(cancelled -> {
+            if (!cancelled && !event.isMessageCancelled()) {
+                event.getChannel().ifPresent(c -> c.send(player, event.getMessage(), ChatTypes.CHAT));
+            }
+        }, Lantern.getSyncExecutorService());
+    }
+
     private static final Pattern URL_PATTERN = Pattern.compile(
             "((?:[a-z0-9]{2,}://)?(?:(?:[0-9]{1,3}\\.){3}[0-9]{1,3}|(?:[-\\w_]+\\.[a-z]{2,}?))(?::[0-9]{1,5})?.*?(?=[!\"\u00A7 \n]|$))",
             Pattern.CASE_INSENSITIVE);
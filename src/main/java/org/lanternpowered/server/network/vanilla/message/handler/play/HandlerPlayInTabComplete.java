@@ -28,6 +28,7 @@
 import com.google.common.collect.ImmutableList;
 import org.apache.commons.lang3.StringUtils;
 import org.lanternpowered.server.command.LanternCommandManager;
+import org.lanternpowered.server.game.Lantern;
 import org.lanternpowered.server.network.NetworkContext;
 import org.lanternpowered.server.network.message.handler.Handler;
 import org.lanternpowered.server.network.vanilla.message.type.play.MessagePlayInTabComplete;
@@ -105,9 +106,11 @@ public void handle(NetworkContext context, MessagePlayInTabComplete message) {
             final TabCompleteEvent.Chat event = SpongeEventFactory.createTabCompleteEventChat(
                     Cause.source(context.getSession().getPlayer()).build(),
                     ImmutableList.copyOf(suggestions), suggestions, text, Optional.ofNullable(targetBlock), false);
-            if (!Sponge.getEventManager().post(event)) {
-                context.getSession().send(new MessagePlayOutTabComplete(suggestions));
-            }
+            Lantern.getGame().getEventManager().postAsync(event).thenAccept(cancelled -> {
+                if (!cancelled) {
+                    context.getSession().send(new MessagePlayOutTabComplete(suggestions));
+                }
+            });
         }
     }
 }
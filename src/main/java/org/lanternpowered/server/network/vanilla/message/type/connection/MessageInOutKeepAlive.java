@@ -26,7 +26,9 @@
 package org.lanternpowered.server.network.vanilla.message.type.connection;
 
 import org.lanternpowered.server.network.message.Message;
+import org.lanternpowered.server.network.message.Uncompressed;
 
+@Uncompressed
 public final class MessageInOutKeepAlive implements Message {
 
     private final int id;
@@ -25,12 +25,10 @@
  */
 package org.lanternpowered.server.network.vanilla.message.type.play;
 
-import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import it.unimi.dsi.fastutil.shorts.Short2ObjectMap;
 import org.lanternpowered.server.network.message.Message;
-import org.lanternpowered.server.util.VariableValueArray;
 import org.spongepowered.api.data.DataView;
 
 import javax.annotation.Nullable;
@@ -43,15 +41,8 @@ public final class MessagePlayOutChunkData implements Message {
     private final Section[] sections;
     @Nullable private final byte[] biomes;
 
-    public MessagePlayOutChunkData(int x, int z, boolean skylight, Section[] sections, @Nullable byte[] biomes) {
-        checkNotNull(sections, "sections");
-        for (Section section : sections) {
-            if (section != null) {
-                checkArgument((section.skyLight != null) == skylight,
-                        "Skylight must be present in every section if skylight is to true, and absent if false.");
-            }
-        }
-        this.sections = sections;
+    public MessagePlayOutChunkData(int x, int z, Section[] sections, @Nullable byte[] biomes) {
+        this.sections = checkNotNull(sections, "sections");
         this.biomes = biomes;
         this.x = x;
         this.z = z;
@@ -77,43 +68,22 @@ public byte[] getBiomes() {
     /**
      * Represents the data of chunk section.
      *
-     * Notes:
-     * - If bitsPerValue is smaller then 4 bits, the client will round up to 4
-     * - When bitsPerValue is greater then 8 bits, the client will use the global palette
+     * The data is already encoded, this includes the bits per value, palette,
+     * types and the light arrays. The encoded data may be shared between
+     * multiple messages and should not be modified.
      */
     public static class Section {
 
-        private final VariableValueArray types;
-        @Nullable private final int[] palette;
-        private final byte[] blockLight;
-        @Nullable private final byte[] skyLight;
+        private final byte[] data;
         private final Short2ObjectMap<DataView> tileEntities;
 
-        public Section(VariableValueArray types, @Nullable int[] palette, byte[] blockLight, @Nullable byte[] skyLight,
-                Short2ObjectMap<DataView> tileEntities) {
-            this.tileEntities = tileEntities;
-            this.blockLight = blockLight;
-            this.skyLight = skyLight;
-            this.palette = palette;
-            this.types = types;
-        }
-
-        public byte[] getBlockLight() {
-            return this.blockLight;
-        }
-
-        @Nullable
-        public byte[] getSkyLight() {
-            return this.skyLight;
-        }
-
-        public VariableValueArray getTypes() {
-            return this.types;
+        public Section(byte[] data, Short2ObjectMap<DataView> tileEntities) {
+            this.tileEntities = checkNotNull(tileEntities, "tileEntities");
+            this.data = checkNotNull(data, "data");
         }
 
-        @Nullable
-        public int[] getPalette() {
-            return this.palette;
+        public byte[] getData() {
+            return this.data;
         }
 
         public Short2ObjectMap<DataView> getTileEntities() {
@@ -26,10 +26,12 @@
 package org.lanternpowered.server.network.vanilla.message.type.play;
 
 import org.lanternpowered.server.network.message.Message;
+import org.lanternpowered.server.network.message.Uncompressed;
 import org.spongepowered.api.util.RelativePositions;
 
 import java.util.Set;
 
+@Uncompressed
 public final class MessagePlayOutPlayerPositionAndLook implements Message {
 
     private final double x;
@@ -100,9 +100,21 @@ public Set<Task> getScheduledTasks(boolean async) {
     @Override
     public Set<Task> getScheduledTasks(Object plugin) {
         final PluginContainer pluginContainer = checkPlugin(plugin, "plugin");
-        return getScheduledTasks().stream()
-                .filter(task -> task.getOwner().equals(pluginContainer))
-                .collect(ImmutableSet.toImmutableSet());
+        final ImmutableSet.Builder<Task> builder = ImmutableSet.builder();
+        builder.addAll(this.asyncScheduler.getScheduledTasks(pluginContainer));
+        builder.addAll(this.syncScheduler.getScheduledTasks(pluginContainer));
+        return builder.build();
+    }
+
+    /**
+     * Gets the amount of pending (and running) tasks that are owned by the plugin.
+     *
+     * @param plugin The plugin
+     * @return The amount of tasks
+     */
+    public int getScheduledTaskCount(Object plugin) {
+        final PluginContainer pluginContainer = checkPlugin(plugin, "plugin");
+        return this.asyncScheduler.getTaskCount(pluginContainer) + this.syncScheduler.getTaskCount(pluginContainer);
     }
 
     @Override
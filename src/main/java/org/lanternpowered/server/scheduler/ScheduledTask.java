@@ -33,6 +33,8 @@
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
+import javax.annotation.Nullable;
+
 /**
  * An internal representation of a {@link Task} created by a plugin.
  */
@@ -45,12 +47,19 @@ public class ScheduledTask implements Task {
     private final PluginContainer owner;
     private final Consumer<Task> executor;
     private long timestamp;
-    private ScheduledTaskState state;
+    private volatile ScheduledTaskState state;
     private final UUID id;
     private final String name;
     final TaskSynchronicity syncType;
     private final String stringRepresentation;
 
+    // The scheduler this task was submitted to
+    @Nullable volatile SchedulerBase scheduler;
+    // The timestamp at which the task is due and the
+    // insertion order, only used by the scheduler thread
+    long dueTimestamp;
+    long sequence;
+
     // Internal Task state. Not for user-service use.
     public enum ScheduledTaskState {
         /**
@@ -131,6 +140,10 @@ public boolean cancel() {
             success = true;
         }
         this.setState(ScheduledTask.ScheduledTaskState.CANCELED);
+        final SchedulerBase scheduler = this.scheduler;
+        if (scheduler != null) {
+            scheduler.removeTask(this);
+        }
         return success;
     }
 
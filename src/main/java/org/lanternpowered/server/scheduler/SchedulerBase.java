@@ -31,16 +31,39 @@
 import org.spongepowered.api.plugin.PluginContainer;
 import org.spongepowered.api.scheduler.Task;
 
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Map;
 import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 abstract class SchedulerBase {
 
-    // The simple queue of all pending (and running) ScheduledTasks
+    private static final Comparator<ScheduledTask> DUE_ORDER = (o1, o2) -> {
+        final int result = Long.compare(o1.dueTimestamp, o2.dueTimestamp);
+        return result != 0 ? result : Long.compare(o1.sequence, o2.sequence);
+    };
+
+    // All the pending (and running) ScheduledTasks, used for the lookups
     private final Map<UUID, ScheduledTask> taskMap = Maps.newConcurrentMap();
+    // All the pending (and running) ScheduledTasks by their owner
+    private final Map<PluginContainer, Set<ScheduledTask>> tasksByPlugin = Maps.newConcurrentMap();
+
+    // The tasks that were added since the last tick, they are
+    // moved to the delay queues by the scheduler thread
+    private final Queue<ScheduledTask> addedTasks = new ConcurrentLinkedQueue<>();
+
+    // The delay queues, only accessed by the scheduler thread. Tasks which
+    // are based on ticks and wall clock time are kept in separate queues
+    private final PriorityQueue<ScheduledTask> tickQueue = new PriorityQueue<>(DUE_ORDER);
+    private final PriorityQueue<ScheduledTask> timeQueue = new PriorityQueue<>(DUE_ORDER);
+
     private long sequenceNumber = 0L;
+    private long queueSequence = 0L;
     private final String taskNameFmt;
 
     protected SchedulerBase(ScheduledTask.TaskSynchronicity type) {
@@ -67,6 +90,27 @@ protected long getTimestamp(ScheduledTask task) {
         return System.nanoTime();
     }
 
+    /**
+     * Gets the current tick, used as timestamp for tasks that
+     * are based on ticks, see {@link #isTickBased(ScheduledTask)}.
+     *
+     * @return The current tick
+     */
+    protected long getCurrentTick() {
+        return 0L;
+    }
+
+    /**
+     * Gets whether the current timestamp of the task is based on ticks
+     * instead of wall clock time, see {@link #getTimestamp(ScheduledTask)}.
+     *
+     * @param task The task
+     * @return Whether the timestamp is based on ticks
+     */
+    protected boolean isTickBased(ScheduledTask task) {
+        return false;
+    }
+
     /**
      * Adds the task to the task map, will attempt to process the task on the
      * next call to {@link #runTick}.
@@ -75,16 +119,24 @@ protected long getTimestamp(ScheduledTask task) {
      */
     protected void addTask(ScheduledTask task) {
         task.setTimestamp(this.getTimestamp(task));
+        task.scheduler = this;
         this.taskMap.put(task.getUniqueId(), task);
+        this.tasksByPlugin.computeIfAbsent(task.getOwner(), plugin -> Sets.newConcurrentHashSet()).add(task);
+        this.addedTasks.add(task);
     }
 
     /**
-     * Removes the task from the task map.
+     * Removes the task from the task map. The task will be
+     * dropped from the delay queue once it's polled.
      *
      * @param task The task to remove
      */
     protected void removeTask(ScheduledTask task) {
         this.taskMap.remove(task.getUniqueId());
+        final Set<ScheduledTask> tasks = this.tasksByPlugin.get(task.getOwner());
+        if (tasks != null) {
+            tasks.remove(task);
+        }
     }
 
     protected Optional<Task> getTask(UUID id) {
@@ -92,18 +144,82 @@ protected Optional<Task> getTask(UUID id) {
     }
 
     protected Set<Task> getScheduledTasks() {
-        synchronized (this.taskMap) {
-            return Sets.newHashSet(this.taskMap.values());
+        return Sets.newHashSet(this.taskMap.values());
+    }
+
+    protected Set<Task> getScheduledTasks(PluginContainer plugin) {
+        final Set<ScheduledTask> tasks = this.tasksByPlugin.get(plugin);
+        return tasks == null ? Collections.emptySet() : Sets.newHashSet(tasks);
+    }
+
+    /**
+     * Gets the amount of pending (and running) tasks of the plugin.
+     *
+     * @param plugin The plugin
+     * @return The amount of tasks
+     */
+    protected int getTaskCount(PluginContainer plugin) {
+        final Set<ScheduledTask> tasks = this.tasksByPlugin.get(plugin);
+        return tasks == null ? 0 : tasks.size();
+    }
+
+    /**
+     * Moves all the tasks that were added since the last call
+     * to the delay queues. Must be called by the scheduler thread.
+     */
+    protected final void drainAddedTasks() {
+        ScheduledTask task;
+        while ((task = this.addedTasks.poll()) != null) {
+            queue(task);
         }
     }
 
     /**
-     * Process all tasks in the map.
+     * Gets the time in nanoseconds until the next wall clock based task is due, tick
+     * based tasks are ignored. Must be called by the scheduler thread.
+     *
+     * @return The delay in nanoseconds, or {@link Long#MAX_VALUE} if there are no tasks
+     */
+    protected final long getNextTimeDelay() {
+        ScheduledTask task;
+        // Drop the tasks that were already removed
+        while ((task = this.timeQueue.peek()) != null && task.getState() == ScheduledTask.ScheduledTaskState.CANCELED) {
+            this.timeQueue.poll();
+            removeTask(task);
+        }
+        if (task == null) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0L, task.dueTimestamp - System.nanoTime());
+    }
+
+    private void queue(ScheduledTask task) {
+        // Figure out if we start a delayed Task after threshold ticks or, start
+        // it after the interval (period) of the repeating task parameter.
+        final long threshold = task.getState() == ScheduledTask.ScheduledTaskState.WAITING ? task.offset : task.period;
+        task.dueTimestamp = task.getTimestamp() + threshold;
+        task.sequence = this.queueSequence++;
+        (isTickBased(task) ? this.tickQueue : this.timeQueue).add(task);
+    }
+
+    /**
+     * Process all the tasks that are due.
      */
     protected final void runTick() {
         this.preTick();
         try {
-            this.taskMap.values().forEach(this::processTask);
+            drainAddedTasks();
+            // Only the tasks that are due are polled, repeating tasks are
+            // queued again with a timestamp that is after the current one
+            ScheduledTask task;
+            final long tick = getCurrentTick();
+            while ((task = this.tickQueue.peek()) != null && task.dueTimestamp <= tick) {
+                processTask(this.tickQueue.poll());
+            }
+            final long now = System.nanoTime();
+            while ((task = this.timeQueue.peek()) != null && task.dueTimestamp <= now) {
+                processTask(this.timeQueue.poll());
+            }
             this.postTick();
         } finally {
             this.finallyPostTick();
@@ -130,7 +246,7 @@ protected void finallyPostTick() {
     }
 
     /**
-     * Processes the task.
+     * Processes the task, the task is due.
      *
      * @param task The task to process
      */
@@ -141,29 +257,17 @@ protected void processTask(ScheduledTask task) {
             this.removeTask(task);
             return;
         }
-        long threshold = Long.MAX_VALUE;
-        // Figure out if we start a delayed Task after threshold ticks or, start
-        // it after the interval (period) of the repeating task parameter.
-        if (task.getState() == ScheduledTask.ScheduledTaskState.WAITING) {
-            threshold = task.offset;
-        } else if (task.getState() == ScheduledTask.ScheduledTaskState.RUNNING) {
-            threshold = task.period;
-        }
-        // This moment is 'now'
-        long now = this.getTimestamp(task);
-        // So, if the current time minus the timestamp of the task is greater
-        // than the delay to wait before starting the task, then start the task.
         // Repeating tasks get a reset-timestamp each time they are set RUNNING
         // If the task has a period of 0 (zero) this task will not repeat, and
         // is removed after we start it.
-        if (threshold <= (now - task.getTimestamp())) {
-            task.setState(ScheduledTask.ScheduledTaskState.SWITCHING);
-            task.setTimestamp(this.getTimestamp(task));
-            startTask(task);
-            // If task is one time shot, remove it from the map.
-            if (task.period == 0L) {
-                this.removeTask(task);
-            }
+        task.setState(ScheduledTask.ScheduledTaskState.SWITCHING);
+        task.setTimestamp(this.getTimestamp(task));
+        startTask(task);
+        // If task is one time shot, remove it from the map.
+        if (task.period == 0L) {
+            this.removeTask(task);
+        } else {
+            queue(task);
         }
     }
 
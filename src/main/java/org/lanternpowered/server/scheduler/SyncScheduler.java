@@ -62,6 +62,19 @@ protected long getTimestamp(ScheduledTask task) {
         return 0L;
     }
 
+    @Override
+    protected long getCurrentTick() {
+        return this.counter;
+    }
+
+    @Override
+    protected boolean isTickBased(ScheduledTask task) {
+        if (task.getState() == ScheduledTask.ScheduledTaskState.WAITING) {
+            return task.delayIsTicks;
+        }
+        return task.getState().isActive && task.intervalIsTicks;
+    }
+
     @Override
     protected void executeTaskRunnable(Runnable runnable) {
         runnable.run();
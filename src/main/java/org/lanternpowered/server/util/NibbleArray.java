@@ -220,6 +220,18 @@ public byte[] getPackedArray() {
         return this.getPackedArray(null);
     }
 
+    /**
+     * Copies all the values packed into the given array, starting at the
+     * given offset. The amount of bytes that will be copied is the same as
+     * the length of the array returned by {@link #getPackedArray()}.
+     *
+     * @param array the target array
+     * @param offset the offset in the target array
+     */
+    public void copyPackedArray(byte[] array, int offset) {
+        System.arraycopy(this.backingArray, 0, array, offset, this.backingArraySize);
+    }
+
     /**
      * Creates a copy of this nibble array.
      *
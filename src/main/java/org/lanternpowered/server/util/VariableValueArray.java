@@ -48,6 +48,22 @@ public VariableValueArray(int bitsPerValue, int capacity) {
         this.capacity = capacity;
     }
 
+    private VariableValueArray(long[] backing, int bitsPerValue, int capacity) {
+        this.backing = backing;
+        this.bitsPerValue = bitsPerValue;
+        this.valueMask = (1L << bitsPerValue) - 1L;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Creates a copy of this {@link VariableValueArray}.
+     *
+     * @return The copy
+     */
+    public VariableValueArray copy() {
+        return new VariableValueArray(this.backing.clone(), this.bitsPerValue, this.capacity);
+    }
+
     public long[] getBacking() {
         return this.backing;
     }
@@ -0,0 +1,461 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.util.concurrent;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import io.netty.util.concurrent.FastThreadLocal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongFunction;
+import java.util.function.ObjLongConsumer;
+
+import javax.annotation.Nullable;
+
+/**
+ * A concurrent map with primitive {@code long} keys, {@code null} values are not supported.
+ * <p>
+ * The map is split into segments that are each backed by a open addressing table. Lookups
+ * are lock free through optimistic reads, modifications only lock the target segment.
+ * <p>
+ * Every thread additionally remembers the last entry that it successfully looked up, which
+ * makes repeated lookups of the same key (for example the same chunk from the world thread)
+ * almost free. The remembered entry is dropped as soon as its segment removes or replaces
+ * any value.
+ *
+ * @param <V> The type of the values
+ */
+public final class ConcurrentLong2ObjectMap<V> {
+
+    private static final int SEGMENT_BITS = 4;
+    private static final int SEGMENT_SHIFT = Integer.SIZE - SEGMENT_BITS;
+    private static final int SEGMENT_COUNT = 1 << SEGMENT_BITS;
+
+    private static final int DEFAULT_SEGMENT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private static int mix(long key) {
+        // The 64 bit finalizer of the murmur3 hash
+        long hash = key;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return (int) hash;
+    }
+
+    private static final class Table {
+
+        private final long[] keys;
+        private final Object[] values;
+        private final int mask;
+        private final int threshold;
+
+        private Table(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new Object[capacity];
+            this.mask = capacity - 1;
+            this.threshold = (int) (capacity * LOAD_FACTOR);
+        }
+
+        @Nullable
+        private Object get(long key, int hash) {
+            final long[] keys = this.keys;
+            final Object[] values = this.values;
+            int index = hash & this.mask;
+            // Bound the probing, a concurrent modification could
+            // otherwise cause a endless loop before validation
+            for (int i = 0; i <= this.mask; i++) {
+                final Object value = values[index];
+                if (value == null) {
+                    return null;
+                }
+                if (keys[index] == key) {
+                    return value;
+                }
+                index = (index + 1) & this.mask;
+            }
+            return null;
+        }
+
+        private int indexOf(long key, int hash) {
+            int index = hash & this.mask;
+            while (this.values[index] != null) {
+                if (this.keys[index] == key) {
+                    return index;
+                }
+                index = (index + 1) & this.mask;
+            }
+            return -index - 1;
+        }
+
+        private void removeAt(int index) {
+            // Shift the following entries back to fill the gap
+            int last;
+            int slot;
+            for (;;) {
+                last = index;
+                index = (index + 1) & this.mask;
+                for (;;) {
+                    if (this.values[index] == null) {
+                        this.values[last] = null;
+                        this.keys[last] = 0L;
+                        return;
+                    }
+                    slot = mix(this.keys[index]) & this.mask;
+                    if (last <= index ? last >= slot || slot > index : last >= slot && slot > index) {
+                        break;
+                    }
+                    index = (index + 1) & this.mask;
+                }
+                this.keys[last] = this.keys[index];
+                this.values[last] = this.values[index];
+            }
+        }
+    }
+
+    private static final class Segment extends StampedLock {
+
+        private static final long serialVersionUID = -2402540137451237474L;
+
+        private Table table = new Table(DEFAULT_SEGMENT_CAPACITY);
+        private int size;
+
+        // Increased every time that a value is removed or replaced,
+        // used to invalidate the last hits of the threads
+        private volatile int removals;
+
+        private void insert(int index, long key, int hash, Object value) {
+            Table table = this.table;
+            table.keys[index] = key;
+            table.values[index] = value;
+            if (++this.size > table.threshold) {
+                final Table newTable = new Table(table.keys.length << 1);
+                for (int i = 0; i < table.keys.length; i++) {
+                    final Object value0 = table.values[i];
+                    if (value0 != null) {
+                        final long key0 = table.keys[i];
+                        final int index0 = -newTable.indexOf(key0, mix(key0)) - 1;
+                        newTable.keys[index0] = key0;
+                        newTable.values[index0] = value0;
+                    }
+                }
+                this.table = newTable;
+            }
+        }
+    }
+
+    private static final class LastHit {
+
+        private long key;
+        @Nullable private Object value;
+        @Nullable private Segment segment;
+        private int removals;
+    }
+
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+    private final FastThreadLocal<LastHit> lastHit = new FastThreadLocal<LastHit>() {
+        @Override
+        protected LastHit initialValue() throws Exception {
+            return new LastHit();
+        }
+    };
+
+    public ConcurrentLong2ObjectMap() {
+        for (int i = 0; i < this.segments.length; i++) {
+            this.segments[i] = new Segment();
+        }
+    }
+
+    private Segment segmentFor(int hash) {
+        return this.segments[hash >>> SEGMENT_SHIFT];
+    }
+
+    /**
+     * Gets the value that is mapped to the given key.
+     *
+     * @param key The key
+     * @return The value, or {@code null} if not present
+     */
+    @SuppressWarnings("unchecked")
+    @Nullable
+    public V get(long key) {
+        final LastHit lastHit = this.lastHit.get();
+        final Segment lastSegment = lastHit.segment;
+        if (lastSegment != null && lastHit.key == key && lastSegment.removals == lastHit.removals) {
+            return (V) lastHit.value;
+        }
+        final int hash = mix(key);
+        final Segment segment = segmentFor(hash);
+        // Capture the removals before the lookup, a removal
+        // in between will invalidate the last hit
+        final int removals = segment.removals;
+        final Object value = get(segment, key, hash);
+        if (value != null) {
+            lastHit.key = key;
+            lastHit.value = value;
+            lastHit.segment = segment;
+            lastHit.removals = removals;
+        }
+        return (V) value;
+    }
+
+    @Nullable
+    private static Object get(Segment segment, long key, int hash) {
+        long stamp = segment.tryOptimisticRead();
+        if (stamp != 0L) {
+            final Object value = segment.table.get(key, hash);
+            if (segment.validate(stamp)) {
+                return value;
+            }
+        }
+        stamp = segment.readLock();
+        try {
+            return segment.table.get(key, hash);
+        } finally {
+            segment.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Gets whether a value is mapped to the given key.
+     *
+     * @param key The key
+     * @return Whether a value is present
+     */
+    public boolean containsKey(long key) {
+        final int hash = mix(key);
+        return get(segmentFor(hash), key, hash) != null;
+    }
+
+    /**
+     * Maps the value to the given key.
+     *
+     * @param key The key
+     * @param value The value
+     * @return The previous value, or {@code null} if not present
+     */
+    @SuppressWarnings("unchecked")
+    @Nullable
+    public V put(long key, V value) {
+        checkNotNull(value, "value");
+        final int hash = mix(key);
+        final Segment segment = segmentFor(hash);
+        final long stamp = segment.writeLock();
+        try {
+            final Table table = segment.table;
+            final int index = table.indexOf(key, hash);
+            if (index >= 0) {
+                final Object oldValue = table.values[index];
+                table.values[index] = value;
+                segment.removals++;
+                return (V) oldValue;
+            }
+            segment.insert(-index - 1, key, hash, value);
+            return null;
+        } finally {
+            segment.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Gets the value that is mapped to the given key, or computes
+     * and maps a new one if missing. The function is called while
+     * the segment of the key is locked.
+     *
+     * @param key The key
+     * @param function The function to compute the value
+     * @return The present or computed value
+     */
+    @SuppressWarnings("unchecked")
+    public V computeIfAbsent(long key, LongFunction<? extends V> function) {
+        checkNotNull(function, "function");
+        final int hash = mix(key);
+        final Segment segment = segmentFor(hash);
+        Object value = get(segment, key, hash);
+        if (value != null) {
+            return (V) value;
+        }
+        final long stamp = segment.writeLock();
+        try {
+            final Table table = segment.table;
+            final int index = table.indexOf(key, hash);
+            if (index >= 0) {
+                return (V) table.values[index];
+            }
+            value = checkNotNull(function.apply(key), "value");
+            segment.insert(-index - 1, key, hash, value);
+            return (V) value;
+        } finally {
+            segment.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes the value that is mapped to the given key.
+     *
+     * @param key The key
+     * @return The removed value, or {@code null} if not present
+     */
+    @SuppressWarnings("unchecked")
+    @Nullable
+    public V remove(long key) {
+        return (V) remove0(key, null);
+    }
+
+    /**
+     * Removes the value that is mapped to the given key, only
+     * if it matches the given value.
+     *
+     * @param key The key
+     * @param value The expected value
+     * @return Whether the value was removed
+     */
+    public boolean remove(long key, Object value) {
+        return remove0(key, checkNotNull(value, "value")) != null;
+    }
+
+    @Nullable
+    private Object remove0(long key, @Nullable Object expected) {
+        final int hash = mix(key);
+        final Segment segment = segmentFor(hash);
+        final long stamp = segment.writeLock();
+        try {
+            final Table table = segment.table;
+            final int index = table.indexOf(key, hash);
+            if (index < 0) {
+                return null;
+            }
+            final Object value = table.values[index];
+            if (expected != null && !expected.equals(value)) {
+                return null;
+            }
+            table.removeAt(index);
+            segment.size--;
+            segment.removals++;
+            return value;
+        } finally {
+            segment.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Gets the amount of entries in this map.
+     *
+     * @return The size
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : this.segments) {
+            final long stamp = segment.readLock();
+            try {
+                size += segment.size;
+            } finally {
+                segment.unlockRead(stamp);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Gets whether this map is empty.
+     *
+     * @return Is empty
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Removes all the entries from this map.
+     */
+    public void clear() {
+        for (Segment segment : this.segments) {
+            final long stamp = segment.writeLock();
+            try {
+                segment.table = new Table(DEFAULT_SEGMENT_CAPACITY);
+                segment.size = 0;
+                segment.removals++;
+            } finally {
+                segment.unlockWrite(stamp);
+            }
+        }
+    }
+
+    /**
+     * Creates a snapshot of all the values in this map.
+     *
+     * @return The values
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+        final List<V> values = new ArrayList<>();
+        for (Segment segment : this.segments) {
+            final long stamp = segment.readLock();
+            try {
+                for (Object value : segment.table.values) {
+                    if (value != null) {
+                        values.add((V) value);
+                    }
+                }
+            } finally {
+                segment.unlockRead(stamp);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Applies the consumer to all the entries in this map. The entries of
+     * a segment are captured before the consumer is applied, so modifying
+     * this map from within the consumer is allowed.
+     *
+     * @param consumer The consumer that accepts the value and key
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(ObjLongConsumer<? super V> consumer) {
+        checkNotNull(consumer, "consumer");
+        for (Segment segment : this.segments) {
+            final long[] keys;
+            final Object[] values;
+            final long stamp = segment.readLock();
+            try {
+                keys = segment.table.keys.clone();
+                values = segment.table.values.clone();
+            } finally {
+                segment.unlockRead(stamp);
+            }
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) {
+                    consumer.accept((V) values[i], keys[i]);
+                }
+            }
+        }
+    }
+}
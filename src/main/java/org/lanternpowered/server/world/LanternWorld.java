@@ -44,13 +44,17 @@
 import org.lanternpowered.server.behavior.Parameters;
 import org.lanternpowered.server.behavior.pipeline.BehaviorPipeline;
 import org.lanternpowered.server.block.LanternBlockType;
+import org.lanternpowered.server.block.LanternScheduledBlockUpdate;
+import org.lanternpowered.server.block.ScheduledBlockUpdateWheel;
+import org.lanternpowered.server.block.aabb.AABBBuffer;
 import org.lanternpowered.server.block.action.BlockAction;
 import org.lanternpowered.server.block.behavior.types.InteractWithBlockBehavior;
 import org.lanternpowered.server.block.behavior.types.PlaceBlockBehavior;
+import org.lanternpowered.server.block.behavior.types.ScheduledUpdateBehavior;
 import org.lanternpowered.server.config.world.WorldConfig;
-import org.lanternpowered.server.data.io.ChunkIOService;
 import org.lanternpowered.server.data.io.ScoreboardIO;
 import org.lanternpowered.server.data.io.anvil.AnvilChunkIOService;
+import org.lanternpowered.server.data.io.anvil.RegionCompression;
 import org.lanternpowered.server.effect.AbstractViewer;
 import org.lanternpowered.server.effect.sound.LanternSoundType;
 import org.lanternpowered.server.entity.LanternEntity;
@@ -69,6 +73,7 @@
 import org.lanternpowered.server.world.chunk.ChunkLoadingTicket;
 import org.lanternpowered.server.world.chunk.LanternChunk;
 import org.lanternpowered.server.world.chunk.LanternChunkManager;
+import org.lanternpowered.server.world.chunk.LightEngine;
 import org.lanternpowered.server.world.chunk.LanternChunkTicketManager;
 import org.lanternpowered.server.world.dimension.LanternDimensionType;
 import org.lanternpowered.server.world.extent.AbstractExtent;
@@ -191,11 +196,23 @@ public class LanternWorld implements AbstractExtent, org.lanternpowered.api.worl
     // The chunk manager of this world
     private final LanternChunkManager chunkManager;
 
+    // The light engine of this world
+    private final LightEngine lightEngine;
+
     /**
      * The entities mapped by their unique id.
      */
     private final Map<UUID, LanternEntity> entitiesByUniqueId = new ConcurrentHashMap<>();
 
+    // A reusable list of the entities that are being pulsed
+    private final List<LanternEntity> pulsedEntities = new ArrayList<>();
+
+    // The ticker that is used when parallel ticking is enabled
+    private final ParallelWorldTicker parallelTicker = new ParallelWorldTicker(this);
+
+    // All the scheduled block updates of this world
+    private final ScheduledBlockUpdateWheel scheduledBlockUpdates = new ScheduledBlockUpdateWheel(this);
+
     /**
      * The chunk manager that will allows observers to track
      * changes in chunks.
@@ -247,7 +264,11 @@ public LanternWorld(LanternGame game, WorldConfig worldConfig, Path directory,
         this.properties = properties;
         this.game = game;
         // Create the chunk io service
-        final ChunkIOService chunkIOService = new AnvilChunkIOService(directory, this, Lantern.getLogger(), Lantern.getScheduler());
+        final AnvilChunkIOService chunkIOService = new AnvilChunkIOService(directory, this, Lantern.getLogger(), Lantern.getScheduler());
+        // Convert the stored chunks to the configured compression
+        if (worldConfig.shouldConvertChunkCompression()) {
+            RegionCompression.get(worldConfig.getChunkCompression()).ifPresent(chunkIOService::convertCompression);
+        }
         // Get the chunk load service
         final LanternChunkTicketManager chunkLoadService = game.getChunkTicketManager();
         // Get the dimension type
@@ -263,6 +284,8 @@ public LanternWorld(LanternGame game, WorldConfig worldConfig, Path directory,
         this.worldBorder = new LanternWorldBorder(this);
         // Create the dimension
         this.dimension = dimensionType.newDimension(this);
+        // Create the light engine
+        this.lightEngine = new LightEngine(this);
         // Create the portal agent
         this.portalAgent = properties.getPortalAgentType().newPortalAgent(this);
         // Create a new world generator
@@ -311,6 +334,9 @@ void shutdown() {
             this.spawnLoadingTicket.release();
             this.spawnLoadingTicket = null;
         }
+        // Stop the light thread, the pending light changes
+        // need to be applied before the chunks are saved
+        this.lightEngine.shutdown();
         // Shut the chunk manager down
         this.chunkManager.shutdown();
     }
@@ -395,6 +421,15 @@ public LanternChunkManager getChunkManager() {
         return this.chunkManager;
     }
 
+    /**
+     * Gets the light engine of this world.
+     *
+     * @return the light engine
+     */
+    public LightEngine getLightEngine() {
+        return this.lightEngine;
+    }
+
     @Override
     public Location<World> getLocation(Vector3i position) {
         return getLocation(position.getX(), position.getY(), position.getZ());
@@ -407,23 +442,30 @@ public Location<World> getLocation(Vector3d position) {
 
     @Override
     public Collection<ScheduledBlockUpdate> getScheduledUpdates(int x, int y, int z) {
-        LanternChunk chunk = this.chunkManager.getChunk(x >> 4, z >> 4);
-        if (chunk != null) {
-            return chunk.getScheduledUpdates(x, y, z);
-        }
-        return ImmutableSet.of();
+        checkVolumeBounds(x, y, z);
+        return this.scheduledBlockUpdates.get(x, y, z);
     }
 
     @Override
     public ScheduledBlockUpdate addScheduledUpdate(int x, int y, int z, int priority, int ticks) {
-        // TODO Auto-generated method stub
-        return null;
+        checkVolumeBounds(x, y, z);
+        return this.scheduledBlockUpdates.add(x, y, z, priority, ticks);
     }
 
     @Override
     public void removeScheduledUpdate(int x, int y, int z, ScheduledBlockUpdate update) {
-        // TODO Auto-generated method stub
-        
+        checkVolumeBounds(x, y, z);
+        this.scheduledBlockUpdates.remove(update);
+    }
+
+    /**
+     * Gets the {@link ScheduledBlockUpdateWheel} that holds all
+     * the scheduled block updates of this world.
+     *
+     * @return The scheduled block updates
+     */
+    public ScheduledBlockUpdateWheel getScheduledBlockUpdates() {
+        return this.scheduledBlockUpdates;
     }
 
     @Override
@@ -478,49 +520,54 @@ public Set<AABB> getIntersectingBlockCollisionBoxes(AABB box) {
 
     public Set<AABB> getIntersectingBlockCollisionBoxes(AABB box, @Nullable Predicate<Entity> filter) {
         checkNotNull(box, "box");
+        final AABBBuffer buffer = new AABBBuffer();
+        addIntersectingCollisionBoxes(box, buffer, filter);
         final ImmutableSet.Builder<AABB> boxes = ImmutableSet.builder();
-        int minY = box.getMin().getFloorY();
-        final int maxY = box.getMax().getFloorY();
+        for (int i = 0; i < buffer.size(); i++) {
+            boxes.add(buffer.toAABB(i));
+        }
+        return boxes.build();
+    }
+
+    /**
+     * Adds all the block collision boxes that intersect with the given {@link AABB}
+     * to the buffer, the boxes of the entities that match the filter will also be
+     * added if the filter isn't {@code null}. The buffer isn't cleared, this allows
+     * the same buffer to be reused for every query.
+     *
+     * @param box The bounding box
+     * @param buffer The buffer to add the boxes to
+     * @param filter The entity filter, or null if only blocks should be checked
+     */
+    public void addIntersectingCollisionBoxes(AABB box, AABBBuffer buffer, @Nullable Predicate<Entity> filter) {
+        checkNotNull(box, "box");
+        checkNotNull(buffer, "buffer");
+        final Vector3d min = box.getMin();
+        final Vector3d max = box.getMax();
+        final int minY = min.getFloorY();
+        final int maxY = max.getFloorY();
         if (minY >= LanternWorld.BLOCK_MAX.getY() || maxY < 0) {
-            return boxes.build();
+            return;
         }
-        minY = Math.max(0, minY);
-        final int maxX = box.getMax().getFloorX();
-        final int minX = box.getMin().getFloorX();
-        final int maxZ = box.getMax().getFloorZ();
-        final int minZ = box.getMin().getFloorZ();
-        final int maxChunkX = maxX >> 4;
-        final int minChunkX = minX >> 4;
-        final int maxChunkZ = maxZ >> 4;
-        final int minChunkZ = minZ >> 4;
-        final int maxChunkSection = maxY >> 4;
-        final int minChunkSection = minY >> 4;
+        final int maxChunkX = max.getFloorX() >> 4;
+        final int minChunkX = min.getFloorX() >> 4;
+        final int maxChunkZ = max.getFloorZ() >> 4;
+        final int minChunkZ = min.getFloorZ() >> 4;
+        final int maxChunkSection = fixEntityYSection(maxY >> 4);
+        final int minChunkSection = fixEntityYSection(minY >> 4);
         for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
             for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
                 final LanternChunk chunk = getChunkManager().getChunkIfLoaded(chunkX, chunkZ);
                 if (chunk == null) {
                     continue;
                 }
-                final int startX = Math.max(minX, chunkX << 4);
-                final int endX = Math.min(maxX, (chunkX << 4) | 0xf);
-                final int startZ = Math.max(minZ, chunkZ << 4);
-                final int endZ = Math.min(maxZ, (chunkZ << 4) | 0xf);
-                for (int x = startX; x <= endX; x++) {
-                    for (int z = startZ; z <= endZ; z++) {
-                        for (int y = minY; y <= maxY; y++) {
-                            final Optional<AABB> boundingBox = chunk.getBlockSelectionBox(x, y, z);
-                            if (boundingBox.isPresent() && boundingBox.get().intersects(box)) {
-                                boxes.add(boundingBox.get());
-                            }
-                        }
-                    }
-                }
+                chunk.addIntersectingBlockCollisionBoxes(min.getX(), min.getY(), min.getZ(),
+                        max.getX(), max.getY(), max.getZ(), buffer);
                 if (filter != null) {
-                    chunk.addIntersectingEntitiesBoxes(boxes, maxChunkSection, minChunkSection, box, filter);
+                    chunk.addIntersectingEntitiesBoxes(buffer, maxChunkSection, minChunkSection, box, filter);
                 }
             }
         }
-        return boxes.build();
     }
 
     @Override
@@ -1170,34 +1217,79 @@ private LanternEntity addEntity(LanternEntity entity) {
     }
 
     private void pulseEntities() {
-        // Pulse the entities
-        for (LanternEntity entity : new ArrayList<>(this.entitiesByUniqueId.values())) {
-            if (entity.isRemoved()) {
-                final Vector3i lastChunk = entity.getLastChunkSectionCoords();
-                if (lastChunk != null && entity.getRemoveState() == LanternEntity.RemoveState.DESTROYED) {
-                    final LanternChunk chunk = this.chunkManager.getChunkIfLoaded(lastChunk.getX(), lastChunk.getZ());
-                    if (chunk != null) {
-                        chunk.removeEntity(entity, lastChunk.getY());
-                    }
-                }
-                this.entityProtocolManager.remove(entity);
-                this.entitiesByUniqueId.remove(entity.getUniqueId());
-            } else {
-                final Vector3i lastChunkSection = entity.getLastChunkSectionCoords();
-                entity.pulse();
-                final Vector3i pos = entity.getPosition().toInt();
-                final Vector3i newChunk = new Vector3i(pos.getX() >> 4, fixEntityYSection(pos.getY() >> 4), pos.getZ() >> 4);
-                if (lastChunkSection == null || !lastChunkSection.equals(newChunk)) {
-                    LanternChunk chunk;
-                    if (lastChunkSection != null && (chunk = this.chunkManager.getChunkIfLoaded(
-                            lastChunkSection.getX(), lastChunkSection.getZ())) != null) {
-                        chunk.removeEntity(entity, lastChunkSection.getY());
-                    }
-                    chunk = this.chunkManager.getOrLoadChunk(newChunk.getX(), newChunk.getZ());
-                    chunk.addEntity(entity, newChunk.getY());
-                    entity.setLastChunkCoords(newChunk);
+        final List<LanternEntity> entities = this.pulsedEntities;
+        entities.addAll(this.entitiesByUniqueId.values());
+        try {
+            // Pulse the entities
+            for (LanternEntity entity : entities) {
+                if (entity.isRemoved()) {
+                    finishEntityRemoval(entity);
+                } else {
+                    final Vector3i lastChunkSection = entity.getLastChunkSectionCoords();
+                    entity.pulse();
+                    updateEntityChunk(entity, lastChunkSection);
                 }
             }
+        } finally {
+            entities.clear();
+        }
+    }
+
+    /**
+     * Gets all the entities that are present in this world.
+     *
+     * @return The entities
+     */
+    Collection<LanternEntity> getRawEntities() {
+        return this.entitiesByUniqueId.values();
+    }
+
+    /**
+     * Removes the removed {@link LanternEntity} completely from this world.
+     *
+     * @param entity The entity
+     */
+    void finishEntityRemoval(LanternEntity entity) {
+        final Vector3i lastChunk = entity.getLastChunkSectionCoords();
+        if (lastChunk != null && entity.getRemoveState() == LanternEntity.RemoveState.DESTROYED) {
+            final LanternChunk chunk = this.chunkManager.getChunkIfLoaded(lastChunk.getX(), lastChunk.getZ());
+            if (chunk != null) {
+                chunk.removeEntity(entity, lastChunk.getY());
+            }
+        }
+        this.entityProtocolManager.remove(entity);
+        this.entitiesByUniqueId.remove(entity.getUniqueId());
+    }
+
+    /**
+     * Gets the coordinates of the chunk section the {@link LanternEntity} is located in.
+     *
+     * @param entity The entity
+     * @return The chunk section coordinates
+     */
+    static Vector3i getEntityChunkSection(LanternEntity entity) {
+        final Vector3i pos = entity.getPosition().toInt();
+        return new Vector3i(pos.getX() >> 4, fixEntityYSection(pos.getY() >> 4), pos.getZ() >> 4);
+    }
+
+    /**
+     * Moves the {@link LanternEntity} to the chunk section of its
+     * current position, if it moved to a different one.
+     *
+     * @param entity The entity
+     * @param lastChunkSection The last chunk section of the entity
+     */
+    void updateEntityChunk(LanternEntity entity, @Nullable Vector3i lastChunkSection) {
+        final Vector3i newChunk = getEntityChunkSection(entity);
+        if (lastChunkSection == null || !lastChunkSection.equals(newChunk)) {
+            LanternChunk chunk;
+            if (lastChunkSection != null && (chunk = this.chunkManager.getChunkIfLoaded(
+                    lastChunkSection.getX(), lastChunkSection.getZ())) != null) {
+                chunk.removeEntity(entity, lastChunkSection.getY());
+            }
+            chunk = this.chunkManager.getOrLoadChunk(newChunk.getX(), newChunk.getZ());
+            chunk.addEntity(entity, newChunk.getY());
+            entity.setLastChunkCoords(newChunk);
         }
     }
 
@@ -1301,15 +1393,30 @@ public void pulse() {
             this.weatherUniverse.pulse();
         }
 
-        // Pulse the entities
-        pulseEntities();
+        final WorldConfig config = this.properties.getConfig();
+        this.scheduledBlockUpdates.pulse(config.getMaxScheduledBlockUpdates(), this::processScheduledUpdate);
+        if (config.isParallelTickEnabled()) {
+            // Pulse the entities and tile entities per region
+            this.parallelTicker.pulse(config.getParallelTickRegionMargin());
+        } else {
+            // Pulse the entities
+            pulseEntities();
+
+            // Pulse the tile entities
+            getLoadedChunks().forEach(chunk -> ((LanternChunk) chunk).pulse());
+        }
 
-        // Pulse the tile entities
-        getLoadedChunks().forEach(chunk -> ((LanternChunk) chunk).pulse());
+        // Submit the light changes of this tick, the
+        // results will be streamed in the following ticks
+        this.lightEngine.pulse();
 
         // TODO: Maybe async?
         this.observedChunkManager.pulse();
-        this.entityProtocolManager.updateTrackers(this.players);
+        this.entityProtocolManager.updateTrackers(this.players, config.isParallelEntityTrackerEnabled());
+
+        // Flush the messages that were sent to the players during this world tick,
+        // the server only flushes once its own tick is done, which runs in parallel
+        this.players.forEach(player -> player.getConnection().flush());
     }
 
     public void broadcast(Supplier<Message> message) {
@@ -1358,6 +1465,25 @@ public boolean interactBlock(int x, int y, int z, Direction side, Cause cause, C
                 (ctx, behavior) -> behavior.tryInteract(pipeline, ctx));
     }
 
+    private void processScheduledUpdate(LanternScheduledBlockUpdate update) {
+        final Location<World> location = update.getLocation();
+        final LanternBlockType blockType = (LanternBlockType) getBlockType(
+                location.getBlockX(), location.getBlockY(), location.getBlockZ());
+        final BehaviorPipeline<Behavior> pipeline = blockType.getPipeline();
+        final BehaviorPipeline<ScheduledUpdateBehavior> updatePipeline = pipeline.pipeline(ScheduledUpdateBehavior.class);
+        if (updatePipeline.getBehaviors().isEmpty()) {
+            return;
+        }
+        final BehaviorContextImpl context = new BehaviorContextImpl(Cause.source(update).owner(this).build());
+        context.set(Parameters.BLOCK_LOCATION, location);
+        context.set(Parameters.BLOCK_TYPE, blockType);
+        try {
+            context.process(updatePipeline, (ctx, behavior) -> behavior.tryScheduledUpdate(pipeline, ctx));
+        } catch (Exception e) {
+            this.game.getLogger().error("Error while processing " + update, e);
+        }
+    }
+
     @Override
     public boolean placeBlock(int x, int y, int z, BlockState block, Direction side, Cause cause) {
         cause = Cause.builder().from(cause).named(Parameters.USED_BLOCK_STATE.getName(), block).build();
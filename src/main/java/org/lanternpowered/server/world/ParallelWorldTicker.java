@@ -0,0 +1,252 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world;
+
+import com.flowpowered.math.vector.Vector3i;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import org.lanternpowered.server.entity.LanternEntity;
+import org.lanternpowered.server.world.chunk.LanternChunk;
+import org.spongepowered.api.world.Chunk;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+import javax.annotation.Nullable;
+
+/**
+ * Pulses the entities and tile entities of a {@link LanternWorld} in parallel.
+ * <p>
+ * The loaded chunks are partitioned into regions, chunks that are within the
+ * region margin of each other end up in the same region. The regions are pulsed
+ * on a shared {@link ForkJoinPool}, the effects that cross chunk boundaries
+ * (entities moving between chunks and entity removals) are collected and applied
+ * on the world thread once all the regions are finished. Entities that aren't
+ * located in a loaded chunk are pulsed on the world thread afterwards.
+ */
+final class ParallelWorldTicker {
+
+    // The pool that is shared by all the worlds
+    private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool0 -> {
+        final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool0);
+        thread.setName("world-tick-" + thread.getPoolIndex());
+        thread.setDaemon(true);
+        return thread;
+    }, null, false);
+
+    private static final class Region {
+
+        private final List<LanternChunk> chunks = new ArrayList<>();
+        private final List<LanternEntity> entities = new ArrayList<>();
+
+        // The effects that will be applied after all the regions are pulsed
+        private final List<LanternEntity> removedEntities = new ArrayList<>();
+        private final List<LanternEntity> movedEntities = new ArrayList<>();
+        private final List<Vector3i> movedEntitiesLastChunks = new ArrayList<>();
+    }
+
+    private final LanternWorld world;
+
+    // The chunk keys mapped to the index of the chunk
+    private final Long2IntOpenHashMap chunkIndices = new Long2IntOpenHashMap();
+
+    // The entities that couldn't be assigned to a region
+    private final List<LanternEntity> unassignedEntities = new ArrayList<>();
+
+    ParallelWorldTicker(LanternWorld world) {
+        this.chunkIndices.defaultReturnValue(-1);
+        this.world = world;
+    }
+
+    /**
+     * Pulses the entities and tile entities of the world.
+     *
+     * @param margin The minimum distance in chunks between two regions
+     */
+    void pulse(int margin) {
+        final List<Region> regions = createRegions(Math.max(margin, 1));
+        try {
+            pulse(regions);
+        } finally {
+            pulseUnassignedEntities();
+        }
+    }
+
+    private void pulse(List<Region> regions) {
+        Throwable failure = null;
+        if (regions.isEmpty()) {
+            return;
+        } else if (regions.size() == 1) {
+            try {
+                pulse(regions.get(0));
+            } catch (Throwable t) {
+                failure = t;
+            }
+        } else {
+            final List<ForkJoinTask<?>> tasks = new ArrayList<>(regions.size());
+            for (Region region : regions) {
+                tasks.add(POOL.submit(() -> pulse(region)));
+            }
+            // Wait for all the regions to finish
+            for (ForkJoinTask<?> task : tasks) {
+                try {
+                    task.join();
+                } catch (Throwable t) {
+                    if (failure == null) {
+                        failure = t;
+                    } else {
+                        failure.addSuppressed(t);
+                    }
+                }
+            }
+        }
+        // Apply the effects on the world thread
+        for (Region region : regions) {
+            region.removedEntities.forEach(this.world::finishEntityRemoval);
+            for (int i = 0; i < region.movedEntities.size(); i++) {
+                this.world.updateEntityChunk(region.movedEntities.get(i), region.movedEntitiesLastChunks.get(i));
+            }
+        }
+        if (failure != null) {
+            throw failure instanceof RuntimeException ? (RuntimeException) failure : new IllegalStateException(failure);
+        }
+    }
+
+    private void pulseUnassignedEntities() {
+        final List<LanternEntity> entities = this.unassignedEntities;
+        try {
+            for (LanternEntity entity : entities) {
+                if (entity.isRemoved()) {
+                    this.world.finishEntityRemoval(entity);
+                } else {
+                    final Vector3i lastChunkSection = entity.getLastChunkSectionCoords();
+                    entity.pulse();
+                    this.world.updateEntityChunk(entity, lastChunkSection);
+                }
+            }
+        } finally {
+            entities.clear();
+        }
+    }
+
+    private static void pulse(Region region) {
+        for (LanternEntity entity : region.entities) {
+            if (entity.isRemoved()) {
+                region.removedEntities.add(entity);
+            } else {
+                final Vector3i lastChunkSection = entity.getLastChunkSectionCoords();
+                entity.pulse();
+                if (lastChunkSection == null || !lastChunkSection.equals(LanternWorld.getEntityChunkSection(entity))) {
+                    region.movedEntities.add(entity);
+                    region.movedEntitiesLastChunks.add(lastChunkSection);
+                }
+            }
+        }
+        for (LanternChunk chunk : region.chunks) {
+            chunk.pulse();
+        }
+    }
+
+    private List<Region> createRegions(int margin) {
+        final List<LanternChunk> chunks = new ArrayList<>();
+        for (Chunk chunk : this.world.getLoadedChunks()) {
+            chunks.add((LanternChunk) chunk);
+        }
+        final Long2IntOpenHashMap chunkIndices = this.chunkIndices;
+        chunkIndices.clear();
+        for (int i = 0; i < chunks.size(); i++) {
+            chunkIndices.put(chunks.get(i).getKey(), i);
+        }
+        // Join all the chunks that are within the margin of each other
+        final int[] parents = new int[chunks.size()];
+        for (int i = 0; i < parents.length; i++) {
+            parents[i] = i;
+        }
+        for (int i = 0; i < chunks.size(); i++) {
+            final LanternChunk chunk = chunks.get(i);
+            final int x = chunk.getX();
+            final int z = chunk.getZ();
+            for (int dx = -margin; dx <= margin; dx++) {
+                for (int dz = -margin; dz <= margin; dz++) {
+                    final int j = chunkIndices.get(LanternChunk.key(x + dx, z + dz));
+                    if (j > i) {
+                        union(parents, i, j);
+                    }
+                }
+            }
+        }
+        final List<Region> regions = new ArrayList<>();
+        final Region[] regionsByRoot = new Region[parents.length];
+        for (int i = 0; i < chunks.size(); i++) {
+            final int root = find(parents, i);
+            Region region = regionsByRoot[root];
+            if (region == null) {
+                regionsByRoot[root] = region = new Region();
+                regions.add(region);
+            }
+            region.chunks.add(chunks.get(i));
+        }
+        // Assign the entities to the region of their chunk
+        for (LanternEntity entity : this.world.getRawEntities()) {
+            final Region region = getRegion(regionsByRoot, parents, entity);
+            if (region != null) {
+                region.entities.add(entity);
+            } else {
+                this.unassignedEntities.add(entity);
+            }
+        }
+        return regions;
+    }
+
+    @Nullable
+    private Region getRegion(Region[] regionsByRoot, int[] parents, LanternEntity entity) {
+        final Vector3i chunkSection = entity.getLastChunkSectionCoords();
+        if (chunkSection == null) {
+            return null;
+        }
+        final int index = this.chunkIndices.get(LanternChunk.key(chunkSection.getX(), chunkSection.getZ()));
+        return index == -1 ? null : regionsByRoot[find(parents, index)];
+    }
+
+    private static int find(int[] parents, int index) {
+        while (parents[index] != index) {
+            // Path halving
+            parents[index] = parents[parents[index]];
+            index = parents[index];
+        }
+        return index;
+    }
+
+    private static void union(int[] parents, int a, int b) {
+        final int rootA = find(parents, a);
+        final int rootB = find(parents, b);
+        if (rootA != rootB) {
+            parents[rootB] = rootA;
+        }
+    }
+}
@@ -76,4 +76,22 @@ public interface WorldEventListener {
      * @param blockAction The block action
      */
     void onBlockAction(int x, int y, int z, BlockType blockType, BlockAction blockAction);
+
+    /**
+     * Is called when the light of the specified chunk sections is changed.
+     *
+     * @param chunk The chunk
+     * @param sectionsBitMask The bit mask of the changed sections
+     */
+    void onLightChange(LanternChunk chunk, int sectionsBitMask);
+
+    /**
+     * Is called when the blocks of the specified chunk sections
+     * are changed in bulk, no {@link #onBlockChange} calls will
+     * be made for the individual blocks.
+     *
+     * @param chunk The chunk
+     * @param sectionsBitMask The bit mask of the changed sections
+     */
+    void onBlocksChange(LanternChunk chunk, int sectionsBitMask);
 }
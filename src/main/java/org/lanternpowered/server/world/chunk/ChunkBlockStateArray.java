@@ -0,0 +1,498 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.chunk;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import it.unimi.dsi.fastutil.shorts.Short2ShortMap;
+import it.unimi.dsi.fastutil.shorts.Short2ShortOpenHashMap;
+import org.lanternpowered.server.util.VariableValueArray;
+
+import javax.annotation.Nullable;
+
+/**
+ * A paletted array of block types (internal id and data), the
+ * values are bit packed into a {@link VariableValueArray} and the
+ * amount of bits per value depends on the amount of different
+ * types that are present within the array.
+ * <p>
+ * The palette will grow when new types are added and shrink
+ * when the amount of types drops, if the amount of types becomes
+ * too large, the array will switch to the global palette, which
+ * directly stores the types.
+ */
+public final class ChunkBlockStateArray {
+
+    /**
+     * The minimum amount of bits per value, the vanilla
+     * client doesn't go lower than this either.
+     */
+    public static final int MIN_BITS_PER_VALUE = 4;
+
+    /**
+     * The maximum amount of bits per value that can be used
+     * by a local palette, switching to the global palette
+     * if more bits are required.
+     */
+    public static final int MAX_LOCAL_BITS_PER_VALUE = 8;
+
+    /**
+     * The amount of bits per value that are used by the global palette,
+     * this is the size of the internal id and data of a block state.
+     */
+    public static final int GLOBAL_BITS_PER_VALUE = 16;
+
+    private static final class Storage {
+
+        // The packed values, these are the local ids if a local
+        // palette is present, otherwise the types
+        private final VariableValueArray values;
+
+        // The local palette, maps local ids to types
+        @Nullable private final short[] palette;
+
+        // The reverse lookup of the local palette, maps types to local ids
+        @Nullable private final Short2ShortMap lookup;
+
+        // The amount of values per local id
+        @Nullable private final short[] counts;
+
+        // The amount of values per type, only used by the global palette
+        @Nullable private final Short2ShortMap globalCounts;
+
+        // The amount of local ids that are assigned, some of
+        // these may no longer be in use
+        private int paletteSize;
+
+        // The amount of different types
+        private int typesCount;
+
+        private Storage(int bitsPerValue, int capacity) {
+            this.values = new VariableValueArray(bitsPerValue, capacity);
+            if (bitsPerValue <= MAX_LOCAL_BITS_PER_VALUE) {
+                final int size = 1 << bitsPerValue;
+                this.palette = new short[size];
+                this.counts = new short[size];
+                this.lookup = new Short2ShortOpenHashMap(size);
+                this.lookup.defaultReturnValue((short) -1);
+                this.globalCounts = null;
+            } else {
+                this.palette = null;
+                this.counts = null;
+                this.lookup = null;
+                this.globalCounts = new Short2ShortOpenHashMap();
+            }
+        }
+
+        private Storage(Storage other) {
+            this.values = other.values.copy();
+            this.palette = other.palette == null ? null : other.palette.clone();
+            this.counts = other.counts == null ? null : other.counts.clone();
+            this.lookup = other.lookup == null ? null : new Short2ShortOpenHashMap(other.lookup);
+            if (this.lookup != null) {
+                this.lookup.defaultReturnValue((short) -1);
+            }
+            this.globalCounts = other.globalCounts == null ? null : new Short2ShortOpenHashMap(other.globalCounts);
+            this.paletteSize = other.paletteSize;
+            this.typesCount = other.typesCount;
+        }
+
+        private short get(int index) {
+            final int value = this.values.get(index);
+            return this.palette == null ? (short) value : this.palette[value];
+        }
+
+        /**
+         * Gets or assigns the local id of the given type, {@code -1}
+         * will be returned if the palette is full.
+         *
+         * @param type The type
+         * @return The local id
+         */
+        private int getOrAssign(short type) {
+            //noinspection ConstantConditions
+            int id = this.lookup.get(type);
+            if (id != -1) {
+                return id;
+            }
+            //noinspection ConstantConditions
+            if (this.paletteSize < this.palette.length) {
+                id = this.paletteSize++;
+            } else {
+                // Try to reuse a local id that is no longer in use
+                //noinspection ConstantConditions
+                for (int i = 0; i < this.counts.length; i++) {
+                    if (this.counts[i] == 0) {
+                        id = i;
+                        break;
+                    }
+                }
+                if (id == -1) {
+                    return -1;
+                }
+            }
+            this.palette[id] = type;
+            this.lookup.put(type, (short) id);
+            return id;
+        }
+
+        /**
+         * Adds the given amount of values to the counter of the type.
+         *
+         * @param type The type
+         * @param localId The local id of the type, ignored for the global palette
+         * @param amount The amount of values to add, may be negative
+         * @return Whether the amount of types changed
+         */
+        private boolean count(short type, int localId, int amount) {
+            final int oldCount;
+            final int newCount;
+            if (this.counts != null) {
+                oldCount = this.counts[localId];
+                newCount = oldCount + amount;
+                this.counts[localId] = (short) newCount;
+                if (newCount == 0) {
+                    //noinspection ConstantConditions
+                    this.lookup.remove(type);
+                }
+            } else {
+                //noinspection ConstantConditions
+                oldCount = this.globalCounts.get(type);
+                newCount = oldCount + amount;
+                if (newCount == 0) {
+                    this.globalCounts.remove(type);
+                } else {
+                    this.globalCounts.put(type, (short) newCount);
+                }
+            }
+            if (oldCount == 0 && newCount != 0) {
+                this.typesCount++;
+                return true;
+            } else if (oldCount != 0 && newCount == 0) {
+                this.typesCount--;
+                return true;
+            }
+            return false;
+        }
+
+        private int getCount(short type) {
+            if (this.counts != null) {
+                //noinspection ConstantConditions
+                final int id = this.lookup.get(type);
+                return id == -1 ? 0 : this.counts[id];
+            }
+            //noinspection ConstantConditions
+            return this.globalCounts.get(type);
+        }
+
+        private short[] getTypes() {
+            final short[] types = new short[this.typesCount];
+            int i = 0;
+            if (this.counts != null) {
+                for (int j = 0; j < this.paletteSize; j++) {
+                    if (this.counts[j] != 0) {
+                        //noinspection ConstantConditions
+                        types[i++] = this.palette[j];
+                    }
+                }
+            } else {
+                //noinspection ConstantConditions
+                for (short type : this.globalCounts.keySet()) {
+                    types[i++] = type;
+                }
+            }
+            return types;
+        }
+    }
+
+    private final int capacity;
+
+    // The current storage, this object will be replaced every
+    // time that the amount of bits per value changes, which means
+    // that readers will always see a matching palette and values
+    private Storage storage;
+
+    /**
+     * Creates a new {@link ChunkBlockStateArray} with the given
+     * capacity, all the values will be air.
+     *
+     * @param capacity The capacity
+     */
+    public ChunkBlockStateArray(int capacity) {
+        checkCapacity(capacity);
+        this.capacity = capacity;
+        this.storage = new Storage(MIN_BITS_PER_VALUE, capacity);
+        this.storage.getOrAssign((short) 0);
+        this.storage.count((short) 0, 0, capacity);
+    }
+
+    /**
+     * Creates a new {@link ChunkBlockStateArray} from
+     * the given types array.
+     *
+     * @param types The types
+     */
+    public ChunkBlockStateArray(short[] types) {
+        checkCapacity(types.length);
+        this.capacity = types.length;
+        final Short2ShortMap counts = new Short2ShortOpenHashMap();
+        for (short type : types) {
+            counts.put(type, (short) (counts.get(type) + 1));
+        }
+        final Storage storage = new Storage(bitsPerValueFor(counts.size()), this.capacity);
+        fill(storage, counts, types);
+        this.storage = storage;
+    }
+
+    private ChunkBlockStateArray(int capacity, Storage storage) {
+        this.capacity = capacity;
+        this.storage = storage;
+    }
+
+    private static void checkCapacity(int capacity) {
+        checkArgument(capacity > 0 && capacity <= Short.MAX_VALUE,
+                "The capacity (%s) must be between 1 and %s", capacity, Short.MAX_VALUE);
+    }
+
+    /**
+     * Gets the amount of bits per value that should be used
+     * to store the given amount of types.
+     *
+     * @param typesCount The amount of types
+     * @return The amount of bits per value
+     */
+    private static int bitsPerValueFor(int typesCount) {
+        final int bitsPerValue = Math.max(MIN_BITS_PER_VALUE, 32 - Integer.numberOfLeadingZeros(typesCount - 1));
+        return bitsPerValue > MAX_LOCAL_BITS_PER_VALUE ? GLOBAL_BITS_PER_VALUE : bitsPerValue;
+    }
+
+    private static void fill(Storage storage, Short2ShortMap counts, short[] types) {
+        for (Short2ShortMap.Entry entry : counts.short2ShortEntrySet()) {
+            final short type = entry.getShortKey();
+            storage.count(type, storage.palette == null ? 0 : storage.getOrAssign(type), entry.getShortValue());
+        }
+        final VariableValueArray values = storage.values;
+        if (storage.palette == null) {
+            for (int i = 0; i < types.length; i++) {
+                values.set(i, types[i] & 0xffff);
+            }
+        } else {
+            //noinspection ConstantConditions
+            final Short2ShortMap lookup = storage.lookup;
+            for (int i = 0; i < types.length; i++) {
+                values.set(i, lookup.get(types[i]));
+            }
+        }
+    }
+
+    /**
+     * Gets the capacity of this array.
+     *
+     * @return The capacity
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Gets the type at the given index.
+     *
+     * @param index The index
+     * @return The type
+     */
+    public short get(int index) {
+        return this.storage.get(index);
+    }
+
+    /**
+     * Sets the type at the given index.
+     *
+     * @param index The index
+     * @param type The type
+     * @return The previous type
+     */
+    public short set(int index, short type) {
+        final Storage storage = this.storage;
+        final int oldValue = storage.values.get(index);
+        final short oldType = storage.palette == null ? (short) oldValue : storage.palette[oldValue];
+        if (oldType == type) {
+            return oldType;
+        }
+        final int value;
+        if (storage.palette != null) {
+            value = storage.getOrAssign(type);
+            if (value == -1) {
+                // The palette is full, grow and try again
+                resize(storage.values.getBitsPerValue() + 1);
+                return set(index, type);
+            }
+        } else {
+            value = type & 0xffff;
+        }
+        storage.values.set(index, value);
+        storage.count(type, value, 1);
+        if (storage.count(oldType, oldValue, -1)) {
+            shrinkIfNeeded();
+        }
+        return oldType;
+    }
+
+    /**
+     * Gets the amount of values that have the given type.
+     *
+     * @param type The type
+     * @return The amount of values
+     */
+    public int getCount(short type) {
+        return this.storage.getCount(type);
+    }
+
+    /**
+     * Gets the amount of different types that are present.
+     *
+     * @return The amount of types
+     */
+    public int getTypesCount() {
+        return this.storage.typesCount;
+    }
+
+    /**
+     * Gets all the different types that are present.
+     *
+     * @return The types
+     */
+    public short[] getTypes() {
+        return this.storage.getTypes();
+    }
+
+    /**
+     * Gets the amount of bits that are used per value.
+     *
+     * @return The bits per value
+     */
+    public int getBitsPerValue() {
+        return this.storage.values.getBitsPerValue();
+    }
+
+    /**
+     * Gets whether a local palette is used.
+     *
+     * @return Whether a local palette is used
+     */
+    public boolean isLocalPalette() {
+        return this.storage.palette != null;
+    }
+
+    /**
+     * Gets the backing {@link VariableValueArray}, which contains the
+     * local ids if there is a local palette, otherwise the types. The
+     * returned array may no longer be used after this array is modified.
+     *
+     * @return The values
+     */
+    public VariableValueArray getValues() {
+        return this.storage.values;
+    }
+
+    /**
+     * Gets a copy of the local palette, this includes the local ids
+     * that are no longer in use. {@code null} will be returned if
+     * the global palette is used.
+     *
+     * @return The palette
+     */
+    @Nullable
+    public int[] getPalette() {
+        final Storage storage = this.storage;
+        if (storage.palette == null) {
+            return null;
+        }
+        final int[] palette = new int[storage.paletteSize];
+        for (int i = 0; i < palette.length; i++) {
+            palette[i] = storage.palette[i] & 0xffff;
+        }
+        return palette;
+    }
+
+    /**
+     * Gets all the types in a new array.
+     *
+     * @return The types
+     */
+    public short[] toArray() {
+        final Storage storage = this.storage;
+        final short[] types = new short[this.capacity];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = storage.get(i);
+        }
+        return types;
+    }
+
+    /**
+     * Creates a copy of this {@link ChunkBlockStateArray}.
+     *
+     * @return The copy
+     */
+    public ChunkBlockStateArray copy() {
+        return new ChunkBlockStateArray(this.capacity, new Storage(this.storage));
+    }
+
+    /**
+     * Shrinks the palette if there are much less types present than
+     * the palette could hold, halving is not enough to avoid that the
+     * palette is resized every time a type is added and removed again.
+     */
+    private void shrinkIfNeeded() {
+        final Storage storage = this.storage;
+        final int bitsPerValue = storage.values.getBitsPerValue();
+        if (bitsPerValue <= MIN_BITS_PER_VALUE) {
+            return;
+        }
+        final int maxBitsPerValue = Math.min(bitsPerValue, MAX_LOCAL_BITS_PER_VALUE + 1);
+        if (storage.typesCount <= 1 << (maxBitsPerValue - 2)) {
+            resize(bitsPerValueFor(storage.typesCount));
+        }
+    }
+
+    private void resize(int bitsPerValue) {
+        if (bitsPerValue > MAX_LOCAL_BITS_PER_VALUE) {
+            bitsPerValue = GLOBAL_BITS_PER_VALUE;
+        }
+        final Storage oldStorage = this.storage;
+        final Storage storage = new Storage(bitsPerValue, this.capacity);
+        final short[] types = oldStorage.getTypes();
+        for (short type : types) {
+            storage.count(type, storage.palette == null ? 0 : storage.getOrAssign(type), oldStorage.getCount(type));
+        }
+        final VariableValueArray values = storage.values;
+        for (int i = 0; i < this.capacity; i++) {
+            final short type = oldStorage.get(i);
+            //noinspection ConstantConditions
+            values.set(i, storage.palette == null ? type & 0xffff : storage.lookup.get(type));
+        }
+        this.storage = storage;
+    }
+}
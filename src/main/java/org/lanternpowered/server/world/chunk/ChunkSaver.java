@@ -0,0 +1,237 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.chunk;
+
+import com.flowpowered.math.vector.Vector2i;
+import org.lanternpowered.server.data.io.ChunkIOService.ChunkWrite;
+import org.lanternpowered.server.game.Lantern;
+import org.lanternpowered.server.util.ThreadHelper;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Completes {@link ChunkWrite}s on background threads. The writes are grouped
+ * per storage region, the writes of one region are always completed in order
+ * and a newer write of a chunk replaces the older one if that one is still
+ * pending.
+ */
+final class ChunkSaver {
+
+    // The amount of threads that can save chunks asynchronously
+    private static final int CHUNK_SAVING_POOL_SIZE = 2;
+
+    // All the regions mapped by their region key
+    private final Map<Object, RegionWrites> regions = new ConcurrentHashMap<>();
+
+    // The regions of all the chunks that have pending writes
+    private final Map<Vector2i, RegionWrites> pendingChunks = new ConcurrentHashMap<>();
+
+    // The chunk save executor
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            CHUNK_SAVING_POOL_SIZE, CHUNK_SAVING_POOL_SIZE, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+            ThreadHelper.newFastThreadLocalThreadFactory());
+
+    private static final class PendingWrite {
+
+        private final Vector2i coords;
+        private final ChunkWrite write;
+
+        private PendingWrite(Vector2i coords, ChunkWrite write) {
+            this.coords = coords;
+            this.write = write;
+        }
+    }
+
+    private static final class RegionWrites {
+
+        // The key of the region
+        private final Object key;
+
+        // The pending writes, guarded by the region writes object
+        private final Map<Vector2i, PendingWrite> pending = new LinkedHashMap<>();
+
+        // This lock is held while writes of this region are being performed
+        private final ReentrantLock writeLock = new ReentrantLock();
+
+        // Whether the region is scheduled to be processed
+        private boolean scheduled;
+
+        // Whether the region was removed because all its writes are completed,
+        // new writes should be queued to a new region object
+        private boolean removed;
+
+        private RegionWrites(Object key) {
+            this.key = key;
+        }
+    }
+
+    ChunkSaver() {
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Queues the {@link ChunkWrite} for the chunk at the given coordinates.
+     *
+     * @param coords The chunk coordinates
+     * @param write The chunk write
+     */
+    void queue(Vector2i coords, ChunkWrite write) {
+        RegionWrites region;
+        while (true) {
+            region = this.regions.computeIfAbsent(write.getRegionKey(), RegionWrites::new);
+            synchronized (region) {
+                // The region was removed in the meantime, try again
+                if (region.removed) {
+                    continue;
+                }
+                region.pending.put(coords, new PendingWrite(coords, write));
+                this.pendingChunks.put(coords, region);
+                if (region.scheduled) {
+                    return;
+                }
+                region.scheduled = true;
+                break;
+            }
+        }
+        final RegionWrites region1 = region;
+        try {
+            this.executor.execute(() -> process(region1));
+        } catch (RejectedExecutionException e) {
+            // The saver is shut down, write the region on the current
+            // thread, this will also unschedule the region
+            process(region1);
+        }
+    }
+
+    /**
+     * Completes the pending write of the chunk at the given coordinates, if present.
+     * When this method returns, all the data of the chunk that was queued is written.
+     *
+     * @param coords The chunk coordinates
+     * @return Whether no error occurred
+     */
+    boolean flush(Vector2i coords) {
+        final RegionWrites region = this.pendingChunks.get(coords);
+        if (region == null) {
+            return true;
+        }
+        final PendingWrite write;
+        synchronized (region) {
+            write = region.pending.remove(coords);
+        }
+        // Wait for the writes that are currently in progress
+        region.writeLock.lock();
+        try {
+            return write == null || write(region, write);
+        } finally {
+            region.writeLock.unlock();
+        }
+    }
+
+    /**
+     * Completes all the pending writes.
+     */
+    void flushAll() {
+        for (RegionWrites region : this.regions.values()) {
+            region.writeLock.lock();
+            try {
+                List<PendingWrite> writes;
+                while (!(writes = poll(region, false)).isEmpty()) {
+                    writes.forEach(write -> write(region, write));
+                }
+            } finally {
+                region.writeLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Completes all the pending writes and shuts the saver down.
+     */
+    void shutdown() {
+        this.executor.shutdown();
+        try {
+            this.executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException ignored) {
+        }
+        flushAll();
+    }
+
+    private void process(RegionWrites region) {
+        region.writeLock.lock();
+        try {
+            List<PendingWrite> writes;
+            while (!(writes = poll(region, true)).isEmpty()) {
+                writes.forEach(write -> write(region, write));
+            }
+        } finally {
+            region.writeLock.unlock();
+        }
+    }
+
+    private List<PendingWrite> poll(RegionWrites region, boolean unschedule) {
+        synchronized (region) {
+            if (region.pending.isEmpty()) {
+                if (unschedule) {
+                    region.scheduled = false;
+                    // All the writes are drained, forget the region
+                    region.removed = true;
+                    this.regions.remove(region.key, region);
+                }
+                return new ArrayList<>();
+            }
+            final List<PendingWrite> writes = new ArrayList<>(region.pending.values());
+            region.pending.clear();
+            return writes;
+        }
+    }
+
+    private boolean write(RegionWrites region, PendingWrite write) {
+        boolean success = true;
+        try {
+            write.write.write();
+        } catch (Exception e) {
+            Lantern.getLogger().error("Error while saving the chunk at " + write.coords, e);
+            success = false;
+        }
+        synchronized (region) {
+            // Only forget the region if there isn't a new write queued
+            if (!region.pending.containsKey(write.coords)) {
+                this.pendingChunks.remove(write.coords, region);
+            }
+        }
+        return success;
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.chunk;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToDoubleFunction;
+
+import javax.annotation.Nullable;
+
+/**
+ * A {@link BlockingQueue} of chunk tasks that are ordered by their priority, lower
+ * priorities are taken first and tasks with equal priorities in the order they were
+ * queued.
+ * <p>
+ * The priority of a task is computed when it's queued. Once the queue is invalidated,
+ * all the priorities are computed again by the next thread that takes a task, so the
+ * priorities are only updated when they changed and when a task is actually needed.
+ */
+final class ChunkTaskQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+
+    private static final class Entry implements Comparable<Entry> {
+
+        private final Runnable runnable;
+        private final long sequence;
+        private double priority;
+
+        private Entry(Runnable runnable, long sequence, double priority) {
+            this.runnable = runnable;
+            this.sequence = sequence;
+            this.priority = priority;
+        }
+
+        @Override
+        public int compareTo(Entry o) {
+            final int value = Double.compare(this.priority, o.priority);
+            return value != 0 ? value : Long.compare(this.sequence, o.sequence);
+        }
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = this.lock.newCondition();
+    private final ToDoubleFunction<Runnable> priorityFunction;
+
+    private PriorityQueue<Entry> queue = new PriorityQueue<>();
+    private long sequence;
+    // Whether the priorities should be computed again
+    private boolean invalidated;
+
+    ChunkTaskQueue(ToDoubleFunction<Runnable> priorityFunction) {
+        this.priorityFunction = checkNotNull(priorityFunction, "priorityFunction");
+    }
+
+    /**
+     * Invalidates the priorities of the queued tasks, they will
+     * be updated before the next task is taken.
+     */
+    void invalidate() {
+        this.lock.lock();
+        try {
+            this.invalidated = !this.queue.isEmpty();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Nullable
+    private Runnable dequeue() {
+        if (this.invalidated) {
+            this.invalidated = false;
+            final List<Entry> entries = new ArrayList<>(this.queue);
+            for (Entry entry : entries) {
+                entry.priority = this.priorityFunction.applyAsDouble(entry.runnable);
+            }
+            this.queue = new PriorityQueue<>(entries);
+        }
+        final Entry entry = this.queue.poll();
+        return entry == null ? null : entry.runnable;
+    }
+
+    @Override
+    public boolean offer(Runnable runnable) {
+        checkNotNull(runnable, "runnable");
+        // Compute the priority outside the lock
+        final double priority = this.priorityFunction.applyAsDouble(runnable);
+        this.lock.lock();
+        try {
+            this.queue.add(new Entry(runnable, this.sequence++, priority));
+            this.notEmpty.signal();
+        } finally {
+            this.lock.unlock();
+        }
+        return true;
+    }
+
+    @Override
+    public void put(Runnable runnable) {
+        offer(runnable);
+    }
+
+    @Override
+    public boolean offer(Runnable runnable, long timeout, TimeUnit unit) {
+        return offer(runnable);
+    }
+
+    @Nullable
+    @Override
+    public Runnable poll() {
+        this.lock.lock();
+        try {
+            return dequeue();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable take() throws InterruptedException {
+        this.lock.lockInterruptibly();
+        try {
+            Runnable runnable;
+            while ((runnable = dequeue()) == null) {
+                this.notEmpty.await();
+            }
+            return runnable;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Nullable
+    @Override
+    public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        this.lock.lockInterruptibly();
+        try {
+            Runnable runnable;
+            while ((runnable = dequeue()) == null && nanos > 0) {
+                nanos = this.notEmpty.awaitNanos(nanos);
+            }
+            return runnable;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Nullable
+    @Override
+    public Runnable peek() {
+        this.lock.lock();
+        try {
+            final Entry entry = this.queue.peek();
+            return entry == null ? null : entry.runnable;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object object) {
+        this.lock.lock();
+        try {
+            return this.queue.removeIf(entry -> entry.runnable == object);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        this.lock.lock();
+        try {
+            return this.queue.size();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> collection) {
+        return drainTo(collection, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> collection, int maxElements) {
+        checkNotNull(collection, "collection");
+        this.lock.lock();
+        try {
+            int count = 0;
+            Runnable runnable;
+            while (count < maxElements && (runnable = dequeue()) != null) {
+                collection.add(runnable);
+                count++;
+            }
+            return count;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Gets an iterator over a snapshot of the queued tasks, the tasks are not
+     * in a particular order. Removing through the iterator removes the task
+     * from this queue.
+     *
+     * @return The iterator
+     */
+    @Override
+    public Iterator<Runnable> iterator() {
+        final List<Runnable> runnables = new ArrayList<>();
+        this.lock.lock();
+        try {
+            for (Entry entry : this.queue) {
+                runnables.add(entry.runnable);
+            }
+        } finally {
+            this.lock.unlock();
+        }
+        final Iterator<Runnable> it = runnables.iterator();
+        return new Iterator<Runnable>() {
+
+            @Nullable private Runnable last;
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public Runnable next() {
+                return this.last = it.next();
+            }
+
+            @Override
+            public void remove() {
+                checkState(this.last != null);
+                ChunkTaskQueue.this.remove(this.last);
+                this.last = null;
+            }
+        };
+    }
+}
@@ -38,16 +38,18 @@
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
 import it.unimi.dsi.fastutil.objects.ObjectIterator;
 import it.unimi.dsi.fastutil.shorts.Short2ObjectMap;
 import it.unimi.dsi.fastutil.shorts.Short2ObjectOpenHashMap;
-import it.unimi.dsi.fastutil.shorts.Short2ShortMap;
-import it.unimi.dsi.fastutil.shorts.Short2ShortOpenHashMap;
+import org.lanternpowered.server.block.aabb.AABBBuffer;
+import org.lanternpowered.server.block.aabb.BlockShapes;
 import org.lanternpowered.server.block.provider.CachedSimpleObjectProvider;
 import org.lanternpowered.server.block.provider.ConstantObjectProvider;
 import org.lanternpowered.server.block.LanternBlockSnapshot;
+import org.lanternpowered.server.block.BlockLightProperties;
 import org.lanternpowered.server.block.LanternBlockType;
-import org.lanternpowered.server.block.LanternScheduledBlockUpdate;
 import org.lanternpowered.server.block.provider.ObjectProvider;
 import org.lanternpowered.server.block.provider.SimpleObjectProvider;
 import org.lanternpowered.server.block.TileEntityProvider;
@@ -90,6 +92,7 @@
 import org.spongepowered.api.entity.Entity;
 import org.spongepowered.api.entity.EntitySnapshot;
 import org.spongepowered.api.entity.EntityType;
+import org.spongepowered.api.entity.living.player.Player;
 import org.spongepowered.api.event.cause.Cause;
 import org.spongepowered.api.item.inventory.ItemStack;
 import org.spongepowered.api.util.AABB;
@@ -114,7 +117,7 @@
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
@@ -131,6 +134,14 @@ public static long key(int cx, int cz) {
         return ((long) cx & 0x3ffffff) << 38 | ((long) cz & 0x3ffffff);
     }
 
+    public static int keyX(long key) {
+        return (int) (key >> 38);
+    }
+
+    public static int keyZ(long key) {
+        return (int) key << 6 >> 6;
+    }
+
     // The size of a chunk section in the x, y and z directions
     public static final int CHUNK_SECTION_SIZE = 16;
     // The volume of a chunk and a chunk section (xz plane)
@@ -146,6 +157,17 @@ public static long key(int cx, int cz) {
     // A bit mask that can be used to get ALL the chunk sections
     public static final int ALL_SECTIONS_BIT_MASK = (1 << CHUNK_SECTIONS) - 1;
 
+    // The dirty flags of a chunk, they mark which parts of
+    // the chunk were modified since the chunk was last saved
+    public static final int DIRTY_BLOCKS = 0x1;
+    public static final int DIRTY_BIOMES = 0x2;
+    public static final int DIRTY_ENTITIES = 0x4;
+    public static final int DIRTY_TILE_ENTITIES = 0x8;
+    public static final int DIRTY_PROPERTIES = 0x10;
+    public static final int DIRTY_SCHEDULED_UPDATES = 0x20;
+    public static final int DIRTY_ALL = DIRTY_BLOCKS | DIRTY_BIOMES | DIRTY_ENTITIES | DIRTY_TILE_ENTITIES | DIRTY_PROPERTIES |
+            DIRTY_SCHEDULED_UPDATES;
+
     public static final class TrackerData {
 
         private int notifierId;
@@ -174,13 +196,7 @@ public static class ChunkSection {
         /**
          * The block types array.
          */
-        final short[] types;
-
-        /**
-         * The amount of blocks per block type/state in
-         * this chunk section.
-         */
-        final Short2ShortMap typesCountMap = new Short2ShortOpenHashMap();
+        final ChunkBlockStateArray types;
 
         /**
          * The light level arrays.
@@ -195,44 +211,36 @@ public static class ChunkSection {
          */
         int nonAirCount;
 
+        /**
+         * The modification counter of this chunk section, this is increased
+         * every time that the types or light levels are modified.
+         */
+        int version;
+
         ChunkSection() {
-            this(null, null);
+            this.types = new ChunkBlockStateArray(CHUNK_SECTION_VOLUME);
+            this.tileEntities = new Short2ObjectOpenHashMap<>();
+            this.lightFromBlock = new NibbleArray(CHUNK_SECTION_VOLUME);
+            this.lightFromSky = new NibbleArray(CHUNK_SECTION_VOLUME);
         }
 
         ChunkSection(short[] types) {
-            this(checkNotNull(types, "types"), null);
-        }
-
-        ChunkSection(short[] types, int nonAirCount) {
-            this(checkNotNull(types, "types"), (Integer) nonAirCount);
+            this(checkNotNull(types, "types"), new NibbleArray(CHUNK_SECTION_VOLUME),
+                    new NibbleArray(CHUNK_SECTION_VOLUME), new Short2ObjectOpenHashMap<>());
         }
 
-        private ChunkSection(@Nullable short[] types, @Nullable Integer nonAirCount) {
-            if (types != null) {
-                checkArgument(types.length == CHUNK_SECTION_VOLUME, "Type array length mismatch: Got "
-                        + types.length + ", but expected " + CHUNK_SECTION_VOLUME);
-                this.types = new short[CHUNK_SECTION_VOLUME];
-                System.arraycopy(types, 0, this.types, 0, CHUNK_SECTION_VOLUME);
-                if (nonAirCount == null) {
-                    this.recountTypes();
-                } else {
-                    this.nonAirCount = nonAirCount;
-                }
-            } else {
-                this.types = new short[CHUNK_SECTION_VOLUME];
-            }
-            this.tileEntities = new Short2ObjectOpenHashMap<>();
-            this.lightFromBlock = new NibbleArray(CHUNK_SECTION_VOLUME);
-            this.lightFromSky = new NibbleArray(CHUNK_SECTION_VOLUME);
+        public ChunkSection(short[] types, NibbleArray lightFromSky, NibbleArray lightFromBlock,
+                Short2ObjectMap<LanternTileEntity> tileEntities) {
+            this(createTypes(types), lightFromSky, lightFromBlock, tileEntities);
         }
 
-        public ChunkSection(short[] types, NibbleArray lightFromSky, NibbleArray lightFromBlock,
+        public ChunkSection(ChunkBlockStateArray types, NibbleArray lightFromSky, NibbleArray lightFromBlock,
                 Short2ObjectMap<LanternTileEntity> tileEntities) {
-            checkArgument(types.length == CHUNK_SECTION_VOLUME, "Type array length mismatch: Got "
-                    + types.length + ", but expected " + CHUNK_SECTION_VOLUME);
+            checkArgument(types.getCapacity() == CHUNK_SECTION_VOLUME, "Type array length mismatch: Got "
+                    + types.getCapacity() + ", but expected " + CHUNK_SECTION_VOLUME);
             checkArgument(lightFromSky.length() == CHUNK_SECTION_VOLUME, "Sky light nibble array length mismatch: Got "
                     + lightFromSky.length() + ", but expected " + CHUNK_SECTION_VOLUME);
-            checkArgument(lightFromSky.length() == CHUNK_SECTION_VOLUME, "Block light nibble array length mismatch: Got "
+            checkArgument(lightFromBlock.length() == CHUNK_SECTION_VOLUME, "Block light nibble array length mismatch: Got "
                     + lightFromBlock.length() + ", but expected " + CHUNK_SECTION_VOLUME);
             this.lightFromBlock = lightFromBlock;
             this.lightFromSky = lightFromSky;
@@ -243,6 +251,12 @@ public ChunkSection(short[] types, NibbleArray lightFromSky, NibbleArray lightFr
             recountTypes();
         }
 
+        private static ChunkBlockStateArray createTypes(short[] types) {
+            checkArgument(types.length == CHUNK_SECTION_VOLUME, "Type array length mismatch: Got "
+                    + types.length + ", but expected " + CHUNK_SECTION_VOLUME);
+            return new ChunkBlockStateArray(types);
+        }
+
         /**
          * Calculate the index into internal arrays for the given coordinates.
          *
@@ -255,37 +269,69 @@ public static int index(int x, int y, int z) {
             return (y << 8) | (z << 4) | x;
         }
 
+        /**
+         * Gets the block types array.
+         *
+         * @return The block types
+         */
+        public ChunkBlockStateArray getTypes() {
+            return this.types;
+        }
+
+        /**
+         * Gets the sky light array.
+         *
+         * @return The sky light
+         */
+        public NibbleArray getLightFromSky() {
+            return this.lightFromSky;
+        }
+
+        /**
+         * Gets the block light array.
+         *
+         * @return The block light
+         */
+        public NibbleArray getLightFromBlock() {
+            return this.lightFromBlock;
+        }
+
+        /**
+         * Gets the tile entities of this chunk section.
+         *
+         * @return The tile entities
+         */
+        public Short2ObjectMap<LanternTileEntity> getTileEntities() {
+            return this.tileEntities;
+        }
+
+        /**
+         * Gets the modification counter of this chunk section.
+         *
+         * @return The modification counter
+         */
+        public int getVersion() {
+            return this.version;
+        }
+
         /**
          * Recounts the amount of non air blocks.
          */
         private void recountTypes() {
-            this.nonAirCount = 0;
-            this.typesCountMap.clear();
-            for (short type : this.types) {
-                if (type != 0) {
-                    this.nonAirCount++;
-                    this.typesCountMap.put(type, (short) (this.typesCountMap.get(type) + 1));
-                }
-            }
+            this.nonAirCount = CHUNK_SECTION_VOLUME - this.types.getCount((short) 0);
         }
 
         private ChunkSectionSnapshot asSnapshot(boolean skylight) {
-            final Short2ShortMap typeCounts = new Short2ShortOpenHashMap(this.typesCountMap);
-            final int count = this.types.length - this.nonAirCount;
-            if (count > 0) {
-                typeCounts.put((short) 0, (short) count);
-            }
-            return new ChunkSectionSnapshot(this.types.clone(), typeCounts, new Short2ObjectOpenHashMap<>(this.tileEntities),
+            return new ChunkSectionSnapshot(this.types.copy(), new Short2ObjectOpenHashMap<>(this.tileEntities),
                     this.lightFromBlock.getPackedArray(), skylight ? this.lightFromSky.getPackedArray() : null);
         }
     }
 
     public static class ChunkSectionSnapshot {
 
-        // The block types array.
-        public final short[] types;
-        // The types count map.
-        public final Short2ShortMap typesCountMap;
+        // The block types array, this is a copy
+        // and should not be modified.
+        public final ChunkBlockStateArray types;
         // The tile entities
         public final Short2ObjectMap<LanternTileEntity> tileEntities;
 
@@ -293,20 +339,15 @@ public static class ChunkSectionSnapshot {
         @Nullable public final byte[] lightFromSky;
         public final byte[] lightFromBlock;
 
-        private ChunkSectionSnapshot(short[] types, Short2ShortMap typesCountMap, Short2ObjectMap<LanternTileEntity> tileEntities,
+        private ChunkSectionSnapshot(ChunkBlockStateArray types, Short2ObjectMap<LanternTileEntity> tileEntities,
                 byte[] lightFromBlock, @Nullable byte[] lightFromSky) {
             this.tileEntities = tileEntities;
             this.lightFromBlock = lightFromBlock;
-            this.typesCountMap = typesCountMap;
             this.lightFromSky = lightFromSky;
             this.types = types;
         }
     }
 
-    private final PriorityBlockingQueue<LanternScheduledBlockUpdate> scheduledBlockUpdateQueue =
-            new PriorityBlockingQueue<>();
-    private final AtomicInteger scheduledBlockUpdateCounter = new AtomicInteger();
-
     private final ConcurrentObjectArray<Short2ObjectMap<TrackerData>> trackerData;
 
     // The chunk sections column
@@ -314,6 +355,14 @@ private ChunkSectionSnapshot(short[] types, Short2ShortMap typesCountMap, Short2
 
     private volatile long inhabitedTime;
 
+    // A counter that is increased every time that the blocks
+    // or biomes of this chunk are modified
+    private final AtomicInteger modificationCounter = new AtomicInteger();
+
+    // The dirty flags of this chunk, new chunks are
+    // completely dirty until they are read from the disk
+    private final AtomicInteger dirtyFlags = new AtomicInteger(DIRTY_ALL);
+
     // The height map of the chunk
     // This is lazily updated, meaning that it won't
     // updated every time a block changes (to avoid
@@ -373,8 +422,9 @@ private ChunkSectionSnapshot(short[] types, Short2ShortMap typesCountMap, Short2
     // Whether this is populated by the world generator
     volatile boolean populated;
 
-    // Whether this chunk is currently being populated
-    volatile boolean populating;
+    // Whether this chunk is currently being populated, only
+    // the thread that sets the flag may populate the chunk
+    final AtomicBoolean populating = new AtomicBoolean();
 
     // The state of the lock
     volatile LockState lockState = LockState.NONE;
@@ -515,15 +565,78 @@ public void initializeLight() {
         for (int y = 0; y < CHUNK_SECTIONS; y++) {
             ChunkSection section = this.chunkSections.getRawObjects()[y];
             if (section != null) {
-                // Just fill the light array for now
+                // Fill the light array until the light engine processed the chunk
                 this.chunkSections.getRawObjects()[y].lightFromSky.fill((byte) 15);
             }
         }
-        this.lightPopulated = true;
+        // The light engine will mark the light as populated, chunks that are
+        // saved before that will be lit again when they are loaded
+        this.world.getLightEngine().queueChunk(this);
+    }
+
+    /**
+     * Gets the raw sections array of the chunk, only the light engine
+     * should access the sections without locking them.
+     *
+     * @return The sections, or {@code null} if the chunk isn't loaded
+     */
+    @Nullable
+    ChunkSection[] getRawSections() {
+        return this.loaded ? this.chunkSections.getRawObjects() : null;
+    }
+
+    /**
+     * Gets the section at the given index, the section
+     * will be created if it doesn't exist yet.
+     *
+     * @param index The section index
+     * @return The section
+     */
+    ChunkSection getOrCreateSection(int index) {
+        final ChunkSection[] result = new ChunkSection[1];
+        this.chunkSections.work(index, section -> {
+            if (section == null) {
+                section = createSection();
+            }
+            result[0] = section;
+            return section;
+        });
+        return result[0];
+    }
+
+    private ChunkSection createSection() {
+        final ChunkSection section = new ChunkSection();
+        if (this.world.getDimension().hasSky()) {
+            // Empty sections are fully lit by the sky
+            section.lightFromSky.fill((byte) 15);
+        }
+        return section;
+    }
+
+    /**
+     * Is called by the light engine when the light of
+     * the sections of this chunk was changed.
+     *
+     * @param sectionsBitMask The bit mask of the changed sections
+     */
+    void onLightChange(int sectionsBitMask) {
+        for (int i = 0; i < CHUNK_SECTIONS; i++) {
+            if ((sectionsBitMask & (1 << i)) != 0) {
+                this.chunkSections.work(i, section -> {
+                    if (section != null) {
+                        section.version++;
+                    }
+                }, true);
+            }
+        }
+        this.modificationCounter.incrementAndGet();
+        markDirty(DIRTY_BLOCKS);
+        this.world.getEventListener().onLightChange(this, sectionsBitMask);
     }
 
     public void setLightPopulated(boolean lightPopulated) {
         this.lightPopulated = lightPopulated;
+        markDirty(DIRTY_PROPERTIES);
     }
 
     public boolean isLightPopulated() {
@@ -550,6 +663,81 @@ public ChunkSectionSnapshot[] getSectionSnapshots(boolean skylight, int sectionB
         return array;
     }
 
+    /**
+     * Applies the function to the chunk section at the given index, the
+     * section will be read locked while the function is being applied. The
+     * section that is passed to the function may be {@code null} if it's
+     * empty and may not be modified.
+     *
+     * @param index The index of the section
+     * @param function The function to apply
+     * @param <T> The type of the result
+     * @return The result
+     */
+    public <T> T readSection(int index, Function<ChunkSection, T> function) {
+        return this.chunkSections.work(index, function, false, true);
+    }
+
+    /**
+     * Gets the modification count of this chunk, the value will change
+     * every time that a block or biome is modified.
+     *
+     * @return The modification count
+     */
+    public int getModificationCount() {
+        return this.modificationCounter.get();
+    }
+
+    /**
+     * Marks the given parts of this chunk as dirty.
+     *
+     * @param flags The dirty flags
+     */
+    public void markDirty(int flags) {
+        int value;
+        do {
+            value = this.dirtyFlags.get();
+            if ((value & flags) == flags) {
+                return;
+            }
+        } while (!this.dirtyFlags.compareAndSet(value, value | flags));
+    }
+
+    /**
+     * Gets the dirty flags of this chunk and clears them.
+     *
+     * @return The dirty flags
+     */
+    public int getAndClearDirtyFlags() {
+        return this.dirtyFlags.getAndSet(0);
+    }
+
+    /**
+     * Gets whether this chunk should be saved. Chunks that contain
+     * (non player) entities or tile entities are always considered dirty,
+     * changes to their data aren't tracked.
+     *
+     * @return Whether the chunk should be saved
+     */
+    public boolean isDirty() {
+        if (this.dirtyFlags.get() != 0) {
+            return true;
+        }
+        for (Set<LanternEntity> entities : this.entities) {
+            for (LanternEntity entity : entities) {
+                if (!(entity instanceof Player)) {
+                    return true;
+                }
+            }
+        }
+        for (ChunkSection section : this.chunkSections.getRawObjects()) {
+            if (section != null && !section.tileEntities.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public int[] getHeightMap() {
         final int[] heightMap0 = new int[this.heightMap.length];
         for (int i = 0; i < heightMap0.length; i++) {
@@ -613,7 +801,7 @@ public int getHighestYAt(int x, int z) {
                         // Loop down in the section until we may find a
                         // non empty block
                         while (--y >= 0) {
-                            if (section.types[(y << 8) | index] != 0) {
+                            if (section.types.get((y << 8) | index) != 0) {
                                 values0[0] = j << 4 | y;
                                 values1[0] = true;
                                 break;
@@ -625,9 +813,10 @@ public int getHighestYAt(int x, int z) {
                     break;
                 }
             }
+            // Empty columns end up below the bottom of the chunk
+            height = Math.max(values0[0], 0);
             this.heightMap[index] = (byte) height;
             this.heightMapUpdateFlags.clear(index);
-            height = values0[0];
             this.heightMapLock.unlockWrite(stamp1);
         } else if (stamp != 0L) {
             this.heightMapLock.unlockRead(stamp);
@@ -681,7 +870,7 @@ private void automaticHeightMap() {
                         // Loop down in the section until we may find a
                         // non empty block
                         while (--y >= 0) {
-                            if (section.types[(y << 8) | index] != 0) {
+                            if (section.types.get((y << 8) | index) != 0) {
                                 finished[index] = true;
                                 heightMap[index] = (byte) y;
                                 if (++values0[0] >= CHUNK_AREA) {
@@ -715,6 +904,7 @@ private void automaticHeightMap() {
 
     public void setPopulated(boolean populated) {
         this.populated = populated;
+        markDirty(DIRTY_PROPERTIES);
     }
 
     /**
@@ -778,6 +968,8 @@ public void setBiomes(short[] biomes) {
         } finally {
             this.biomesLock.unlockWrite(stamp);
         }
+        this.modificationCounter.incrementAndGet();
+        markDirty(DIRTY_BIOMES);
     }
 
     /**
@@ -825,6 +1017,8 @@ public void setBiomeId(int x, int y, int z, short biome) {
         } finally {
             this.biomesLock.unlockWrite(stamp);
         }
+        this.modificationCounter.incrementAndGet();
+        markDirty(DIRTY_BIOMES);
     }
 
     public short getType(Vector3i coordinates) {
@@ -846,7 +1040,7 @@ public short getType(int x, int y, int z) {
         }
         return this.chunkSections.work(y >> 4, section -> {
             if (section != null) {
-                return section.types[ChunkSection.index(x & 0xf, y & 0xf, z & 0xf)];
+                return section.types.get(ChunkSection.index(x & 0xf, y & 0xf, z & 0xf));
             }
             return (short) 0;
         }, false);
@@ -877,6 +1071,7 @@ public boolean setBlock(int x, int y, int z, BlockState block, BlockChangeFlag f
         }
 
         final BlockState[] changeData = new BlockState[1];
+        final short[] oldTypeData = new short[1];
 
         final int rx = x & 0xf;
         final int rz = z & 0xf;
@@ -888,25 +1083,15 @@ public boolean setBlock(int x, int y, int z, BlockState block, BlockChangeFlag f
                     return section;
                 }
                 // Create a new section
-                section = new ChunkSection();
+                section = createSection();
             }
             final int index = ChunkSection.index(rx, y & 0xf, rz);
-            final short oldType = section.types[index];
+            final short oldType = section.types.get(index);
             if (oldType == type1) {
                 return section;
             }
-            if (oldType != 0) {
-                short count = section.typesCountMap.get(oldType);
-                if (count > 0) {
-                    if (--count <= 0) {
-                        section.typesCountMap.remove(oldType);
-                    } else {
-                        section.typesCountMap.put(oldType, count);
-                    }
-                }
-            }
+            oldTypeData[0] = oldType;
             if (type1 != 0) {
-                section.typesCountMap.put(type1, (short) (section.typesCountMap.get(type1) + 1));
                 if (oldType == 0) {
                     section.nonAirCount++;
                 }
@@ -942,6 +1127,9 @@ public boolean setBlock(int x, int y, int z, BlockState block, BlockChangeFlag f
             if (remove) {
                 tileEntity.setValid(false);
             }
+            if (refresh || remove) {
+                markDirty(DIRTY_TILE_ENTITIES);
+            }
             if (refresh) {
                 final Location<World> location = tileEntity != null ? tileEntity.getLocation() : new Location<>(this.world, x, y, z);
                 final LanternTileEntity newTileEntity = (LanternTileEntity) tileEntityProvider.get().get(block, location, null);
@@ -951,7 +1139,8 @@ public boolean setBlock(int x, int y, int z, BlockState block, BlockChangeFlag f
             } else if (remove) {
                 section.tileEntities.remove((short) index);
             }
-            section.types[index] = type1;
+            section.types.set(index, type1);
+            section.version++;
             return section;
         });
 
@@ -970,12 +1159,168 @@ public boolean setBlock(int x, int y, int z, BlockState block, BlockChangeFlag f
         }
 
         if (changeData[0] != null) {
+            this.modificationCounter.incrementAndGet();
+            markDirty(DIRTY_BLOCKS);
+            if (BlockLightProperties.differ(oldTypeData[0], type1)) {
+                this.world.getLightEngine().queueBlockChange(x, y, z);
+            }
             this.world.getEventListener().onBlockChange(x, y, z, changeData[0], block);
         }
 
         return true;
     }
 
+    /**
+     * Sets the types of multiple blocks within one chunk section at once. The
+     * section will only be locked once and one change notification will be
+     * send for the whole section instead of one for every block. Blocks that
+     * require tile entity changes are delegated to {@link #setBlock}.
+     *
+     * @param sectionIndex The section index
+     * @param types The types, indexed by {@link ChunkSection#index(int, int, int)}
+     * @param mask The indexes of the types that should be applied
+     * @param cause The cause
+     */
+    public void setBlocks(int sectionIndex, short[] types, BitSet mask, Cause cause) {
+        checkNotNull(types, "types");
+        checkNotNull(mask, "mask");
+        checkNotNull(cause, "cause");
+        checkArgument(sectionIndex >= 0 && sectionIndex < CHUNK_SECTIONS, "Section index %s out of bounds", sectionIndex);
+        checkArgument(types.length == CHUNK_SECTION_VOLUME, "The types array must have a length of %s", CHUNK_SECTION_VOLUME);
+        if (!this.loaded || mask.isEmpty()) {
+            return;
+        }
+
+        // The indexes that changed and need a light update
+        final IntList lightChanges = new IntArrayList();
+        // The indexes that involve tile entities
+        final IntList tileEntityChanges = new IntArrayList();
+        // The highest local y coordinate per column where a non air block was placed
+        final byte[] placedHeights = new byte[CHUNK_AREA];
+        Arrays.fill(placedHeights, (byte) -1);
+        // The indexes where air was placed
+        final BitSet removed = new BitSet(CHUNK_SECTION_VOLUME);
+
+        this.chunkSections.work(sectionIndex, section -> {
+            if (section == null) {
+                section = createSection();
+            }
+            short lastType = -1;
+            boolean lastTileEntity = false;
+            boolean changed = false;
+            for (int index = mask.nextSetBit(0); index >= 0; index = mask.nextSetBit(index + 1)) {
+                short type = types[index];
+                // Air doesn't have metadata values
+                if (type >> 4 == 0) {
+                    type = 0;
+                }
+                final short oldType = section.types.get(index);
+                if (oldType == type) {
+                    continue;
+                }
+                if (type != lastType) {
+                    lastType = type;
+                    lastTileEntity = ((LanternBlockType) BlockRegistryModule.get().getStateByInternalIdAndData(type).get().getType())
+                            .getTileEntityProvider().isPresent();
+                }
+                if (lastTileEntity || section.tileEntities.containsKey((short) index)) {
+                    tileEntityChanges.add(index);
+                    continue;
+                }
+                section.types.set(index, type);
+                changed = true;
+                if (BlockLightProperties.differ(oldType, type)) {
+                    lightChanges.add(index);
+                }
+                final int column = index & 0xff;
+                if (type == 0) {
+                    removed.set(index);
+                } else if ((index >> 8) > placedHeights[column]) {
+                    placedHeights[column] = (byte) (index >> 8);
+                }
+            }
+            section.nonAirCount = CHUNK_SECTION_VOLUME - section.types.getCount((short) 0);
+            // The section is empty, destroy it
+            if (section.nonAirCount <= 0) {
+                return null;
+            }
+            if (changed) {
+                section.version++;
+            }
+            return section;
+        });
+
+        final boolean changed = !removed.isEmpty() || placedHeightsChanged(placedHeights);
+        if (changed) {
+            final int baseY = sectionIndex << 4;
+            final long stamp = this.heightMapLock.writeLock();
+            try {
+                for (int column = 0; column < CHUNK_AREA; column++) {
+                    final int height = this.heightMap[column] & 0xff;
+                    if (placedHeights[column] != -1 && height < baseY + placedHeights[column]) {
+                        this.heightMap[column] = (byte) (baseY + placedHeights[column]);
+                        this.heightMapUpdateFlags.clear(column);
+                    } else if (height >> 4 == sectionIndex && removed.get((height & 0xf) << 8 | column)) {
+                        this.heightMapUpdateFlags.set(column);
+                    }
+                }
+            } finally {
+                this.heightMapLock.unlock(stamp);
+            }
+
+            final LightEngine lightEngine = this.world.getLightEngine();
+            for (int i = 0; i < lightChanges.size(); i++) {
+                final int index = lightChanges.getInt(i);
+                lightEngine.queueBlockChange(this.min.getX() | index & 0xf, baseY | index >> 8, this.min.getZ() | (index >> 4) & 0xf);
+            }
+
+            this.modificationCounter.incrementAndGet();
+            markDirty(DIRTY_BLOCKS);
+            this.world.getEventListener().onBlocksChange(this, 1 << sectionIndex);
+        }
+
+        // Tile entities are created and removed through the default path
+        for (int i = 0; i < tileEntityChanges.size(); i++) {
+            final int index = tileEntityChanges.getInt(i);
+            final BlockState state = BlockRegistryModule.get().getStateByInternalIdAndData(types[index]).get();
+            setBlock(this.min.getX() | index & 0xf, sectionIndex << 4 | index >> 8, this.min.getZ() | (index >> 4) & 0xf, state, cause);
+        }
+    }
+
+    private static boolean placedHeightsChanged(byte[] placedHeights) {
+        for (byte placedHeight : placedHeights) {
+            if (placedHeight != -1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Copies the types of the chunk section at the given index into
+     * the target array, indexed by {@link ChunkSection#index(int, int, int)}.
+     *
+     * @param sectionIndex The section index
+     * @param target The target array
+     */
+    public void copyTypes(int sectionIndex, short[] target) {
+        checkNotNull(target, "target");
+        checkArgument(target.length >= CHUNK_SECTION_VOLUME, "The target array must have a length of at least %s", CHUNK_SECTION_VOLUME);
+        if (!this.loaded) {
+            Arrays.fill(target, 0, CHUNK_SECTION_VOLUME, (short) 0);
+            return;
+        }
+        this.chunkSections.work(sectionIndex, section -> {
+            if (section == null) {
+                Arrays.fill(target, 0, CHUNK_SECTION_VOLUME, (short) 0);
+            } else {
+                for (int i = 0; i < CHUNK_SECTION_VOLUME; i++) {
+                    target[i] = section.types.get(i);
+                }
+            }
+        }, false);
+    }
+
     public void addBlockAction(int x, int y, int z, BlockType blockType, BlockAction blockAction) {
         checkVolumeBounds(x, y, z);
         if (!this.loaded) {
@@ -1071,47 +1416,28 @@ public Set<EntityHit> getIntersectingEntities(Vector3d start, Vector3d direction
         return null;
     }
 
-    public PriorityBlockingQueue<LanternScheduledBlockUpdate> getScheduledBlockUpdateQueue() {
-        return this.scheduledBlockUpdateQueue;
-    }
-
     @Override
     public Collection<ScheduledBlockUpdate> getScheduledUpdates(int x, int y, int z) {
         checkVolumeBounds(x, y, z);
         if (!this.loaded) {
             return Collections.emptyList();
         }
-        final Vector3i position = new Vector3i(x, y, z);
-        return this.scheduledBlockUpdateQueue.stream()
-                .filter(update -> update.getLocation().getBlockPosition().equals(position))
-                .collect(ImmutableSet.toImmutableSet());
+        return this.world.getScheduledBlockUpdates().get(x, y, z);
     }
 
     @Override
     public ScheduledBlockUpdate addScheduledUpdate(int x, int y, int z, int priority, int ticks) {
         checkVolumeBounds(x, y, z);
-        final int entryId = this.scheduledBlockUpdateCounter.getAndIncrement();
-        final Location<World> location = new Location<>(this.world, new Vector3i(x, y, z));
-        final LanternScheduledBlockUpdate update = new LanternScheduledBlockUpdate(entryId, location, ticks, priority);
-        this.scheduledBlockUpdateQueue.add(update);
-        return update;
+        return this.world.getScheduledBlockUpdates().add(x, y, z, priority, ticks);
     }
 
     @Override
     public void removeScheduledUpdate(int x, int y, int z, ScheduledBlockUpdate update) {
         checkVolumeBounds(x, y, z);
-        this.scheduledBlockUpdateQueue.remove(update);
+        this.world.getScheduledBlockUpdates().remove(update);
     }
 
     public void pulse() {
-        // The update entry
-        LanternScheduledBlockUpdate update;
-        while ((update = this.scheduledBlockUpdateQueue.peek()) != null && update.getTicks() <= 0) {
-            // Remove the entry from the queue
-            this.scheduledBlockUpdateQueue.poll();
-            // TODO: Update
-        }
-
         getTileEntities().forEach(tileEntity -> ((LanternTileEntity) tileEntity).pulse());
     }
 
@@ -1226,61 +1552,115 @@ public Optional<AABB> getBlockSelectionBox(int x, int y, int z) {
     @Override
     public Set<AABB> getIntersectingBlockCollisionBoxes(AABB box) {
         checkNotNull(box, "box");
-        final Vector3i min = box.getMin().toInt();
-        final Vector3i max = box.getMax().toInt();
-        checkVolumeBounds(min);
-        checkVolumeBounds(max);
-        final ImmutableSet.Builder<AABB> builder = ImmutableSet.builder();
-        final int minX = min.getX();
-        final int minY = min.getY();
-        final int minZ = min.getZ();
-        final int maxX = max.getX();
-        final int maxY = max.getY();
-        final int maxZ = max.getZ();
-        for (int x = minX; x <= maxX; x++) {
-            for (int z = minZ; z <= maxZ; z++) {
-                for (int y = minY; y <= maxY; y++) {
-                    final Optional<AABB> optAABB = getBlockSelectionBox(x, y, z);
-                    if (optAABB.isPresent()) {
-                        final AABB aabb = optAABB.get();
-                        if (aabb.intersects(box)) {
-                            builder.add(box);
-                        }
-                    }
-                }
-            }
-        }
-        return builder.build();
+        checkVolumeBounds(box.getMin().toInt());
+        checkVolumeBounds(box.getMax().toInt());
+        final AABBBuffer buffer = new AABBBuffer();
+        addIntersectingBlockCollisionBoxes(box, buffer);
+        return toSet(buffer);
     }
 
     @Override
     public Set<AABB> getIntersectingCollisionBoxes(Entity owner, AABB box) {
         checkNotNull(owner, "owner");
         checkNotNull(box, "box");
-        final ImmutableSet.Builder<AABB> collisionBoxes = ImmutableSet.builder();
+        final AABBBuffer buffer = new AABBBuffer();
         final int maxYSection = fixEntityYSection(((int) Math.ceil(box.getMax().getY() + 2.0)) >> 4);
         final int minYSection = fixEntityYSection(((int) Math.floor(box.getMin().getY() - 2.0)) >> 4);
-        for (int i = minYSection; i <= maxYSection; i++) {
-            for (LanternEntity entity : this.entities[i]) {
-                final Optional<AABB> aabb = entity.getBoundingBox();
-                if (aabb.isPresent() && aabb.get().intersects(box)) {
-                    collisionBoxes.add(aabb.get());
-                }
-            }
+        addIntersectingEntitiesBoxes(buffer, maxYSection, minYSection, box, entity -> entity != owner);
+        addIntersectingBlockCollisionBoxes(box, buffer);
+        return toSet(buffer);
+    }
+
+    private static Set<AABB> toSet(AABBBuffer buffer) {
+        final ImmutableSet.Builder<AABB> builder = ImmutableSet.builder();
+        for (int i = 0; i < buffer.size(); i++) {
+            builder.add(buffer.toAABB(i));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Adds the collision boxes of all the blocks in this chunk that intersect
+     * with the given {@link AABB} to the buffer. Parts of the box that are
+     * outside of this chunk are ignored.
+     *
+     * @param box The bounding box
+     * @param buffer The buffer to add the boxes to
+     */
+    public void addIntersectingBlockCollisionBoxes(AABB box, AABBBuffer buffer) {
+        final Vector3d min = box.getMin();
+        final Vector3d max = box.getMax();
+        addIntersectingBlockCollisionBoxes(min.getX(), min.getY(), min.getZ(), max.getX(), max.getY(), max.getZ(), buffer);
+    }
+
+    /**
+     * Adds the collision boxes of all the blocks in this chunk that intersect with
+     * the given bounds to the buffer. Parts of the bounds that are outside of this
+     * chunk are ignored.
+     *
+     * <p>The block shapes are looked up in the {@link BlockShapes} table, only blocks
+     * with a location dependent bounding box will be resolved through their provider.</p>
+     *
+     * @param buffer The buffer to add the boxes to
+     */
+    public void addIntersectingBlockCollisionBoxes(double minX, double minY, double minZ,
+            double maxX, double maxY, double maxZ, AABBBuffer buffer) {
+        final int baseX = this.x << 4;
+        final int baseZ = this.z << 4;
+        final int startX = Math.max(baseX, (int) Math.floor(minX));
+        final int endX = Math.min(baseX | 0xf, (int) Math.floor(maxX));
+        final int startY = Math.max(0, (int) Math.floor(minY));
+        final int endY = Math.min(CHUNK_HEIGHT - 1, (int) Math.floor(maxY));
+        final int startZ = Math.max(baseZ, (int) Math.floor(minZ));
+        final int endZ = Math.min(baseZ | 0xf, (int) Math.floor(maxZ));
+        if (!this.loaded || startX > endX || startY > endY || startZ > endZ) {
+            return;
         }
-        final Vector3i min = box.getMin().toInt();
-        final Vector3i max = box.getMax().toInt();
-        for (int x = min.getX(); x <= max.getX(); x++) {
-            for (int y = min.getY(); y <= max.getY(); y++) {
-                for (int z = min.getZ(); z <= max.getZ(); z++) {
-                    final Optional<AABB> aabb = getBlockSelectionBox(x, y, z);
-                    if (aabb.isPresent() && aabb.get().intersects(box)) {
-                        collisionBoxes.add(aabb.get());
+        final ChunkSection[] sections = this.chunkSections.getRawObjects();
+        for (int sy = startY >> 4; sy <= endY >> 4; sy++) {
+            final ChunkSection section = sections[sy];
+            // Empty sections are all air
+            if (section == null) {
+                continue;
+            }
+            final int sectionStartY = Math.max(startY, sy << 4);
+            final int sectionEndY = Math.min(endY, (sy << 4) | 0xf);
+            for (int y = sectionStartY; y <= sectionEndY; y++) {
+                for (int z = startZ; z <= endZ; z++) {
+                    for (int x = startX; x <= endX; x++) {
+                        final short type = section.types.get(ChunkSection.index(x & 0xf, y & 0xf, z & 0xf));
+                        if (type == 0) {
+                            continue;
+                        }
+                        final double[] shape = BlockShapes.get(type);
+                        if (shape == null) {
+                            // The bounding box depends on the location
+                            final Optional<AABB> aabb = getBlockSelectionBox(x, y, z);
+                            if (aabb.isPresent()) {
+                                final AABB aabb1 = aabb.get();
+                                final Vector3d min1 = aabb1.getMin();
+                                final Vector3d max1 = aabb1.getMax();
+                                if (AABBBuffer.intersects(min1.getX(), min1.getY(), min1.getZ(), max1.getX(), max1.getY(), max1.getZ(),
+                                        minX, minY, minZ, maxX, maxY, maxZ)) {
+                                    buffer.add(aabb1);
+                                }
+                            }
+                        } else if (shape.length != 0) {
+                            final double minX1 = shape[0] + x;
+                            final double minY1 = shape[1] + y;
+                            final double minZ1 = shape[2] + z;
+                            final double maxX1 = shape[3] + x;
+                            final double maxY1 = shape[4] + y;
+                            final double maxZ1 = shape[5] + z;
+                            if (AABBBuffer.intersects(minX1, minY1, minZ1, maxX1, maxY1, maxZ1,
+                                    minX, minY, minZ, maxX, maxY, maxZ)) {
+                                buffer.add(minX1, minY1, minZ1, maxX1, maxY1, maxZ1);
+                            }
+                        }
                     }
                 }
             }
         }
-        return collisionBoxes.build();
     }
 
     @Override
@@ -1313,17 +1693,13 @@ public void addIntersectingEntities(ImmutableSet.Builder<Entity> builder, int ma
         }
     }
 
-    public void addIntersectingEntitiesBoxes(ImmutableSet.Builder<AABB> builder, int maxYSection, int minYSection,
+    public void addIntersectingEntitiesBoxes(AABBBuffer buffer, int maxYSection, int minYSection,
             AABB box, Predicate<Entity> filter) {
         for (int i = minYSection; i <= maxYSection; i++) {
             for (LanternEntity entity : this.entities[i]) {
                 final Optional<AABB> aabb = entity.getBoundingBox();
-                if (aabb.isPresent()) {
-                    if (aabb.get().intersects(box) && filter.test(entity)) {
-                        builder.add(aabb.get());
-                    }
-                } else if (box.contains(entity.getPosition()) && filter.test(entity)) {
-                    builder.add(aabb.get());
+                if (aabb.isPresent() && aabb.get().intersects(box) && filter.test(entity)) {
+                    buffer.add(aabb.get());
                 }
             }
         }
@@ -1367,11 +1743,15 @@ void buryEntities() {
     }
 
     public void addEntity(LanternEntity entity, int section) {
-        this.entities[section].add(entity);
+        if (this.entities[section].add(entity) && !(entity instanceof Player)) {
+            markDirty(DIRTY_ENTITIES);
+        }
     }
 
     public void removeEntity(LanternEntity entity, int section) {
-        this.entities[section].remove(entity);
+        if (this.entities[section].remove(entity) && !(entity instanceof Player)) {
+            markDirty(DIRTY_ENTITIES);
+        }
     }
 
     @Override
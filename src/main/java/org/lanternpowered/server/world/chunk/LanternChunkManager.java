@@ -35,19 +35,24 @@
 import static org.lanternpowered.server.world.chunk.LanternChunkLayout.CHUNK_BIOME_VOLUME;
 
 import com.flowpowered.math.vector.Vector2i;
+import com.flowpowered.math.vector.Vector3d;
 import com.flowpowered.math.vector.Vector3i;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.ListMultimap;
-import com.google.common.collect.MapMaker;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
+import org.lanternpowered.server.block.ScheduledBlockUpdateWheel;
 import org.lanternpowered.server.config.world.WorldConfig;
 import org.lanternpowered.server.data.io.ChunkIOService;
+import org.lanternpowered.server.entity.living.player.LanternPlayer;
+import org.lanternpowered.server.event.LanternEventManager;
 import org.lanternpowered.server.game.DirectoryKeys;
 import org.lanternpowered.server.game.Lantern;
 import org.lanternpowered.server.game.LanternGame;
@@ -55,6 +60,7 @@
 import org.lanternpowered.server.plugin.InternalPluginsInfo;
 import org.lanternpowered.server.util.FastSoftThreadLocal;
 import org.lanternpowered.server.util.ThreadHelper;
+import org.lanternpowered.server.util.concurrent.ConcurrentLong2ObjectMap;
 import org.lanternpowered.server.util.gen.biome.ObjectArrayImmutableBiomeBuffer;
 import org.lanternpowered.server.util.gen.biome.ShortArrayMutableBiomeBuffer;
 import org.lanternpowered.server.util.gen.block.AbstractMutableBlockBuffer;
@@ -65,13 +71,15 @@
 import org.lanternpowered.server.world.chunk.LanternChunk.ChunkSection;
 import org.lanternpowered.server.world.extent.ExtentBufferHelper;
 import org.lanternpowered.server.world.extent.SoftBufferExtentViewDownsize;
-import org.spongepowered.api.Sponge;
 import org.spongepowered.api.block.BlockState;
 import org.spongepowered.api.block.BlockTypes;
 import org.spongepowered.api.entity.Entity;
-import org.spongepowered.api.event.EventManager;
 import org.spongepowered.api.event.SpongeEventFactory;
 import org.spongepowered.api.event.cause.Cause;
+import org.spongepowered.api.event.world.chunk.GenerateChunkEvent;
+import org.spongepowered.api.event.world.chunk.LoadChunkEvent;
+import org.spongepowered.api.event.world.chunk.PopulateChunkEvent;
+import org.spongepowered.api.event.world.chunk.UnloadChunkEvent;
 import org.spongepowered.api.plugin.PluginContainer;
 import org.spongepowered.api.world.Chunk;
 import org.spongepowered.api.world.ChunkTicketManager;
@@ -94,14 +102,17 @@
 import org.spongepowered.api.world.gen.WorldGenerator;
 
 import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Queue;
@@ -109,10 +120,13 @@
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RunnableFuture;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
@@ -128,22 +142,62 @@ public final class LanternChunkManager {
     // The core amount of threads that can load chunks asynchronously
     private static final int CHUNK_LOADING_CORE_POOL_SIZE = 4;
 
+    // The maximum amount of proto chunks that are kept in memory, each
+    // of them holds the block buffer of a complete chunk
+    private static final int MAX_PROTO_CHUNKS = 512;
+
+    // The pool that runs the generation stages of the chunks, the
+    // stages of different chunks are independent of each other
+    private static final ForkJoinPool generationPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool -> {
+        final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("chunk-generator-" + thread.getPoolIndex());
+        thread.setDaemon(true);
+        return thread;
+    }, null, true);
+
     // The delay to unload chunks that are not forced,
     // loaded through loadChunk methods
     private static final long UNLOAD_DELAY = TimeUnit.SECONDS.toMillis(1);
 
+    // The load priority of chunks that are forced by tickets that aren't bound
+    // to players, they are loaded as if they were this many chunks away from a player
+    private static final double NON_PLAYER_TICKET_PRIORITY = 4.0;
+
+    // The distance in chunks that an observer has to move before the chunk loads are prioritized again
+    private static final double OBSERVER_MOVE_DISTANCE = 0.5;
+
+    // The cosine of the angle that an observer has to turn before the chunk loads are prioritized again
+    private static final double OBSERVER_TURN_COS = Math.cos(Math.toRadians(30.0));
+
     // All the attached tickets mapped by the forced chunk coordinates
-    private final Map<Vector2i, Set<ChunkLoadingTicket>> ticketsByPos = new ConcurrentHashMap<>();
+    private final ConcurrentLong2ObjectMap<Set<ChunkLoadingTicket>> ticketsByPos = new ConcurrentLong2ObjectMap<>();
 
     // All the loading tickets that are still usable
     private final Set<LanternLoadingTicket> tickets = Sets.newConcurrentHashSet();
 
-    // All the chunks that are loaded into the server
-    private final Map<Vector2i, LanternChunk> loadedChunks = new ConcurrentHashMap<>();
+    // All the chunks that are loaded into the server, mapped by their chunk key
+    private final ConcurrentLong2ObjectMap<LanternChunk> loadedChunks = new ConcurrentLong2ObjectMap<>();
 
     // A cache that can be used to get chunks that weren't unloaded
     // so much after all, because of active references to the chunk
-    private final Map<Vector2i, LanternChunk> reusableChunks = new MapMaker().weakValues().makeMap();
+    private final ConcurrentLong2ObjectMap<ReusableChunkReference> reusableChunks = new ConcurrentLong2ObjectMap<>();
+
+    // The queue of the reusable chunks that were garbage collected
+    private final ReferenceQueue<LanternChunk> collectedChunks = new ReferenceQueue<>();
+
+    /**
+     * A weak reference to a reusable {@link LanternChunk} that
+     * remembers its key to be removed once the chunk is collected.
+     */
+    private static final class ReusableChunkReference extends WeakReference<LanternChunk> {
+
+        private final long key;
+
+        private ReusableChunkReference(LanternChunk chunk, long key, ReferenceQueue<LanternChunk> queue) {
+            super(chunk, queue);
+            this.key = key;
+        }
+    }
 
     // A set which contains chunks that are pending for removal,
     // chunks loaded by loadChunk may not have been locked in the process,
@@ -154,33 +208,61 @@ public final class LanternChunkManager {
 
     private class UnloadingChunkEntry {
 
-        final Vector2i coords;
+        final int x;
+        final int z;
+        final long key;
         final long time;
 
-        private UnloadingChunkEntry(Vector2i coords) {
+        private UnloadingChunkEntry(int x, int z) {
             this.time = System.currentTimeMillis();
-            this.coords = coords;
+            this.key = LanternChunk.key(x, z);
+            this.x = x;
+            this.z = z;
         }
 
         @Override
         public boolean equals(Object obj) {
-            return obj instanceof UnloadingChunkEntry && ((UnloadingChunkEntry) obj).coords.equals(this.coords);
+            return obj instanceof UnloadingChunkEntry && ((UnloadingChunkEntry) obj).key == this.key;
         }
 
         @Override
         public int hashCode() {
-            return this.coords.hashCode();
+            return Long.hashCode(this.key);
         }
     }
 
     // All the futures that will cause chunk loading/unloading, they are stored
     // here to allow them to be cancelled
-    private final Map<Vector2i, LanternChunkQueueTask> chunkQueueTasks = new ConcurrentHashMap<>();
+    private final ConcurrentLong2ObjectMap<LanternChunkQueueTask> chunkQueueTasks = new ConcurrentLong2ObjectMap<>();
+
+    // The queue of the chunk load executor, the queued tasks are ordered by their
+    // priority, tasks with equal priorities are executed in the order they were queued
+    private final ChunkTaskQueue chunkTaskQueue = new ChunkTaskQueue(this::getTaskPriority);
 
     // The chunk load executor
     private final ThreadPoolExecutor chunkTaskExecutor = new ThreadPoolExecutor(
-            CHUNK_LOADING_CORE_POOL_SIZE, CHUNK_LOADING_MAX_POOL_SIZE, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
-            ThreadHelper.newFastThreadLocalThreadFactory());
+            CHUNK_LOADING_CORE_POOL_SIZE, CHUNK_LOADING_MAX_POOL_SIZE, 60L, TimeUnit.SECONDS,
+            this.chunkTaskQueue, ThreadHelper.newFastThreadLocalThreadFactory()) {
+        @Override
+        protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+            //noinspection unchecked
+            return (RunnableFuture<T>) new ChunkTaskFuture((LanternChunkQueueTask) callable);
+        }
+    };
+
+    // A snapshot of the players in the world, used to determine the priority
+    // of chunk loads, only replaced when one of the players moved
+    private volatile List<ChunkObserver> chunkObservers = Collections.emptyList();
+
+    // The saver that writes the chunks asynchronously
+    private final ChunkSaver chunkSaver = new ChunkSaver();
+
+    // All the loaded chunks that should be saved, they will be
+    // captured at a limited rate every tick
+    private final Set<LanternChunk> pendingSaves = Sets.newConcurrentHashSet();
+
+    // The amount of ticks since the last auto save
+    private int autoSaveTicks;
 
     // Some objects that can be used in {@link Chunk} population.
     private class PopulationData {
@@ -189,21 +271,140 @@ private class PopulationData {
         private final ChunkLoadingTicket lockTicket = new InternalLoadingTicket();
     }
 
+    private static long key(Vector2i coords) {
+        return LanternChunk.key(coords.getX(), coords.getY());
+    }
+
     private LanternChunkQueueTask queueTask(Vector2i coords, Runnable runnable) {
         final LanternChunkQueueTask task = new LanternChunkQueueTask(coords, runnable);
         task.setFuture(this.chunkTaskExecutor.submit(task));
         return task;
     }
 
+    /**
+     * A {@link FutureTask} that exposes the {@link LanternChunkQueueTask}
+     * so that it can be ordered by the executor queue.
+     */
+    private static final class ChunkTaskFuture extends FutureTask<Void> {
+
+        private final LanternChunkQueueTask task;
+
+        private ChunkTaskFuture(LanternChunkQueueTask task) {
+            super(task);
+            this.task = task;
+        }
+    }
+
+    /**
+     * A snapshot of a player that is used to determine the
+     * priority of chunk loads.
+     */
+    private static final class ChunkObserver {
+
+        // The position in chunk coordinates
+        private final double x;
+        private final double z;
+
+        // The horizontal view direction
+        private final double dirX;
+        private final double dirZ;
+
+        private ChunkObserver(LanternPlayer player) {
+            final Vector3d position = player.getPosition();
+            this.x = position.getX() / 16.0;
+            this.z = position.getZ() / 16.0;
+            final double yaw = Math.toRadians(player.getHeadRotation().getY());
+            this.dirX = -Math.sin(yaw);
+            this.dirZ = Math.cos(yaw);
+        }
+
+        /**
+         * Gets whether the observer moved or turned enough compared
+         * to the previous snapshot to affect the load priorities.
+         *
+         * @param previous The previous snapshot
+         * @return Whether it moved
+         */
+        private boolean hasMoved(ChunkObserver previous) {
+            final double dx = this.x - previous.x;
+            final double dz = this.z - previous.z;
+            return dx * dx + dz * dz >= OBSERVER_MOVE_DISTANCE * OBSERVER_MOVE_DISTANCE ||
+                    this.dirX * previous.dirX + this.dirZ * previous.dirZ < OBSERVER_TURN_COS;
+        }
+
+        /**
+         * Gets the load priority of the chunk for this observer, this is the
+         * distance to the chunk weighted by the view direction. Chunks in front
+         * of the observer are twice as important as the ones behind it.
+         *
+         * @param chunkX The chunk x coordinate
+         * @param chunkZ The chunk z coordinate
+         * @return The priority, lower values are loaded first
+         */
+        private double getPriority(int chunkX, int chunkZ) {
+            final double dx = chunkX + 0.5 - this.x;
+            final double dz = chunkZ + 0.5 - this.z;
+            final double distance = Math.sqrt(dx * dx + dz * dz);
+            // The chunk the observer is standing in
+            if (distance < 1.0) {
+                return distance;
+            }
+            final double dot = (dx * this.dirX + dz * this.dirZ) / distance;
+            return distance * (1.5 - dot * 0.5);
+        }
+    }
+
+    /**
+     * Gets the priority of the queued chunk task, the chunk loads are ordered
+     * by the current observers and the unloads are executed first.
+     *
+     * @param runnable The chunk task future
+     * @return The priority
+     */
+    private double getTaskPriority(Runnable runnable) {
+        final LanternChunkQueueTask task = ((ChunkTaskFuture) runnable).task;
+        if (!(task.runnable instanceof LanternChunkLoadTask)) {
+            return 0.0;
+        }
+        return getLoadPriority(task.coords, this.ticketsByPos.get(task.key), this.chunkObservers);
+    }
+
+    /**
+     * Gets the load priority of the chunk at the given coordinates, lower
+     * values will be loaded first.
+     *
+     * @param coords The chunk coordinates
+     * @param tickets The tickets that are forcing the chunk
+     * @param observers The observers
+     * @return The priority
+     */
+    private static double getLoadPriority(Vector2i coords, @Nullable Set<ChunkLoadingTicket> tickets,
+            List<ChunkObserver> observers) {
+        double priority = Double.MAX_VALUE;
+        for (ChunkObserver observer : observers) {
+            priority = Math.min(priority, observer.getPriority(coords.getX(), coords.getY()));
+        }
+        if (tickets != null) {
+            for (ChunkLoadingTicket ticket : tickets) {
+                if (!(ticket instanceof PlayerEntityLoadingTicket)) {
+                    return Math.min(priority, NON_PLAYER_TICKET_PRIORITY);
+                }
+            }
+        }
+        return priority;
+    }
+
     private class LanternChunkQueueTask implements Callable<Void> {
 
         private final Vector2i coords;
+        private final long key;
         // The runnable that should be executed
         private final Runnable runnable;
         // The future attached to this callable
         @Nullable private Future<Void> future;
 
         LanternChunkQueueTask(Vector2i coords, Runnable runnable) {
+            this.key = key(coords);
             this.runnable = runnable;
             this.coords = coords;
         }
@@ -286,12 +487,12 @@ public void run() {
     }
 
     private void doChunkLoad(Vector2i coords) {
-        final Set<ChunkLoadingTicket> tickets = this.ticketsByPos.get(coords);
+        final Set<ChunkLoadingTicket> tickets = this.ticketsByPos.get(key(coords));
         if (tickets == null) {
             return;
         }
         // Chunk may be null if's already being loaded by a different thread.
-        getOrCreateChunk(coords, () -> {
+        getOrCreateChunk(coords.getX(), coords.getY(), () -> {
             // Build the cause only if the chunk isn't already loaded
             return Cause.source(this.world).named("tickets", tickets.toArray(new Object[tickets.size()])).build();
         }, true, false);
@@ -318,7 +519,6 @@ private void doChunkLoad(Vector2i coords) {
     private class GenerationBuffers {
 
         final ChunkBiomeBuffer chunkBiomeBuffer = new ChunkBiomeBuffer();
-        final ChunkBlockBuffer chunkBlockBuffer = new ChunkBlockBuffer();
     }
 
     // The world generation buffers that will be reused
@@ -330,6 +530,16 @@ private class GenerationBuffers {
     // The world generator
     private volatile WorldGenerator worldGenerator;
 
+    // The chunks that are being generated, or that were generated ahead of being
+    // loaded, the generation is discarded if it isn't used before being evicted
+    private final Cache<Long, CompletableFuture<ProtoChunk>> protoChunks = Caffeine.newBuilder()
+            .maximumSize(MAX_PROTO_CHUNKS).build();
+
+    // The biomes of the population areas of generated chunks that weren't populated yet, they
+    // are generated alongside the terrain stages so that population doesn't have to wait for them
+    private final Cache<Long, ChunkBiomeBuffer> populationBiomes = Caffeine.newBuilder()
+            .maximumSize(MAX_PROTO_CHUNKS).build();
+
     @Inject
     public LanternChunkManager(
             @Named(InternalPluginsInfo.Minecraft.IDENTIFIER) PluginContainer minecraftPluginContainer,
@@ -362,6 +572,9 @@ public ChunkIOService getChunkIOService() {
      */
     public void setWorldGenerator(WorldGenerator worldGenerator) {
         this.worldGenerator = checkNotNull(worldGenerator, "worldGenerator");
+        // Generated chunks of the previous generator can't be used
+        this.protoChunks.invalidateAll();
+        this.populationBiomes.invalidateAll();
     }
 
     /**
@@ -381,7 +594,7 @@ public WorldGenerator getWorldGenerator() {
      * @return has ticket
      */
     public boolean hasTicket(Vector2i coords) {
-        return this.ticketsByPos.containsKey(checkNotNull(coords, "coords"));
+        return this.ticketsByPos.containsKey(key(checkNotNull(coords, "coords")));
     }
 
     /**
@@ -393,7 +606,7 @@ public boolean hasTicket(Vector2i coords) {
      * @return has ticket
      */
     public boolean hasTicket(int x, int z) {
-        return this.ticketsByPos.containsKey(new Vector2i(x, z));
+        return this.ticketsByPos.containsKey(LanternChunk.key(x, z));
     }
 
     /**
@@ -404,13 +617,12 @@ public boolean hasTicket(int x, int z) {
     public ImmutableSetMultimap<Vector3i, LoadingTicket> getForced() {
         final ImmutableSetMultimap.Builder<Vector3i, LoadingTicket> builder =
                 ImmutableSetMultimap.builder();
-        for (Entry<Vector2i, Set<ChunkLoadingTicket>> en : this.ticketsByPos.entrySet()) {
-            final Vector2i pos0 = en.getKey();
-            final Vector3i pos = new Vector3i(pos0.getX(), 0, pos0.getY());
-            for (ChunkLoadingTicket ticket : en.getValue()) {
+        this.ticketsByPos.forEach((tickets, key) -> {
+            final Vector3i pos = new Vector3i(LanternChunk.keyX(key), 0, LanternChunk.keyZ(key));
+            for (ChunkLoadingTicket ticket : tickets) {
                 builder.put(pos, ticket);
             }
-        }
+        });
         return builder.build();
     }
 
@@ -587,7 +799,13 @@ public LanternChunk getChunk(Vector2i coords) {
 
     @Nullable
     public LanternChunk getChunkIfLoaded(Vector2i coords) {
-        final LanternChunk chunk = this.loadedChunks.get(checkNotNull(coords, "coords"));
+        checkNotNull(coords, "coords");
+        return getChunkIfLoaded(coords.getX(), coords.getY());
+    }
+
+    @Nullable
+    public LanternChunk getChunkIfLoaded(int x, int z) {
+        final LanternChunk chunk = this.loadedChunks.get(LanternChunk.key(x, z));
         if (chunk != null && !chunk.loaded) {
             return null;
         }
@@ -595,13 +813,14 @@ public LanternChunk getChunkIfLoaded(Vector2i coords) {
     }
 
     @Nullable
-    public LanternChunk getChunkIfLoaded(int x, int z) {
-        return getChunkIfLoaded(new Vector2i(x, z));
+    private LanternChunk getChunk(Vector2i coords, boolean wait) {
+        checkNotNull(coords, "coords");
+        return getChunk(coords.getX(), coords.getY(), wait);
     }
 
     @Nullable
-    private LanternChunk getChunk(Vector2i coords, boolean wait) {
-        final LanternChunk chunk = this.loadedChunks.get(checkNotNull(coords, "coords"));
+    private LanternChunk getChunk(int x, int z, boolean wait) {
+        final LanternChunk chunk = this.loadedChunks.get(LanternChunk.key(x, z));
         if (wait && chunk != null && !chunk.loaded &&
                 chunk.lockState == LanternChunk.LockState.LOADING) {
             // Wait for the chunk to finish loading
@@ -619,7 +838,7 @@ private LanternChunk getChunk(Vector2i coords, boolean wait) {
      */
     @Nullable
     public LanternChunk getChunk(int x, int z) {
-        return getChunk(new Vector2i(x, z));
+        return getChunk(x, z, true);
     }
 
     /**
@@ -657,7 +876,7 @@ public LanternChunk getOrCreateChunk(int x, int z, boolean generate) {
      * @return the chunk
      */
     public LanternChunk getOrCreateChunk(int x, int z, Supplier<Cause> cause, boolean generate) {
-        return getOrCreateChunk(new Vector2i(x, z), cause, generate);
+        return getOrCreateChunk(x, z, cause, generate, true);
     }
 
     /**
@@ -670,38 +889,43 @@ public LanternChunk getOrCreateChunk(int x, int z, Supplier<Cause> cause, boolea
      * @return the chunk
      */
     public LanternChunk getOrCreateChunk(Vector2i coords, Supplier<Cause> cause, boolean generate) {
-        return getOrCreateChunk(coords, cause, generate, true);
+        checkNotNull(coords, "coords");
+        return getOrCreateChunk(coords.getX(), coords.getY(), cause, generate, true);
     }
 
     /**
      *
-     * @param coords the coordinates of the chunk to load
+     * @param x the x coordinate of the chunk to load
+     * @param z the z coordinate of the chunk to load
      * @param cause a supplier of the cause that triggered the chunk load
      * @param generate whether the chunk should be generated if not found
      * @param wait whether the current thread should wait for the loading to finish, this should only
      *             be internally used inside the chunk manager
      * @return the chunk
      */
-    private LanternChunk getOrCreateChunk(Vector2i coords, Supplier<Cause> cause, boolean generate, boolean wait) {
+    private LanternChunk getOrCreateChunk(int x, int z, Supplier<Cause> cause, boolean generate, boolean wait) {
         checkNotNull(cause, "cause");
-        LanternChunk chunk = this.loadedChunks.get(checkNotNull(coords, "coords"));
+        final long key = LanternChunk.key(x, z);
+        LanternChunk chunk = this.loadedChunks.get(key);
         // Chunk is already loaded
         if (chunk != null) {
-            if (!this.ticketsByPos.containsKey(coords)) {
-                this.pendingForUnload.add(new UnloadingChunkEntry(coords));
+            if (!this.ticketsByPos.containsKey(key)) {
+                this.pendingForUnload.add(new UnloadingChunkEntry(x, z));
             }
             return chunk;
         }
         // Lets try to visit the graveyard, try to retrieve chunks that where
         // not gc yet, allowing us to reuse them to avoid loading a new chunk
-        chunk = this.reusableChunks.get(coords);
+        final ReusableChunkReference reference = this.reusableChunks.remove(key);
+        chunk = reference == null ? null : reference.get();
         if (chunk != null) {
-            this.loadedChunks.put(coords, chunk);
-            this.reusableChunks.remove(coords);
-            if (!this.ticketsByPos.containsKey(coords)) {
-                this.pendingForUnload.add(new UnloadingChunkEntry(coords));
+            this.loadedChunks.put(key, chunk);
+            if (!this.ticketsByPos.containsKey(key)) {
+                this.pendingForUnload.add(new UnloadingChunkEntry(x, z));
+            }
+            if (this.game.getEventManager().hasListeners(LoadChunkEvent.class)) {
+                this.game.getEventManager().post(SpongeEventFactory.createLoadChunkEvent(cause.get(), chunk));
             }
-            this.game.getEventManager().post(SpongeEventFactory.createLoadChunkEvent(cause.get(), chunk));
             this.world.getEventListener().onLoadChunk(chunk);
             // Resurrect all the entities in the chunk
             chunk.resurrectEntities();
@@ -710,9 +934,9 @@ private LanternChunk getOrCreateChunk(Vector2i coords, Supplier<Cause> cause, bo
         }
         boolean[] newChunk = new boolean[1];
         // Finally, create a new chunk if needed
-        chunk = this.loadedChunks.computeIfAbsent(coords, coords0 -> {
+        chunk = this.loadedChunks.computeIfAbsent(key, key0 -> {
             newChunk[0] = true;
-            return new LanternChunk(this.world, coords0.getX(), coords0.getY());
+            return new LanternChunk(this.world, x, z);
         });
         // This method call was too late
         if (!newChunk[0]) {
@@ -734,8 +958,8 @@ private LanternChunk getOrCreateChunk(Vector2i coords, Supplier<Cause> cause, bo
         // Try to load the chunk
         load(chunk, cause, generate);
         this.world.addEntities(chunk.getEntities());
-        if (!this.ticketsByPos.containsKey(coords)) {
-            this.pendingForUnload.add(new UnloadingChunkEntry(coords));
+        if (!this.ticketsByPos.containsKey(key)) {
+            this.pendingForUnload.add(new UnloadingChunkEntry(x, z));
         }
         return chunk;
     }
@@ -793,17 +1017,13 @@ private void tryPopulateSurroundingChunks(LanternChunk chunk, Cause cause) {
         LanternChunk right = isChunkLoaded(sides[RIGHT]);
         LanternChunk rightUp = isChunkLoaded(sides[RIGHT_UP]);
         if (up != null && right != null && rightUp != null) {
-            if (!chunk.populating && !chunk.populated) {
-                populateChunk(chunk, cause, random);
-            }
+            populateChunk(chunk, cause, random);
         }
         LanternChunk left = isChunkLoaded(sides[LEFT]);
         LanternChunk leftDown = isChunkLoaded(sides[LEFT_DOWN]);
         LanternChunk down = isChunkLoaded(sides[DOWN]);
         if (leftDown != null && left != null && down != null) {
-            if (!leftDown.populating && !leftDown.populated) {
-                populateChunk(leftDown, cause, random);
-            }
+            populateChunk(leftDown, cause, random);
         }
         if (up == null) { // Maybe it is loaded by now?
             up = isChunkLoaded(sides[UP]);
@@ -813,9 +1033,7 @@ private void tryPopulateSurroundingChunks(LanternChunk chunk, Cause cause) {
         }
         LanternChunk leftUp = isChunkLoaded(sides[LEFT_UP]);
         if (left != null && leftUp != null && up != null) {
-            if (!left.populating && !left.populated) {
-                populateChunk(left, cause, random);
-            }
+            populateChunk(left, cause, random);
         }
         if (right == null) { // Maybe it is loaded by now?
             right = isChunkLoaded(sides[RIGHT]);
@@ -825,18 +1043,36 @@ private void tryPopulateSurroundingChunks(LanternChunk chunk, Cause cause) {
         }
         LanternChunk rightDown = isChunkLoaded(sides[RIGHT_DOWN]);
         if (down != null && rightDown != null && right != null) {
-            if (!down.populating && !down.populated) {
-                populateChunk(down, cause, random);
-            }
+            populateChunk(down, cause, random);
         }
         for (Vector2i side : sides) {
             unlockInternally(side, populationData.lockTicket);
         }
     }
 
+    /**
+     * Populates the chunk, unless it's already populated or
+     * being populated by a different thread.
+     *
+     * @param chunk The chunk
+     * @param cause The cause
+     * @param random The random
+     */
     private void populateChunk(LanternChunk chunk, Cause cause, Random random) {
-        chunk.populating = true;
+        if (chunk.populated || !chunk.populating.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            // The population may have been completed before the flag was set
+            if (!chunk.populated) {
+                populateChunk0(chunk, cause, random);
+            }
+        } finally {
+            chunk.populating.set(false);
+        }
+    }
 
+    private void populateChunk0(LanternChunk chunk, Cause cause, Random random) {
         // Populate
         int chunkX = chunk.getX() * 16;
         int chunkZ = chunk.getZ() * 16;
@@ -847,14 +1083,18 @@ private void populateChunk(LanternChunk chunk, Cause cause, Random random) {
         long chunkSeed = xSeed * chunkX + zSeed * chunkZ ^ worldSeed;
         random.setSeed(chunkSeed);
 
-        //noinspection ConstantConditions
-        final ChunkBiomeBuffer biomeBuffer = this.genBuffers.get().chunkBiomeBuffer;
-        biomeBuffer.reuse(new Vector3i(chunkX + 8, 0, chunkZ + 8));
+        // Use the biomes that were generated together with the chunk, if present
+        ChunkBiomeBuffer biomeBuffer = this.populationBiomes.asMap().remove(chunk.getKey());
+        if (biomeBuffer == null) {
+            //noinspection ConstantConditions
+            biomeBuffer = this.genBuffers.get().chunkBiomeBuffer;
+            biomeBuffer.reuse(new Vector3i(chunkX + 8, 0, chunkZ + 8));
 
-        // We ave to regenerate the biomes so that any
-        // virtual biomes can be passed to the populator.
-        final BiomeGenerator biomeGenerator = this.worldGenerator.getBiomeGenerator();
-        biomeGenerator.generateBiomes(biomeBuffer);
+            // We ave to regenerate the biomes so that any
+            // virtual biomes can be passed to the populator.
+            final BiomeGenerator biomeGenerator = this.worldGenerator.getBiomeGenerator();
+            biomeGenerator.generateBiomes(biomeBuffer);
+        }
 
         // Initialize the biomes into the chunk
         final ImmutableBiomeVolume immutableBiomeVolume = biomeBuffer.getImmutableBiomeCopy();
@@ -870,7 +1110,7 @@ private void populateChunk(LanternChunk chunk, Cause cause, Random random) {
         final List<Populator> populators = new LinkedList<>(biomeGenSettings.getPopulators());
         populators.addAll(this.worldGenerator.getPopulators());
 
-        final EventManager eventManager = Sponge.getEventManager();
+        final LanternEventManager eventManager = this.game.getEventManager();
 
         final Vector3i min = new Vector3i(chunkX + 8, 0, chunkZ + 8);
         final Extent volume = new SoftBufferExtentViewDownsize(chunk.getWorld(), min, min.add(15, 0, 15), min.sub(8, 0, 8), min.add(23, 0, 23));
@@ -878,22 +1118,168 @@ private void populateChunk(LanternChunk chunk, Cause cause, Random random) {
         // Call the pre populate event, this allows
         // modifications to the populators list
         // Called before a chunk begins populating. (javadoc)
-        eventManager.post(SpongeEventFactory.createPopulateChunkEventPre(cause, populators, chunk));
+        if (eventManager.hasListeners(PopulateChunkEvent.Pre.class)) {
+            eventManager.post(SpongeEventFactory.createPopulateChunkEventPre(cause, populators, chunk));
+        }
 
         // First populate the chunk with the biome populators
+        final boolean populateEvents = eventManager.hasListeners(PopulateChunkEvent.Populate.class);
         for (Populator populator : populators) {
             // Called when a populator is about to run against a chunk. (javadoc)
-            eventManager.post(SpongeEventFactory.createPopulateChunkEventPopulate(cause, populator, chunk));
+            if (populateEvents) {
+                eventManager.post(SpongeEventFactory.createPopulateChunkEventPopulate(cause, populator, chunk));
+            }
             populator.populate(this.world, volume, random);
         }
 
         // Called when a chunk finishes populating. (javadoc)
-        eventManager.post(SpongeEventFactory.createPopulateChunkEventPost(cause, ImmutableList.copyOf(populators), chunk));
+        if (eventManager.hasListeners(PopulateChunkEvent.Post.class)) {
+            eventManager.post(SpongeEventFactory.createPopulateChunkEventPost(cause, ImmutableList.copyOf(populators), chunk));
+        }
         this.world.getEventListener().onPopulateChunk(chunk);
 
         // We are done
         chunk.populated = true;
-        chunk.populating = false;
+    }
+
+    /**
+     * Generates and populates all the chunks within the given area and writes them
+     * to the storage. The chunks around the area are loaded as well so that the
+     * chunks at the border can be populated, they are written too because the
+     * population of the area may have modified them.
+     *
+     * <p>This method blocks until all the chunks are generated, populated and
+     * written, it can be called concurrently from multiple threads for different
+     * areas. The chunks are written by the calling thread together with the
+     * chunk saving threads.</p>
+     *
+     * @param min The minimum chunk coordinates
+     * @param max The maximum chunk coordinates
+     * @param cause The cause
+     * @return The amount of chunks that were generated, chunks that
+     *         already existed are not counted
+     * @throws IllegalStateException If the area couldn't be written
+     */
+    public int generateArea(Vector2i min, Vector2i max, Supplier<Cause> cause) {
+        checkNotNull(min, "min");
+        checkNotNull(max, "max");
+        checkNotNull(cause, "cause");
+        final Vector2i min1 = min.sub(1, 1);
+        final Vector2i max1 = max.add(1, 1);
+        // Prevent the chunks from being unloaded while the area is populated
+        final ChunkLoadingTicket ticket = new InternalLoadingTicket();
+        int generated = 0;
+        for (int x = min1.getX(); x <= max1.getX(); x++) {
+            for (int z = min1.getY(); z <= max1.getY(); z++) {
+                lockInternally(new Vector2i(x, z), ticket);
+            }
+        }
+        try {
+            for (int x = min1.getX(); x <= max1.getX(); x++) {
+                for (int z = min1.getY(); z <= max1.getY(); z++) {
+                    if (x >= min.getX() && x <= max.getX() && z >= min.getY() && z <= max.getY() &&
+                            this.loadedChunks.get(LanternChunk.key(x, z)) == null && !this.chunkIOService.exists(x, z)) {
+                        generated++;
+                    }
+                    final LanternChunk chunk = getOrCreateChunk(x, z, cause, true, false);
+                    // Wait for the chunk if it's being loaded by a different thread
+                    chunk.lock.lock();
+                    chunk.lock.unlock();
+                }
+            }
+            // Populate the chunks that couldn't be populated while loading,
+            // all the surrounding chunks are available at this point
+            final Random random = this.populationData.get().random;
+            for (int x = min.getX(); x <= max.getX(); x++) {
+                for (int z = min.getY(); z <= max.getY(); z++) {
+                    final LanternChunk chunk = this.loadedChunks.get(LanternChunk.key(x, z));
+                    if (chunk != null) {
+                        populateChunk(chunk, cause.get(), random);
+                    }
+                }
+            }
+            // Queue all the writes first so that the saving threads can help
+            final List<LanternChunk> chunks = new ArrayList<>();
+            for (int x = min1.getX(); x <= max1.getX(); x++) {
+                for (int z = min1.getY(); z <= max1.getY(); z++) {
+                    final LanternChunk chunk = this.loadedChunks.get(LanternChunk.key(x, z));
+                    if (chunk != null) {
+                        if (!save(chunk, false)) {
+                            throw new IllegalStateException("Failed to save the chunk at " + chunk.getCoords());
+                        }
+                        chunks.add(chunk);
+                    }
+                }
+            }
+            for (LanternChunk chunk : chunks) {
+                if (!this.chunkSaver.flush(chunk.getCoords())) {
+                    throw new IllegalStateException("Failed to write the chunk at " + chunk.getCoords());
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            for (int x = min1.getX(); x <= max1.getX(); x++) {
+                for (int z = min1.getY(); z <= max1.getY(); z++) {
+                    unlockInternally(new Vector2i(x, z), ticket);
+                    // Chunks that are still used by other tickets will be ignored
+                    this.pendingForUnload.add(new UnloadingChunkEntry(x, z));
+                }
+            }
+        }
+        return generated;
+    }
+
+    /**
+     * Loads all the chunks between the min and max chunk coordinates (inclusive) and
+     * prevents them from being unloaded until {@link #unlockArea} is called with the
+     * returned ticket.
+     *
+     * @param min The minimum chunk coordinates
+     * @param max The maximum chunk coordinates
+     * @return The ticket that holds the chunks
+     */
+    public ChunkLoadingTicket lockArea(Vector2i min, Vector2i max) {
+        checkNotNull(min, "min");
+        checkNotNull(max, "max");
+        final ChunkLoadingTicket ticket = new InternalLoadingTicket();
+        for (int x = min.getX(); x <= max.getX(); x++) {
+            for (int z = min.getY(); z <= max.getY(); z++) {
+                lockInternally(new Vector2i(x, z), ticket);
+            }
+        }
+        try {
+            for (int x = min.getX(); x <= max.getX(); x++) {
+                for (int z = min.getY(); z <= max.getY(); z++) {
+                    getOrLoadChunk(x, z);
+                }
+            }
+        } catch (RuntimeException e) {
+            unlockArea(ticket, min, max);
+            throw e;
+        }
+        return ticket;
+    }
+
+    /**
+     * Releases the chunks that were locked by {@link #lockArea}.
+     *
+     * @param ticket The ticket that holds the chunks
+     * @param min The minimum chunk coordinates
+     * @param max The maximum chunk coordinates
+     */
+    public void unlockArea(ChunkLoadingTicket ticket, Vector2i min, Vector2i max) {
+        checkNotNull(ticket, "ticket");
+        checkNotNull(min, "min");
+        checkNotNull(max, "max");
+        for (int x = min.getX(); x <= max.getX(); x++) {
+            for (int z = min.getY(); z <= max.getY(); z++) {
+                if (unlockInternally(new Vector2i(x, z), ticket)) {
+                    // Chunks that are still used by other tickets will be ignored
+                    this.pendingForUnload.add(new UnloadingChunkEntry(x, z));
+                }
+            }
+        }
     }
 
     @Nullable
@@ -944,16 +1330,24 @@ private boolean load0(LanternChunk chunk, Supplier<Cause> cause, boolean generat
         boolean success = true;
         try {
             chunk.lockState = LanternChunk.LockState.LOADING;
-            final LanternChunkQueueTask task = this.chunkQueueTasks.remove(chunk.getCoords());
+            final LanternChunkQueueTask task = this.chunkQueueTasks.remove(chunk.getKey());
             // Try to cancel the task, the task will probably be ignored
             // because we are already locked
             if (task != null) {
                 task.cancel();
             }
+            // Allow updates to be scheduled, the saved ones are restored while reading
+            this.world.getScheduledBlockUpdates().openChunk(chunk.getX(), chunk.getZ());
             try {
+                // Make sure that pending data of the chunk is written first
+                this.chunkSaver.flush(chunk.getCoords());
                 // Try to load the chunk
                 if (this.chunkIOService.read(chunk)) {
-                    this.game.getEventManager().post(SpongeEventFactory.createLoadChunkEvent(cause.get(), chunk));
+                    // The chunk matches the data on the disk
+                    chunk.getAndClearDirtyFlags();
+                    if (this.game.getEventManager().hasListeners(LoadChunkEvent.class)) {
+                        this.game.getEventManager().post(SpongeEventFactory.createLoadChunkEvent(cause.get(), chunk));
+                    }
                     this.world.getEventListener().onLoadChunk(chunk);
                     return true;
                 }
@@ -979,7 +1373,9 @@ private boolean load0(LanternChunk chunk, Supplier<Cause> cause, boolean generat
             }
             // Try to populate the chunk
             tryPopulateSurroundingChunks(chunk, cause0);
-            this.game.getEventManager().post(SpongeEventFactory.createLoadChunkEvent(cause0, chunk));
+            if (this.game.getEventManager().hasListeners(LoadChunkEvent.class)) {
+                this.game.getEventManager().post(SpongeEventFactory.createLoadChunkEvent(cause0, chunk));
+            }
             this.world.getEventListener().onLoadChunk(chunk);
             return true;
         } finally {
@@ -998,58 +1394,183 @@ private boolean load0(LanternChunk chunk, Supplier<Cause> cause, boolean generat
      * @param cause The cause
      */
     private void generate(LanternChunk chunk, Cause cause) {
-        final EventManager eventManager = Sponge.getEventManager();
-        eventManager.post(SpongeEventFactory.createGenerateChunkEventPre(cause, chunk));
+        final LanternEventManager eventManager = this.game.getEventManager();
+        if (eventManager.hasListeners(GenerateChunkEvent.Pre.class)) {
+            eventManager.post(SpongeEventFactory.createGenerateChunkEventPre(cause, chunk));
+            // A generation that was started ahead, before the listeners were
+            // registered, didn't see the event, so it cannot be used
+            this.protoChunks.invalidate(chunk.getKey());
+        }
+
+        final CompletableFuture<ProtoChunk> future = getProtoChunk(chunk.getX(), chunk.getZ());
+        // The surrounding chunks are needed to populate this chunk,
+        // start generating them while waiting for this one
+        generateAhead(chunk.chunkPos);
+        final ProtoChunk protoChunk;
+        try {
+            protoChunk = future.join();
+        } finally {
+            this.protoChunks.invalidate(chunk.getKey());
+        }
+        // Failed population biomes are generated again by the population
+        final CompletableFuture<ChunkBiomeBuffer> populationBiomes = protoChunk.populationBiomes;
+        if (protoChunk.worldGenerator == this.worldGenerator &&
+                populationBiomes.isDone() && !populationBiomes.isCompletedExceptionally()) {
+            this.populationBiomes.put(chunk.getKey(), populationBiomes.join());
+        }
 
-        final GenerationBuffers buffers = this.genBuffers.get();
-        //noinspection ConstantConditions
-        final ChunkBiomeBuffer biomeBuffer = buffers.chunkBiomeBuffer;
-        biomeBuffer.reuse(new Vector3i(chunk.getX() << 4, 0, chunk.getZ() << 4));
+        // Initialize the biomes into the chunk
+        chunk.initializeBiomes(protoChunk.biomeBuffer.detach());
 
-        // Generate the biomes
-        final BiomeGenerator biomeGenerator = this.worldGenerator.getBiomeGenerator();
-        biomeGenerator.generateBiomes(biomeBuffer);
+        // Create the chunk sections
+        final ChunkBlockBuffer blockBuffer = protoChunk.blockBuffer;
+        final ChunkSection[] sections = new ChunkSection[CHUNK_SECTIONS];
+        for (int sy = 0; sy < CHUNK_SECTIONS; sy++) {
+            final int nonAirCount = blockBuffer.nonAirCount[sy];
+            if (nonAirCount > 0) {
+                sections[sy] = new ChunkSection(blockBuffer.types[sy]);
+            }
+        }
 
-        // Initialize the biomes into the chunk
-        final ImmutableBiomeVolume immutableBiomeVolume = biomeBuffer.getImmutableBiomeCopy();
-        chunk.initializeBiomes(biomeBuffer.detach().clone());
+        // Initialize the chunk
+        chunk.initializeSections(sections);
+        chunk.initializeHeightMap(null);
+        chunk.initializeLight();
+
+        if (eventManager.hasListeners(GenerateChunkEvent.Post.class)) {
+            eventManager.post(SpongeEventFactory.createGenerateChunkEventPost(cause, chunk));
+        }
+    }
+
+    /**
+     * Starts the generation of the chunks surrounding the given chunk, if
+     * they aren't loaded and don't exist yet. The existence checks are
+     * performed on the generation pool.
+     *
+     * <p>Nothing is generated ahead if there are listeners for the
+     * {@link GenerateChunkEvent.Pre}, the event must be posted before the
+     * generation of a chunk starts and there is no chunk to post it for yet.</p>
+     *
+     * @param center The center chunk coordinates
+     */
+    private void generateAhead(Vector2i center) {
+        if (this.game.getEventManager().hasListeners(GenerateChunkEvent.Pre.class)) {
+            return;
+        }
+        for (Vector2i side : getSides(center)) {
+            if (this.loadedChunks.containsKey(key(side)) || this.protoChunks.getIfPresent(key(side)) != null) {
+                continue;
+            }
+            generationPool.execute(() -> {
+                if (this.loadedChunks.containsKey(key(side))) {
+                    return;
+                }
+                try {
+                    if (this.chunkIOService.exists(side.getX(), side.getY())) {
+                        return;
+                    }
+                } catch (IOException e) {
+                    return;
+                }
+                getProtoChunk(side.getX(), side.getY());
+            });
+        }
+    }
+
+    /**
+     * Gets the {@link ProtoChunk} of the chunk at the given coordinates,
+     * the generation will be started if it isn't already in progress.
+     *
+     * @param x The chunk x coordinate
+     * @param z The chunk z coordinate
+     * @return The future of the proto chunk
+     */
+    private CompletableFuture<ProtoChunk> getProtoChunk(int x, int z) {
+        final WorldGenerator worldGenerator = this.worldGenerator;
+        return this.protoChunks.get(LanternChunk.key(x, z), key -> {
+            final ProtoChunk protoChunk = new ProtoChunk(x, z, worldGenerator);
+            // The biomes of the population area only depend on the position,
+            // so they are generated in parallel with the terrain stages
+            protoChunk.populationBiomes = CompletableFuture.supplyAsync(() -> generatePopulationBiomes(protoChunk), generationPool);
+            protoChunk.populationBiomes.whenComplete((biomeBuffer, t) -> {
+                if (t != null) {
+                    this.game.getLogger().error("Error while generating the population biomes of chunk ({};{})", x, z, t);
+                }
+            });
+            return CompletableFuture.supplyAsync(() -> generateBiomes(protoChunk), generationPool)
+                    .thenApplyAsync(this::generateBaseTerrain, generationPool)
+                    .thenApplyAsync(this::applyBiomeGenerationPopulators, generationPool)
+                    .thenApplyAsync(this::applyGenerationPopulators, generationPool);
+        });
+    }
+
+    private ProtoChunk generateBiomes(ProtoChunk protoChunk) {
+        final BiomeGenerator biomeGenerator = protoChunk.worldGenerator.getBiomeGenerator();
+        biomeGenerator.generateBiomes(protoChunk.biomeBuffer);
+        protoChunk.biomeVolume = protoChunk.biomeBuffer.getImmutableBiomeCopy();
+        return protoChunk;
+    }
 
-        final ChunkBlockBuffer blockBuffer = buffers.chunkBlockBuffer;
-        blockBuffer.reuse(new Vector3i(chunk.getX() << 4, 0, chunk.getZ() << 4));
+    private ChunkBiomeBuffer generatePopulationBiomes(ProtoChunk protoChunk) {
+        final ChunkBiomeBuffer biomeBuffer = new ChunkBiomeBuffer();
+        // The population area is offset by half a chunk
+        biomeBuffer.reuse(new Vector3i((protoChunk.x << 4) + 8, 0, (protoChunk.z << 4) + 8));
+        protoChunk.worldGenerator.getBiomeGenerator().generateBiomes(biomeBuffer);
+        return biomeBuffer;
+    }
 
+    private ProtoChunk generateBaseTerrain(ProtoChunk protoChunk) {
         // Apply the main world generator
-        final GenerationPopulator baseGenerator = this.worldGenerator.getBaseGenerationPopulator();
-        baseGenerator.populate(this.world, blockBuffer, immutableBiomeVolume);
+        final GenerationPopulator baseGenerator = protoChunk.worldGenerator.getBaseGenerationPopulator();
+        baseGenerator.populate(this.world, protoChunk.blockBuffer, protoChunk.biomeVolume);
+        return protoChunk;
+    }
 
+    private ProtoChunk applyBiomeGenerationPopulators(ProtoChunk protoChunk) {
         // Get all the used biome types
-        final Set<BiomeType> biomeTypes = ImmutableSet.copyOf(biomeBuffer.biomeTypes);
+        final Set<BiomeType> biomeTypes = ImmutableSet.copyOf(protoChunk.biomeBuffer.biomeTypes);
         for (BiomeType biomeType : biomeTypes) {
-            final BiomeGenerationSettings settings = this.worldGenerator.getBiomeSettings(biomeType);
+            final BiomeGenerationSettings settings = protoChunk.worldGenerator.getBiomeSettings(biomeType);
             for (GenerationPopulator generator : settings.getGenerationPopulators()) {
-                generator.populate(this.world, blockBuffer, immutableBiomeVolume);
+                generator.populate(this.world, protoChunk.blockBuffer, protoChunk.biomeVolume);
             }
         }
+        return protoChunk;
+    }
 
+    private ProtoChunk applyGenerationPopulators(ProtoChunk protoChunk) {
         // Apply the generator populators to complete the block buffer
-        for (GenerationPopulator generator : this.worldGenerator.getGenerationPopulators()) {
-            generator.populate(this.world, blockBuffer, immutableBiomeVolume);
+        for (GenerationPopulator generator : protoChunk.worldGenerator.getGenerationPopulators()) {
+            generator.populate(this.world, protoChunk.blockBuffer, protoChunk.biomeVolume);
         }
+        return protoChunk;
+    }
 
-        // Create the chunk sections
-        final ChunkSection[] sections = new ChunkSection[CHUNK_SECTIONS];
-        for (int sy = 0; sy < CHUNK_SECTIONS; sy++) {
-            final int nonAirCount = blockBuffer.nonAirCount[sy];
-            if (nonAirCount > 0) {
-                sections[sy] = new ChunkSection(blockBuffer.types[sy], nonAirCount);
-            }
-        }
+    /**
+     * The state of a chunk that is being generated, independent of the
+     * {@link LanternChunk} so that it can be generated ahead of being loaded.
+     */
+    private final class ProtoChunk {
 
-        // Initialize the chunk
-        chunk.initializeSections(sections);
-        chunk.initializeHeightMap(null);
-        chunk.initializeLight();
+        private final int x;
+        private final int z;
+        private final WorldGenerator worldGenerator;
+        private final ChunkBiomeBuffer biomeBuffer = new ChunkBiomeBuffer();
+        private final ChunkBlockBuffer blockBuffer = new ChunkBlockBuffer();
+
+        @Nullable private ImmutableBiomeVolume biomeVolume;
 
-        eventManager.post(SpongeEventFactory.createGenerateChunkEventPost(cause, chunk));
+        // The biomes of the population area, generated independently of the stages
+        private CompletableFuture<ChunkBiomeBuffer> populationBiomes;
+
+        private ProtoChunk(int x, int z, WorldGenerator worldGenerator) {
+            this.x = x;
+            this.z = z;
+            this.worldGenerator = worldGenerator;
+            final Vector3i start = new Vector3i(x << 4, 0, z << 4);
+            this.biomeBuffer.reuse(start);
+            this.blockBuffer.reuse(start);
+        }
     }
 
     private static final Vector3i CHUNK_SIZE = new Vector3i(
@@ -1170,17 +1691,22 @@ public ImmutableBlockVolume getImmutableBlockCopy() {
     }
 
     /**
-     * Attempts to save the specified chunk.
+     * Attempts to save the specified chunk, this method
+     * will wait until the chunk data is written.
      * 
      * @param chunk the chunk
      * @return true if it was successful
      */
     public boolean save(LanternChunk chunk) {
         checkNotNull(chunk, "chunk");
+        return save(chunk, true);
+    }
+
+    private boolean save(LanternChunk chunk, boolean wait) {
         chunk.lock.lock();
         try {
             chunk.lockState = LanternChunk.LockState.SAVING;
-            return save0(chunk);
+            return save0(chunk, wait);
         } finally {
             chunk.lockState = LanternChunk.LockState.NONE;
             chunk.lockCondition.signalAll();
@@ -1188,14 +1714,34 @@ public boolean save(LanternChunk chunk) {
         }
     }
 
-    private boolean save0(LanternChunk chunk) {
+    /**
+     * Captures the data of the chunk if it's modified and queues it to
+     * be written asynchronously. The chunk must be locked.
+     *
+     * @param chunk The chunk
+     * @param wait Whether the chunk data should be written before returning
+     * @return Whether it was successful
+     */
+    private boolean save0(LanternChunk chunk, boolean wait) {
+        this.pendingSaves.remove(chunk);
+        // The scheduled updates are stored with their remaining ticks, so they need to be written every time
+        if (this.world.getScheduledBlockUpdates().hasUpdates(chunk.getX(), chunk.getZ())) {
+            chunk.markDirty(LanternChunk.DIRTY_SCHEDULED_UPDATES);
+        }
+        if (!chunk.isDirty()) {
+            return !wait || this.chunkSaver.flush(chunk.getCoords());
+        }
+        // Clear the flags before capturing, modifications
+        // while capturing will mark the chunk dirty again
+        final int dirtyFlags = chunk.getAndClearDirtyFlags();
         try {
-            this.chunkIOService.write(chunk);
-            return true;
-        } catch (IOException e) {
+            this.chunkSaver.queue(chunk.getCoords(), this.chunkIOService.prepareWrite(chunk));
+        } catch (Exception e) {
+            chunk.markDirty(dirtyFlags);
             this.game.getLogger().error("Error while saving " + chunk, e);
+            return false;
         }
-        return false;
+        return !wait || this.chunkSaver.flush(chunk.getCoords());
     }
 
     /**
@@ -1207,7 +1753,7 @@ private boolean save0(LanternChunk chunk) {
      * @return true if it was successful
      */
     public boolean unload(int x, int z, Supplier<Cause> cause) {
-        return unload(new Vector2i(x, z), cause);
+        return unload0(x, z, cause, true);
     }
 
     /**
@@ -1222,8 +1768,13 @@ public boolean unload(Vector2i coords, Supplier<Cause> cause) {
     }
 
     private boolean unload0(Vector2i coords, Supplier<Cause> cause, boolean wait) {
+        checkNotNull(coords, "coords");
+        return unload0(coords.getX(), coords.getY(), cause, wait);
+    }
+
+    private boolean unload0(int x, int z, Supplier<Cause> cause, boolean wait) {
         checkNotNull(cause, "cause");
-        final LanternChunk chunk = getChunk(checkNotNull(coords, "coords"));
+        final LanternChunk chunk = getChunk(x, z, true);
         if (chunk != null) {
             return unload0(chunk, cause, wait);
         }
@@ -1244,9 +1795,9 @@ public boolean unload(LanternChunk chunk, Supplier<Cause> cause) {
     }
 
     private boolean unload0(LanternChunk chunk, Supplier<Cause> cause, boolean wait) {
-        final Vector2i coords = chunk.getCoords();
+        final long key = chunk.getKey();
         // Forced chunks cannot be unloaded
-        if (this.ticketsByPos.containsKey(coords)) {
+        if (this.ticketsByPos.containsKey(key)) {
             chunk.unloadingSuccess = false;
             return false;
         }
@@ -1271,21 +1822,27 @@ private boolean unload0(LanternChunk chunk, Supplier<Cause> cause, boolean wait)
             if (!chunk.loaded) {
                 return true;
             }
-            final LanternChunkQueueTask task = this.chunkQueueTasks.remove(coords);
+            final LanternChunkQueueTask task = this.chunkQueueTasks.remove(key);
             // Try to cancel all the current tasks
             if (task != null) {
                 task.cancel();
             }
             // Post the chunk unload event
-            this.game.getEventManager().post(SpongeEventFactory.createUnloadChunkEvent(cause.get(), chunk));
+            if (this.game.getEventManager().hasListeners(UnloadChunkEvent.class)) {
+                this.game.getEventManager().post(SpongeEventFactory.createUnloadChunkEvent(cause.get(), chunk));
+            }
             this.world.getEventListener().onUnloadChunk(chunk);
             // Remove from the loaded chunks
-            this.loadedChunks.remove(coords);
+            this.loadedChunks.remove(key);
             // Move the chunk to the graveyard
-            this.reusableChunks.put(coords, chunk);
+            this.reusableChunks.put(key, new ReusableChunkReference(chunk, key, this.collectedChunks));
             // Bury the entities
             chunk.buryEntities();
-            save0(chunk);
+            // Stop accepting and processing updates, the scheduled ones are saved with the chunk
+            final ScheduledBlockUpdateWheel scheduledBlockUpdates = this.world.getScheduledBlockUpdates();
+            scheduledBlockUpdates.closeChunk(chunk.getX(), chunk.getZ());
+            save0(chunk, false);
+            scheduledBlockUpdates.removeChunk(chunk.getX(), chunk.getZ());
             return true;
         } finally {
             chunk.lockState = LanternChunk.LockState.NONE;
@@ -1305,7 +1862,7 @@ private boolean unload0(LanternChunk chunk, Supplier<Cause> cause, boolean wait)
      */
     private boolean lockInternally(Vector2i coords, ChunkLoadingTicket ticket) {
         final boolean[] empty = new boolean[1];
-        this.ticketsByPos.computeIfAbsent(coords, coords0 -> {
+        this.ticketsByPos.computeIfAbsent(key(coords), key -> {
             empty[0] = true;
             return Sets.newConcurrentHashSet();
         }).add(ticket);
@@ -1313,10 +1870,11 @@ private boolean lockInternally(Vector2i coords, ChunkLoadingTicket ticket) {
     }
 
     private boolean unlockInternally(Vector2i coords, ChunkLoadingTicket ticket) {
-        final Set<ChunkLoadingTicket> set = this.ticketsByPos.get(coords);
+        final long key = key(coords);
+        final Set<ChunkLoadingTicket> set = this.ticketsByPos.get(key);
         if (set != null && set.remove(ticket)) {
             if (set.isEmpty()) {
-                this.ticketsByPos.remove(coords);
+                this.ticketsByPos.remove(key, set);
             }
             return true;
         }
@@ -1346,7 +1904,8 @@ void force(LanternLoadingTicket ticket, Vector2i coords, boolean callEvents) {
         // wa can call the event directly
         lockInternally(coords, ticket);
         // Remove from unload through loadChunk
-        this.pendingForUnload.removeIf(e -> e.coords.equals(coords));
+        final long key = key(coords);
+        this.pendingForUnload.removeIf(e -> e.key == key);
         // Whether the chunk should be queued for loading
         boolean queueLoad = false;
         if (chunk != null) {
@@ -1358,10 +1917,10 @@ void force(LanternLoadingTicket ticket, Vector2i coords, boolean callEvents) {
             queueLoad = true;
         }
         if (queueLoad) {
-            LanternChunkQueueTask task = this.chunkQueueTasks.get(coords);
+            LanternChunkQueueTask task = this.chunkQueueTasks.get(key);
             if (task == null || !(task.runnable instanceof LanternChunkLoadTask)) {
-                this.chunkQueueTasks.computeIfAbsent(coords, coords1 ->
-                        queueTask(coords1, new LanternChunkLoadTask(coords1)));
+                this.chunkQueueTasks.computeIfAbsent(key, key1 ->
+                        queueTask(coords, new LanternChunkLoadTask(coords)));
             }
         }
         if  (callEvents) {
@@ -1379,16 +1938,24 @@ void force(LanternLoadingTicket ticket, Vector2i coords, boolean callEvents) {
      */
     void unforce(LanternLoadingTicket ticket, Vector2i coords, boolean callEvents) {
         if (unlockInternally(coords, ticket)) {
+            final long key = key(coords);
+            // The chunk isn't forced anymore, so there is no need to load it
+            if (!this.ticketsByPos.containsKey(key)) {
+                final LanternChunkQueueTask task = this.chunkQueueTasks.get(key);
+                if (task != null && task.runnable instanceof LanternChunkLoadTask && task.cancel()) {
+                    this.chunkQueueTasks.remove(key, task);
+                }
+            }
             final LanternChunk chunk = getChunk(coords, false);
             // Try to cancel any queued chunk loadings
             if (chunk != null && chunk.lock.isLocked() && chunk.lockState == LanternChunk.LockState.LOADING) {
-                final LanternChunkQueueTask task = this.chunkQueueTasks.get(coords);
+                final LanternChunkQueueTask task = this.chunkQueueTasks.get(key);
                 if (task != null && task.runnable instanceof LanternChunkLoadTask) {
                     task.cancel();
                 }
             // Queue the chunk for unload, will be some ticks later
             } else {
-                final UnloadingChunkEntry entry = new UnloadingChunkEntry(coords);
+                final UnloadingChunkEntry entry = new UnloadingChunkEntry(coords.getX(), coords.getY());
                 if (!this.pendingForUnload.contains(entry)) {
                     this.pendingForUnload.offer(entry);
                 }
@@ -1420,10 +1987,9 @@ public void save() {
         } catch (IOException e) {
             this.game.getLogger().warn("An error occurred while saving the chunk loading tickets", e);
         }
-        for (Entry<Vector2i, LanternChunk> entry : this.loadedChunks.entrySet()) {
-            // Save the chunk
-            save(entry.getValue());
-        }
+        // Queue all the loaded chunks, they will be saved
+        // over the following ticks
+        this.pendingSaves.addAll(this.loadedChunks.values());
     }
 
     /**
@@ -1436,18 +2002,21 @@ public void shutdown() {
         } catch (IOException e) {
             this.game.getLogger().warn("An error occurred while saving the chunk loading tickets", e);
         }
-        for (Entry<Vector2i, LanternChunk> entry : this.loadedChunks.entrySet()) {
-            final LanternChunk chunk = entry.getValue();
+        for (LanternChunk chunk : this.loadedChunks.values()) {
             // Post the chunk unload event
             this.game.getEventManager().post(SpongeEventFactory.createUnloadChunkEvent(
                     Cause.source(this.game.getMinecraftPlugin()).owner(this.world).build(), chunk));
             // Save the chunk
-            save(chunk);
+            save(chunk, false);
         }
         // Cleanup
         this.loadedChunks.clear();
         this.reusableChunks.clear();
+        this.pendingSaves.clear();
+        this.protoChunks.invalidateAll();
         this.chunkTaskExecutor.shutdown();
+        // Wait for all the chunks to be written
+        this.chunkSaver.shutdown();
         try {
             this.chunkIOService.unload();
         } catch (IOException e) {
@@ -1459,15 +2028,83 @@ public void shutdown() {
      * Pulses the chunk manager.
      */
     public void pulse() {
+        final int autoSaveInterval = this.worldConfig.getChunkAutoSaveInterval();
+        if (autoSaveInterval > 0 && ++this.autoSaveTicks >= autoSaveInterval) {
+            this.autoSaveTicks = 0;
+            this.pendingSaves.addAll(this.loadedChunks.values());
+        }
+        pulseSaves();
+        pulseLoadQueue();
+        // Remove the reusable chunks that were garbage collected
+        Reference<? extends LanternChunk> reference;
+        while ((reference = this.collectedChunks.poll()) != null) {
+            this.reusableChunks.remove(((ReusableChunkReference) reference).key, reference);
+        }
         UnloadingChunkEntry entry;
         while ((entry = this.pendingForUnload.peek()) != null &&
                 (System.currentTimeMillis() - entry.time) > UNLOAD_DELAY) {
             this.pendingForUnload.poll();
-            if (!this.ticketsByPos.containsKey(entry.coords)) {
+            if (!this.ticketsByPos.containsKey(entry.key)) {
                 // TODO: Create unload tasks
-                unload(entry.coords, () -> Cause.source(this.world).build());
+                unload(entry.x, entry.z, () -> Cause.source(this.world).build());
+            }
+        }
+    }
+
+    /**
+     * Updates the snapshot of the players that is used to order the
+     * queued chunk loads, the queued loads are only prioritized again
+     * when one of the players moved or turned.
+     * <p>
+     * Loads of chunks that are no longer forced are cancelled when
+     * they are unforced and skipped if they are still executed.
+     */
+    private void pulseLoadQueue() {
+        final List<ChunkObserver> previous = this.chunkObservers;
+        final Collection<LanternPlayer> players = this.world.getRawPlayers();
+        final List<ChunkObserver> observers = new ArrayList<>(players.size());
+        boolean moved = players.size() != previous.size();
+        for (LanternPlayer player : players) {
+            final ChunkObserver observer = new ChunkObserver(player);
+            moved = moved || observer.hasMoved(previous.get(observers.size()));
+            observers.add(observer);
+        }
+        if (moved) {
+            this.chunkObservers = observers;
+            this.chunkTaskQueue.invalidate();
+        }
+    }
+
+    /**
+     * Captures the pending chunk saves, limited
+     * by the save budget.
+     */
+    private void pulseSaves() {
+        int budget = this.worldConfig.getChunkSaveBudget();
+        final Iterator<LanternChunk> it = this.pendingSaves.iterator();
+        final List<LanternChunk> skipped = new ArrayList<>();
+        while (budget > 0 && it.hasNext()) {
+            final LanternChunk chunk = it.next();
+            it.remove();
+            // The chunk is being loaded, unloaded or saved by a
+            // different thread, try it again during the next pulse
+            if (!chunk.lock.tryLock()) {
+                skipped.add(chunk);
+                continue;
+            }
+            try {
+                if (chunk.loaded && chunk.isDirty()) {
+                    chunk.lockState = LanternChunk.LockState.SAVING;
+                    save0(chunk, false);
+                    budget--;
+                }
+            } finally {
+                chunk.lockState = LanternChunk.LockState.NONE;
+                chunk.lockCondition.signalAll();
+                chunk.lock.unlock();
             }
         }
+        this.pendingSaves.addAll(skipped);
     }
 
     public void loadTickets() throws IOException {
@@ -0,0 +1,619 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.chunk;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.lanternpowered.server.world.chunk.LanternChunk.CHUNK_HEIGHT;
+import static org.lanternpowered.server.world.chunk.LanternChunk.CHUNK_SECTIONS;
+import static org.lanternpowered.server.world.chunk.LanternChunk.CHUNK_SECTION_SIZE;
+import static org.lanternpowered.server.world.chunk.LanternChunk.CHUNK_SECTION_VOLUME;
+
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import org.lanternpowered.server.block.BlockLightProperties;
+import org.lanternpowered.server.game.Lantern;
+import org.lanternpowered.server.world.LanternWorld;
+import org.lanternpowered.server.world.chunk.LanternChunk.ChunkSection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+
+import javax.annotation.Nullable;
+
+/**
+ * Propagates the block and sky light of a world. Block changes and newly
+ * populated chunks are queued and processed in batches on a dedicated light
+ * thread, at most one batch is in progress at the same time.
+ *
+ * <p>Every batch removes the old light with a breadth first decrease pass and
+ * spreads the new light with a breadth first increase pass, the queue entries
+ * are positions packed into longs together with their light level. Only the
+ * affected sections are reported to the {@link LanternChunk}s afterwards.</p>
+ */
+public final class LightEngine {
+
+    private static final int BLOCK = 0;
+    private static final int SKY = 1;
+
+    private static final int MAX_LIGHT = 15;
+
+    private static final int[] OFFSET_X = { 1, -1, 0, 0, 0, 0 };
+    private static final int[] OFFSET_Y = { 0, 0, 0, 0, 1, -1 };
+    private static final int[] OFFSET_Z = { 0, 0, 1, -1, 0, 0 };
+
+    /**
+     * The index of the down direction in the offset arrays.
+     */
+    private static final int DOWN = 5;
+
+    private static long pack(int x, int y, int z, int level) {
+        return ((long) x & 0x3ffffff) << 38 | ((long) z & 0x3ffffff) << 12 | y << 4 | level;
+    }
+
+    private static int unpackX(long entry) {
+        return (int) (entry >> 38);
+    }
+
+    private static int unpackY(long entry) {
+        return (int) (entry >> 4) & 0xff;
+    }
+
+    private static int unpackZ(long entry) {
+        return (int) (entry << 26 >> 38);
+    }
+
+    private static int unpackLevel(long entry) {
+        return (int) entry & 0xf;
+    }
+
+    private final String worldName;
+    private final LongFunction<LanternChunk> chunkLookup;
+    private final boolean skyLight;
+    private final ExecutorService executor;
+
+    // The changes that will be processed by the next batch
+    private final Queue<LanternChunk> pendingChunks = new ConcurrentLinkedQueue<>();
+    private final Object pendingChangesLock = new Object();
+    private LongArrayFIFOQueue pendingChanges = new LongArrayFIFOQueue();
+
+    @Nullable private volatile Future<?> batch;
+
+    // The following fields are only accessed by the light thread
+    private final LongArrayFIFOQueue[] increaseQueues = { new LongArrayFIFOQueue(), new LongArrayFIFOQueue() };
+    private final LongArrayFIFOQueue[] decreaseQueues = { new LongArrayFIFOQueue(), new LongArrayFIFOQueue() };
+    private final Long2IntMap dirtySections = new Long2IntOpenHashMap();
+
+    // The chunk of the last lookup, most lookups target the same chunk
+    private long cachedKey = Long.MIN_VALUE;
+    @Nullable private LanternChunk cachedChunk;
+    @Nullable private ChunkSection[] cachedSections;
+    private int cachedDirtySections;
+
+    public LightEngine(LanternWorld world) {
+        this(checkNotNull(world, "world").getName(), world.getDimension().hasSky(),
+                key -> world.getChunkManager().getChunkIfLoaded(LanternChunk.keyX(key), LanternChunk.keyZ(key)));
+    }
+
+    /**
+     * Constructs a new light engine.
+     *
+     * @param worldName The name of the world, used to name the light thread
+     * @param skyLight Whether the sky light should be propagated
+     * @param chunkLookup The lookup of loaded chunks by their key, returns {@code null} if not loaded
+     */
+    LightEngine(String worldName, boolean skyLight, LongFunction<LanternChunk> chunkLookup) {
+        this.worldName = checkNotNull(worldName, "worldName");
+        this.chunkLookup = checkNotNull(chunkLookup, "chunkLookup");
+        this.skyLight = skyLight;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "light-" + worldName);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues the block change at the given position, this should only
+     * be called if the light properties of the block changed.
+     *
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @param z The z coordinate
+     */
+    public void queueBlockChange(int x, int y, int z) {
+        final long entry = pack(x, y, z, 0);
+        synchronized (this.pendingChangesLock) {
+            this.pendingChanges.enqueue(entry);
+        }
+    }
+
+    /**
+     * Queues the complete relight of the given chunk.
+     *
+     * @param chunk The chunk
+     */
+    public void queueChunk(LanternChunk chunk) {
+        this.pendingChunks.add(checkNotNull(chunk, "chunk"));
+    }
+
+    /**
+     * Submits the pending changes to the light thread, unless
+     * the previous batch is still being processed.
+     */
+    public void pulse() {
+        final Future<?> batch = this.batch;
+        if (batch != null && !batch.isDone()) {
+            return;
+        }
+        final LongArrayFIFOQueue changes;
+        synchronized (this.pendingChangesLock) {
+            if (this.pendingChanges.isEmpty() && this.pendingChunks.isEmpty()) {
+                return;
+            }
+            changes = this.pendingChanges;
+            this.pendingChanges = new LongArrayFIFOQueue();
+        }
+        this.batch = this.executor.submit(() -> {
+            try {
+                process(changes);
+            } catch (Throwable t) {
+                Lantern.getLogger().error("An error occurred while updating the light of the world {}", this.worldName, t);
+            } finally {
+                reset();
+            }
+        });
+    }
+
+    /**
+     * Stops the light thread, the batch that is in progress and the
+     * pending changes are processed before this method returns. This
+     * must be called before the chunks are saved for the last time.
+     */
+    public void shutdown() {
+        if (this.executor.isShutdown()) {
+            return;
+        }
+        awaitBatch();
+        // Submit the changes that were queued in the meantime
+        pulse();
+        this.executor.shutdown();
+        try {
+            if (!this.executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                Lantern.getLogger().warn("Timed out while processing the pending light changes of the world {}", this.worldName);
+                this.executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            this.executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits for the batch that is currently in progress, if present.
+     */
+    void awaitBatch() {
+        final Future<?> batch = this.batch;
+        if (batch == null) {
+            return;
+        }
+        try {
+            batch.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Errors are already logged by the batch itself
+        }
+    }
+
+    private void reset() {
+        for (int type = BLOCK; type <= SKY; type++) {
+            this.increaseQueues[type].clear();
+            this.decreaseQueues[type].clear();
+        }
+        this.dirtySections.clear();
+        this.cachedKey = Long.MIN_VALUE;
+        this.cachedChunk = null;
+        this.cachedSections = null;
+        this.cachedDirtySections = 0;
+    }
+
+    private void process(LongArrayFIFOQueue changes) {
+        final List<LanternChunk> chunks = new ArrayList<>();
+        LanternChunk chunk;
+        while ((chunk = this.pendingChunks.poll()) != null) {
+            if (seedChunk(chunk)) {
+                chunks.add(chunk);
+            }
+        }
+        while (!changes.isEmpty()) {
+            final long entry = changes.dequeueLong();
+            final int x = unpackX(entry);
+            final int y = unpackY(entry);
+            final int z = unpackZ(entry);
+            seedChange(BLOCK, x, y, z);
+            if (this.skyLight) {
+                seedChange(SKY, x, y, z);
+            }
+        }
+        propagateDecrease(BLOCK);
+        propagateIncrease(BLOCK);
+        if (this.skyLight) {
+            propagateDecrease(SKY);
+            propagateIncrease(SKY);
+        }
+        flushDirtySections();
+        for (Long2IntMap.Entry entry : this.dirtySections.long2IntEntrySet()) {
+            final long key = entry.getLongKey();
+            final LanternChunk dirtyChunk = this.chunkLookup.apply(key);
+            if (dirtyChunk != null) {
+                dirtyChunk.onLightChange(entry.getIntValue());
+            }
+        }
+        for (LanternChunk lightChunk : chunks) {
+            lightChunk.setLightPopulated(true);
+        }
+    }
+
+    /**
+     * Seeds the light of a block change, the old light is removed and
+     * the new light will be pulled from the source and the neighbors.
+     */
+    private void seedChange(int type, int x, int y, int z) {
+        final ChunkSection[] sections = getSections(x, z);
+        if (sections == null) {
+            return;
+        }
+        final int oldLevel = getLight(sections, type, x, y, z);
+        final int source;
+        if (type == BLOCK) {
+            source = getEmission(sections, x, y, z);
+        } else {
+            source = y == CHUNK_HEIGHT - 1 && getOpacity(sections, x, y, z) == 0 ? MAX_LIGHT : 0;
+        }
+        if (oldLevel > 0) {
+            setLight(sections, type, x, y, z, 0);
+            this.decreaseQueues[type].enqueue(pack(x, y, z, oldLevel));
+        }
+        if (source > 0) {
+            setLight(sections, type, x, y, z, source);
+            this.increaseQueues[type].enqueue(pack(x, y, z, source));
+        }
+        for (int i = 0; i < OFFSET_X.length; i++) {
+            final int nx = x + OFFSET_X[i];
+            final int ny = y + OFFSET_Y[i];
+            final int nz = z + OFFSET_Z[i];
+            if (ny < 0 || ny >= CHUNK_HEIGHT) {
+                continue;
+            }
+            final ChunkSection[] neighborSections = getSections(nx, nz);
+            if (neighborSections == null) {
+                continue;
+            }
+            final int level = getLight(neighborSections, type, nx, ny, nz);
+            if (level > 0) {
+                this.increaseQueues[type].enqueue(pack(nx, ny, nz, level));
+            }
+        }
+    }
+
+    /**
+     * Seeds the complete light of a chunk, the sky light is filled downwards
+     * until an obstructing block is found, the remaining light is spread from
+     * the emitting blocks, the sky light columns and the neighbor chunks.
+     *
+     * @return Whether the chunk was seeded, the chunk may be unloaded already
+     */
+    private boolean seedChunk(LanternChunk chunk) {
+        final ChunkSection[] sections = chunk.getRawSections();
+        if (sections == null) {
+            return false;
+        }
+        final int baseX = chunk.getX() << 4;
+        final int baseZ = chunk.getZ() << 4;
+
+        int top = -1;
+        for (int sy = CHUNK_SECTIONS - 1; sy >= 0; sy--) {
+            if (sections[sy] != null) {
+                top = sy;
+                break;
+            }
+        }
+        int dirtySections = 0;
+        for (int sy = 0; sy <= top; sy++) {
+            ChunkSection section = sections[sy];
+            if (section == null) {
+                // Empty sections below the surface need to store their
+                // own light, otherwise they would be lit by the sky
+                if (!this.skyLight) {
+                    continue;
+                }
+                section = chunk.getOrCreateSection(sy);
+            }
+            dirtySections |= 1 << sy;
+            section.lightFromBlock.fill((byte) 0);
+            if (this.skyLight) {
+                section.lightFromSky.fill((byte) 0);
+            }
+            for (int index = 0; index < CHUNK_SECTION_VOLUME; index++) {
+                final short blockType = section.types.get(index);
+                if (blockType == 0) {
+                    continue;
+                }
+                final int emission = BlockLightProperties.getEmission(blockType);
+                if (emission > 0) {
+                    final int x = baseX + (index & 0xf);
+                    final int y = (sy << 4) | (index >> 8);
+                    final int z = baseZ + ((index >> 4) & 0xf);
+                    section.lightFromBlock.set(index, (byte) emission);
+                    this.increaseQueues[BLOCK].enqueue(pack(x, y, z, emission));
+                }
+            }
+        }
+        markDirty(chunk.getX(), chunk.getZ(), dirtySections);
+
+        if (this.skyLight && top >= 0) {
+            final int topY = (top << 4) | 0xf;
+            // The y coordinate of the highest obstructing block of every column
+            final int[] heights = new int[CHUNK_SECTION_SIZE * CHUNK_SECTION_SIZE];
+            for (int z = 0; z < CHUNK_SECTION_SIZE; z++) {
+                for (int x = 0; x < CHUNK_SECTION_SIZE; x++) {
+                    int y = topY;
+                    for (; y >= 0; y--) {
+                        final ChunkSection section = sections[y >> 4];
+                        final int index = ChunkSection.index(x, y & 0xf, z);
+                        if (BlockLightProperties.getOpacity(section.types.get(index)) != 0) {
+                            break;
+                        }
+                        section.lightFromSky.set(index, (byte) MAX_LIGHT);
+                    }
+                    heights[z << 4 | x] = y;
+                }
+            }
+            // Spread the sky light sideways where the neighbor columns are higher,
+            // the columns at the borders of the chunk can't be compared
+            for (int z = 0; z < CHUNK_SECTION_SIZE; z++) {
+                for (int x = 0; x < CHUNK_SECTION_SIZE; x++) {
+                    final int height = heights[z << 4 | x];
+                    int maxHeight;
+                    if (x == 0 || z == 0 || x == CHUNK_SECTION_SIZE - 1 || z == CHUNK_SECTION_SIZE - 1) {
+                        maxHeight = topY;
+                    } else {
+                        maxHeight = Math.max(
+                                Math.max(heights[z << 4 | (x - 1)], heights[z << 4 | (x + 1)]),
+                                Math.max(heights[(z - 1) << 4 | x], heights[(z + 1) << 4 | x]));
+                    }
+                    maxHeight = Math.min(topY, Math.max(height + 1, maxHeight));
+                    for (int y = height + 1; y <= maxHeight; y++) {
+                        this.increaseQueues[SKY].enqueue(pack(baseX + x, y, baseZ + z, MAX_LIGHT));
+                    }
+                }
+            }
+        }
+
+        // Pull the light from the borders of the neighbor chunks
+        for (int i = 0; i < 4; i++) {
+            final int offsetX = OFFSET_X[i];
+            final int offsetZ = OFFSET_Z[i];
+            final int neighborX = offsetX == 0 ? baseX : offsetX > 0 ? baseX + CHUNK_SECTION_SIZE : baseX - 1;
+            final int neighborZ = offsetZ == 0 ? baseZ : offsetZ > 0 ? baseZ + CHUNK_SECTION_SIZE : baseZ - 1;
+            final ChunkSection[] neighborSections = getSections(neighborX, neighborZ);
+            if (neighborSections == null) {
+                continue;
+            }
+            for (int j = 0; j < CHUNK_SECTION_SIZE; j++) {
+                final int x = offsetX == 0 ? neighborX + j : neighborX;
+                final int z = offsetZ == 0 ? neighborZ + j : neighborZ;
+                for (int y = 0; y < CHUNK_HEIGHT; y++) {
+                    if (neighborSections[y >> 4] == null) {
+                        // Skip the empty section, the sky light
+                        // can be pulled from the own columns
+                        y |= 0xf;
+                        continue;
+                    }
+                    for (int type = BLOCK; type <= (this.skyLight ? SKY : BLOCK); type++) {
+                        final int level = getLight(neighborSections, type, x, y, z);
+                        if (level > 1) {
+                            this.increaseQueues[type].enqueue(pack(x, y, z, level));
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private void propagateIncrease(int type) {
+        final LongArrayFIFOQueue queue = this.increaseQueues[type];
+        while (!queue.isEmpty()) {
+            final long entry = queue.dequeueLong();
+            final int x = unpackX(entry);
+            final int y = unpackY(entry);
+            final int z = unpackZ(entry);
+            final int level = unpackLevel(entry);
+            final ChunkSection[] sections = getSections(x, z);
+            // The entry is outdated if the light level was changed in the meantime
+            if (sections == null || getLight(sections, type, x, y, z) != level) {
+                continue;
+            }
+            for (int i = 0; i < OFFSET_X.length; i++) {
+                final int nx = x + OFFSET_X[i];
+                final int ny = y + OFFSET_Y[i];
+                final int nz = z + OFFSET_Z[i];
+                if (ny < 0 || ny >= CHUNK_HEIGHT) {
+                    continue;
+                }
+                final ChunkSection[] neighborSections = getSections(nx, nz);
+                if (neighborSections == null) {
+                    continue;
+                }
+                final int opacity = getOpacity(neighborSections, nx, ny, nz);
+                final int neighborLevel;
+                if (type == SKY && i == DOWN && level == MAX_LIGHT && opacity == 0) {
+                    // Direct sky light isn't weakened on the way down
+                    neighborLevel = MAX_LIGHT;
+                } else {
+                    neighborLevel = level - Math.max(1, opacity);
+                }
+                if (neighborLevel <= 0 || getLight(neighborSections, type, nx, ny, nz) >= neighborLevel) {
+                    continue;
+                }
+                setLight(neighborSections, type, nx, ny, nz, neighborLevel);
+                queue.enqueue(pack(nx, ny, nz, neighborLevel));
+            }
+        }
+    }
+
+    private void propagateDecrease(int type) {
+        final LongArrayFIFOQueue queue = this.decreaseQueues[type];
+        final LongArrayFIFOQueue increaseQueue = this.increaseQueues[type];
+        while (!queue.isEmpty()) {
+            final long entry = queue.dequeueLong();
+            final int x = unpackX(entry);
+            final int y = unpackY(entry);
+            final int z = unpackZ(entry);
+            final int level = unpackLevel(entry);
+            for (int i = 0; i < OFFSET_X.length; i++) {
+                final int nx = x + OFFSET_X[i];
+                final int ny = y + OFFSET_Y[i];
+                final int nz = z + OFFSET_Z[i];
+                if (ny < 0 || ny >= CHUNK_HEIGHT) {
+                    continue;
+                }
+                final ChunkSection[] neighborSections = getSections(nx, nz);
+                if (neighborSections == null) {
+                    continue;
+                }
+                final int neighborLevel = getLight(neighborSections, type, nx, ny, nz);
+                if (neighborLevel == 0) {
+                    continue;
+                }
+                if (neighborLevel < level || (type == SKY && i == DOWN && level == MAX_LIGHT && neighborLevel == MAX_LIGHT)) {
+                    // The light of the neighbor depended on the removed light
+                    setLight(neighborSections, type, nx, ny, nz, 0);
+                    queue.enqueue(pack(nx, ny, nz, neighborLevel));
+                    if (type == BLOCK) {
+                        final int emission = getEmission(neighborSections, nx, ny, nz);
+                        if (emission > 0) {
+                            setLight(neighborSections, type, nx, ny, nz, emission);
+                            increaseQueue.enqueue(pack(nx, ny, nz, emission));
+                        }
+                    }
+                } else {
+                    // The neighbor has its own light source, spread it
+                    // again to fill the area that was cleared
+                    increaseQueue.enqueue(pack(nx, ny, nz, neighborLevel));
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the sections of the chunk at the given block coordinates,
+     * {@code null} will be returned if the chunk isn't loaded.
+     */
+    @Nullable
+    private ChunkSection[] getSections(int x, int z) {
+        final int chunkX = x >> 4;
+        final int chunkZ = z >> 4;
+        final long key = LanternChunk.key(chunkX, chunkZ);
+        if (key != this.cachedKey) {
+            flushDirtySections();
+            final LanternChunk chunk = this.chunkLookup.apply(key);
+            this.cachedKey = key;
+            this.cachedChunk = chunk;
+            this.cachedSections = chunk == null ? null : chunk.getRawSections();
+        }
+        return this.cachedSections;
+    }
+
+    private void flushDirtySections() {
+        if (this.cachedDirtySections != 0) {
+            markDirty(this.cachedKey, this.cachedDirtySections);
+            this.cachedDirtySections = 0;
+        }
+    }
+
+    private void markDirty(int chunkX, int chunkZ, int sections) {
+        markDirty(LanternChunk.key(chunkX, chunkZ), sections);
+    }
+
+    private void markDirty(long key, int sections) {
+        if (sections != 0) {
+            this.dirtySections.put(key, this.dirtySections.get(key) | sections);
+        }
+    }
+
+    private int getLight(ChunkSection[] sections, int type, int x, int y, int z) {
+        final ChunkSection section = sections[y >> 4];
+        if (section == null) {
+            return type == SKY ? MAX_LIGHT : 0;
+        }
+        final int index = ChunkSection.index(x & 0xf, y & 0xf, z & 0xf);
+        return (type == SKY ? section.lightFromSky : section.lightFromBlock).get(index);
+    }
+
+    /**
+     * Sets the light level at the given position, the sections must be the
+     * ones of the last lookup. Missing sections are created when needed.
+     */
+    private void setLight(ChunkSection[] sections, int type, int x, int y, int z, int level) {
+        final int sy = y >> 4;
+        ChunkSection section = sections[sy];
+        if (section == null) {
+            if (level == (type == SKY ? MAX_LIGHT : 0)) {
+                return;
+            }
+            section = checkNotNull(this.cachedChunk).getOrCreateSection(sy);
+        }
+        final int index = ChunkSection.index(x & 0xf, y & 0xf, z & 0xf);
+        (type == SKY ? section.lightFromSky : section.lightFromBlock).set(index, (byte) level);
+        this.cachedDirtySections |= 1 << sy;
+    }
+
+    private static int getOpacity(ChunkSection[] sections, int x, int y, int z) {
+        final ChunkSection section = sections[y >> 4];
+        if (section == null) {
+            return 0;
+        }
+        return BlockLightProperties.getOpacity(section.types.get(ChunkSection.index(x & 0xf, y & 0xf, z & 0xf)));
+    }
+
+    private static int getEmission(ChunkSection[] sections, int x, int y, int z) {
+        final ChunkSection section = sections[y >> 4];
+        if (section == null) {
+            return 0;
+        }
+        return BlockLightProperties.getEmission(section.types.get(ChunkSection.index(x & 0xf, y & 0xf, z & 0xf)));
+    }
+}
@@ -25,13 +25,20 @@
  */
 package org.lanternpowered.server.world.extent;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import com.flowpowered.math.vector.Vector3i;
 import org.lanternpowered.server.game.registry.type.block.BlockRegistryModule;
 import org.lanternpowered.server.game.registry.type.world.biome.BiomeRegistryModule;
+import org.lanternpowered.server.world.LanternWorld;
+import org.lanternpowered.server.world.chunk.LanternChunk;
 import org.spongepowered.api.world.biome.BiomeType;
 import org.spongepowered.api.world.extent.BiomeVolume;
 import org.spongepowered.api.world.extent.BlockVolume;
 
+import javax.annotation.Nullable;
+
 public final class ExtentBufferHelper {
 
     public static short[] copyToBiomeArray(BiomeVolume area, Vector3i min, Vector3i max, Vector3i size) {
@@ -80,6 +87,10 @@ public static short[] copyToBlockArray(BlockVolume volume, Vector3i min, Vector3
             throw new OutOfMemoryError("Cannot copy the blocks to an array because the size limit was reached!");
         }
         final short[] copy = new short[(int) memory];
+        if (isChunkBacked(volume)) {
+            copyChunkSectionsToBlockArray(volume, min, max, size, copy);
+            return copy;
+        }
         int i = 0;
         for (int x = min.getX(); x <= max.getX(); x++) {
             for (int z = min.getZ(); z <= max.getZ(); z++) {
@@ -91,6 +102,73 @@ public static short[] copyToBlockArray(BlockVolume volume, Vector3i min, Vector3
         return copy;
     }
 
+    private static void copyChunkSectionsToBlockArray(BlockVolume volume, Vector3i min, Vector3i max, Vector3i size, short[] copy) {
+        final int yzSlice = size.getY() * size.getZ();
+        final int yLine = size.getY();
+        final short[] sectionTypes = new short[LanternChunk.CHUNK_SECTION_VOLUME];
+        // Copy section by section, this way every section only needs to be locked once
+        for (int cx = min.getX() >> 4; cx <= max.getX() >> 4; cx++) {
+            final int xMin = Math.max(min.getX(), cx << 4);
+            final int xMax = Math.min(max.getX(), (cx << 4) | 0xf);
+            for (int cz = min.getZ() >> 4; cz <= max.getZ() >> 4; cz++) {
+                final int zMin = Math.max(min.getZ(), cz << 4);
+                final int zMax = Math.min(max.getZ(), (cz << 4) | 0xf);
+                final LanternChunk chunk = checkNotNull(getBackingChunk(volume, cx, cz));
+                for (int sy = min.getY() >> 4; sy <= max.getY() >> 4; sy++) {
+                    final int yMin = Math.max(min.getY(), sy << 4);
+                    final int yMax = Math.min(max.getY(), (sy << 4) | 0xf);
+                    chunk.copyTypes(sy, sectionTypes);
+                    for (int x = xMin; x <= xMax; x++) {
+                        for (int z = zMin; z <= zMax; z++) {
+                            int i = (x - min.getX()) * yzSlice + (z - min.getZ()) * yLine + (yMin - min.getY());
+                            for (int y = yMin; y <= yMax; y++) {
+                                copy[i++] = sectionTypes[LanternChunk.ChunkSection.index(x & 0xf, y & 0xf, z & 0xf)];
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets whether the blocks of the given {@link BlockVolume} are
+     * directly backed by {@link LanternChunk}s.
+     *
+     * @param volume The volume
+     * @return Whether the volume is chunk backed
+     */
+    public static boolean isChunkBacked(BlockVolume volume) {
+        if (volume instanceof ExtentViewDownsize) {
+            return isChunkBacked(((ExtentViewDownsize) volume).getBackingExtent());
+        }
+        return volume instanceof LanternChunk || volume instanceof LanternWorld;
+    }
+
+    /**
+     * Gets the {@link LanternChunk} that backs the blocks of the given
+     * {@link BlockVolume} at the specified chunk coordinates.
+     *
+     * @param volume The volume
+     * @param chunkX The chunk x coordinate
+     * @param chunkZ The chunk z coordinate
+     * @return The chunk, or {@code null} if the volume isn't chunk backed
+     */
+    @Nullable
+    public static LanternChunk getBackingChunk(BlockVolume volume, int chunkX, int chunkZ) {
+        if (volume instanceof ExtentViewDownsize) {
+            return getBackingChunk(((ExtentViewDownsize) volume).getBackingExtent(), chunkX, chunkZ);
+        } else if (volume instanceof LanternChunk) {
+            final LanternChunk chunk = (LanternChunk) volume;
+            checkArgument(chunk.getX() == chunkX && chunk.getZ() == chunkZ,
+                    "The chunk coordinates %s, %s are outside of the chunk", chunkX, chunkZ);
+            return chunk;
+        } else if (volume instanceof LanternWorld) {
+            return ((LanternWorld) volume).getChunkManager().getOrLoadChunk(chunkX, chunkZ);
+        }
+        return null;
+    }
+
     private ExtentBufferHelper() {
     }
 }
@@ -92,6 +92,15 @@ public ExtentViewDownsize(Extent extent, Vector3i blockMin, Vector3i blockMax) {
         this.biomeSize = this.biomeMax.sub(this.biomeMin).add(Vector3i.ONE.mul(1, 0, 1));
     }
 
+    /**
+     * Gets the {@link Extent} that is being viewed.
+     *
+     * @return The backing extent
+     */
+    public Extent getBackingExtent() {
+        return this.extent;
+    }
+
     @Override
     public Location<? extends Extent> getLocation(Vector3d position) {
         checkRange(position.getX(), position.getY(), position.getZ());
@@ -0,0 +1,72 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.extent.worker;
+
+import com.flowpowered.math.vector.Vector2i;
+import com.flowpowered.math.vector.Vector3i;
+import org.lanternpowered.server.world.LanternWorld;
+import org.lanternpowered.server.world.chunk.ChunkLoadingTicket;
+import org.lanternpowered.server.world.chunk.LanternChunkManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the chunks that back the volumes of a parallel work loaded, the
+ * work may still be using them on other threads while the chunk manager
+ * would otherwise unload them.
+ */
+final class BackingChunks implements AutoCloseable {
+
+    private final List<Runnable> releases = new ArrayList<>();
+
+    /**
+     * Loads all the chunks that back the given volume between the min
+     * and max coordinates and locks them until this is closed, this
+     * also avoids that the same chunk is being loaded by multiple threads.
+     *
+     * @param volume The volume
+     * @param min The minimum coordinates
+     * @param max The maximum coordinates
+     */
+    void load(Object volume, Vector3i min, Vector3i max) {
+        final LanternWorld world = VolumeSections.getBackingWorld(volume);
+        if (world == null) {
+            return;
+        }
+        final LanternChunkManager chunkManager = world.getChunkManager();
+        final Vector2i chunkMin = new Vector2i(min.getX() >> 4, min.getZ() >> 4);
+        final Vector2i chunkMax = new Vector2i(max.getX() >> 4, max.getZ() >> 4);
+        final ChunkLoadingTicket ticket = chunkManager.lockArea(chunkMin, chunkMax);
+        this.releases.add(() -> chunkManager.unlockArea(ticket, chunkMin, chunkMax));
+    }
+
+    @Override
+    public void close() {
+        this.releases.forEach(Runnable::run);
+        this.releases.clear();
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.extent.worker;
+
+import org.lanternpowered.server.game.registry.type.block.BlockRegistryModule;
+import org.lanternpowered.server.world.chunk.LanternChunk;
+import org.lanternpowered.server.world.extent.ExtentBufferHelper;
+import org.spongepowered.api.block.BlockState;
+import org.spongepowered.api.event.cause.Cause;
+import org.spongepowered.api.world.extent.MutableBlockVolume;
+
+import java.util.BitSet;
+
+import javax.annotation.Nullable;
+
+/**
+ * A writer that collects the block changes of one chunk section
+ * and applies them at once if the target volume is backed by
+ * {@link LanternChunk}s, otherwise will every block be set directly.
+ *
+ * <p>The collected changes are not visible in the target volume until
+ * they are flushed, so every block is also set directly if the target
+ * volume is read through one of the sources of the work.</p>
+ */
+final class BulkBlockWriter {
+
+    /**
+     * Creates a new writer for the given volume.
+     *
+     * @param volume The target volume
+     * @param cause The cause of the changes
+     * @param sources The volumes that are read while writing
+     * @return The writer
+     */
+    static BulkBlockWriter of(MutableBlockVolume volume, Cause cause, Object... sources) {
+        return new BulkBlockWriter(volume, cause, ExtentBufferHelper.isChunkBacked(volume) &&
+                !VolumeSections.isAliased(volume, sources));
+    }
+
+    private final MutableBlockVolume volume;
+    private final Cause cause;
+    private final boolean chunkBacked;
+
+    @Nullable private final short[] types;
+    @Nullable private final BitSet mask;
+
+    // The coordinates of the section that is currently being collected
+    private int sectionX;
+    private int sectionY;
+    private int sectionZ;
+
+    private BulkBlockWriter(MutableBlockVolume volume, Cause cause, boolean chunkBacked) {
+        this.volume = volume;
+        this.cause = cause;
+        this.chunkBacked = chunkBacked;
+        this.types = chunkBacked ? new short[LanternChunk.CHUNK_SECTION_VOLUME] : null;
+        this.mask = chunkBacked ? new BitSet(LanternChunk.CHUNK_SECTION_VOLUME) : null;
+    }
+
+    /**
+     * Sets the {@link BlockState} at the given coordinates, the change
+     * may only be applied after the next {@link #flush()}.
+     *
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @param z The z coordinate
+     * @param block The block state
+     */
+    void setBlock(int x, int y, int z, BlockState block) {
+        if (!this.chunkBacked) {
+            this.volume.setBlock(x, y, z, block, this.cause);
+            return;
+        }
+        final int sectionX = x >> 4;
+        final int sectionY = y >> 4;
+        final int sectionZ = z >> 4;
+        if (sectionX != this.sectionX || sectionY != this.sectionY || sectionZ != this.sectionZ) {
+            flush();
+            this.sectionX = sectionX;
+            this.sectionY = sectionY;
+            this.sectionZ = sectionZ;
+        }
+        final int index = LanternChunk.ChunkSection.index(x & 0xf, y & 0xf, z & 0xf);
+        this.types[index] = BlockRegistryModule.get().getStateInternalIdAndData(block);
+        this.mask.set(index);
+    }
+
+    /**
+     * Applies all the collected block changes.
+     */
+    void flush() {
+        if (!this.chunkBacked || this.mask.isEmpty()) {
+            return;
+        }
+        final LanternChunk chunk = ExtentBufferHelper.getBackingChunk(this.volume, this.sectionX, this.sectionZ);
+        chunk.setBlocks(this.sectionY, this.types, this.mask, this.cause);
+        this.mask.clear();
+    }
+}
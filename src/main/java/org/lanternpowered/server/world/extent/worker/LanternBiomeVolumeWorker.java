@@ -44,10 +44,36 @@
 
     protected final V volume;
 
+    private boolean parallel;
+
     public LanternBiomeVolumeWorker(V volume) {
         this.volume = volume;
     }
 
+    /**
+     * Sets whether the work should be executed in parallel. The volumes will be split
+     * on chunk boundaries and the chunks are processed on a fork join pool, the mappers,
+     * mergers, visitors and reducers must be thread safe if enabled. Work that modifies
+     * a volume that doesn't support concurrent modifications, or that is also being
+     * read, will still be executed on the current thread.
+     *
+     * @param parallel Whether the work should be executed in parallel
+     * @return This worker, for chaining
+     */
+    public LanternBiomeVolumeWorker<V> parallel(boolean parallel) {
+        this.parallel = parallel;
+        return this;
+    }
+
+    /**
+     * Gets whether the work should be executed in parallel.
+     *
+     * @return Is parallel
+     */
+    public boolean isParallel() {
+        return this.parallel;
+    }
+
     @Override
     public V getVolume() {
         return this.volume;
@@ -60,19 +86,24 @@ public void map(BiomeVolumeMapper mapper, MutableBiomeVolume destination) {
         final int yOffset = offset.getY();
         final int zOffset = offset.getZ();
         final UnmodifiableBiomeVolume unmodifiableArea = this.volume.getUnmodifiableBiomeView();
-        final int xMin = unmodifiableArea.getBiomeMin().getX();
-        final int yMin = unmodifiableArea.getBiomeMin().getY();
-        final int zMin = unmodifiableArea.getBiomeMin().getZ();
-        final int xMax = unmodifiableArea.getBiomeMax().getX();
-        final int yMax = unmodifiableArea.getBiomeMax().getY();
-        final int zMax = unmodifiableArea.getBiomeMax().getZ();
-        for (int z = zMin; z <= zMax; z++) {
-            for (int y = yMin; y <= yMax; y++) {
-                for (int x = xMin; x <= xMax; x++) {
-                    final BiomeType biome = mapper.map(unmodifiableArea, x, y, z);
-                    destination.setBiome(x + xOffset, y + yOffset, z + zOffset, biome);
-                }
+        final Vector3i min = unmodifiableArea.getBiomeMin();
+        final Vector3i max = unmodifiableArea.getBiomeMax();
+        final boolean parallel = this.parallel && VolumeSections.isConcurrentlyModifiable(destination, this.volume);
+        try (BackingChunks backingChunks = new BackingChunks()) {
+            if (parallel) {
+                backingChunks.load(this.volume, min, max);
+                backingChunks.load(destination, min.add(offset), max.add(offset));
             }
+            VolumeSections.forEach(min, max, offset, parallel, (xMin, yMin, zMin, xMax, yMax, zMax) -> {
+                for (int y = yMin; y <= yMax; y++) {
+                    for (int z = zMin; z <= zMax; z++) {
+                        for (int x = xMin; x <= xMax; x++) {
+                            final BiomeType biome = mapper.map(unmodifiableArea, x, y, z);
+                            destination.setBiome(x + xOffset, y + yOffset, z + zOffset, biome);
+                        }
+                    }
+                }
+            });
         }
     }
 
@@ -87,59 +118,74 @@ public void merge(BiomeVolume second, BiomeVolumeMerger merger, MutableBiomeVolu
         final int yOffsetDestination = offsetDestination.getY();
         final int zOffsetDestination = offsetDestination.getZ();
         final UnmodifiableBiomeVolume firstUnmodifiableArea = this.volume.getUnmodifiableBiomeView();
-        final int xMin = firstUnmodifiableArea.getBiomeMin().getX();
-        final int yMin = firstUnmodifiableArea.getBiomeMin().getY();
-        final int zMin = firstUnmodifiableArea.getBiomeMin().getZ();
-        final int xMax = firstUnmodifiableArea.getBiomeMax().getX();
-        final int yMax = firstUnmodifiableArea.getBiomeMax().getY();
-        final int zMax = firstUnmodifiableArea.getBiomeMax().getZ();
         final UnmodifiableBiomeVolume secondUnmodifiableArea = second.getUnmodifiableBiomeView();
-        for (int z = zMin; z <= zMax; z++) {
-            for (int y = yMin; y <= yMax; y++) {
-                for (int x = xMin; x <= xMax; x++) {
-                    final BiomeType biome = merger.merge(firstUnmodifiableArea, x, y, z, secondUnmodifiableArea, x + xOffsetSecond, y + yOffsetSecond,
-                            z + zOffsetSecond);
-                    destination.setBiome(x + xOffsetDestination, y + yOffsetDestination, z + zOffsetDestination, biome);
-                }
+        final Vector3i min = firstUnmodifiableArea.getBiomeMin();
+        final Vector3i max = firstUnmodifiableArea.getBiomeMax();
+        final boolean parallel = this.parallel && VolumeSections.isConcurrentlyModifiable(destination, this.volume, second);
+        try (BackingChunks backingChunks = new BackingChunks()) {
+            if (parallel) {
+                backingChunks.load(this.volume, min, max);
+                backingChunks.load(second, min.add(offsetSecond), max.add(offsetSecond));
+                backingChunks.load(destination, min.add(offsetDestination), max.add(offsetDestination));
             }
+            VolumeSections.forEach(min, max, offsetDestination, parallel, (xMin, yMin, zMin, xMax, yMax, zMax) -> {
+                for (int y = yMin; y <= yMax; y++) {
+                    for (int z = zMin; z <= zMax; z++) {
+                        for (int x = xMin; x <= xMax; x++) {
+                            final BiomeType biome = merger.merge(firstUnmodifiableArea, x, y, z, secondUnmodifiableArea, x + xOffsetSecond,
+                                    y + yOffsetSecond, z + zOffsetSecond);
+                            destination.setBiome(x + xOffsetDestination, y + yOffsetDestination, z + zOffsetDestination, biome);
+                        }
+                    }
+                }
+            });
         }
     }
 
     @Override
     public void iterate(BiomeVolumeVisitor<V> visitor) {
-        final int xMin = this.volume.getBiomeMin().getX();
-        final int yMin = this.volume.getBiomeMin().getY();
-        final int zMin = this.volume.getBiomeMin().getZ();
-        final int xMax = this.volume.getBiomeMax().getX();
-        final int yMax = this.volume.getBiomeMax().getY();
-        final int zMax = this.volume.getBiomeMax().getZ();
-        for (int z = zMin; z <= zMax; z++) {
-            for (int y = yMin; y <= yMax; y++) {
-                for (int x = xMin; x <= xMax; x++) {
-                    visitor.visit(this.volume, x, y, z);
-                }
+        final Vector3i min = this.volume.getBiomeMin();
+        final Vector3i max = this.volume.getBiomeMax();
+        // The visitor may modify the volume
+        final boolean parallel = this.parallel &&
+                (!(this.volume instanceof MutableBiomeVolume) || VolumeSections.isConcurrentlyModifiable(this.volume));
+        try (BackingChunks backingChunks = new BackingChunks()) {
+            if (parallel) {
+                backingChunks.load(this.volume, min, max);
             }
+            VolumeSections.forEach(min, max, Vector3i.ZERO, parallel, (xMin, yMin, zMin, xMax, yMax, zMax) -> {
+                for (int y = yMin; y <= yMax; y++) {
+                    for (int z = zMin; z <= zMax; z++) {
+                        for (int x = xMin; x <= xMax; x++) {
+                            visitor.visit(this.volume, x, y, z);
+                        }
+                    }
+                }
+            });
         }
     }
 
     @Override
     public <T> T reduce(BiomeVolumeReducer<T> reducer, BiFunction<T, T, T> merge, T identity) {
         final UnmodifiableBiomeVolume unmodifiableArea = this.volume.getUnmodifiableBiomeView();
-        final int xMin = unmodifiableArea.getBiomeMin().getX();
-        final int yMin = unmodifiableArea.getBiomeMin().getY();
-        final int zMin = unmodifiableArea.getBiomeMin().getZ();
-        final int xMax = unmodifiableArea.getBiomeMax().getX();
-        final int yMax = unmodifiableArea.getBiomeMax().getY();
-        final int zMax = unmodifiableArea.getBiomeMax().getZ();
-        T reduction = identity;
-        for (int z = zMin; z <= zMax; z++) {
-            for (int y = yMin; y <= yMax; y++) {
-                for (int x = xMin; x <= xMax; x++) {
-                    reduction = reducer.reduce(unmodifiableArea, x, y, z, reduction);
-                }
+        final Vector3i min = unmodifiableArea.getBiomeMin();
+        final Vector3i max = unmodifiableArea.getBiomeMax();
+        final boolean parallel = this.parallel;
+        try (BackingChunks backingChunks = new BackingChunks()) {
+            if (parallel) {
+                backingChunks.load(this.volume, min, max);
             }
+            return VolumeSections.reduce(min, max, parallel, (xMin, yMin, zMin, xMax, yMax, zMax, value) -> {
+                for (int y = yMin; y <= yMax; y++) {
+                    for (int z = zMin; z <= zMax; z++) {
+                        for (int x = xMin; x <= xMax; x++) {
+                            value = reducer.reduce(unmodifiableArea, x, y, z, value);
+                        }
+                    }
+                }
+                return value;
+            }, merge, identity);
         }
-        return reduction;
     }
 
     private Vector3i align(BiomeVolume other) {
@@ -47,11 +47,37 @@
     protected final V volume;
     protected final Cause cause;
 
+    private boolean parallel;
+
     public LanternBlockVolumeWorker(V volume, Cause cause) {
         this.volume = checkNotNull(volume, "volume");
         this.cause = checkNotNull(cause, "cause");
     }
 
+    /**
+     * Sets whether the work should be executed in parallel. The volumes will be split
+     * on chunk section boundaries and the sections are processed on a fork join pool,
+     * the mappers, mergers, visitors and reducers must be thread safe if enabled. Work
+     * that modifies a volume that doesn't support concurrent modifications, or that
+     * is also being read, will still be executed on the current thread.
+     *
+     * @param parallel Whether the work should be executed in parallel
+     * @return This worker, for chaining
+     */
+    public LanternBlockVolumeWorker<V> parallel(boolean parallel) {
+        this.parallel = parallel;
+        return this;
+    }
+
+    /**
+     * Gets whether the work should be executed in parallel.
+     *
+     * @return Is parallel
+     */
+    public boolean isParallel() {
+        return this.parallel;
+    }
+
     @Override
     public V getVolume() {
         return this.volume;
@@ -64,19 +90,29 @@ public void map(BlockVolumeMapper mapper, MutableBlockVolume destination) {
         final int yOffset = offset.getY();
         final int zOffset = offset.getZ();
         final UnmodifiableBlockVolume unmodifiableVolume = this.volume.getUnmodifiableBlockView();
-        final int xMin = unmodifiableVolume.getBlockMin().getX();
-        final int yMin = unmodifiableVolume.getBlockMin().getY();
-        final int zMin = unmodifiableVolume.getBlockMin().getZ();
-        final int xMax = unmodifiableVolume.getBlockMax().getX();
-        final int yMax = unmodifiableVolume.getBlockMax().getY();
-        final int zMax = unmodifiableVolume.getBlockMax().getZ();
-        for (int z = zMin; z <= zMax; z++) {
-            for (int y = yMin; y <= yMax; y++) {
-                for (int x = xMin; x <= xMax; x++) {
-                    final BlockState block = mapper.map(unmodifiableVolume, x, y, z);
-                    destination.setBlock(x + xOffset, y + yOffset, z + zOffset, block, this.cause);
-                }
+        final Vector3i min = unmodifiableVolume.getBlockMin();
+        final Vector3i max = unmodifiableVolume.getBlockMax();
+        final boolean parallel = this.parallel && VolumeSections.isConcurrentlyModifiable(destination, this.volume);
+        try (BackingChunks backingChunks = new BackingChunks()) {
+            if (parallel) {
+                backingChunks.load(this.volume, min, max);
+                backingChunks.load(destination, min.add(offset), max.add(offset));
             }
+            // Work section by section of the destination, this allows
+            // the changes to be applied per section at once
+            VolumeSections.forEach(min, max, offset, parallel,
+                    (xMin, yMin, zMin, xMax, yMax, zMax) -> {
+                        final BulkBlockWriter writer = BulkBlockWriter.of(destination, this.cause, this.volume);
+                        for (int y = yMin; y <= yMax; y++) {
+                            for (int z = zMin; z <= zMax; z++) {
+                                for (int x = xMin; x <= xMax; x++) {
+                                    final BlockState block = mapper.map(unmodifiableVolume, x, y, z);
+                                    writer.setBlock(x + xOffset, y + yOffset, z + zOffset, block);
+                                }
+                            }
+                        }
+                        writer.flush();
+                    });
         }
     }
 
@@ -91,60 +127,78 @@ public void merge(BlockVolume second, BlockVolumeMerger merger, MutableBlockVolu
         final int yOffsetDestination = offsetDestination.getY();
         final int zOffsetDestination = offsetDestination.getZ();
         final UnmodifiableBlockVolume firstUnmodifiableVolume = this.volume.getUnmodifiableBlockView();
-        final int xMin = firstUnmodifiableVolume.getBlockMin().getX();
-        final int yMin = firstUnmodifiableVolume.getBlockMin().getY();
-        final int zMin = firstUnmodifiableVolume.getBlockMin().getZ();
-        final int xMax = firstUnmodifiableVolume.getBlockMax().getX();
-        final int yMax = firstUnmodifiableVolume.getBlockMax().getY();
-        final int zMax = firstUnmodifiableVolume.getBlockMax().getZ();
         final UnmodifiableBlockVolume secondUnmodifiableVolume = second.getUnmodifiableBlockView();
-        for (int z = zMin; z <= zMax; z++) {
-            for (int y = yMin; y <= yMax; y++) {
-                for (int x = xMin; x <= xMax; x++) {
-                    final BlockState block = merger.merge(firstUnmodifiableVolume, x, y, z,
-                            secondUnmodifiableVolume, x + xOffsetSecond, y + yOffsetSecond, z + zOffsetSecond);
-                    destination.setBlock(x + xOffsetDestination, y + yOffsetDestination,
-                            z + zOffsetDestination, block, this.cause);
-                }
+        final Vector3i min = firstUnmodifiableVolume.getBlockMin();
+        final Vector3i max = firstUnmodifiableVolume.getBlockMax();
+        final boolean parallel = this.parallel && VolumeSections.isConcurrentlyModifiable(destination, this.volume, second);
+        try (BackingChunks backingChunks = new BackingChunks()) {
+            if (parallel) {
+                backingChunks.load(this.volume, min, max);
+                backingChunks.load(second, min.add(offsetSecond), max.add(offsetSecond));
+                backingChunks.load(destination, min.add(offsetDestination), max.add(offsetDestination));
             }
+            VolumeSections.forEach(min, max, offsetDestination, parallel,
+                    (xMin, yMin, zMin, xMax, yMax, zMax) -> {
+                        final BulkBlockWriter writer = BulkBlockWriter.of(destination, this.cause, this.volume, second);
+                        for (int y = yMin; y <= yMax; y++) {
+                            for (int z = zMin; z <= zMax; z++) {
+                                for (int x = xMin; x <= xMax; x++) {
+                                    final BlockState block = merger.merge(firstUnmodifiableVolume, x, y, z,
+                                            secondUnmodifiableVolume, x + xOffsetSecond, y + yOffsetSecond, z + zOffsetSecond);
+                                    writer.setBlock(x + xOffsetDestination, y + yOffsetDestination, z + zOffsetDestination, block);
+                                }
+                            }
+                        }
+                        writer.flush();
+                    });
         }
     }
 
     @Override
     public void iterate(BlockVolumeVisitor<V> visitor) {
-        final int xMin = this.volume.getBlockMin().getX();
-        final int yMin = this.volume.getBlockMin().getY();
-        final int zMin = this.volume.getBlockMin().getZ();
-        final int xMax = this.volume.getBlockMax().getX();
-        final int yMax = this.volume.getBlockMax().getY();
-        final int zMax = this.volume.getBlockMax().getZ();
-        for (int z = zMin; z <= zMax; z++) {
-            for (int y = yMin; y <= yMax; y++) {
-                for (int x = xMin; x <= xMax; x++) {
-                    visitor.visit(this.volume, x, y, z);
-                }
+        final Vector3i min = this.volume.getBlockMin();
+        final Vector3i max = this.volume.getBlockMax();
+        // The visitor may modify the volume
+        final boolean parallel = this.parallel &&
+                (!(this.volume instanceof MutableBlockVolume) || VolumeSections.isConcurrentlyModifiable(this.volume));
+        try (BackingChunks backingChunks = new BackingChunks()) {
+            if (parallel) {
+                backingChunks.load(this.volume, min, max);
             }
+            VolumeSections.forEach(min, max, Vector3i.ZERO, parallel,
+                    (xMin, yMin, zMin, xMax, yMax, zMax) -> {
+                        for (int y = yMin; y <= yMax; y++) {
+                            for (int z = zMin; z <= zMax; z++) {
+                                for (int x = xMin; x <= xMax; x++) {
+                                    visitor.visit(this.volume, x, y, z);
+                                }
+                            }
+                        }
+                    });
         }
     }
 
     @Override
     public <T> T reduce(BlockVolumeReducer<T> reducer, BiFunction<T, T, T> merge, T identity) {
         final UnmodifiableBlockVolume unmodifiableVolume = this.volume.getUnmodifiableBlockView();
-        final int xMin = unmodifiableVolume.getBlockMin().getX();
-        final int yMin = unmodifiableVolume.getBlockMin().getY();
-        final int zMin = unmodifiableVolume.getBlockMin().getZ();
-        final int xMax = unmodifiableVolume.getBlockMax().getX();
-        final int yMax = unmodifiableVolume.getBlockMax().getY();
-        final int zMax = unmodifiableVolume.getBlockMax().getZ();
-        T reduction = identity;
-        for (int z = zMin; z <= zMax; z++) {
-            for (int y = yMin; y <= yMax; y++) {
-                for (int x = xMin; x <= xMax; x++) {
-                    reduction = reducer.reduce(unmodifiableVolume, x, y, z, reduction);
-                }
+        final Vector3i min = unmodifiableVolume.getBlockMin();
+        final Vector3i max = unmodifiableVolume.getBlockMax();
+        final boolean parallel = this.parallel;
+        try (BackingChunks backingChunks = new BackingChunks()) {
+            if (parallel) {
+                backingChunks.load(this.volume, min, max);
             }
+            return VolumeSections.reduce(min, max, parallel, (xMin, yMin, zMin, xMax, yMax, zMax, value) -> {
+                for (int y = yMin; y <= yMax; y++) {
+                    for (int z = zMin; z <= zMax; z++) {
+                        for (int x = xMin; x <= xMax; x++) {
+                            value = reducer.reduce(unmodifiableVolume, x, y, z, value);
+                        }
+                    }
+                }
+                return value;
+            }, merge, identity);
         }
-        return reduction;
     }
 
     private Vector3i align(BlockVolume other) {
@@ -25,6 +25,7 @@
  */
 package org.lanternpowered.server.world.extent.worker;
 
+import com.flowpowered.math.vector.Vector3i;
 import org.spongepowered.api.world.biome.BiomeType;
 import org.spongepowered.api.world.extent.MutableBiomeVolume;
 import org.spongepowered.api.world.extent.worker.MutableBiomeVolumeWorker;
@@ -36,21 +37,31 @@ public LanternMutableBiomeVolumeWorker(V volume) {
         super(volume);
     }
 
+    @Override
+    public LanternMutableBiomeVolumeWorker<V> parallel(boolean parallel) {
+        super.parallel(parallel);
+        return this;
+    }
+
     @Override
     public void fill(BiomeVolumeFiller filler) {
-        final int xMin = this.volume.getBiomeMin().getX();
-        final int yMin = this.volume.getBiomeMin().getY();
-        final int zMin = this.volume.getBiomeMin().getZ();
-        final int xMax = this.volume.getBiomeMax().getX();
-        final int yMax = this.volume.getBiomeMax().getY();
-        final int zMax = this.volume.getBiomeMax().getZ();
-        for (int z = zMin; z <= zMax; z++) {
-            for (int y = yMin; y <= yMax; y++) {
-                for (int x = xMin; x <= xMax; x++) {
-                    final BiomeType biome = filler.produce(x, y, z);
-                    this.volume.setBiome(x, y, z, biome);
-                }
+        final Vector3i min = this.volume.getBiomeMin();
+        final Vector3i max = this.volume.getBiomeMax();
+        final boolean parallel = isParallel() && VolumeSections.isConcurrentlyModifiable(this.volume);
+        try (BackingChunks backingChunks = new BackingChunks()) {
+            if (parallel) {
+                backingChunks.load(this.volume, min, max);
             }
+            VolumeSections.forEach(min, max, Vector3i.ZERO, parallel, (xMin, yMin, zMin, xMax, yMax, zMax) -> {
+                for (int y = yMin; y <= yMax; y++) {
+                    for (int z = zMin; z <= zMax; z++) {
+                        for (int x = xMin; x <= xMax; x++) {
+                            final BiomeType biome = filler.produce(x, y, z);
+                            this.volume.setBiome(x, y, z, biome);
+                        }
+                    }
+                }
+            });
         }
     }
 }
@@ -25,7 +25,7 @@
  */
 package org.lanternpowered.server.world.extent.worker;
 
-import org.spongepowered.api.block.BlockState;
+import com.flowpowered.math.vector.Vector3i;
 import org.spongepowered.api.event.cause.Cause;
 import org.spongepowered.api.world.extent.MutableBlockVolume;
 import org.spongepowered.api.world.extent.worker.MutableBlockVolumeWorker;
@@ -38,21 +38,33 @@ public LanternMutableBlockVolumeWorker(V volume, Cause cause) {
         super(volume, cause);
     }
 
+    @Override
+    public LanternMutableBlockVolumeWorker<V> parallel(boolean parallel) {
+        super.parallel(parallel);
+        return this;
+    }
+
     @Override
     public void fill(BlockVolumeFiller filler, Cause cause) {
-        final int xMin = this.volume.getBlockMin().getX();
-        final int yMin = this.volume.getBlockMin().getY();
-        final int zMin = this.volume.getBlockMin().getZ();
-        final int xMax = this.volume.getBlockMax().getX();
-        final int yMax = this.volume.getBlockMax().getY();
-        final int zMax = this.volume.getBlockMax().getZ();
-        for (int z = zMin; z <= zMax; z++) {
-            for (int y = yMin; y <= yMax; y++) {
-                for (int x = xMin; x <= xMax; x++) {
-                    final BlockState block = filler.produce(x, y, z);
-                    this.volume.setBlock(x, y, z, block, cause);
-                }
+        final Vector3i min = this.volume.getBlockMin();
+        final Vector3i max = this.volume.getBlockMax();
+        final boolean parallel = isParallel() && VolumeSections.isConcurrentlyModifiable(this.volume);
+        try (BackingChunks backingChunks = new BackingChunks()) {
+            if (parallel) {
+                backingChunks.load(this.volume, min, max);
             }
+            VolumeSections.forEach(min, max, Vector3i.ZERO, parallel,
+                    (xMin, yMin, zMin, xMax, yMax, zMax) -> {
+                        final BulkBlockWriter writer = BulkBlockWriter.of(this.volume, cause);
+                        for (int y = yMin; y <= yMax; y++) {
+                            for (int z = zMin; z <= zMax; z++) {
+                                for (int x = xMin; x <= xMax; x++) {
+                                    writer.setBlock(x, y, z, filler.produce(x, y, z));
+                                }
+                            }
+                        }
+                        writer.flush();
+                    });
         }
     }
 }
@@ -0,0 +1,318 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.extent.worker;
+
+import com.flowpowered.math.vector.Vector3i;
+import org.lanternpowered.server.util.gen.biome.AbstractMutableBiomeBuffer;
+import org.lanternpowered.server.util.gen.block.AbstractMutableBlockBuffer;
+import org.lanternpowered.server.world.LanternWorld;
+import org.lanternpowered.server.world.chunk.LanternChunk;
+import org.lanternpowered.server.world.extent.ExtentBufferHelper;
+import org.lanternpowered.server.world.extent.ExtentViewDownsize;
+import org.spongepowered.api.world.extent.BlockVolume;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiFunction;
+
+import javax.annotation.Nullable;
+
+/**
+ * A helper to split volumes on chunk section boundaries, each
+ * part of the volume will only cover one chunk section.
+ */
+final class VolumeSections {
+
+    // The pool that processes the sections of parallel volume workers
+    private static final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool -> {
+        final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("volume-worker-" + thread.getPoolIndex());
+        thread.setDaemon(true);
+        return thread;
+    }, null, false);
+
+    @FunctionalInterface
+    interface SectionConsumer {
+
+        /**
+         * Accepts the bounds (inclusive) of a part of the volume.
+         *
+         * @param xMin The minimum x coordinate
+         * @param yMin The minimum y coordinate
+         * @param zMin The minimum z coordinate
+         * @param xMax The maximum x coordinate
+         * @param yMax The maximum y coordinate
+         * @param zMax The maximum z coordinate
+         */
+        void accept(int xMin, int yMin, int zMin, int xMax, int yMax, int zMax);
+    }
+
+    @FunctionalInterface
+    interface SectionReducer<T> {
+
+        /**
+         * Reduces the part of the volume within the bounds (inclusive).
+         *
+         * @param xMin The minimum x coordinate
+         * @param yMin The minimum y coordinate
+         * @param zMin The minimum z coordinate
+         * @param xMax The maximum x coordinate
+         * @param yMax The maximum y coordinate
+         * @param zMax The maximum z coordinate
+         * @param value The value to start the reduction from
+         * @return The reduced value
+         */
+        T reduce(int xMin, int yMin, int zMin, int xMax, int yMax, int zMax, T value);
+    }
+
+    /**
+     * Splits the volume between the min and max coordinates on the chunk section
+     * boundaries of the volume it's aligned to by the offset. The sections of the
+     * same chunk column are visited after each other.
+     *
+     * @param min The minimum coordinates
+     * @param max The maximum coordinates
+     * @param offset The offset of the aligned volume
+     * @param consumer The consumer of the parts
+     */
+    static void forEach(Vector3i min, Vector3i max, Vector3i offset, SectionConsumer consumer) {
+        final int xOffset = offset.getX();
+        final int yOffset = offset.getY();
+        final int zOffset = offset.getZ();
+        for (int sx = (min.getX() + xOffset) >> 4; sx <= (max.getX() + xOffset) >> 4; sx++) {
+            final int xMin = Math.max(min.getX(), (sx << 4) - xOffset);
+            final int xMax = Math.min(max.getX(), ((sx << 4) | 0xf) - xOffset);
+            for (int sz = (min.getZ() + zOffset) >> 4; sz <= (max.getZ() + zOffset) >> 4; sz++) {
+                final int zMin = Math.max(min.getZ(), (sz << 4) - zOffset);
+                final int zMax = Math.min(max.getZ(), ((sz << 4) | 0xf) - zOffset);
+                for (int sy = (min.getY() + yOffset) >> 4; sy <= (max.getY() + yOffset) >> 4; sy++) {
+                    final int yMin = Math.max(min.getY(), (sy << 4) - yOffset);
+                    final int yMax = Math.min(max.getY(), ((sy << 4) | 0xf) - yOffset);
+                    consumer.accept(xMin, yMin, zMin, xMax, yMax, zMax);
+                }
+            }
+        }
+    }
+
+    /**
+     * Splits the volume between the min and max coordinates on the chunk section
+     * boundaries of the volume it's aligned to by the offset. All the parts will
+     * be processed on a fork join pool if parallel is enabled, the consumer will
+     * then be called concurrently.
+     *
+     * @param min The minimum coordinates
+     * @param max The maximum coordinates
+     * @param offset The offset of the aligned volume
+     * @param parallel Whether the parts should be processed in parallel
+     * @param consumer The consumer of the parts
+     */
+    static void forEach(Vector3i min, Vector3i max, Vector3i offset, boolean parallel, SectionConsumer consumer) {
+        if (!parallel) {
+            forEach(min, max, offset, consumer);
+            return;
+        }
+        final List<int[]> sections = collect(min, max, offset);
+        if (!sections.isEmpty()) {
+            pool.invoke(new SectionAction(sections, 0, sections.size(), consumer));
+        }
+    }
+
+    /**
+     * Reduces the volume between the min and max coordinates section by section. The
+     * sections will be reduced on a fork join pool if parallel is enabled, each section
+     * will then start from the identity and the results are combined with the merge
+     * function, in the order of the sections.
+     *
+     * @param min The minimum coordinates
+     * @param max The maximum coordinates
+     * @param parallel Whether the parts should be reduced in parallel
+     * @param reducer The reducer of the parts
+     * @param merge The function to merge the results of two parts
+     * @param identity The identity value
+     * @param <T> The type of the reduction
+     * @return The reduction
+     */
+    static <T> T reduce(Vector3i min, Vector3i max, boolean parallel, SectionReducer<T> reducer,
+            BiFunction<T, T, T> merge, T identity) {
+        if (!parallel) {
+            final Object[] reduction = { identity };
+            forEach(min, max, Vector3i.ZERO, (xMin, yMin, zMin, xMax, yMax, zMax) -> {
+                //noinspection unchecked
+                reduction[0] = reducer.reduce(xMin, yMin, zMin, xMax, yMax, zMax, (T) reduction[0]);
+            });
+            //noinspection unchecked
+            return (T) reduction[0];
+        }
+        final List<int[]> sections = collect(min, max, Vector3i.ZERO);
+        if (sections.isEmpty()) {
+            return identity;
+        }
+        return pool.invoke(new SectionTask<>(sections, 0, sections.size(), reducer, merge, identity));
+    }
+
+    /**
+     * Gets whether the given volume can be modified concurrently while the source
+     * volumes are being read, as long as every chunk section is only modified by
+     * one thread.
+     *
+     * @param volume The volume
+     * @param sources The source volumes
+     * @return Whether concurrent modifications are safe
+     */
+    static boolean isConcurrentlyModifiable(Object volume, Object... sources) {
+        if (isAliased(volume, sources)) {
+            return false;
+        }
+        return volume instanceof AbstractMutableBlockBuffer || volume instanceof AbstractMutableBiomeBuffer ||
+                (volume instanceof BlockVolume && ExtentBufferHelper.isChunkBacked((BlockVolume) volume));
+    }
+
+    /**
+     * Gets whether the given volume is also read through one of the
+     * sources, either directly or through the same backing world.
+     *
+     * @param volume The volume
+     * @param sources The source volumes
+     * @return Whether the volume is aliased by one of the sources
+     */
+    static boolean isAliased(Object volume, Object... sources) {
+        for (Object source : sources) {
+            if (source == volume || isSharedBacking(source, volume)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets whether both the volumes are backed by the same world, modifying
+     * one of them may affect the other one.
+     *
+     * @param volume The volume
+     * @param other The other volume
+     * @return Whether the volumes share their backing world
+     */
+    private static boolean isSharedBacking(Object volume, Object other) {
+        final LanternWorld world = getBackingWorld(volume);
+        return world != null && world == getBackingWorld(other);
+    }
+
+    /**
+     * Gets the world whose chunks directly back the given volume.
+     *
+     * @param volume The volume
+     * @return The backing world, or {@code null} if the volume isn't chunk backed
+     */
+    @Nullable
+    static LanternWorld getBackingWorld(Object volume) {
+        if (volume instanceof ExtentViewDownsize) {
+            return getBackingWorld(((ExtentViewDownsize) volume).getBackingExtent());
+        } else if (volume instanceof LanternChunk) {
+            return (LanternWorld) ((LanternChunk) volume).getWorld();
+        } else if (volume instanceof LanternWorld) {
+            return (LanternWorld) volume;
+        }
+        return null;
+    }
+
+    private static List<int[]> collect(Vector3i min, Vector3i max, Vector3i offset) {
+        final List<int[]> sections = new ArrayList<>();
+        forEach(min, max, offset, (xMin, yMin, zMin, xMax, yMax, zMax) ->
+                sections.add(new int[] { xMin, yMin, zMin, xMax, yMax, zMax }));
+        return sections;
+    }
+
+    private static final class SectionAction extends RecursiveAction {
+
+        private static final long serialVersionUID = 3785291631457271362L;
+
+        private final List<int[]> sections;
+        private final int from;
+        private final int to;
+        private final SectionConsumer consumer;
+
+        SectionAction(List<int[]> sections, int from, int to, SectionConsumer consumer) {
+            this.sections = sections;
+            this.from = from;
+            this.to = to;
+            this.consumer = consumer;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from == 1) {
+                final int[] s = this.sections.get(this.from);
+                this.consumer.accept(s[0], s[1], s[2], s[3], s[4], s[5]);
+                return;
+            }
+            final int middle = (this.from + this.to) >>> 1;
+            invokeAll(new SectionAction(this.sections, this.from, middle, this.consumer),
+                    new SectionAction(this.sections, middle, this.to, this.consumer));
+        }
+    }
+
+    private static final class SectionTask<T> extends RecursiveTask<T> {
+
+        private static final long serialVersionUID = -4305937026113398426L;
+
+        private final List<int[]> sections;
+        private final int from;
+        private final int to;
+        private final SectionReducer<T> reducer;
+        private final BiFunction<T, T, T> merge;
+        private final T identity;
+
+        SectionTask(List<int[]> sections, int from, int to, SectionReducer<T> reducer, BiFunction<T, T, T> merge, T identity) {
+            this.sections = sections;
+            this.from = from;
+            this.to = to;
+            this.reducer = reducer;
+            this.merge = merge;
+            this.identity = identity;
+        }
+
+        @Override
+        protected T compute() {
+            if (this.to - this.from == 1) {
+                final int[] s = this.sections.get(this.from);
+                return this.reducer.reduce(s[0], s[1], s[2], s[3], s[4], s[5], this.identity);
+            }
+            final int middle = (this.from + this.to) >>> 1;
+            final SectionTask<T> left = new SectionTask<>(this.sections, this.from, middle, this.reducer, this.merge, this.identity);
+            final SectionTask<T> right = new SectionTask<>(this.sections, middle, this.to, this.reducer, this.merge, this.identity);
+            left.fork();
+            final T rightResult = right.compute();
+            return this.merge.apply(left.join(), rightResult);
+        }
+    }
+
+    private VolumeSections() {
+    }
+}
@@ -29,20 +29,26 @@
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.flowpowered.math.GenericMath;
+import com.flowpowered.math.vector.Vector2i;
 import com.flowpowered.math.vector.Vector3d;
 import com.flowpowered.math.vector.Vector3i;
 import com.google.common.base.Throwables;
 import org.apache.commons.lang3.time.DurationFormatUtils;
 import org.lanternpowered.server.data.io.ChunkIOService;
 import org.lanternpowered.server.game.Lantern;
+import org.lanternpowered.server.util.ThreadHelper;
+import org.lanternpowered.server.world.LanternWorld;
 import org.lanternpowered.server.world.chunk.LanternChunkLayout;
+import org.lanternpowered.server.world.chunk.LanternChunkManager;
 import org.slf4j.Logger;
 import org.spongepowered.api.Sponge;
+import org.spongepowered.api.event.Event;
 import org.spongepowered.api.event.EventListener;
 import org.spongepowered.api.event.SpongeEventFactory;
 import org.spongepowered.api.event.cause.Cause;
 import org.spongepowered.api.event.cause.NamedCause;
 import org.spongepowered.api.event.world.ChunkPreGenerationEvent;
+import org.spongepowered.api.scheduler.SpongeExecutorService;
 import org.spongepowered.api.scheduler.Task;
 import org.spongepowered.api.world.ChunkPreGenerate;
 import org.spongepowered.api.world.World;
@@ -53,8 +59,14 @@
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Consumer;
 
 import javax.annotation.Nullable;
@@ -64,6 +76,14 @@ public class LanternChunkPreGenerateTask implements ChunkPreGenerate, Consumer<T
     private static final int DEFAULT_TICK_INTERVAL = 4;
     private static final float DEFAULT_TICK_PERCENT = 0.8f;
 
+    // The amount of regions that are generated at the same time in bulk mode,
+    // every region keeps about a thousand chunks loaded while it's generated
+    private static final int DEFAULT_BULK_PARALLELISM = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+
+    // The size of the regions in chunks that are generated in bulk mode,
+    // matches the size of the region files
+    private static final int REGION_SHIFT = 5;
+
     private static final Vector3i[] OFFSETS = {
             Vector3i.UNIT_Z.negate().mul(2),
             Vector3i.UNIT_X.mul(2),
@@ -81,10 +101,15 @@ public class LanternChunkPreGenerateTask implements ChunkPreGenerate, Consumer<T
     private final Task spongeTask;
     private final int tickInterval;
     private final Object plugin;
+    private final boolean bulk;
+    private final int parallelism;
 
     // If null, no listeners have been assigned, so they don't need to be registered or unregistered.
     @Nullable private final EventListener<ChunkPreGenerationEvent> eventListener;
 
+    // The executor that posts the events of the bulk generation on the main thread
+    @Nullable private final SpongeExecutorService syncExecutor;
+
     private Vector3i currentPosition;
     private int currentGenCount;
     private int currentLayer;
@@ -97,10 +122,11 @@ public class LanternChunkPreGenerateTask implements ChunkPreGenerate, Consumer<T
     // Used for wall clock times.
     private long generationStartTime = 0;
     private long generationEndTime = 0;
-    private boolean isCancelled = false;
+    private volatile boolean isCancelled = false;
 
     private LanternChunkPreGenerateTask(Object plugin, World world, Vector3d center, double diameter,
-            int chunkCount, float tickPercent, int tickInterval, Cause cause, List<Consumer<ChunkPreGenerationEvent>> eventListeners) {
+            int chunkCount, float tickPercent, int tickInterval, boolean bulk, int parallelism, Cause cause,
+            List<Consumer<ChunkPreGenerationEvent>> eventListeners) {
         final int preferredTickInterval = Lantern.getScheduler().getPreferredTickInterval();
 
         this.plugin = plugin;
@@ -112,6 +138,8 @@ private LanternChunkPreGenerateTask(Object plugin, World world, Vector3d center,
         this.tickTimeLimit = Math.round(preferredTickInterval * tickPercent);
         this.cause = cause;
         this.tickInterval = tickInterval;
+        this.bulk = bulk;
+        this.parallelism = parallelism;
         final Optional<Vector3i> currentPosition = LanternChunkLayout.INSTANCE.toChunk(center.toInt());
         if (currentPosition.isPresent()) {
             this.currentPosition = currentPosition.get();
@@ -125,11 +153,18 @@ private LanternChunkPreGenerateTask(Object plugin, World world, Vector3d center,
 
         this.totalChunksToGenerate = (int) Math.pow(this.chunkRadius * 2 + 1, 2);
 
-        this.spongeTask = Lantern.getScheduler()
+        final Task.Builder taskBuilder = Lantern.getScheduler()
                 .createTaskBuilder()
-                .intervalTicks(preferredTickInterval)
-                .execute(this)
-                .submit(plugin);
+                .execute(this);
+        if (bulk) {
+            // The bulk generation runs once on its own thread until it's done,
+            // delay it so that the listeners are registered before it starts
+            taskBuilder.async().delayTicks(1);
+        } else {
+            taskBuilder.intervalTicks(preferredTickInterval);
+        }
+        this.spongeTask = taskBuilder.submit(plugin);
+        this.syncExecutor = bulk ? Lantern.getScheduler().createSyncExecutor(plugin) : null;
 
         if (!eventListeners.isEmpty()) {
             this.eventListener = new LanternChunkPreGenerateListener(this.spongeTask.getUniqueId(), eventListeners);
@@ -175,8 +210,8 @@ public boolean isCancelled() {
         }
 
         // It's possible we haven't cancelled the task here, so we just make sure of it, and perform
-        // some cleanup.
-        if (!Lantern.getScheduler().getTaskById(this.spongeTask.getUniqueId()).isPresent()) {
+        // some cleanup. The bulk task is removed from the scheduler once it's started.
+        if (!this.bulk && !Lantern.getScheduler().getTaskById(this.spongeTask.getUniqueId()).isPresent()) {
             cancel();
         }
 
@@ -196,6 +231,10 @@ public void cancel() {
 
     @Override
     public void accept(Task task) {
+        if (this.bulk) {
+            acceptBulk(task);
+            return;
+        }
         final long stepStartTime = System.currentTimeMillis();
         if (this.generationStartTime == 0) {
             this.generationStartTime = stepStartTime;
@@ -264,6 +303,142 @@ public void accept(Task task) {
         }
     }
 
+    /**
+     * Generates all the regions within the radius in parallel, the chunks of each region
+     * are generated, populated and written to the region file without involving the main
+     * thread. The completed regions are tracked in a {@link PreGenerateCheckpoint} so that
+     * the generation can be resumed after being interrupted.
+     *
+     * @param task The task
+     */
+    private void acceptBulk(Task task) {
+        this.generationStartTime = System.currentTimeMillis();
+
+        final ChunkPreGenerationEvent.Pre preEvent = SpongeEventFactory.createChunkPreGenerationEventPre(
+                this.cause, this, this.world, false);
+        if (post(preEvent)) {
+            cancelTask(task);
+            return;
+        }
+
+        final LanternWorld world = (LanternWorld) this.world;
+        final LanternChunkManager chunkManager = world.getChunkManager();
+        final Vector3i center = this.currentPosition;
+        final Vector2i min = new Vector2i(center.getX() - this.chunkRadius, center.getZ() - this.chunkRadius);
+        final Vector2i max = new Vector2i(center.getX() + this.chunkRadius, center.getZ() + this.chunkRadius);
+
+        final PreGenerateCheckpoint checkpoint;
+        try {
+            checkpoint = PreGenerateCheckpoint.load(world.getDirectory(), center, this.chunkRadius);
+        } catch (IOException e) {
+            Lantern.getLogger().error("Failed to load the pre-generation checkpoint of the world {}", world.getName(), e);
+            cancelTask(task);
+            return;
+        }
+
+        // Collect the regions that still need to be generated, nearest first
+        final List<Vector2i> regions = new ArrayList<>();
+        for (int regionX = min.getX() >> REGION_SHIFT; regionX <= max.getX() >> REGION_SHIFT; regionX++) {
+            for (int regionZ = min.getY() >> REGION_SHIFT; regionZ <= max.getY() >> REGION_SHIFT; regionZ++) {
+                if (checkpoint.isCompleted(regionX, regionZ)) {
+                    this.chunksSkipped += getRegionArea(regionX, regionZ, min, max);
+                } else {
+                    regions.add(new Vector2i(regionX, regionZ));
+                }
+            }
+        }
+        final int centerRegionX = center.getX() >> REGION_SHIFT;
+        final int centerRegionZ = center.getZ() >> REGION_SHIFT;
+        regions.sort(Comparator.comparingInt(region -> {
+            final int dx = region.getX() - centerRegionX;
+            final int dz = region.getY() - centerRegionZ;
+            return dx * dx + dz * dz;
+        }));
+
+        final ExecutorService executor = Executors.newFixedThreadPool(this.parallelism, ThreadHelper.newFastThreadLocalThreadFactory(() -> "chunk-pre-generator"));
+        final CompletionService<int[]> completionService = new ExecutorCompletionService<>(executor);
+        for (Vector2i region : regions) {
+            completionService.submit(() -> {
+                if (this.isCancelled) {
+                    return new int[] { 0, 0 };
+                }
+                final int regionX = region.getX();
+                final int regionZ = region.getY();
+                final Vector2i regionMin = new Vector2i(
+                        Math.max(regionX << REGION_SHIFT, min.getX()), Math.max(regionZ << REGION_SHIFT, min.getY()));
+                final Vector2i regionMax = new Vector2i(
+                        Math.min(((regionX + 1) << REGION_SHIFT) - 1, max.getX()), Math.min(((regionZ + 1) << REGION_SHIFT) - 1, max.getY()));
+                final int generated = chunkManager.generateArea(regionMin, regionMax, () -> this.cause);
+                // The chunks of the region are written at this point
+                checkpoint.complete(regionX, regionZ);
+                return new int[] { generated, getRegionArea(regionX, regionZ, min, max) - generated };
+            });
+        }
+        try {
+            long stepStartTime = System.currentTimeMillis();
+            for (int i = 0; i < regions.size() && !this.isCancelled; i++) {
+                final int[] result = completionService.take().get();
+                this.chunksGenerated += result[0];
+                this.chunksSkipped += result[1];
+                final long time = System.currentTimeMillis();
+                this.generationEndTime = time;
+                if (post(SpongeEventFactory.createChunkPreGenerationEventPost(
+                        this.cause, this, this.world, Duration.ofMillis(time - stepStartTime), result[0], result[1]))) {
+                    cancelTask(task);
+                }
+                stepStartTime = time;
+            }
+        } catch (InterruptedException e) {
+            cancelTask(task);
+        } catch (ExecutionException e) {
+            Lantern.getLogger().error("An error occurred while pre-generating the world {}", world.getName(), e.getCause());
+            cancelTask(task);
+        } finally {
+            executor.shutdownNow();
+        }
+        if (this.isCancelled) {
+            return;
+        }
+        this.generationEndTime = System.currentTimeMillis();
+        try {
+            checkpoint.delete();
+        } catch (IOException e) {
+            Lantern.getLogger().warn("Failed to remove the pre-generation checkpoint of the world {}", world.getName(), e);
+        }
+        post(SpongeEventFactory.createChunkPreGenerationEventComplete(this.cause, this, this.world));
+        this.isCancelled = true;
+        unregisterListener();
+    }
+
+    /**
+     * Posts the {@link Event}, the events of the bulk generation
+     * are posted on the main thread and this waits for them.
+     *
+     * @param event The event
+     * @return Whether the event was cancelled
+     */
+    private boolean post(Event event) {
+        if (this.syncExecutor == null) {
+            return Sponge.getEventManager().post(event);
+        }
+        try {
+            return this.syncExecutor.submit(() -> Sponge.getEventManager().post(event)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return true;
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    private static int getRegionArea(int regionX, int regionZ, Vector2i min, Vector2i max) {
+        final int minX = Math.max(regionX << REGION_SHIFT, min.getX());
+        final int minZ = Math.max(regionZ << REGION_SHIFT, min.getY());
+        final int maxX = Math.min(((regionX + 1) << REGION_SHIFT) - 1, max.getX());
+        final int maxZ = Math.min(((regionZ + 1) << REGION_SHIFT) - 1, max.getY());
+        return (maxX - minX + 1) * (maxZ - minZ + 1);
+    }
+
     private boolean areAllChunksLoaded(Vector3i chunk1, Vector3i chunk2, Vector3i chunk3, Vector3i chunk4) {
         // In order to be able to check whether a chunk exists, we could use standard Sponge API methods. However,
         // because they set up an async method which we need to get sync anyway, we just bypass it.
@@ -284,8 +459,8 @@ private void unregisterListener() {
 
     private void cancelTask(Task task) {
         // Don't fire multiple instances.
-        if (Lantern.getScheduler().getTaskById(task.getUniqueId()).isPresent()) {
-            Sponge.getEventManager().post(SpongeEventFactory.createChunkPreGenerationEventCancelled(this.cause, this, this.world));
+        if (this.bulk ? !this.isCancelled : Lantern.getScheduler().getTaskById(task.getUniqueId()).isPresent()) {
+            post(SpongeEventFactory.createChunkPreGenerationEventCancelled(this.cause, this, this.world));
             task.cancel();
         }
 
@@ -340,6 +515,8 @@ public static class Builder implements ChunkPreGenerate.Builder {
         private int tickInterval = DEFAULT_TICK_INTERVAL;
         private float tickPercent = DEFAULT_TICK_PERCENT;
         private int chunksPerTick = 0;
+        private boolean bulk = false;
+        private int parallelism = DEFAULT_BULK_PARALLELISM;
 
         public Builder(World world, Vector3d center, double diameter) {
             this.world = world;
@@ -371,8 +548,11 @@ public ChunkPreGenerate.Builder logger(@Nullable Logger logger) {
                                                 / post.getChunkPreGenerate().getTargetTotalChunks() * 100)
                         );
                     } else if (event instanceof ChunkPreGenerationEvent.Complete) {
-                        logger.info("Done! Generated a total of {} chunks in {}", event.getChunkPreGenerate().getTargetTotalChunks(),
-                                DurationFormatUtils.formatDuration(event.getChunkPreGenerate().getTotalTime().toMillis(), TIME_FORMAT, false));
+                        final ChunkPreGenerate preGenerate = event.getChunkPreGenerate();
+                        final long millis = Math.max(1, preGenerate.getTotalTime().toMillis());
+                        logger.info("Done! Generated a total of {} chunks in {} ({} generated chunks per second)",
+                                preGenerate.getTargetTotalChunks(), DurationFormatUtils.formatDuration(millis, TIME_FORMAT, false),
+                                String.format("%.1f", preGenerate.getTotalGeneratedChunks() * 1000.0 / millis));
                     }
                 });
             }
@@ -401,6 +581,34 @@ public ChunkPreGenerate.Builder tickPercentLimit(float tickPercent) {
             return this;
         }
 
+        /**
+         * Sets whether the chunks should be generated in bulk. The regions are
+         * generated in parallel without being bound to the main thread, so the
+         * tick limits are ignored. The completed regions are tracked in the
+         * world directory, which allows an interrupted generation to be resumed
+         * by starting it again with the same center and diameter.
+         *
+         * @param bulk Whether the chunks should be generated in bulk
+         * @return This builder, for chaining
+         */
+        public Builder bulk(boolean bulk) {
+            this.bulk = bulk;
+            return this;
+        }
+
+        /**
+         * Sets the amount of regions that are generated at the same
+         * time, this is only used in bulk mode.
+         *
+         * @param parallelism The parallelism
+         * @return This builder, for chaining
+         */
+        public Builder parallelism(int parallelism) {
+            checkArgument(parallelism > 0, "parallelism must be greater than zero");
+            this.parallelism = parallelism;
+            return this;
+        }
+
         @Override
         public ChunkPreGenerate.Builder addListener(Consumer<ChunkPreGenerationEvent> listener) {
             checkNotNull(listener, "listener cannot be null");
@@ -411,9 +619,10 @@ public ChunkPreGenerate.Builder addListener(Consumer<ChunkPreGenerationEvent> li
         @Override
         public ChunkPreGenerate start() {
             checkNotNull(plugin, "owner cannot be null");
-            checkArgument(this.chunksPerTick > 0 || this.tickPercent > 0, "Must use at least one of \"chunks per tick\" or \"tick percent limit\"");
+            checkArgument(this.bulk || this.chunksPerTick > 0 || this.tickPercent > 0,
+                    "Must use at least one of \"chunks per tick\" or \"tick percent limit\"");
             return new LanternChunkPreGenerateTask(this.plugin, this.world, this.center, this.diameter, this.chunksPerTick, this.tickPercent,
-                    this.tickInterval, Cause.of(NamedCause.owner(this.plugin)), this.eventListeners);
+                    this.tickInterval, this.bulk, this.parallelism, Cause.of(NamedCause.owner(this.plugin)), this.eventListeners);
         }
 
         @Override
@@ -425,6 +634,8 @@ public ChunkPreGenerate.Builder from(ChunkPreGenerate value) {
             final LanternChunkPreGenerateTask other = (LanternChunkPreGenerateTask) value;
             // Bypass null check
             this.plugin = other.plugin;
+            this.bulk = other.bulk;
+            this.parallelism = other.parallelism;
             return tickInterval(other.tickInterval)
                     .chunksPerTick(other.chunkCount)
                     .tickPercentLimit(other.tickPercent);
@@ -436,6 +647,8 @@ public ChunkPreGenerate.Builder reset() {
             this.tickInterval = 0;
             this.chunksPerTick = 0;
             this.tickPercent = DEFAULT_TICK_PERCENT;
+            this.bulk = false;
+            this.parallelism = DEFAULT_BULK_PARALLELISM;
             this.eventListeners.clear();
             return this;
         }
@@ -0,0 +1,125 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.pregen;
+
+import com.flowpowered.math.vector.Vector3i;
+import org.lanternpowered.server.world.chunk.LanternChunk;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tracks the regions that were completed by a bulk pre-generation, so that
+ * an interrupted pre-generation can be resumed. The completed regions are
+ * appended to a file in the world directory, which is removed once the
+ * pre-generation is complete.
+ */
+final class PreGenerateCheckpoint {
+
+    private static final String FILE_NAME = "pregen_checkpoint.txt";
+
+    /**
+     * Loads the checkpoint of the pre-generation with the given center and radius
+     * from the directory, the progress of a different pre-generation is discarded.
+     *
+     * @param directory The world directory
+     * @param center The center chunk coordinates
+     * @param chunkRadius The radius in chunks
+     * @return The checkpoint
+     * @throws IOException If the checkpoint file couldn't be read or written
+     */
+    static PreGenerateCheckpoint load(Path directory, Vector3i center, int chunkRadius) throws IOException {
+        final Path file = directory.resolve(FILE_NAME);
+        final String header = center.getX() + " " + center.getZ() + " " + chunkRadius;
+        final Set<Long> completed = new HashSet<>();
+        if (Files.exists(file)) {
+            final List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            if (!lines.isEmpty() && lines.get(0).equals(header)) {
+                for (int i = 1; i < lines.size(); i++) {
+                    final String[] parts = lines.get(i).split(" ");
+                    try {
+                        completed.add(LanternChunk.key(Integer.parseInt(parts[0]), Integer.parseInt(parts[1])));
+                    } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                        // The line was probably interrupted while writing
+                    }
+                }
+            }
+        }
+        if (completed.isEmpty()) {
+            Files.write(file, Collections.singletonList(header), StandardCharsets.UTF_8);
+        }
+        return new PreGenerateCheckpoint(file, completed);
+    }
+
+    private final Path file;
+    private final Set<Long> completed;
+
+    private PreGenerateCheckpoint(Path file, Set<Long> completed) {
+        this.file = file;
+        this.completed = completed;
+    }
+
+    /**
+     * Gets whether the region at the given coordinates was completed.
+     *
+     * @param regionX The region x coordinate
+     * @param regionZ The region z coordinate
+     * @return Is completed
+     */
+    synchronized boolean isCompleted(int regionX, int regionZ) {
+        return this.completed.contains(LanternChunk.key(regionX, regionZ));
+    }
+
+    /**
+     * Marks the region at the given coordinates as completed.
+     *
+     * @param regionX The region x coordinate
+     * @param regionZ The region z coordinate
+     * @throws IOException If the checkpoint file couldn't be written
+     */
+    synchronized void complete(int regionX, int regionZ) throws IOException {
+        if (this.completed.add(LanternChunk.key(regionX, regionZ))) {
+            Files.write(this.file, Collections.singletonList(regionX + " " + regionZ), StandardCharsets.UTF_8,
+                    StandardOpenOption.APPEND);
+        }
+    }
+
+    /**
+     * Removes the checkpoint file.
+     *
+     * @throws IOException If the file couldn't be removed
+     */
+    void delete() throws IOException {
+        Files.deleteIfExists(this.file);
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.block;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.spongepowered.api.world.World;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ScheduledBlockUpdateWheelTest {
+
+    // Not aligned to any of the wheel levels
+    private static final long START_TICK = 12345;
+
+    private long tick;
+    private ScheduledBlockUpdateWheel wheel;
+    private final List<LanternScheduledBlockUpdate> processed = new ArrayList<>();
+
+    @Before
+    public void setup() {
+        this.tick = START_TICK;
+        this.wheel = new ScheduledBlockUpdateWheel(mock(World.class), () -> this.tick);
+        this.wheel.openChunk(0, 0);
+    }
+
+    private int pulseAt(long tick, int budget) {
+        this.tick = tick;
+        return this.wheel.pulse(budget, this.processed::add);
+    }
+
+    private int pulseAt(long tick) {
+        return pulseAt(tick, Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void testDue() {
+        final LanternScheduledBlockUpdate update = this.wheel.add(1, 2, 3, 0, 5);
+        assertEquals(1, this.wheel.size());
+        assertEquals(5, update.getTicks());
+        assertEquals(0, pulseAt(START_TICK + 4));
+        assertEquals(1, pulseAt(START_TICK + 5));
+        assertSame(update, this.processed.get(0));
+        assertEquals(0, this.wheel.size());
+        assertTrue(this.wheel.get(1, 2, 3).isEmpty());
+        assertFalse(this.wheel.hasUpdates(0, 0));
+    }
+
+    @Test
+    public void testCascade() {
+        // Level 0, level 1, level 2 and the overflow slot
+        final int[] delays = { 200, 300, 5000, 20000, 300000, 1100000, 2500000 };
+        final List<LanternScheduledBlockUpdate> updates = new ArrayList<>();
+        for (int delay : delays) {
+            updates.add(this.wheel.add(0, 0, 0, 0, delay));
+        }
+        for (int i = 0; i < delays.length; i++) {
+            assertEquals(0, pulseAt(START_TICK + delays[i] - 1));
+            assertEquals(1, pulseAt(START_TICK + delays[i]));
+            assertSame(updates.get(i), this.processed.get(i));
+        }
+        assertEquals(0, this.wheel.size());
+    }
+
+    @Test
+    public void testCascadeTickByTick() {
+        final int[] delays = { 0, 1, 255, 256, 257, 511, 512, 16383, 16384, 16385, 40000 };
+        final List<LanternScheduledBlockUpdate> updates = new ArrayList<>();
+        for (int delay : delays) {
+            updates.add(this.wheel.add(0, 0, 0, 0, delay));
+        }
+        for (long tick = START_TICK; tick <= START_TICK + 40000; tick++) {
+            pulseAt(tick);
+            for (int i = 0; i < delays.length; i++) {
+                assertEquals(START_TICK + delays[i] <= tick, this.processed.contains(updates.get(i)));
+            }
+        }
+    }
+
+    @Test
+    public void testOrderingAtEqualTicks() {
+        final LanternScheduledBlockUpdate a = this.wheel.add(0, 0, 0, 2, 10);
+        final LanternScheduledBlockUpdate b = this.wheel.add(1, 0, 0, 0, 10);
+        final LanternScheduledBlockUpdate c = this.wheel.add(2, 0, 0, 1, 10);
+        final LanternScheduledBlockUpdate d = this.wheel.add(3, 0, 0, 0, 10);
+        // An earlier update that is scheduled later
+        final LanternScheduledBlockUpdate e = this.wheel.add(4, 0, 0, 5, 9);
+        assertEquals(5, pulseAt(START_TICK + 10));
+        assertEquals(Arrays.asList(e, b, d, c, a), this.processed);
+    }
+
+    @Test
+    public void testCancel() {
+        final LanternScheduledBlockUpdate a = this.wheel.add(0, 0, 0, 0, 10);
+        final LanternScheduledBlockUpdate b = this.wheel.add(0, 0, 0, 0, 1000);
+        final LanternScheduledBlockUpdate c = this.wheel.add(0, 0, 0, 0, 20);
+        assertEquals(3, this.wheel.get(0, 0, 0).size());
+        assertTrue(this.wheel.remove(a));
+        assertFalse(this.wheel.remove(a));
+        assertTrue(this.wheel.remove(b));
+        assertEquals(1, this.wheel.size());
+        assertEquals(1, this.wheel.get(0, 0, 0).size());
+
+        // Cancel an update that is due, but not processed yet
+        assertEquals(0, pulseAt(START_TICK + 1000, 0));
+        assertTrue(this.wheel.remove(c));
+        assertEquals(0, pulseAt(START_TICK + 1001));
+        assertEquals(0, this.wheel.size());
+        assertFalse(this.wheel.hasUpdates(0, 0));
+    }
+
+    @Test
+    public void testReschedule() {
+        final LanternScheduledBlockUpdate a = this.wheel.add(0, 0, 0, 0, 10);
+        final LanternScheduledBlockUpdate b = this.wheel.add(0, 0, 0, 1, 10);
+        a.setTicks(500);
+        assertEquals(1, pulseAt(START_TICK + 10));
+        assertSame(b, this.processed.get(0));
+        assertEquals(0, pulseAt(START_TICK + 499));
+        assertEquals(1, pulseAt(START_TICK + 500));
+        assertSame(a, this.processed.get(1));
+
+        // Change the priority while the updates are in the ready queue
+        final LanternScheduledBlockUpdate c = this.wheel.add(0, 0, 0, 0, 5);
+        final LanternScheduledBlockUpdate d = this.wheel.add(0, 0, 0, 1, 5);
+        assertEquals(0, pulseAt(START_TICK + 520, 0));
+        c.setPriority(2);
+        assertEquals(2, pulseAt(START_TICK + 520));
+        assertEquals(Arrays.asList(d, c), this.processed.subList(2, 4));
+    }
+
+    @Test
+    public void testBudget() {
+        final List<LanternScheduledBlockUpdate> updates = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            updates.add(this.wheel.add(i, 0, 0, 0, 1));
+        }
+        assertEquals(4, pulseAt(START_TICK + 1, 4));
+        assertEquals(4, pulseAt(START_TICK + 2, 4));
+        // Updates that are carried over are processed before new ones
+        final LanternScheduledBlockUpdate later = this.wheel.add(0, 0, 0, -10, 0);
+        assertEquals(3, pulseAt(START_TICK + 2, 4));
+        assertEquals(updates, this.processed.subList(0, 10));
+        assertSame(later, this.processed.get(10));
+    }
+
+    @Test
+    public void testAddFromConsumer() {
+        this.wheel.add(0, 0, 0, 0, 1);
+        this.tick = START_TICK + 1;
+        assertEquals(1, this.wheel.pulse(Integer.MAX_VALUE, update -> this.wheel.add(0, 0, 0, 0, 1)));
+        assertEquals(1, this.wheel.size());
+        assertEquals(1, pulseAt(START_TICK + 2));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAddToUnopenedChunk() {
+        this.wheel.add(16, 0, 0, 0, 1);
+    }
+
+    @Test
+    public void testClosedChunk() {
+        this.wheel.openChunk(1, 0);
+        final LanternScheduledBlockUpdate a = this.wheel.add(16, 0, 0, 0, 1);
+        final LanternScheduledBlockUpdate b = this.wheel.add(0, 0, 0, 0, 1);
+        this.wheel.closeChunk(1, 0);
+        try {
+            this.wheel.add(16, 0, 0, 0, 1);
+            throw new AssertionError("Expected the closed chunk to reject updates");
+        } catch (IllegalStateException ignored) {
+        }
+        // The updates of the closed chunk are kept for saving, but not processed
+        assertEquals(1, pulseAt(START_TICK + 1));
+        assertSame(b, this.processed.get(0));
+        assertEquals(Arrays.asList(a), this.wheel.getChunkUpdates(1, 0));
+        this.wheel.removeChunk(1, 0);
+        assertEquals(0, this.wheel.size());
+        assertFalse(this.wheel.hasUpdates(1, 0));
+        assertEquals(0, pulseAt(START_TICK + 2));
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.data.io.anvil;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+public class LZ4BlockStreamTest {
+
+    private static byte[] compress(byte[] data) throws IOException {
+        final ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        try (OutputStream os = new LZ4BlockOutputStream(buf)) {
+            os.write(data);
+        }
+        return buf.toByteArray();
+    }
+
+    private static byte[] decompress(byte[] data) throws IOException {
+        final ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        try (InputStream is = new LZ4BlockInputStream(new ByteArrayInputStream(data))) {
+            final byte[] bytes = new byte[4096];
+            int read;
+            while ((read = is.read(bytes)) != -1) {
+                buf.write(bytes, 0, read);
+            }
+        }
+        return buf.toByteArray();
+    }
+
+    private static byte[] compressible(int length) {
+        final byte[] data = new byte[length];
+        final Random random = new Random(1L);
+        for (int i = 0; i < length; i++) {
+            // Long runs with a few different values, like chunk data
+            data[i] = (byte) ((i / 37) % 5 == 0 ? random.nextInt(4) : i % 7);
+        }
+        return data;
+    }
+
+    private static byte[] incompressible(int length) {
+        final byte[] data = new byte[length];
+        new Random(2L).nextBytes(data);
+        return data;
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        final byte[] compressed = compress(new byte[0]);
+        // Only the end of stream marker
+        assertEquals(4, compressed.length);
+        assertArrayEquals(new byte[0], decompress(compressed));
+    }
+
+    @Test
+    public void testCompressible() throws IOException {
+        final byte[] data = compressible(10000);
+        final byte[] compressed = compress(data);
+        assertTrue(compressed.length < data.length);
+        assertArrayEquals(data, decompress(compressed));
+    }
+
+    @Test
+    public void testIncompressible() throws IOException {
+        final byte[] data = incompressible(10000);
+        final byte[] compressed = compress(data);
+        // Stored block: the block header, the data and the end of stream marker
+        assertEquals(8 + data.length + 4, compressed.length);
+        assertArrayEquals(data, decompress(compressed));
+    }
+
+    @Test
+    public void testMultipleBlocks() throws IOException {
+        final byte[] data = new byte[LZ4BlockOutputStream.BLOCK_SIZE * 3 + 1234];
+        final byte[] first = compressible(LZ4BlockOutputStream.BLOCK_SIZE + 100);
+        System.arraycopy(first, 0, data, 0, first.length);
+        final byte[] second = incompressible(data.length - first.length);
+        System.arraycopy(second, 0, data, first.length, second.length);
+        assertArrayEquals(data, decompress(compress(data)));
+    }
+
+    @Test
+    public void testSingleByteWrites() throws IOException {
+        final byte[] data = compressible(LZ4BlockOutputStream.BLOCK_SIZE + 10);
+        final ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        try (OutputStream os = new LZ4BlockOutputStream(buf)) {
+            for (byte b : data) {
+                os.write(b);
+            }
+        }
+        final byte[] result = new byte[data.length];
+        try (InputStream is = new LZ4BlockInputStream(new ByteArrayInputStream(buf.toByteArray()))) {
+            for (int i = 0; i < result.length; i++) {
+                final int value = is.read();
+                assertTrue(value != -1);
+                result[i] = (byte) value;
+            }
+            assertEquals(-1, is.read());
+        }
+        assertArrayEquals(data, result);
+    }
+
+    @Test
+    public void testTruncated() throws IOException {
+        final byte[] compressed = compress(compressible(LZ4BlockOutputStream.BLOCK_SIZE * 2));
+        for (int length : new int[] { 0, 3, 6, 20, compressed.length / 2, compressed.length - 1 }) {
+            try {
+                decompress(Arrays.copyOf(compressed, length));
+                fail("Expected an exception for a stream truncated at " + length);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    @Test
+    public void testCorruptBlockLength() throws IOException {
+        final byte[] compressed = compress(compressible(1000));
+        // An uncompressed length larger than the block size
+        compressed[0] = 0x7f;
+        try {
+            decompress(compressed);
+            fail("Expected an exception for a corrupt block length");
+        } catch (IOException ignored) {
+        }
+    }
+
+    @Test
+    public void testCorruptData() throws IOException {
+        final byte[] data = compressible(20000);
+        final byte[] compressed = compress(data);
+        final Random random = new Random(3L);
+        for (int i = 0; i < 200; i++) {
+            final byte[] corrupt = compressed.clone();
+            // Corrupt the compressed block data, not the headers
+            final int index = 8 + random.nextInt(corrupt.length - 12);
+            corrupt[index] = (byte) (corrupt[index] ^ (1 + random.nextInt(255)));
+            try {
+                // Corrupt data may still decode to different bytes, but
+                // may never throw anything else than a IOException
+                decompress(corrupt);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
@@ -25,18 +25,31 @@
  */
 package org.lanternpowered.server.data.persistence.nbt;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.lanternpowered.server.data.persistence.nbt.NbtConstants.BYTE_ARRAY;
+import static org.lanternpowered.server.data.persistence.nbt.NbtConstants.COMPOUND;
+import static org.lanternpowered.server.data.persistence.nbt.NbtConstants.END;
+import static org.lanternpowered.server.data.persistence.nbt.NbtConstants.INT;
+import static org.lanternpowered.server.data.persistence.nbt.NbtConstants.INT_ARRAY;
+import static org.lanternpowered.server.data.persistence.nbt.NbtConstants.LIST;
+import static org.lanternpowered.server.data.persistence.nbt.NbtConstants.STRING;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.Test;
 import org.spongepowered.api.data.DataContainer;
 import org.spongepowered.api.data.DataQuery;
+import org.spongepowered.api.data.DataView;
 
 import com.google.common.collect.Lists;
 
@@ -84,4 +97,180 @@ public void test() throws IOException {
 
         assertEquals(container, newContainer);
     }
+
+    private static final byte[] BYTES = { 1, 2, 3, 4, 5, -1, -128, 127 };
+    private static final int[] INTS = { 1, -1, Integer.MAX_VALUE, Integer.MIN_VALUE, 4096 };
+
+    private static DataContainer createNestedContainer() {
+        final DataContainer container = DataContainer.createNew();
+        container.set(A, 95601);
+        container.set(B, BYTES);
+        container.set(C, INTS);
+        final DataView view = container.createView(D);
+        view.set(A, "TestA");
+        view.set(B, BYTES);
+        view.createView(C)
+                .set(A, INTS)
+                .set(B, Lists.newArrayList("X", "Y"));
+        final DataView entry1 = DataContainer.createNew().set(A, 1).set(B, BYTES);
+        final DataView entry2 = DataContainer.createNew().set(A, 2).set(C, INTS);
+        container.set(E, Lists.newArrayList(entry1, entry2));
+        container.set(F, Lists.newArrayList("A", "B", "C"));
+        container.set(G, "Last");
+        return container;
+    }
+
+    private static byte[] write(DataContainer container) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (NbtDataContainerOutputStream ndcos = new NbtDataContainerOutputStream(new DataOutputStream(baos))) {
+            ndcos.write(container);
+            ndcos.flush();
+        }
+        return baos.toByteArray();
+    }
+
+    private static NbtDataContainerInputStream reader(byte[] content) {
+        return new NbtDataContainerInputStream(new DataInputStream(new ByteArrayInputStream(content)));
+    }
+
+    @Test
+    public void testStreamingRead() throws IOException {
+        final byte[] content = write(createNestedContainer());
+        try (NbtDataContainerInputStream nbt = reader(content)) {
+            assertEquals(COMPOUND, nbt.nextEntry());
+            int entries = 0;
+            byte type;
+            while ((type = nbt.nextEntry()) != END) {
+                entries++;
+                final String name = nbt.getEntryName();
+                switch (name) {
+                    case "A":
+                        assertEquals(INT, type);
+                        assertEquals(95601, nbt.getDataInput().readInt());
+                        break;
+                    case "B":
+                        assertEquals(BYTE_ARRAY, type);
+                        assertArrayEquals(BYTES, nbt.readByteArray());
+                        break;
+                    case "C":
+                        assertEquals(INT_ARRAY, type);
+                        assertArrayEquals(INTS, nbt.readIntArray());
+                        break;
+                    case "D":
+                        assertEquals(COMPOUND, type);
+                        readNestedCompound(nbt);
+                        break;
+                    case "E":
+                        assertEquals(LIST, type);
+                        final List<?> list = (List<?>) nbt.readPayload(type);
+                        assertEquals(2, list.size());
+                        final DataView entry1 = (DataView) list.get(0);
+                        assertEquals(1, (int) entry1.getInt(A).get());
+                        assertArrayEquals(BYTES, (byte[]) entry1.get(B).get());
+                        final DataView entry2 = (DataView) list.get(1);
+                        assertEquals(2, (int) entry2.getInt(A).get());
+                        assertArrayEquals(INTS, (int[]) entry2.get(C).get());
+                        break;
+                    case "F":
+                        assertEquals(LIST, type);
+                        assertEquals(Arrays.asList("A", "B", "C"), nbt.readPayload(type));
+                        break;
+                    case "G":
+                        assertEquals(STRING, type);
+                        assertEquals("Last", nbt.getDataInput().readUTF());
+                        break;
+                    default:
+                        fail("Unexpected entry: " + name);
+                }
+            }
+            assertEquals(7, entries);
+            // The complete stream should be consumed
+            assertEquals(-1, nbt.getDataInput().read());
+        }
+    }
+
+    private static void readNestedCompound(NbtDataContainerInputStream nbt) throws IOException {
+        byte type;
+        int entries = 0;
+        while ((type = nbt.nextEntry()) != END) {
+            entries++;
+            final String name = nbt.getEntryName();
+            if (name.equals("A")) {
+                assertEquals(STRING, type);
+                assertEquals("TestA", nbt.getDataInput().readUTF());
+            } else if (name.equals("B")) {
+                // Skip the array and make sure that the next entry is still readable
+                nbt.skipPayload(type);
+            } else if (name.equals("C")) {
+                assertEquals(COMPOUND, type);
+                final DataView view = (DataView) nbt.readPayload(type);
+                assertArrayEquals(INTS, (int[]) view.get(A).get());
+                assertEquals(Arrays.asList("X", "Y"), view.getStringList(B).get());
+            } else {
+                fail("Unexpected entry: " + name);
+            }
+        }
+        assertEquals(3, entries);
+    }
+
+    @Test
+    public void testSkipPayload() throws IOException {
+        final byte[] content = write(createNestedContainer());
+        try (NbtDataContainerInputStream nbt = reader(content)) {
+            final byte type = nbt.nextEntry();
+            assertEquals(COMPOUND, type);
+            nbt.skipPayload(type);
+            assertEquals(-1, nbt.getDataInput().read());
+        }
+    }
+
+    @Test
+    public void testNestedRoundTrip() throws IOException {
+        final DataContainer container = createNestedContainer();
+        try (NbtDataContainerInputStream nbt = reader(write(container))) {
+            final DataContainer newContainer = nbt.read();
+            assertEquals(container.getInt(A), newContainer.getInt(A));
+            assertArrayEquals(BYTES, (byte[]) newContainer.get(B).get());
+            assertArrayEquals(INTS, (int[]) newContainer.get(C).get());
+            assertEquals("TestA", newContainer.getString(D.then(A)).get());
+            assertArrayEquals(INTS, (int[]) newContainer.get(D.then(C).then(A)).get());
+            assertEquals(2, newContainer.getViewList(E).get().size());
+            assertEquals(container.getStringList(F), newContainer.getStringList(F));
+            assertEquals(container.getString(G), newContainer.getString(G));
+        }
+    }
+
+    @Test
+    public void testTruncated() throws IOException {
+        final byte[] content = write(createNestedContainer());
+        for (int length = 0; length < content.length; length += 7) {
+            final byte[] truncated = Arrays.copyOf(content, length);
+            try (NbtDataContainerInputStream nbt = reader(truncated)) {
+                nbt.read();
+                fail("Expected an exception for a stream truncated at " + length);
+            } catch (IOException ignored) {
+            }
+            try (NbtDataContainerInputStream nbt = reader(truncated)) {
+                final byte type = nbt.nextEntry();
+                nbt.skipPayload(type);
+                fail("Expected an exception for a skipped stream truncated at " + length);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    @Test
+    public void testTruncatedArray() throws IOException {
+        final DataContainer container = DataContainer.createNew();
+        container.set(A, new byte[1000]);
+        final byte[] content = write(container);
+        try (NbtDataContainerInputStream nbt = reader(Arrays.copyOf(content, content.length - 100))) {
+            assertEquals(COMPOUND, nbt.nextEntry());
+            assertEquals(BYTE_ARRAY, nbt.nextEntry());
+            nbt.readByteArray();
+            fail("Expected an exception for a truncated array");
+        } catch (IOException e) {
+            assertTrue(e instanceof EOFException);
+        }
+    }
 }
@@ -0,0 +1,215 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.data.value;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import org.junit.Test;
+import org.lanternpowered.server.data.key.LanternKeyFactory;
+import org.spongepowered.api.data.key.Key;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+@SuppressWarnings("rawtypes")
+public class KeyRegistrationMapTest {
+
+    private static Key<?> key() {
+        return mock(Key.class);
+    }
+
+    private static KeyRegistration registration() {
+        return mock(KeyRegistration.class);
+    }
+
+    private static List<Key<?>> keys(int count) {
+        final List<Key<?>> keys = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            keys.add(key());
+        }
+        return keys;
+    }
+
+    @Test
+    public void testPutAndGet() {
+        final KeyRegistrationMap map = new KeyRegistrationMap();
+        final Key<?> a = key();
+        final Key<?> b = key();
+        final KeyRegistration ra = registration();
+        final KeyRegistration rb = registration();
+        assertTrue(map.isEmpty());
+        assertNull(map.put(a, ra));
+        assertNull(map.put(b, rb));
+        assertEquals(2, map.size());
+        assertSame(ra, map.get(a));
+        assertSame(rb, map.get(b));
+        assertTrue(map.containsKey(a));
+        assertFalse(map.containsKey(key()));
+        assertNull(map.get(key()));
+        assertNull(map.get("not a key"));
+    }
+
+    @Test
+    public void testKeyIndex() {
+        final KeyRegistrationMap map = new KeyRegistrationMap();
+        final Key<?> key = key();
+        // Lookups don't assign indexes to unknown keys
+        assertNull(map.get(key));
+        assertFalse(map.containsKey(key));
+        assertNull(map.remove(key));
+        assertEquals(-1, LanternKeyFactory.findIndex(key));
+        map.put(key, registration());
+        final int index = LanternKeyFactory.findIndex(key);
+        assertTrue(index >= 0);
+        assertSame(key, LanternKeyFactory.getKey(index));
+        assertEquals(index, LanternKeyFactory.getIndex(key));
+    }
+
+    @Test
+    public void testReplace() {
+        final KeyRegistrationMap map = new KeyRegistrationMap();
+        final Key<?> a = key();
+        final KeyRegistration ra = registration();
+        final KeyRegistration rb = registration();
+        map.put(a, ra);
+        assertSame(ra, map.put(a, rb));
+        assertEquals(1, map.size());
+        assertSame(rb, map.get(a));
+    }
+
+    @Test
+    public void testRemove() {
+        final KeyRegistrationMap map = new KeyRegistrationMap();
+        final List<Key<?>> keys = keys(10);
+        final Map<Key<?>, KeyRegistration> expected = new IdentityHashMap<>();
+        for (Key<?> key : keys) {
+            final KeyRegistration registration = registration();
+            map.put(key, registration);
+            expected.put(key, registration);
+        }
+        for (int i = 0; i < keys.size(); i += 2) {
+            final Key<?> key = keys.get(i);
+            assertSame(expected.remove(key), map.remove(key));
+            assertNull(map.remove(key));
+        }
+        assertEquals(expected.size(), map.size());
+        for (Key<?> key : keys) {
+            assertSame(expected.get(key), map.get(key));
+        }
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(keys.get(1)));
+    }
+
+    @Test
+    public void testGrowth() {
+        final KeyRegistrationMap map = new KeyRegistrationMap();
+        final List<Key<?>> keys = keys(100);
+        final List<KeyRegistration> registrations = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            final KeyRegistration registration = registration();
+            registrations.add(registration);
+            map.put(keys.get(i), registration);
+            assertEquals(i + 1, map.size());
+            for (int j = 0; j <= i; j++) {
+                assertSame(registrations.get(j), map.get(keys.get(j)));
+            }
+        }
+    }
+
+    @Test
+    public void testCopyIsolation() {
+        final KeyRegistrationMap map = new KeyRegistrationMap();
+        final List<Key<?>> keys = keys(5);
+        for (Key<?> key : keys) {
+            map.put(key, registration());
+        }
+        final Map<KeyRegistration, KeyRegistration> copies = new IdentityHashMap<>();
+        final KeyRegistrationMap copy = map.copy(registration -> {
+            final KeyRegistration copied = registration();
+            copies.put(registration, copied);
+            return copied;
+        });
+        assertEquals(map.size(), copy.size());
+        for (Key<?> key : keys) {
+            assertSame(copies.get(map.get(key)), copy.get(key));
+        }
+
+        // Modifying the copy doesn't affect the original
+        final KeyRegistration original = map.get(keys.get(1));
+        final Key<?> added = key();
+        copy.put(added, registration());
+        copy.remove(keys.get(0));
+        final KeyRegistration replaced = registration();
+        copy.put(keys.get(1), replaced);
+        assertEquals(5, map.size());
+        assertFalse(map.containsKey(added));
+        assertTrue(map.containsKey(keys.get(0)));
+        assertSame(original, map.get(keys.get(1)));
+
+        // Modifying the original doesn't affect the copy
+        final KeyRegistration copied2 = copy.get(keys.get(2));
+        map.remove(keys.get(2));
+        map.put(key(), registration());
+        assertSame(copied2, copy.get(keys.get(2)));
+        assertEquals(5, copy.size());
+        assertSame(replaced, copy.get(keys.get(1)));
+        assertTrue(copy.containsKey(added));
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        final KeyRegistrationMap map = new KeyRegistrationMap();
+        final List<Key<?>> keys = keys(8);
+        for (Key<?> key : keys) {
+            map.put(key, registration());
+        }
+        final KeyRegistrationMap copy = map.copy(registration -> registration);
+        int count = 0;
+        for (Iterator<Map.Entry<Key<?>, KeyRegistration>> it = map.entrySet().iterator(); it.hasNext();) {
+            final Map.Entry<Key<?>, KeyRegistration> entry = it.next();
+            assertSame(entry.getValue(), map.get(entry.getKey()));
+            if (count++ % 2 == 0) {
+                it.remove();
+                assertFalse(map.containsKey(entry.getKey()));
+            }
+        }
+        assertEquals(8, count);
+        assertEquals(4, map.size());
+        assertEquals(8, copy.size());
+        for (Key<?> key : keys) {
+            assertTrue(copy.containsKey(key));
+        }
+    }
+}
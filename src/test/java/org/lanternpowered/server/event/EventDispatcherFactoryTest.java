@@ -0,0 +1,191 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.lanternpowered.server.util.DefineableClassLoader;
+import org.slf4j.Logger;
+import org.spongepowered.api.event.Event;
+import org.spongepowered.api.event.EventListener;
+import org.spongepowered.api.event.Order;
+import org.spongepowered.api.event.impl.AbstractEvent;
+import org.spongepowered.api.plugin.PluginContainer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class EventDispatcherFactoryTest {
+
+    private Logger logger;
+    private EventDispatcherFactory factory;
+
+    @Before
+    public void setup() {
+        this.logger = mock(Logger.class);
+        this.factory = new EventDispatcherFactory("org.lanternpowered.server.event.test",
+                new DefineableClassLoader(getClass().getClassLoader()), this.logger);
+    }
+
+    private static RegisteredListener<?> listener(Order order, EventListener<Event> handler) {
+        return new RegisteredListener<>(mock(PluginContainer.class), Event.class, order, handler, false);
+    }
+
+    private static List<RegisteredListener<?>> recordingListeners(int count, List<Integer> calls) {
+        final List<RegisteredListener<?>> listeners = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final int index = i;
+            listeners.add(listener(Order.DEFAULT, event -> calls.add(index)));
+        }
+        return listeners;
+    }
+
+    private static List<Integer> range(int count) {
+        final List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            list.add(i);
+        }
+        return list;
+    }
+
+    @Test
+    public void testEmpty() {
+        final EventDispatcher dispatcher = this.factory.create(Event.class, Collections.emptyList());
+        assertFalse(dispatcher.hasListeners());
+        dispatcher.dispatch(mock(Event.class));
+        assertEquals(0, this.factory.getGeneratedClasses());
+    }
+
+    @Test
+    public void testDispatchInOrder() {
+        final List<Integer> calls = new ArrayList<>();
+        final EventDispatcher dispatcher = this.factory.create(Event.class, recordingListeners(10, calls));
+        assertTrue(dispatcher.hasListeners());
+        assertFalse(dispatcher instanceof LoopEventDispatcher);
+        dispatcher.dispatch(mock(Event.class));
+        assertEquals(range(10), calls);
+    }
+
+    @Test
+    public void testCurrentOrder() {
+        final List<Order> orders = new ArrayList<>();
+        final EventListener<Event> handler = event -> orders.add(((AbstractEvent) event).currentOrder);
+        final List<RegisteredListener<?>> listeners = new ArrayList<>();
+        listeners.add(listener(Order.FIRST, handler));
+        listeners.add(listener(Order.DEFAULT, handler));
+        listeners.add(listener(Order.POST, handler));
+        final EventDispatcher dispatcher = this.factory.create(AbstractEvent.class, listeners);
+        final AbstractEvent event = mock(AbstractEvent.class);
+        dispatcher.dispatch(event);
+        assertEquals(3, orders.size());
+        assertSame(Order.FIRST, orders.get(0));
+        assertSame(Order.DEFAULT, orders.get(1));
+        assertSame(Order.POST, orders.get(2));
+        assertNull(event.currentOrder);
+    }
+
+    @Test
+    public void testListenerError() {
+        final List<Integer> calls = new ArrayList<>();
+        final List<RegisteredListener<?>> listeners = recordingListeners(3, calls);
+        listeners.add(1, listener(Order.DEFAULT, event -> {
+            throw new IllegalStateException();
+        }));
+        this.factory.create(Event.class, listeners).dispatch(mock(Event.class));
+        assertEquals(range(3), calls);
+        verify(this.logger, times(1)).error(anyString(), any(), any(), any(IllegalStateException.class));
+    }
+
+    @Test
+    public void testClassReuse() {
+        final List<Integer> calls = new ArrayList<>();
+        final EventDispatcher first = this.factory.create(Event.class, recordingListeners(4, calls));
+        final List<RegisteredListener<?>> listeners = recordingListeners(3, calls);
+        listeners.add(listener(Order.LAST, event -> calls.add(3)));
+        final EventDispatcher second = this.factory.create(Event.class, listeners);
+        // Re-baking a dispatcher of the same event type with the same amount of listeners doesn't define a new class
+        assertNotSame(first, second);
+        assertSame(first.getClass(), second.getClass());
+        assertEquals(1, this.factory.getGeneratedClasses());
+
+        second.dispatch(mock(Event.class));
+        assertEquals(range(4), calls);
+
+        assertNotSame(first.getClass(), this.factory.create(Event.class, recordingListeners(5, calls)).getClass());
+        assertNotSame(first.getClass(), this.factory.create(TestEvent.class, recordingListeners(4, calls)).getClass());
+        assertEquals(3, this.factory.getGeneratedClasses());
+    }
+
+    @Test
+    public void testUnwrappedHandlers() {
+        final EventListener<Event> handler = event -> {};
+        final List<RegisteredListener<?>> listeners = new ArrayList<>();
+        listeners.add(listener(Order.DEFAULT, handler));
+        final EventDispatcher dispatcher = this.factory.create(TestEvent.class, listeners);
+        assertFalse(dispatcher instanceof LoopEventDispatcher);
+        // The generated dispatcher invokes the handler directly, not the registered listener
+        assertSame(handler, dispatcher.getHandler(0));
+    }
+
+    public interface TestEvent extends Event {
+    }
+
+    @Test
+    public void testLoopFallback() {
+        final List<Integer> calls = new ArrayList<>();
+        final List<Order> orders = new ArrayList<>();
+        final List<RegisteredListener<?>> listeners = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            final int index = i;
+            listeners.add(listener(i < 50 ? Order.EARLY : Order.LATE, event -> {
+                calls.add(index);
+                orders.add(((AbstractEvent) event).currentOrder);
+            }));
+        }
+        final EventDispatcher dispatcher = this.factory.create(AbstractEvent.class, listeners);
+        assertTrue(dispatcher instanceof LoopEventDispatcher);
+        final AbstractEvent event = mock(AbstractEvent.class);
+        dispatcher.dispatch(event);
+        assertEquals(range(100), calls);
+        assertSame(Order.EARLY, orders.get(49));
+        assertSame(Order.LATE, orders.get(50));
+        assertNull(event.currentOrder);
+        assertEquals(0, this.factory.getGeneratedClasses());
+    }
+}
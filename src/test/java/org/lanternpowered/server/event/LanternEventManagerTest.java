@@ -0,0 +1,202 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.lanternpowered.api.event.ThreadSafe;
+import org.slf4j.Logger;
+import org.spongepowered.api.event.Cancellable;
+import org.spongepowered.api.event.Event;
+import org.spongepowered.api.event.EventListener;
+import org.spongepowered.api.event.Order;
+import org.spongepowered.api.plugin.PluginContainer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class LanternEventManagerTest {
+
+    public interface TestEvent extends Event {
+    }
+
+    public interface SubTestEvent extends TestEvent {
+    }
+
+    public interface OtherEvent extends Event {
+    }
+
+    public interface CancellableTestEvent extends TestEvent, Cancellable {
+    }
+
+    @ThreadSafe
+    private static final class ThreadSafeListener implements EventListener<TestEvent> {
+
+        @Override
+        public void handle(TestEvent event) throws Exception {
+        }
+    }
+
+    private LanternEventManager eventManager;
+
+    private ExecutorService mainExecutor;
+    private ExecutorService asyncExecutor;
+    private volatile Thread mainThread;
+
+    @Before
+    public void setup() throws Exception {
+        this.eventManager = new LanternEventManager(mock(Logger.class));
+        this.mainExecutor = Executors.newSingleThreadExecutor();
+        this.asyncExecutor = Executors.newFixedThreadPool(2);
+        this.mainExecutor.submit(() -> this.mainThread = Thread.currentThread()).get();
+    }
+
+    @After
+    public void cleanup() {
+        this.mainExecutor.shutdownNow();
+        this.asyncExecutor.shutdownNow();
+    }
+
+    private <T extends Event> void register(Class<T> eventClass, EventListener<? super T> handler) {
+        register(eventClass, Order.DEFAULT, handler, false);
+    }
+
+    private <T extends Event> void register(Class<T> eventClass, Order order, EventListener<? super T> handler, boolean threadSafe) {
+        this.eventManager.register(new RegisteredListener<>(mock(PluginContainer.class), eventClass, order, handler, threadSafe));
+    }
+
+    private boolean postAsync(Event event) throws Exception {
+        return this.eventManager.postAsync(event, this.asyncExecutor, this.mainExecutor,
+                () -> Thread.currentThread() == this.mainThread).get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testThreadSafeAnnotation() {
+        final PluginContainer plugin = mock(PluginContainer.class);
+        assertTrue(LanternEventManager.createRegistration(plugin, TestEvent.class, Order.DEFAULT,
+                new ThreadSafeListener()).isThreadSafe());
+        assertFalse(LanternEventManager.createRegistration(plugin, TestEvent.class, Order.DEFAULT,
+                (EventListener<TestEvent>) event -> {}).isThreadSafe());
+    }
+
+    @Test
+    public void testPostAsync() throws Exception {
+        final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+        final List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+        final EventListener<TestEvent> handler = event -> threads.add(Thread.currentThread());
+        register(TestEvent.class, Order.FIRST, event -> calls.add("first"), false);
+        register(TestEvent.class, Order.FIRST, handler, false);
+        register(TestEvent.class, Order.EARLY, event -> calls.add("early"), true);
+        register(TestEvent.class, Order.EARLY, handler, true);
+        register(TestEvent.class, Order.DEFAULT, event -> {
+            throw new IllegalStateException();
+        }, true);
+        register(TestEvent.class, Order.LATE, event -> calls.add("late"), true);
+        register(TestEvent.class, Order.LAST, event -> calls.add("last"), false);
+        register(TestEvent.class, Order.LAST, handler, false);
+
+        assertFalse(postAsync(mock(TestEvent.class)));
+        // The order is kept even though the listeners are called on different threads
+        assertEquals(4, calls.size());
+        assertTrue(calls.indexOf("first") < calls.indexOf("early"));
+        assertTrue(calls.indexOf("early") < calls.indexOf("late"));
+        assertTrue(calls.indexOf("late") < calls.indexOf("last"));
+        assertEquals(3, threads.size());
+        assertSame(this.mainThread, threads.get(0));
+        assertNotSame(this.mainThread, threads.get(1));
+        assertSame(this.mainThread, threads.get(2));
+    }
+
+    @Test
+    public void testPostAsyncCancelled() throws Exception {
+        final CancellableTestEvent event = mock(CancellableTestEvent.class);
+        assertFalse(postAsync(event));
+        when(event.isCancelled()).thenReturn(true);
+        // Without listeners
+        assertTrue(postAsync(event));
+        register(TestEvent.class, e -> {});
+        assertTrue(postAsync(event));
+    }
+
+    @Test
+    public void testHasListenersInvalidation() {
+        assertFalse(this.eventManager.hasListeners(TestEvent.class));
+        assertFalse(this.eventManager.hasListeners(SubTestEvent.class));
+
+        final EventListener<TestEvent> handler = event -> {};
+        register(TestEvent.class, handler);
+        assertTrue(this.eventManager.hasListeners(TestEvent.class));
+        // Listeners of super types receive the events of sub types
+        assertTrue(this.eventManager.hasListeners(SubTestEvent.class));
+        // Posting a super type may be a sub type instance
+        assertTrue(this.eventManager.hasListeners(Event.class));
+        assertFalse(this.eventManager.hasListeners(OtherEvent.class));
+
+        this.eventManager.unregisterListeners(handler);
+        assertFalse(this.eventManager.hasListeners(TestEvent.class));
+        assertFalse(this.eventManager.hasListeners(SubTestEvent.class));
+        assertFalse(this.eventManager.hasListeners(Event.class));
+
+        register(OtherEvent.class, event -> {});
+        assertTrue(this.eventManager.hasListeners(OtherEvent.class));
+        assertFalse(this.eventManager.hasListeners(TestEvent.class));
+    }
+
+    @Test
+    public void testDispatcherInvalidation() {
+        final List<String> calls = new ArrayList<>();
+        final SubTestEvent event = mock(SubTestEvent.class);
+        this.eventManager.post(event);
+        assertTrue(calls.isEmpty());
+
+        final EventListener<TestEvent> handler = e -> calls.add("test");
+        register(TestEvent.class, handler);
+        this.eventManager.post(event);
+        assertEquals(1, calls.size());
+
+        register(SubTestEvent.class, e -> calls.add("sub"));
+        this.eventManager.post(event);
+        assertEquals(3, calls.size());
+
+        this.eventManager.unregisterListeners(handler);
+        this.eventManager.post(event);
+        assertEquals(4, calls.size());
+        assertEquals("sub", calls.get(3));
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.util.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class ConcurrentLong2ObjectMapTest {
+
+    @Test
+    public void testPutGetRemove() {
+        final ConcurrentLong2ObjectMap<String> map = new ConcurrentLong2ObjectMap<>();
+        assertNull(map.put(1L, "A"));
+        assertEquals("A", map.get(1L));
+        assertEquals("A", map.put(1L, "B"));
+        // The last hit may not return the replaced value
+        assertEquals("B", map.get(1L));
+        assertFalse(map.remove(1L, "A"));
+        assertTrue(map.remove(1L, "B"));
+        assertNull(map.get(1L));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testComputeIfAbsent() {
+        final ConcurrentLong2ObjectMap<Long> map = new ConcurrentLong2ObjectMap<>();
+        assertEquals(5L, (long) map.computeIfAbsent(5L, key -> key));
+        assertEquals(5L, (long) map.computeIfAbsent(5L, key -> key + 1));
+    }
+
+    @Test
+    public void testRandomOperations() {
+        final ConcurrentLong2ObjectMap<Integer> map = new ConcurrentLong2ObjectMap<>();
+        final Map<Long, Integer> expected = new HashMap<>();
+        final Random random = new Random(0L);
+        for (int i = 0; i < 100000; i++) {
+            final long key = random.nextInt(2000) - 1000;
+            switch (random.nextInt(3)) {
+                case 0:
+                    assertEquals(expected.put(key, i), map.put(key, i));
+                    break;
+                case 1:
+                    assertEquals(expected.remove(key), map.remove(key));
+                    break;
+                default:
+                    assertEquals(expected.get(key), map.get(key));
+                    break;
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        map.forEach((value, key) -> assertEquals(expected.get(key), value));
+        assertEquals(expected.size(), map.values().size());
+    }
+}
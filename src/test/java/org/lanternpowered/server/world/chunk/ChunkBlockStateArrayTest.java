@@ -0,0 +1,87 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.chunk;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ChunkBlockStateArrayTest {
+
+    private static final int CAPACITY = 4096;
+
+    @Test
+    public void testEmpty() {
+        final ChunkBlockStateArray array = new ChunkBlockStateArray(CAPACITY);
+        assertEquals(ChunkBlockStateArray.MIN_BITS_PER_VALUE, array.getBitsPerValue());
+        assertEquals(CAPACITY, array.getCount((short) 0));
+        assertEquals(1, array.getTypesCount());
+        for (int i = 0; i < CAPACITY; i++) {
+            assertEquals(0, array.get(i));
+        }
+    }
+
+    @Test
+    public void testGrowAndShrink() {
+        final ChunkBlockStateArray array = new ChunkBlockStateArray(CAPACITY);
+        for (int i = 0; i < CAPACITY; i++) {
+            array.set(i, (short) ((i % 300) << 4));
+        }
+        assertFalse(array.isLocalPalette());
+        assertEquals(ChunkBlockStateArray.GLOBAL_BITS_PER_VALUE, array.getBitsPerValue());
+        assertEquals(300, array.getTypesCount());
+        for (int i = 0; i < CAPACITY; i++) {
+            assertEquals((short) ((i % 300) << 4), array.get(i));
+        }
+        for (int i = 0; i < CAPACITY; i++) {
+            array.set(i, (short) ((i % 3) << 4));
+        }
+        assertTrue(array.isLocalPalette());
+        assertEquals(ChunkBlockStateArray.MIN_BITS_PER_VALUE, array.getBitsPerValue());
+        assertEquals(3, array.getTypesCount());
+        for (int i = 0; i < CAPACITY; i++) {
+            assertEquals((short) ((i % 3) << 4), array.get(i));
+        }
+    }
+
+    @Test
+    public void testFromArray() {
+        final short[] types = new short[CAPACITY];
+        for (int i = 0; i < CAPACITY; i++) {
+            types[i] = (short) ((i % 20) << 4 | i % 2);
+        }
+        final ChunkBlockStateArray array = new ChunkBlockStateArray(types);
+        assertEquals(5, array.getBitsPerValue());
+        assertArrayEquals(types, array.toArray());
+        final ChunkBlockStateArray copy = array.copy();
+        array.set(0, (short) 0xfff0);
+        assertEquals(types[0], copy.get(0));
+        assertEquals((short) 0xfff0, array.get(0));
+    }
+}
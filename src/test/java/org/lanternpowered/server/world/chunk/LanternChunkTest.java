@@ -0,0 +1,200 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.chunk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import it.unimi.dsi.fastutil.shorts.Short2ObjectMap;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.lanternpowered.server.block.BlockLightProperties;
+import org.lanternpowered.server.block.LanternBlockType;
+import org.lanternpowered.server.block.TileEntityProvider;
+import org.lanternpowered.server.game.registry.type.block.BlockRegistryModule;
+import org.lanternpowered.server.world.LanternWorld;
+import org.lanternpowered.server.world.MultiWorldEventListener;
+import org.lanternpowered.server.world.chunk.LanternChunk.ChunkSection;
+import org.spongepowered.api.block.BlockState;
+import org.spongepowered.api.event.cause.Cause;
+import org.spongepowered.api.world.Dimension;
+
+import java.lang.reflect.Field;
+import java.util.BitSet;
+import java.util.Optional;
+import java.util.UUID;
+
+public class LanternChunkTest {
+
+    private static final short AIR = 0;
+    private static final short STONE = 1 << 4;
+    private static final short CHEST = 54 << 4;
+
+    private static final BlockState stoneState = mockState(false);
+    private static final BlockState chestState = mockState(true);
+
+    private final Cause cause = Cause.source(this).build();
+
+    private Short2ObjectMap<BlockState> registeredStates;
+    private LightEngine lightEngine;
+    private LanternChunk chunk;
+
+    private static BlockState mockState(boolean tileEntity) {
+        final LanternBlockType blockType = mock(LanternBlockType.class);
+        when(blockType.getTileEntityProvider()).thenReturn(
+                tileEntity ? Optional.of(mock(TileEntityProvider.class)) : Optional.empty());
+        final BlockState blockState = mock(BlockState.class);
+        when(blockState.getType()).thenReturn(blockType);
+        return blockState;
+    }
+
+    @BeforeClass
+    public static void setupProperties() {
+        BlockLightProperties.set(AIR, 0, 0);
+        BlockLightProperties.set(STONE, 0, 15);
+        BlockLightProperties.set(CHEST, 0, 0);
+    }
+
+    @Before
+    public void setup() throws Exception {
+        final Field field = BlockRegistryModule.class.getDeclaredField("blockStateByPackedType");
+        field.setAccessible(true);
+        //noinspection unchecked
+        this.registeredStates = (Short2ObjectMap<BlockState>) field.get(BlockRegistryModule.get());
+        this.registeredStates.put(AIR, mockState(false));
+        this.registeredStates.put(STONE, stoneState);
+        this.registeredStates.put(CHEST, chestState);
+
+        final Dimension dimension = mock(Dimension.class);
+        when(dimension.hasSky()).thenReturn(true);
+        this.lightEngine = new LightEngine("test", true, key -> null);
+        final LanternWorld world = mock(LanternWorld.class);
+        when(world.getUniqueId()).thenReturn(UUID.randomUUID());
+        when(world.getDimension()).thenReturn(dimension);
+        when(world.getEventListener()).thenReturn(new MultiWorldEventListener());
+        when(world.getLightEngine()).thenReturn(this.lightEngine);
+
+        this.chunk = new LanternChunk(world, 0, 0);
+        this.chunk.initializeEmpty();
+    }
+
+    @After
+    public void cleanup() {
+        this.lightEngine.shutdown();
+        this.registeredStates.remove(AIR);
+        this.registeredStates.remove(STONE);
+        this.registeredStates.remove(CHEST);
+    }
+
+    private void setBlock(LanternChunk chunk, int x, int y, int z, short type) {
+        final short[] types = new short[LanternChunk.CHUNK_SECTION_VOLUME];
+        final BitSet mask = new BitSet(LanternChunk.CHUNK_SECTION_VOLUME);
+        final int index = ChunkSection.index(x, y & 0xf, z);
+        types[index] = type;
+        mask.set(index);
+        chunk.setBlocks(y >> 4, types, mask, this.cause);
+    }
+
+    @Test
+    public void testHeightMap() {
+        setBlock(this.chunk, 3, 37, 4, STONE);
+        setBlock(this.chunk, 3, 10, 4, STONE);
+        assertEquals(37, this.chunk.getHighestYAt(3, 4));
+        assertEquals(0, this.chunk.getHighestYAt(4, 3));
+
+        // Lowering the height map is done lazily
+        setBlock(this.chunk, 3, 37, 4, AIR);
+        assertEquals(10, this.chunk.getHighestYAt(3, 4));
+        assertEquals(10, this.chunk.getHighestYAt(3, 4));
+
+        setBlock(this.chunk, 3, 10, 4, AIR);
+        assertEquals(0, this.chunk.getHighestYAt(3, 4));
+    }
+
+    @Test
+    public void testNonAirCount() {
+        final short[] types = new short[LanternChunk.CHUNK_SECTION_VOLUME];
+        final BitSet mask = new BitSet(LanternChunk.CHUNK_SECTION_VOLUME);
+        for (int i = 0; i < 300; i++) {
+            types[i * 13] = STONE;
+            mask.set(i * 13);
+        }
+        // The unmasked types should be ignored
+        types[1] = STONE;
+        this.chunk.setBlocks(1, types, mask, this.cause);
+        assertEquals(300, this.chunk.getRawSections()[1].nonAirCount);
+
+        mask.clear();
+        for (int i = 0; i < 100; i++) {
+            types[i * 13] = AIR;
+            mask.set(i * 13);
+        }
+        this.chunk.setBlocks(1, types, mask, this.cause);
+        assertEquals(200, this.chunk.getRawSections()[1].nonAirCount);
+
+        // Empty sections are removed
+        mask.set(0, LanternChunk.CHUNK_SECTION_VOLUME);
+        this.chunk.setBlocks(1, new short[LanternChunk.CHUNK_SECTION_VOLUME], mask, this.cause);
+        assertNull(this.chunk.getRawSections()[1]);
+    }
+
+    @Test
+    public void testTileEntityFallback() {
+        final LanternChunk chunk = spy(this.chunk);
+        doReturn(true).when(chunk).setBlock(anyInt(), anyInt(), anyInt(), any(BlockState.class), any(Cause.class));
+
+        final short[] types = new short[LanternChunk.CHUNK_SECTION_VOLUME];
+        final BitSet mask = new BitSet(LanternChunk.CHUNK_SECTION_VOLUME);
+        final int stoneIndex = ChunkSection.index(1, 2, 3);
+        final int chestIndex = ChunkSection.index(5, 6, 7);
+        types[stoneIndex] = STONE;
+        types[chestIndex] = CHEST;
+        mask.set(stoneIndex);
+        mask.set(chestIndex);
+        chunk.setBlocks(2, types, mask, this.cause);
+
+        // Only the chest should be set through the default path
+        verify(chunk, times(1)).setBlock(anyInt(), anyInt(), anyInt(), any(BlockState.class), any(Cause.class));
+        verify(chunk).setBlock(5, 38, 7, chestState, this.cause);
+
+        final ChunkSection section = chunk.getRawSections()[2];
+        assertNotNull(section);
+        assertEquals(STONE, section.types.get(stoneIndex));
+        assertEquals(AIR, section.types.get(chestIndex));
+        assertEquals(1, section.nonAirCount);
+    }
+}
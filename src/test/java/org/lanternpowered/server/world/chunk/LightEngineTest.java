@@ -0,0 +1,210 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.chunk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.lanternpowered.server.block.BlockLightProperties;
+import org.lanternpowered.server.world.LanternWorld;
+import org.lanternpowered.server.world.MultiWorldEventListener;
+import org.lanternpowered.server.world.chunk.LanternChunk.ChunkSection;
+import org.spongepowered.api.world.Dimension;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+public class LightEngineTest {
+
+    private static final short AIR = 0;
+    private static final short STONE = (short) 0xfff0;
+    private static final short TORCH = (short) 0xffe0;
+
+    // The top of the stone floor
+    private static final int FLOOR = 63;
+
+    private final Map<Long, LanternChunk> chunks = new HashMap<>();
+    private LightEngine lightEngine;
+
+    @BeforeClass
+    public static void setupProperties() {
+        BlockLightProperties.set(AIR, 0, 0);
+        BlockLightProperties.set(STONE, 0, 15);
+        BlockLightProperties.set(TORCH, 14, 0);
+    }
+
+    @Before
+    public void setup() {
+        final Dimension dimension = mock(Dimension.class);
+        when(dimension.hasSky()).thenReturn(true);
+        final LanternWorld world = mock(LanternWorld.class);
+        when(world.getUniqueId()).thenReturn(UUID.randomUUID());
+        when(world.getDimension()).thenReturn(dimension);
+        when(world.getEventListener()).thenReturn(new MultiWorldEventListener());
+
+        this.lightEngine = new LightEngine("test", true, this.chunks::get);
+        for (int chunkX = -1; chunkX <= 1; chunkX++) {
+            for (int chunkZ = -1; chunkZ <= 1; chunkZ++) {
+                final LanternChunk chunk = new LanternChunk(world, chunkX, chunkZ);
+                chunk.loaded = true;
+                this.chunks.put(chunk.getKey(), chunk);
+            }
+        }
+        for (int x = -16; x < 32; x++) {
+            for (int z = -16; z < 32; z++) {
+                for (int y = 0; y <= FLOOR; y++) {
+                    setType(x, y, z, STONE);
+                }
+            }
+        }
+        this.chunks.values().forEach(this.lightEngine::queueChunk);
+        process();
+    }
+
+    @After
+    public void shutdown() {
+        this.lightEngine.shutdown();
+    }
+
+    private LanternChunk getChunk(int x, int z) {
+        return this.chunks.get(LanternChunk.key(x >> 4, z >> 4));
+    }
+
+    private void setType(int x, int y, int z, short type) {
+        getChunk(x, z).getOrCreateSection(y >> 4).types.set(ChunkSection.index(x & 0xf, y & 0xf, z & 0xf), type);
+    }
+
+    private void changeType(int x, int y, int z, short type) {
+        setType(x, y, z, type);
+        this.lightEngine.queueBlockChange(x, y, z);
+    }
+
+    private int getBlockLight(int x, int y, int z) {
+        final ChunkSection section = getChunk(x, z).getRawSections()[y >> 4];
+        return section == null ? 0 : section.lightFromBlock.get(ChunkSection.index(x & 0xf, y & 0xf, z & 0xf));
+    }
+
+    private int getSkyLight(int x, int y, int z) {
+        final ChunkSection section = getChunk(x, z).getRawSections()[y >> 4];
+        return section == null ? 15 : section.lightFromSky.get(ChunkSection.index(x & 0xf, y & 0xf, z & 0xf));
+    }
+
+    private void process() {
+        this.lightEngine.pulse();
+        this.lightEngine.awaitBatch();
+    }
+
+    @Test
+    public void testChunkLight() {
+        for (LanternChunk chunk : this.chunks.values()) {
+            assertTrue(chunk.isLightPopulated());
+        }
+        assertEquals(15, getSkyLight(5, FLOOR + 1, 5));
+        assertEquals(15, getSkyLight(5, 200, 5));
+        assertEquals(0, getSkyLight(5, FLOOR, 5));
+        assertEquals(0, getBlockLight(5, FLOOR + 1, 5));
+    }
+
+    @Test
+    public void testLightSource() {
+        changeType(5, FLOOR + 5, 5, TORCH);
+        process();
+        assertEquals(14, getBlockLight(5, FLOOR + 5, 5));
+        assertEquals(13, getBlockLight(6, FLOOR + 5, 5));
+        assertEquals(10, getBlockLight(6, FLOOR + 3, 6));
+        assertEquals(10, getBlockLight(5, FLOOR + 1, 5));
+        // The floor blocks the light
+        assertEquals(0, getBlockLight(5, FLOOR, 5));
+
+        changeType(5, FLOOR + 5, 5, AIR);
+        process();
+        assertEquals(0, getBlockLight(5, FLOOR + 5, 5));
+        assertEquals(0, getBlockLight(6, FLOOR + 5, 5));
+        assertEquals(0, getBlockLight(5, FLOOR + 1, 5));
+    }
+
+    @Test
+    public void testSkyLightUnderRoof() {
+        final int roofY = FLOOR + 8;
+        for (int x = 4; x <= 6; x++) {
+            for (int z = 4; z <= 6; z++) {
+                changeType(x, roofY, z, STONE);
+            }
+        }
+        process();
+        assertEquals(0, getSkyLight(5, roofY, 5));
+        // The light enters from the sides of the roof
+        assertEquals(14, getSkyLight(4, roofY - 1, 5));
+        assertEquals(13, getSkyLight(5, roofY - 1, 5));
+        assertEquals(13, getSkyLight(5, FLOOR + 1, 5));
+        assertEquals(15, getSkyLight(3, FLOOR + 1, 5));
+
+        for (int x = 4; x <= 6; x++) {
+            for (int z = 4; z <= 6; z++) {
+                changeType(x, roofY, z, AIR);
+            }
+        }
+        process();
+        assertEquals(15, getSkyLight(5, roofY, 5));
+        assertEquals(15, getSkyLight(5, FLOOR + 1, 5));
+    }
+
+    @Test
+    public void testSectionBoundary() {
+        // The torch is in the corner of a chunk and near the top of a section
+        final int y = 78;
+        changeType(15, y, 15, TORCH);
+        process();
+        assertEquals(14, getBlockLight(15, y, 15));
+        // Into the next chunks
+        assertEquals(13, getBlockLight(16, y, 15));
+        assertEquals(13, getBlockLight(15, y, 16));
+        assertEquals(12, getBlockLight(16, y, 16));
+        // Into the next section
+        assertEquals(12, getBlockLight(15, y + 2, 15));
+        assertEquals(9, getBlockLight(16, y + 3, 16));
+
+        changeType(15, y, 15, AIR);
+        process();
+        assertEquals(0, getBlockLight(16, y, 16));
+        assertEquals(0, getBlockLight(15, y + 2, 15));
+    }
+
+    @Test
+    public void testShutdownProcessesPendingChanges() {
+        changeType(5, FLOOR + 5, 5, TORCH);
+        this.lightEngine.shutdown();
+        assertEquals(14, getBlockLight(5, FLOOR + 5, 5));
+        assertEquals(13, getBlockLight(6, FLOOR + 5, 5));
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.extent;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.flowpowered.math.vector.Vector3i;
+import it.unimi.dsi.fastutil.shorts.Short2ObjectOpenHashMap;
+import org.junit.Before;
+import org.junit.Test;
+import org.lanternpowered.server.util.NibbleArray;
+import org.lanternpowered.server.world.LanternWorld;
+import org.lanternpowered.server.world.chunk.LanternChunk;
+import org.lanternpowered.server.world.chunk.LanternChunk.ChunkSection;
+
+import java.util.UUID;
+
+public class ExtentBufferHelperTest {
+
+    private static final int CHUNK_X = 1;
+    private static final int CHUNK_Z = -1;
+
+    private LanternChunk chunk;
+
+    @Before
+    public void setup() {
+        final LanternWorld world = mock(LanternWorld.class);
+        when(world.getUniqueId()).thenReturn(UUID.randomUUID());
+
+        this.chunk = new LanternChunk(world, CHUNK_X, CHUNK_Z);
+        final ChunkSection[] sections = new ChunkSection[LanternChunk.CHUNK_SECTIONS];
+        for (int sy = 0; sy < sections.length; sy++) {
+            // Leave a few sections empty, they should be copied as air
+            if (sy % 5 == 4) {
+                continue;
+            }
+            final short[] types = new short[LanternChunk.CHUNK_SECTION_VOLUME];
+            for (int x = 0; x < 16; x++) {
+                for (int y = 0; y < 16; y++) {
+                    for (int z = 0; z < 16; z++) {
+                        types[ChunkSection.index(x, y, z)] = typeAt((CHUNK_X << 4) | x, (sy << 4) | y, (CHUNK_Z << 4) | z);
+                    }
+                }
+            }
+            sections[sy] = new ChunkSection(types, new NibbleArray(LanternChunk.CHUNK_SECTION_VOLUME),
+                    new NibbleArray(LanternChunk.CHUNK_SECTION_VOLUME), new Short2ObjectOpenHashMap<>());
+        }
+        this.chunk.initializeSections(sections);
+    }
+
+    private static short typeAt(int x, int y, int z) {
+        return (short) ((Math.floorMod(x * 3 + y * 7 + z * 11, 61) + 1) << 4);
+    }
+
+    @Test
+    public void testCopyWholeChunk() {
+        testCopy(new Vector3i(CHUNK_X << 4, 0, CHUNK_Z << 4), new Vector3i((CHUNK_X << 4) | 0xf, 255, (CHUNK_Z << 4) | 0xf));
+    }
+
+    @Test
+    public void testCopyNonAligned() {
+        testCopy(new Vector3i((CHUNK_X << 4) + 2, 5, (CHUNK_Z << 4) + 3), new Vector3i((CHUNK_X << 4) + 13, 90, (CHUNK_Z << 4) + 11));
+    }
+
+    @Test
+    public void testCopySingleBlock() {
+        final Vector3i pos = new Vector3i((CHUNK_X << 4) + 7, 33, (CHUNK_Z << 4) + 15);
+        testCopy(pos, pos);
+    }
+
+    private void testCopy(Vector3i min, Vector3i max) {
+        final Vector3i size = max.sub(min).add(Vector3i.ONE);
+        final short[] copy = ExtentBufferHelper.copyToBlockArray(this.chunk, min, max, size);
+        assertEquals(size.getX() * size.getY() * size.getZ(), copy.length);
+        for (int x = min.getX(); x <= max.getX(); x++) {
+            for (int y = min.getY(); y <= max.getY(); y++) {
+                for (int z = min.getZ(); z <= max.getZ(); z++) {
+                    // The same order as the block buffers
+                    final int index = (x - min.getX()) * size.getY() * size.getZ() + (z - min.getZ()) * size.getY() + (y - min.getY());
+                    final short expected = (y >> 4) % 5 == 4 ? 0 : typeAt(x, y, z);
+                    assertEquals(expected, copy[index]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * This file is part of LanternServer, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered <https://www.lanternpowered.org>
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.server.world.extent.worker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.flowpowered.math.vector.Vector3i;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class VolumeSectionsTest {
+
+    @Test
+    public void testAlignedVolume() {
+        testSections(new Vector3i(0, 0, 0), new Vector3i(47, 255, 31), Vector3i.ZERO);
+    }
+
+    @Test
+    public void testNonAlignedVolume() {
+        testSections(new Vector3i(3, 7, 13), new Vector3i(40, 70, 17), Vector3i.ZERO);
+    }
+
+    @Test
+    public void testNegativeVolume() {
+        testSections(new Vector3i(-37, -20, -1), new Vector3i(-3, 5, 16), Vector3i.ZERO);
+    }
+
+    @Test
+    public void testNegativeOffset() {
+        testSections(new Vector3i(0, 0, 0), new Vector3i(40, 33, 20), new Vector3i(-5, -17, -32));
+    }
+
+    @Test
+    public void testNonAlignedOffset() {
+        testSections(new Vector3i(-9, 2, -30), new Vector3i(25, 50, 3), new Vector3i(7, 13, -3));
+    }
+
+    @Test
+    public void testSingleBlock() {
+        testSections(new Vector3i(-1, -1, -1), new Vector3i(-1, -1, -1), new Vector3i(1, 1, 1));
+    }
+
+    @Test
+    public void testParallelReduce() {
+        final Vector3i min = new Vector3i(-20, 3, -37);
+        final Vector3i max = new Vector3i(40, 60, 21);
+        // Concatenation isn't commutative, the parts must be merged in order
+        final VolumeSections.SectionReducer<String> reducer = (xMin, yMin, zMin, xMax, yMax, zMax, value) ->
+                value + '[' + xMin + ',' + yMin + ',' + zMin + ',' + xMax + ',' + yMax + ',' + zMax + ']';
+        final String sequential = VolumeSections.reduce(min, max, false, reducer, String::concat, "");
+        final String parallel = VolumeSections.reduce(min, max, true, reducer, String::concat, "");
+        assertFalse(sequential.isEmpty());
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    public void testParallelMap() {
+        final Vector3i min = new Vector3i(-20, 0, -37);
+        final Vector3i max = new Vector3i(40, 60, 21);
+        final Vector3i offset = new Vector3i(27, 5, -3);
+        final int[] sequential = map(min, max, offset, false);
+        final int[] parallel = map(min, max, offset, true);
+        for (int i = 0; i < sequential.length; i++) {
+            assertEquals(sequential[i], parallel[i]);
+        }
+    }
+
+    /**
+     * Maps the volume between the min and max coordinates into
+     * a buffer that is aligned to the volume by the offset.
+     */
+    private static int[] map(Vector3i min, Vector3i max, Vector3i offset, boolean parallel) {
+        final Vector3i size = max.sub(min).add(Vector3i.ONE);
+        final int[] buffer = new int[size.getX() * size.getY() * size.getZ()];
+        VolumeSections.forEach(min, max, offset, parallel, (xMin, yMin, zMin, xMax, yMax, zMax) -> {
+            for (int x = xMin; x <= xMax; x++) {
+                for (int y = yMin; y <= yMax; y++) {
+                    for (int z = zMin; z <= zMax; z++) {
+                        // The destination coordinates, relative to the buffer
+                        final int index = index(x - min.getX(), y - min.getY(), z - min.getZ(), size);
+                        buffer[index] += 31 * (31 * (x + offset.getX()) + y + offset.getY()) + z + offset.getZ();
+                    }
+                }
+            }
+        });
+        return buffer;
+    }
+
+    private static void testSections(Vector3i min, Vector3i max, Vector3i offset) {
+        final Vector3i size = max.sub(min).add(Vector3i.ONE);
+        final int[] covered = new int[size.getX() * size.getY() * size.getZ()];
+        final Set<Long> visitedColumns = new HashSet<>();
+        final long[] lastColumn = { Long.MIN_VALUE };
+        final int[] parts = { 0 };
+        VolumeSections.forEach(min, max, offset, (xMin, yMin, zMin, xMax, yMax, zMax) -> {
+            assertTrue(xMin <= xMax && yMin <= yMax && zMin <= zMax);
+            assertTrue(xMin >= min.getX() && yMin >= min.getY() && zMin >= min.getZ());
+            assertTrue(xMax <= max.getX() && yMax <= max.getY() && zMax <= max.getZ());
+            // Every part may only cover one section of the aligned volume
+            assertEquals((xMin + offset.getX()) >> 4, (xMax + offset.getX()) >> 4);
+            assertEquals((yMin + offset.getY()) >> 4, (yMax + offset.getY()) >> 4);
+            assertEquals((zMin + offset.getZ()) >> 4, (zMax + offset.getZ()) >> 4);
+            // The sections of a column should be visited after each other
+            final long column = ((long) ((xMin + offset.getX()) >> 4) << 32) | (((zMin + offset.getZ()) >> 4) & 0xffffffffL);
+            if (column != lastColumn[0]) {
+                assertFalse(visitedColumns.contains(column));
+                visitedColumns.add(column);
+                lastColumn[0] = column;
+            }
+            for (int x = xMin; x <= xMax; x++) {
+                for (int y = yMin; y <= yMax; y++) {
+                    for (int z = zMin; z <= zMax; z++) {
+                        covered[index(x - min.getX(), y - min.getY(), z - min.getZ(), size)]++;
+                    }
+                }
+            }
+            parts[0]++;
+        });
+        for (int count : covered) {
+            assertEquals(1, count);
+        }
+        // The volume shouldn't be split more than needed
+        assertEquals(sections(min.getX(), max.getX(), offset.getX()) * sections(min.getY(), max.getY(), offset.getY()) *
+                sections(min.getZ(), max.getZ(), offset.getZ()), parts[0]);
+    }
+
+    private static int sections(int min, int max, int offset) {
+        return ((max + offset) >> 4) - ((min + offset) >> 4) + 1;
+    }
+
+    private static int index(int x, int y, int z, Vector3i size) {
+        return (x * size.getZ() + z) * size.getY() + y;
+    }
+}